@@ -38,6 +38,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.IdGenerator;
 import com.adaptris.util.stream.StreamUtil;
 
@@ -513,11 +514,24 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
 
     Map objMdCopy = new HashMap();
     objMdCopy.putAll(getObjectHeaders());
+    // Parsed documents aren't thread-safe, so never share them with the clone.
+    ParsedDocumentCache.invalidate(objMdCopy);
     ((AdaptrisMessageImp) result).objectMetadata = objMdCopy;
 
     return result;
   }
 
+  /**
+   * Notify this message that its payload has changed.
+   * <p>
+   * Any information derived from the payload (such as a cached parsed document) is discarded. Concrete implementations should
+   * call this whenever the payload is modified.
+   * </p>
+   */
+  protected void payloadChanged() {
+    ParsedDocumentCache.invalidate(objectMetadata);
+  }
+
   private Set<MetadataElement> cloneMetadata() throws CloneNotSupportedException {
     Set<MetadataElement> metadata = getMetadata();
     Set<MetadataElement> result = new HashSet<MetadataElement>();
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.validation.Valid;
+
+import org.apache.commons.io.IOUtils;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.core.util.ExceptionHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link AdaptrisMarshaller} implementation for events that writes {@link MessageLifecycleEvent}s as compact JSON without using
+ * XStream.
+ * <p>
+ * Message lifecycle events are by far the most frequently emitted events; this marshaller writes them (and lists of them, which is
+ * what {@link EventHandlerBase} produces when batching is enabled) directly, which is significantly faster and smaller than the
+ * XML produced by {@link XStreamMarshaller}. All other objects are handled by the fallback marshaller, which defaults to
+ * {@link XStreamMarshaller}.
+ * </p>
+ * <p>
+ * Each event is written as a JSON object with a {@code type} of {@code message-lifecycle-event}; a list of events is written as a
+ * JSON array. Anything that doesn't start with either <code>{</code> or <code>[</code> is passed to the fallback marshaller when
+ * unmarshalling.
+ * </p>
+ *
+ * @config compact-event-marshaller
+ * @since 3.8.4
+ */
+@XStreamAlias("compact-event-marshaller")
+@AdapterComponent
+@ComponentProfile(summary = "Fast JSON marshaller for message lifecycle events", tag = "marshaller,events", since = "3.8.4")
+public class CompactEventMarshaller extends AbstractMarshaller {
+
+  static final String MLE_TYPE = "message-lifecycle-event";
+
+  @Valid
+  @AdvancedConfig
+  private AdaptrisMarshaller fallbackMarshaller;
+
+  public CompactEventMarshaller() {
+  }
+
+  public CompactEventMarshaller(AdaptrisMarshaller fallback) {
+    this();
+    setFallbackMarshaller(fallback);
+  }
+
+  @Override
+  public String marshal(Object obj) throws CoreException {
+    StringWriter writer = new StringWriter();
+    marshal(obj, writer);
+    return writer.toString();
+  }
+
+  @Override
+  public void marshal(Object obj, Writer writer) throws CoreException {
+    if (!canWrite(obj)) {
+      fallback().marshal(obj, writer);
+      return;
+    }
+    try {
+      StringBuilder sb = new StringBuilder(512);
+      if (obj instanceof Collection) {
+        sb.append('[');
+        boolean first = true;
+        for (Object o : (Collection<?>) obj) {
+          if (!first) {
+            sb.append(',');
+          }
+          write((MessageLifecycleEvent) o, sb);
+          first = false;
+        }
+        sb.append(']');
+      }
+      else {
+        write((MessageLifecycleEvent) obj, sb);
+      }
+      writer.write(sb.toString());
+      writer.flush();
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public Object unmarshal(Reader reader) throws CoreException {
+    try {
+      String input = IOUtils.toString(reader);
+      String trimmed = input.trim();
+      if (trimmed.startsWith("{")) {
+        return read(new JSONObject(trimmed));
+      }
+      if (trimmed.startsWith("[")) {
+        JSONArray array = new JSONArray(trimmed);
+        List<MessageLifecycleEvent> result = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+          result.add(read(array.getJSONObject(i)));
+        }
+        return result;
+      }
+      return fallback().unmarshal(input);
+    }
+    catch (IOException | JSONException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  private static boolean canWrite(Object obj) {
+    if (obj instanceof Collection) {
+      for (Object o : (Collection<?>) obj) {
+        if (!(o instanceof MessageLifecycleEvent)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return obj instanceof MessageLifecycleEvent;
+  }
+
+  private static void write(MessageLifecycleEvent mle, StringBuilder sb) {
+    sb.append("{\"type\":\"").append(MLE_TYPE).append('"');
+    field(sb, "uniqueId", mle.getUniqueId());
+    field(sb, "creationTime", mle.getCreationTime());
+    field(sb, "sourceId", mle.getSourceId());
+    field(sb, "destinationId", mle.getDestinationId());
+    field(sb, "channelId", mle.getChannelId());
+    field(sb, "workflowId", mle.getWorkflowId());
+    field(sb, "messageUniqueId", mle.getMessageUniqueId());
+    sb.append(",\"markers\":[");
+    boolean first = true;
+    for (MleMarker m : mle.getMleMarkers()) {
+      if (!first) {
+        sb.append(',');
+      }
+      sb.append("{\"sequenceNumber\":").append(m.getSequenceNumber());
+      field(sb, "uniqueId", m.getUniqueId());
+      field(sb, "name", m.getName());
+      field(sb, "qualifier", m.getQualifier());
+      field(sb, "confirmationId", m.getConfirmationId());
+      field(sb, "creationTime", m.getCreationTime());
+      field(sb, "wasSuccessful", m.getWasSuccessful());
+      field(sb, "isTrackingEndpoint", m.getIsTrackingEndpoint());
+      field(sb, "isConfirmation", m.getIsConfirmation());
+      sb.append('}');
+      first = false;
+    }
+    sb.append("]}");
+  }
+
+  private static MessageLifecycleEvent read(JSONObject json) throws JSONException, CoreException {
+    if (!MLE_TYPE.equals(json.optString("type"))) {
+      throw new CoreException("Unsupported event type [" + json.optString("type") + "]");
+    }
+    MessageLifecycleEvent mle = new MessageLifecycleEvent();
+    mle.setUniqueId(optString(json, "uniqueId"));
+    mle.setCreationTime(json.optLong("creationTime"));
+    mle.setSourceId(optString(json, "sourceId"));
+    mle.setDestinationId(optString(json, "destinationId"));
+    mle.setChannelId(optString(json, "channelId"));
+    mle.setWorkflowId(optString(json, "workflowId"));
+    mle.setMessageUniqueId(optString(json, "messageUniqueId"));
+    JSONArray markers = json.optJSONArray("markers");
+    for (int i = 0; markers != null && i < markers.length(); i++) {
+      JSONObject m = markers.getJSONObject(i);
+      MleMarker marker = new MleMarker();
+      marker.setSequenceNumber(m.optLong("sequenceNumber"));
+      marker.setUniqueId(optString(m, "uniqueId"));
+      marker.setName(optString(m, "name"));
+      marker.setQualifier(optString(m, "qualifier"));
+      marker.setConfirmationId(optString(m, "confirmationId"));
+      marker.setCreationTime(m.optLong("creationTime"));
+      marker.setWasSuccessful(m.optBoolean("wasSuccessful"));
+      marker.setIsTrackingEndpoint(m.optBoolean("isTrackingEndpoint"));
+      marker.setIsConfirmation(m.optBoolean("isConfirmation"));
+      mle.addMleMarker(marker);
+    }
+    return mle;
+  }
+
+  private static String optString(JSONObject json, String key) {
+    return json.isNull(key) ? null : json.optString(key, null);
+  }
+
+  private static void field(StringBuilder sb, String name, long value) {
+    sb.append(",\"").append(name).append("\":").append(value);
+  }
+
+  private static void field(StringBuilder sb, String name, boolean value) {
+    sb.append(",\"").append(name).append("\":").append(value);
+  }
+
+  private static void field(StringBuilder sb, String name, String value) {
+    if (value == null) {
+      return;
+    }
+    sb.append(",\"").append(name).append("\":\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+      case '"':
+        sb.append("\\\"");
+        break;
+      case '\\':
+        sb.append("\\\\");
+        break;
+      case '\n':
+        sb.append("\\n");
+        break;
+      case '\r':
+        sb.append("\\r");
+        break;
+      case '\t':
+        sb.append("\\t");
+        break;
+      default:
+        if (c < 0x20) {
+          sb.append(String.format("\\u%04x", (int) c));
+        }
+        else {
+          sb.append(c);
+        }
+      }
+    }
+    sb.append('"');
+  }
+
+  public AdaptrisMarshaller getFallbackMarshaller() {
+    return fallbackMarshaller;
+  }
+
+  /**
+   * Set the marshaller used for anything other than a {@link MessageLifecycleEvent}.
+   *
+   * @param m the marshaller, if not specified then {@link DefaultMarshaller#getDefaultMarshaller()} is used.
+   */
+  public void setFallbackMarshaller(AdaptrisMarshaller m) {
+    fallbackMarshaller = m;
+  }
+
+  AdaptrisMarshaller fallback() {
+    return DefaultMarshaller.defaultIfNull(getFallbackMarshaller());
+  }
+}
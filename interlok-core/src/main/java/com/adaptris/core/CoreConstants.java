@@ -131,6 +131,13 @@ public abstract class CoreConstants {
    */
   public static final String EVENT_CLASS = "eventclass";
 
+  /**
+   * The metadata key for storing the number of events in a message when events are batched.
+   *
+   * @since 3.8.4
+   */
+  public static final String EVENT_BATCH_SIZE = "eventbatchsize";
+
   /**
    * Metadata key for <code>HttpSession</code> object metadata.
    */
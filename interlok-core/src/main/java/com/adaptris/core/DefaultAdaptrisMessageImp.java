@@ -65,6 +65,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
   /** @see AdaptrisMessage#setPayload(byte[]) */
   @Override
   public void setPayload(byte[] bytes) {
+    payloadChanged();
     if (bytes == null) {
       payload = new byte[0];
     }
@@ -109,6 +110,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
   
   /** @see AdaptrisMessage#setContent(String, String) */
   public void setContent(String payloadString, String charEnc) {
+    payloadChanged();
     if (payloadString != null) {
       try {
         if (!isEmpty(charEnc)) {
@@ -187,6 +189,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
    */
   @Override
   public OutputStream getOutputStream() throws IOException {
+    payloadChanged();
     return new ByteFilterStream(new ByteArrayOutputStream());
   }
 
@@ -199,6 +202,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
     public void close() throws IOException {
       super.close();
       payload = ((ByteArrayOutputStream) super.out).toByteArray();
+      payloadChanged();
     }
   }
 
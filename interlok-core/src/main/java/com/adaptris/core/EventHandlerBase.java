@@ -16,11 +16,16 @@
 
 package com.adaptris.core;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import javax.validation.Valid;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.BooleanUtils;
@@ -28,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.ManagedThreadFactory;
 import com.adaptris.util.NumberUtils;
@@ -37,10 +43,22 @@ import com.adaptris.util.TimeInterval;
  * <p>
  * Contains behaviour common to implementations of <code>EventHandler</code>.
  * </p>
+ * <p>
+ * Events are marshalled on the sending thread (so that any marshalling errors are reported to the caller, and subsequent changes
+ * to the event are not seen), then queued and produced by a single background thread. By default the queue is unbounded; if you
+ * set {@link #setMaxQueueSize(Integer)} then the sending thread will wait for space in the queue (or the event is discarded if
+ * {@link #setDiscardWhenFull(Boolean)} is true). If {@link #setBatchSize(Integer)} is greater than 1, then each event is queued
+ * without being marshalled (a {@link MessageLifecycleEvent} is copied first) and up to that many events (waiting up to
+ * {@link #setBatchWindow(TimeInterval)} for the batch to fill) are marshalled as a single {@link List} and produced as a single
+ * message. Note that when batching, the properties passed into {@link #send(Event, Map)} are not added to the produced message,
+ * and the consumer of the events needs to expect a list. Consider using {@link CompactEventMarshaller} for high volumes of
+ * {@link MessageLifecycleEvent}s.
+ * </p>
  */
 public abstract class EventHandlerBase implements EventHandler {
   protected transient Logger log = LoggerFactory.getLogger(this.getClass().getName());
   private static final int DEFAULT_SHUTDOWN_WAIT = 60;
+  private static final TimeInterval DEFAULT_BATCH_WINDOW = new TimeInterval(100L, TimeUnit.MILLISECONDS);
 
   @Valid
   @AdvancedConfig
@@ -55,6 +73,18 @@ public abstract class EventHandlerBase implements EventHandler {
   @AdvancedConfig
   @InputFieldDefault(value = "false")
   private Boolean logAllExceptions;
+  @AdvancedConfig
+  @InputFieldDefault(value = "2147483647")
+  private Integer maxQueueSize;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean discardWhenFull;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1")
+  private Integer batchSize;
+  @AdvancedConfig
+  @InputFieldDefault(value = "100 milliseconds")
+  private TimeInterval batchWindow;
 
   protected transient EventEmissary eventProducerDelegate;
   private transient ComponentState state;
@@ -74,7 +104,6 @@ public abstract class EventHandlerBase implements EventHandler {
   protected abstract AdaptrisMessageSender retrieveProducer() throws CoreException;
 
   private AdaptrisMessage createMessage(Event evt, Map<String, String> metadata) throws CoreException {
-    evt.setSourceId(retrieveSourceId());
     Map<String, String> metadataToUse = metadata == null ? new HashMap<>() : metadata;
     AdaptrisMessage result = currentMessageFactory().newMessage(currentMarshaller().marshal(evt), new MetadataCollection(metadataToUse).toSet());
     result.setUniqueId(evt.getUniqueId());
@@ -83,9 +112,23 @@ public abstract class EventHandlerBase implements EventHandler {
     return result;
   }
 
+  private AdaptrisMessage createMessage(List<Event> events) throws CoreException {
+    AdaptrisMessage result = currentMessageFactory().newMessage(currentMarshaller().marshal(events));
+    Event first = events.get(0);
+    if (events.stream().allMatch(e -> Objects.equals(first.getNameSpace(), e.getNameSpace()))) {
+      result.addMetadata(CoreConstants.EVENT_NAME_SPACE_KEY, first.getNameSpace());
+    }
+    if (events.stream().allMatch(e -> first.getClass() == e.getClass())) {
+      result.addMetadata(CoreConstants.EVENT_CLASS, first.getClass().getName());
+    }
+    result.addMetadata(CoreConstants.EVENT_BATCH_SIZE, String.valueOf(events.size()));
+    return result;
+  }
+
   @Override
   public void send(Event evt, ProduceDestination dest) throws CoreException {
-    eventProducerDelegate.produce(retrieveProducer(), createMessage(evt, null), dest);
+    evt.setSourceId(retrieveSourceId());
+    eventProducerDelegate.enqueue(prepare(evt, null, dest));
   }
 
   @Override
@@ -95,7 +138,26 @@ public abstract class EventHandlerBase implements EventHandler {
 
   @Override
   public void send(Event evt, Map<String, String> properties) throws CoreException {
-    eventProducerDelegate.produce(retrieveProducer(), createMessage(evt, properties), null);
+    evt.setSourceId(retrieveSourceId());
+    eventProducerDelegate.enqueue(prepare(evt, properties, null));
+  }
+
+  private PendingEvent prepare(Event evt, Map<String, String> properties, ProduceDestination dest) throws CoreException {
+    if (batchSize() > 1) {
+      return new PendingEvent(snapshot(evt), dest);
+    }
+    return new PendingEvent(null, createMessage(evt, properties), dest);
+  }
+
+  // The caller still owns a MessageLifecycleEvent (markers may still be added to it), so queue a copy; other events are created
+  // just to be sent, so they can be queued as they are and only marshalled once, as part of the batch.
+  private static Event snapshot(Event evt) throws CoreException {
+    try {
+      return evt instanceof MessageLifecycleEvent ? ((MessageLifecycleEvent) evt).clone() : evt;
+    }
+    catch (CloneNotSupportedException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
   }
   
   /**
@@ -245,6 +307,113 @@ public abstract class EventHandlerBase implements EventHandler {
     return BooleanUtils.toBooleanDefaultIfNull(getLogAllExceptions(), false);
   }
 
+  public Integer getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * Set the maximum number of events waiting to be produced.
+   *
+   * @param i the maximum number of queued events, default is unbounded.
+   * @since 3.8.4
+   */
+  public void setMaxQueueSize(Integer i) {
+    maxQueueSize = i;
+  }
+
+  int maxQueueSize() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getMaxQueueSize(), Integer.MAX_VALUE));
+  }
+
+  public Boolean getDiscardWhenFull() {
+    return discardWhenFull;
+  }
+
+  /**
+   * Whether or not to discard events when the queue is full.
+   *
+   * @param b true to discard events; default is false which means the sending thread waits for space in the queue.
+   * @since 3.8.4
+   */
+  public void setDiscardWhenFull(Boolean b) {
+    discardWhenFull = b;
+  }
+
+  boolean discardWhenFull() {
+    return BooleanUtils.toBooleanDefaultIfNull(getDiscardWhenFull(), false);
+  }
+
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the maximum number of events that are produced as a single message.
+   *
+   * @param i the batch size; default is 1 which means each event is produced as a separate message.
+   * @since 3.8.4
+   */
+  public void setBatchSize(Integer i) {
+    batchSize = i;
+  }
+
+  int batchSize() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getBatchSize(), 1));
+  }
+
+  public TimeInterval getBatchWindow() {
+    return batchWindow;
+  }
+
+  /**
+   * Set how long to wait for a batch to fill before producing it.
+   * <p>
+   * Only has an effect if {@link #setBatchSize(Integer)} is greater than 1.
+   * </p>
+   *
+   * @param t the batch window, default is 100 milliseconds.
+   * @since 3.8.4
+   */
+  public void setBatchWindow(TimeInterval t) {
+    batchWindow = t;
+  }
+
+  long batchWindowMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getBatchWindow(), DEFAULT_BATCH_WINDOW);
+  }
+
+  /**
+   * @return the number of events waiting to be produced.
+   * @since 3.8.4
+   */
+  public int eventQueueDepth() {
+    return eventProducerDelegate.queue.size();
+  }
+
+  /**
+   * @return the number of events discarded because the queue was full.
+   * @since 3.8.4
+   */
+  public long droppedEventCount() {
+    return eventProducerDelegate.dropped.sum();
+  }
+
+  /**
+   * @return the time (in milliseconds) that the most recently produced event spent waiting in the queue.
+   * @since 3.8.4
+   */
+  public long lastEventLagMs() {
+    return eventProducerDelegate.lastLag.get();
+  }
+
+  /**
+   * @return the maximum time (in milliseconds) that any produced event has spent waiting in the queue.
+   * @since 3.8.4
+   */
+  public long maxEventLagMs() {
+    return eventProducerDelegate.maxLag.get();
+  }
+
   /**
    * @see com.adaptris.core.StateManagedComponent#requestInit()
    */
@@ -278,55 +447,205 @@ public abstract class EventHandlerBase implements EventHandler {
   }
 
 
-  protected class EventEmissary implements ComponentLifecycle {
-    private ExecutorService executor = null;
+  private static class PendingEvent {
+    private final long queued = System.currentTimeMillis();
+    private final Event event;
+    private final ProduceDestination destination;
+    private final AdaptrisMessageSender producer;
+    private final AdaptrisMessage message;
+
+    PendingEvent(Event evt, ProduceDestination dest) {
+      event = evt;
+      destination = dest;
+      producer = null;
+      message = null;
+    }
+
+    PendingEvent(AdaptrisMessageSender sender, AdaptrisMessage msg, ProduceDestination dest) {
+      event = null;
+      destination = dest;
+      producer = sender;
+      message = msg;
+    }
+
+    boolean canBatchWith(PendingEvent other) {
+      return event != null && other.event != null && Objects.equals(destination, other.destination);
+    }
+  }
+
+  protected class EventEmissary implements ComponentLifecycle, Runnable {
+    private volatile BlockingQueue<PendingEvent> queue = new LinkedBlockingQueue<>();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong lastLag = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+    private volatile boolean running = false;
+    private Thread emitter;
 
     protected EventEmissary() {
     }
 
     public void produce(final AdaptrisMessageSender producer, final AdaptrisMessage msg, final ProduceDestination dest) {
-      executor.execute(new Thread() {
-        @Override
-        public void run() {
-          String name = Thread.currentThread().getName();
-          Thread.currentThread().setName("EventProducerThread");
-          String eventClass = msg.getMetadataValue(CoreConstants.EVENT_CLASS);
-          try {
-            // should access to this producer be synchronized?
-            // The null check here stops bug:844
-            if (dest != null) {
-              producer.produce(msg, dest);
-            } else {
-              producer.produce(msg);
+      enqueue(new PendingEvent(producer, msg, dest));
+    }
+
+    void enqueue(PendingEvent e) {
+      try {
+        if (discardWhenFull()) {
+          if (!queue.offer(e)) {
+            discard(e);
+          }
+          return;
+        }
+        // Wait for space, but only while there is something to empty the queue.
+        while (!queue.offer(e, 100L, TimeUnit.MILLISECONDS)) {
+          if (!running) {
+            discard(e);
+            return;
+          }
+        }
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        discard(e);
+      }
+    }
+
+    private void discard(PendingEvent e) {
+      dropped.increment();
+      log.trace("Event queue full, discarding event");
+    }
+
+    @Override
+    public void run() {
+      int batchSize = batchSize();
+      List<PendingEvent> batch = new ArrayList<>(batchSize);
+      try {
+        while (true) {
+          PendingEvent first = running ? queue.poll(100L, TimeUnit.MILLISECONDS) : queue.poll();
+          if (first == null) {
+            if (!running) {
+              break;
             }
-          } catch (Exception e) {
-            if (logAllExceptions()) {
-              log.error("Failed to produce event [{}] to destination. Results dependent on this event may not be accurate.",
-                eventClass, e);
+            continue;
+          }
+          batch.add(first);
+          if (batchSize > 1) {
+            long deadline = System.currentTimeMillis() + batchWindowMs();
+            while (batch.size() < batchSize) {
+              queue.drainTo(batch, batchSize - batch.size());
+              long remaining = deadline - System.currentTimeMillis();
+              if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                break;
+              }
+              PendingEvent next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+              if (next != null) {
+                batch.add(next);
+              }
             }
           }
-          Thread.currentThread().setName(name);
+          emit(batch);
+          batch.clear();
+        }
+      }
+      catch (InterruptedException e) {
+        log.trace("Interrupted, discarding {} queued events", queue.size() + batch.size());
+      }
+    }
+
+    private void emit(List<PendingEvent> batch) {
+      recordLag(System.currentTimeMillis() - batch.get(0).queued);
+      int i = 0;
+      while (i < batch.size()) {
+        PendingEvent pending = batch.get(i);
+        int end = i + 1;
+        while (end < batch.size() && pending.canBatchWith(batch.get(end))) {
+          end++;
+        }
+        if (end - i > 1) {
+          List<Event> events = new ArrayList<>(end - i);
+          for (PendingEvent p : batch.subList(i, end)) {
+            events.add(p.event);
+          }
+          emit(null, events, pending.destination);
+        }
+        else {
+          emit(pending, null, pending.destination);
+        }
+        i = end;
+      }
+    }
+
+    private void emit(PendingEvent single, List<Event> events, ProduceDestination dest) {
+      String eventClass = null;
+      try {
+        AdaptrisMessageSender producer = null;
+        AdaptrisMessage msg = null;
+        if (single != null && single.message != null) {
+          producer = single.producer != null ? single.producer : retrieveProducer();
+          msg = single.message;
+        }
+        else {
+          producer = retrieveProducer();
+          msg = single != null ? createMessage(single.event, null) : createMessage(events);
         }
-      });
+        eventClass = msg.getMetadataValue(CoreConstants.EVENT_CLASS);
+        // The null check here stops bug:844
+        if (dest != null) {
+          producer.produce(msg, dest);
+        }
+        else {
+          producer.produce(msg);
+        }
+      }
+      catch (Exception e) {
+        if (logAllExceptions()) {
+          log.error("Failed to produce event [{}] to destination. Results dependent on this event may not be accurate.",
+              eventClass, e);
+        }
+      }
+    }
+
+    private void recordLag(long lag) {
+      lastLag.set(lag);
+      maxLag.accumulateAndGet(lag, Math::max);
     }
 
     @Override
     public void close() {
+      queue.clear();
     }
 
     @Override
     public void init() throws CoreException {
+      if (queue.remainingCapacity() + queue.size() != maxQueueSize()) {
+        BlockingQueue<PendingEvent> replacement = new LinkedBlockingQueue<>(maxQueueSize());
+        queue.drainTo(replacement, maxQueueSize());
+        queue = replacement;
+      }
     }
 
     @Override
     public void start() throws CoreException {
-      executor = Executors.newSingleThreadExecutor();
+      running = true;
+      emitter = ManagedThreadFactory.createThread("EventProducerThread", this);
+      emitter.setDaemon(true);
+      emitter.start();
     }
 
     @Override
     public void stop() {
-      ManagedThreadFactory.shutdownQuietly(executor,
-          new TimeInterval(Integer.valueOf(shutdownWaitSeconds()).longValue(), TimeUnit.SECONDS));
+      running = false;
+      Thread t = emitter;
+      emitter = null;
+      if (t != null) {
+        try {
+          t.join(TimeUnit.SECONDS.toMillis(shutdownWaitSeconds()));
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        t.interrupt();
+      }
     }
   }
 
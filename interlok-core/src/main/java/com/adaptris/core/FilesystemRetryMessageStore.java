@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.hibernate.validator.constraints.NotBlank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.core.fs.FsHelper;
+import com.adaptris.core.lms.FileBackedMessage;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ExceptionHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link RetryMessageStore} implementation that writes messages to the filesystem.
+ * <p>
+ * Each message is stored in its own sub-directory of {@link #getBaseDirectory()}; the payload is copied as-is and the metadata,
+ * retry schedule and any string object headers (which includes the current retry count) are stored in a properties file alongside
+ * it. When a message is read back from the store it is created as a {@link FileBackedMessage} that refers directly to the stored
+ * payload, so the payload is never held in memory while a message is waiting to be retried.
+ * </p>
+ * <p>
+ * Messages in this store survive a restart; any messages that were waiting to be retried are rescheduled when the error handler is
+ * next started. Non-string object headers (such as the exception that caused the failure) are not stored.
+ * </p>
+ *
+ * @config filesystem-retry-message-store
+ * @since 3.8.4
+ */
+@XStreamAlias("filesystem-retry-message-store")
+@AdapterComponent
+@ComponentProfile(summary = "Store messages waiting for retry on the filesystem", tag = "error-handling,retry", since = "3.8.4")
+@DisplayOrder(order = {"baseDirectory"})
+public class FilesystemRetryMessageStore implements RetryMessageStore {
+
+  private static final String PAYLOAD_FILE = "payload.bin";
+  private static final String PROPERTIES_FILE = "retry.properties";
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private static final String KEY_UNIQUE_ID = "uniqueId";
+  private static final String KEY_NEXT_RETRY = "nextRetry";
+  private static final String KEY_ENCODING = "contentEncoding";
+  private static final String METADATA_PREFIX = "metadata.";
+  private static final String HEADER_PREFIX = "header.";
+
+  private transient Logger log = LoggerFactory.getLogger(this.getClass());
+
+  @NotBlank
+  private String baseDirectory;
+
+  private transient FileBackedMessageFactory messageFactory = new FileBackedMessageFactory();
+
+  public FilesystemRetryMessageStore() {
+  }
+
+  public FilesystemRetryMessageStore(String dir) {
+    this();
+    setBaseDirectory(dir);
+  }
+
+  @Override
+  public void write(AdaptrisMessage msg, long nextRetry) throws CoreException {
+    try {
+      File dir = messageDirectory(msg.getUniqueId());
+      dir.mkdirs();
+      Path payload = new File(dir, PAYLOAD_FILE).toPath();
+      Path tmp = new File(dir, PAYLOAD_FILE + TMP_SUFFIX).toPath();
+      try (InputStream in = msg.getInputStream()) {
+        Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+      }
+      // The payload might already be the stored file (if this is a retry that has failed again), so always write and then rename.
+      Files.move(tmp, payload, StandardCopyOption.REPLACE_EXISTING);
+      writeProperties(dir, toProperties(msg, nextRetry));
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public AdaptrisMessage read(String messageId) throws CoreException {
+    try {
+      File dir = messageDirectory(messageId);
+      File propertiesFile = new File(dir, PROPERTIES_FILE);
+      if (!propertiesFile.exists()) {
+        return null;
+      }
+      Properties p = readProperties(propertiesFile);
+      FileBackedMessage msg = (FileBackedMessage) messageFactory.newMessage();
+      msg.initialiseFrom(new File(dir, PAYLOAD_FILE));
+      msg.setUniqueId(p.getProperty(KEY_UNIQUE_ID, messageId));
+      msg.setContentEncoding(p.getProperty(KEY_ENCODING));
+      for (String key : p.stringPropertyNames()) {
+        if (key.startsWith(METADATA_PREFIX)) {
+          msg.addMetadata(key.substring(METADATA_PREFIX.length()), p.getProperty(key));
+        }
+        else if (key.startsWith(HEADER_PREFIX)) {
+          msg.addObjectHeader(key.substring(HEADER_PREFIX.length()), p.getProperty(key));
+        }
+      }
+      return msg;
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public void delete(String messageId) throws CoreException {
+    try {
+      File dir = messageDirectory(messageId);
+      if (dir.exists()) {
+        FileUtils.deleteDirectory(dir);
+      }
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public Map<String, Long> pending() throws CoreException {
+    Map<String, Long> result = new HashMap<>();
+    try {
+      File[] dirs = baseDirectory().listFiles(File::isDirectory);
+      for (int i = 0; dirs != null && i < dirs.length; i++) {
+        File propertiesFile = new File(dirs[i], PROPERTIES_FILE);
+        if (!propertiesFile.exists() || !new File(dirs[i], PAYLOAD_FILE).exists()) {
+          log.warn("Ignoring incomplete retry entry [{}]", dirs[i].getName());
+          continue;
+        }
+        Properties p = readProperties(propertiesFile);
+        result.put(p.getProperty(KEY_UNIQUE_ID), Long.valueOf(p.getProperty(KEY_NEXT_RETRY, "0")));
+      }
+    }
+    catch (IOException | NumberFormatException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean persistent() {
+    return true;
+  }
+
+  private static Properties toProperties(AdaptrisMessage msg, long nextRetry) {
+    Properties p = new Properties();
+    p.setProperty(KEY_UNIQUE_ID, msg.getUniqueId());
+    p.setProperty(KEY_NEXT_RETRY, String.valueOf(nextRetry));
+    if (msg.getContentEncoding() != null) {
+      p.setProperty(KEY_ENCODING, msg.getContentEncoding());
+    }
+    for (MetadataElement e : msg.getMetadata()) {
+      p.setProperty(METADATA_PREFIX + e.getKey(), e.getValue());
+    }
+    for (Map.Entry<?, ?> e : msg.getObjectHeaders().entrySet()) {
+      if (e.getKey() instanceof String && e.getValue() instanceof String) {
+        p.setProperty(HEADER_PREFIX + e.getKey(), (String) e.getValue());
+      }
+    }
+    return p;
+  }
+
+  private static void writeProperties(File dir, Properties p) throws IOException {
+    Path tmp = new File(dir, PROPERTIES_FILE + TMP_SUFFIX).toPath();
+    try (OutputStream out = Files.newOutputStream(tmp)) {
+      p.store(out, null);
+    }
+    Files.move(tmp, new File(dir, PROPERTIES_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static Properties readProperties(File f) throws IOException {
+    Properties p = new Properties();
+    try (InputStream in = Files.newInputStream(f.toPath())) {
+      p.load(in);
+    }
+    return p;
+  }
+
+  private File messageDirectory(String messageId) throws IOException {
+    return new File(baseDirectory(), encode(messageId));
+  }
+
+  private static String encode(String messageId) throws UnsupportedEncodingException {
+    return URLEncoder.encode(messageId, "UTF-8");
+  }
+
+  private File baseDirectory() throws IOException {
+    try {
+      File dir = FsHelper.toFile(Args.notBlank(getBaseDirectory(), "baseDirectory"));
+      dir.mkdirs();
+      return dir;
+    }
+    catch (IllegalArgumentException | URISyntaxException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  public String getBaseDirectory() {
+    return baseDirectory;
+  }
+
+  /**
+   * Set the directory where messages waiting for retry are stored.
+   *
+   * @param dir the directory, either as a file path or as a {@code file:///} URL; it will be created if it does not exist.
+   */
+  public void setBaseDirectory(String dir) {
+    baseDirectory = Args.notBlank(dir, "baseDirectory");
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.ComponentProfile;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link RetryMessageStore} implementation that keeps messages in memory.
+ * <p>
+ * This is the default store for {@link RetryMessageErrorHandler}; messages do not survive a restart and are failed when the error
+ * handler is stopped.
+ * </p>
+ *
+ * @config in-memory-retry-message-store
+ * @since 3.8.4
+ */
+@XStreamAlias("in-memory-retry-message-store")
+@AdapterComponent
+@ComponentProfile(summary = "Keep messages waiting for retry in memory", tag = "error-handling,retry", since = "3.8.4")
+public class InMemoryRetryMessageStore implements RetryMessageStore {
+
+  private transient Map<String, Entry> messages = new ConcurrentHashMap<>();
+
+  public InMemoryRetryMessageStore() {
+  }
+
+  @Override
+  public void write(AdaptrisMessage msg, long nextRetry) throws CoreException {
+    messages.put(msg.getUniqueId(), new Entry(msg, nextRetry));
+  }
+
+  @Override
+  public AdaptrisMessage read(String messageId) throws CoreException {
+    Entry e = messages.get(messageId);
+    return e != null ? e.msg : null;
+  }
+
+  @Override
+  public void delete(String messageId) throws CoreException {
+    messages.remove(messageId);
+  }
+
+  @Override
+  public Map<String, Long> pending() throws CoreException {
+    Map<String, Long> result = new HashMap<>();
+    for (Map.Entry<String, Entry> e : messages.entrySet()) {
+      result.put(e.getKey(), e.getValue().nextRetry);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean persistent() {
+    return false;
+  }
+
+  private static class Entry {
+    private final AdaptrisMessage msg;
+    private final long nextRetry;
+
+    Entry(AdaptrisMessage m, long l) {
+      msg = m;
+      nextRetry = l;
+    }
+  }
+}
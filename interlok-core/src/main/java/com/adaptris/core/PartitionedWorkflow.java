@@ -0,0 +1,412 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.validator.constraints.NotBlank;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.core.util.ManagedThreadFactory;
+import com.adaptris.util.NumberUtils;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * A Workflow that processes messages concurrently while preserving the order of messages that share the same key.
+ * <p>
+ * {@link StandardWorkflow} processes one message at a time, and {@link PoolingWorkflow} processes messages concurrently but makes
+ * no guarantees about ordering. Often, ordering only matters for messages that relate to the same thing (e.g. the same order or
+ * account). This workflow uses the value of the configured metadata key to assign each message to one of a fixed number of
+ * partitions; each partition has its own thread and its own copy of the service collection, and processes its messages strictly
+ * in the order in which they were received. Messages with different keys are processed in parallel (as long as they hash to
+ * different partitions); messages that do not have the metadata key are all assigned to the same partition.
+ * </p>
+ * <p>
+ * Each partition has a bounded queue; if the queue for a partition is full, then the consumer waits until there is space, which
+ * slows down the consumer rather than buffering messages in memory. The producer is shared between all partitions, so as with
+ * {@link PoolingWorkflow} only one message is produced at a time.
+ * </p>
+ * <p>
+ * If <code>stop()</code> is invoked then any messages that are already queued will be processed (subject to
+ * {@link #setShutdownWaitTime(TimeInterval)}), however any new messages that enter the workflow will be treated as <b>bad</b>
+ * messages and sent directly to the configured {@link ProcessingExceptionHandler}.
+ * </p>
+ *
+ * @config partitioned-workflow
+ * @since 3.8.4
+ */
+@XStreamAlias("partitioned-workflow")
+@AdapterComponent
+@ComponentProfile(summary = "Workflow that processes messages in parallel while preserving the order for each key",
+    tag = "workflow,base", since = "3.8.4")
+@DisplayOrder(order = {"partitionKey", "partitions", "partitionQueueSize", "disableDefaultMessageCount", "sendEvents", "logPayload"})
+public class PartitionedWorkflow extends WorkflowImp {
+
+  private static final int DEFAULT_PARTITIONS = 4;
+  private static final int DEFAULT_QUEUE_SIZE = 100;
+  private static final TimeInterval DEFAULT_SHUTDOWN_WAIT = new TimeInterval(1L, TimeUnit.MINUTES);
+
+  @NotBlank
+  private String partitionKey;
+  @InputFieldDefault(value = "4")
+  private Integer partitions;
+  @InputFieldDefault(value = "100")
+  private Integer partitionQueueSize;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1 minute")
+  private TimeInterval shutdownWaitTime;
+
+  private transient AdaptrisMarshaller serviceListMarshaller;
+  private transient ServiceCollection marshalledServiceCollection;
+  private transient List<Partition> activePartitions = new ArrayList<>();
+  private transient volatile boolean accepting = false;
+
+  public PartitionedWorkflow() {
+    super();
+    serviceListMarshaller = DefaultMarshaller.getDefaultMarshaller();
+  }
+
+  public PartitionedWorkflow(String uniqueId) throws CoreException {
+    this();
+    setUniqueId(uniqueId);
+  }
+
+  @Override
+  protected void prepareWorkflow() throws CoreException {}
+
+  @Override
+  protected void initialiseWorkflow() throws CoreException {
+    if (isEmpty(getPartitionKey())) {
+      throw new CoreException("partition-key may not be blank");
+    }
+    marshalledServiceCollection = cloneServiceCollection(getServiceCollection());
+    LifecycleHelper.prepare(marshalledServiceCollection);
+    LifecycleHelper.init(getProducer());
+    getConsumer().registerAdaptrisMessageListener(this);
+    LifecycleHelper.init(getConsumer());
+  }
+
+  @Override
+  protected void startWorkflow() throws CoreException {
+    LifecycleHelper.start(getProducer());
+    List<Partition> started = new ArrayList<>();
+    try {
+      for (int i = 0; i < partitions(); i++) {
+        started.add(new Partition().start());
+      }
+    }
+    catch (CoreException e) {
+      stopPartitions(started);
+      throw e;
+    }
+    activePartitions = started;
+    accepting = true;
+    LifecycleHelper.start(getConsumer());
+  }
+
+  @Override
+  protected void stopWorkflow() {
+    LifecycleHelper.stop(getConsumer());
+    accepting = false;
+    stopPartitions(activePartitions);
+    activePartitions = new ArrayList<>();
+    LifecycleHelper.stop(getProducer());
+  }
+
+  @Override
+  protected void closeWorkflow() {
+    LifecycleHelper.close(getConsumer());
+    LifecycleHelper.close(getProducer());
+  }
+
+  private void stopPartitions(List<Partition> list) {
+    long deadline = System.currentTimeMillis() + shutdownWaitTimeMs();
+    for (Partition p : list) {
+      p.stop(deadline);
+    }
+  }
+
+  /**
+   * Process a message from the <code>MessageConsumer</code>.
+   * <p>
+   * The message is added to the queue for its partition, waiting for space if necessary.
+   * </p>
+   *
+   * @param msg the AdaptrisMessage.
+   */
+  @Override
+  public void onAdaptrisMessage(final AdaptrisMessage msg) {
+    if (!obtainChannel().isAvailable()) {
+      handleChannelUnavailable(msg);
+    }
+    else {
+      onMessage(msg);
+    }
+  }
+
+  @Override
+  protected void resubmitMessage(AdaptrisMessage msg) {
+    onMessage(msg);
+  }
+
+  private void onMessage(AdaptrisMessage msg) {
+    List<Partition> current = activePartitions;
+    boolean started = false;
+    try {
+      if (accepting && !current.isEmpty()) {
+        workflowStart(msg);
+        started = true;
+        if (current.get(partition(msg, current.size())).queue(msg)) {
+          return;
+        }
+      }
+      log.warn("Attempt to process message during shutdown; failing it");
+      handleBadMessage(msg);
+    }
+    catch (Exception e) {
+      msg.addObjectHeader(CoreConstants.OBJ_METADATA_EXCEPTION, e);
+      handleBadMessage(msg);
+    }
+    // The message never made it onto a queue; so it won't be ended by the partition.
+    if (started) {
+      workflowEnd(msg, msg);
+    }
+  }
+
+  int partition(AdaptrisMessage msg, int count) {
+    String key = msg.getMetadataValue(getPartitionKey());
+    if (key == null) {
+      return 0;
+    }
+    int h = key.hashCode();
+    return Math.floorMod(h ^ (h >>> 16), count);
+  }
+
+  @Override
+  public synchronized void handleBadMessage(AdaptrisMessage msg) {
+    super.handleBadMessage(msg);
+  }
+
+  @Override
+  public synchronized void doProduce(AdaptrisMessage msg) throws ServiceException, ProduceException {
+    super.doProduce(msg);
+  }
+
+  @Override
+  public synchronized void handleProduceException() {
+    super.handleProduceException();
+  }
+
+  @Override
+  protected synchronized void sendMessageLifecycleEvent(AdaptrisMessage msg) {
+    super.sendMessageLifecycleEvent(msg);
+  }
+
+  private ServiceCollection cloneServiceCollection(ServiceCollection original) throws CoreException {
+    ServiceCollection result = (ServiceCollection) serviceListMarshaller.unmarshal(serviceListMarshaller.marshal(original));
+    LifecycleHelper.registerEventHandler(result, eventHandler);
+    return result;
+  }
+
+  /**
+   * Return the number of messages waiting to be processed across all partitions. This number is just a snapshot and may change
+   * immediately upon returning.
+   *
+   * @return the number of queued messages.
+   */
+  public int currentQueueDepth() {
+    int result = 0;
+    for (Partition p : activePartitions) {
+      result += p.messages.size();
+    }
+    return result;
+  }
+
+  public String getPartitionKey() {
+    return partitionKey;
+  }
+
+  /**
+   * Set the metadata key whose value determines the partition for each message.
+   *
+   * @param key the metadata key (e.g. the order id); messages with the same value are always processed in order.
+   */
+  public void setPartitionKey(String key) {
+    partitionKey = key;
+  }
+
+  public Integer getPartitions() {
+    return partitions;
+  }
+
+  /**
+   * Set the number of partitions.
+   *
+   * @param i the number of partitions (and therefore threads), default is 4.
+   */
+  public void setPartitions(Integer i) {
+    partitions = i;
+  }
+
+  int partitions() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getPartitions(), DEFAULT_PARTITIONS));
+  }
+
+  public Integer getPartitionQueueSize() {
+    return partitionQueueSize;
+  }
+
+  /**
+   * Set the maximum number of messages waiting to be processed by each partition.
+   *
+   * @param i the size of the queue, default is 100.
+   */
+  public void setPartitionQueueSize(Integer i) {
+    partitionQueueSize = i;
+  }
+
+  int partitionQueueSize() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getPartitionQueueSize(), DEFAULT_QUEUE_SIZE));
+  }
+
+  public TimeInterval getShutdownWaitTime() {
+    return shutdownWaitTime;
+  }
+
+  /**
+   * Set how long to wait for queued messages to be processed when the workflow is stopped.
+   * <p>
+   * Any messages that are still queued once this time has elapsed are treated as bad messages.
+   * </p>
+   *
+   * @param interval the shutdown time (default is 60 seconds)
+   */
+  public void setShutdownWaitTime(TimeInterval interval) {
+    shutdownWaitTime = interval;
+  }
+
+  long shutdownWaitTimeMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getShutdownWaitTime(), DEFAULT_SHUTDOWN_WAIT);
+  }
+
+  private class Partition implements Runnable {
+    private final BlockingQueue<AdaptrisMessage> messages = new ArrayBlockingQueue<>(partitionQueueSize());
+    private final ServiceCollection services;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    Partition() throws CoreException {
+      services = cloneServiceCollection(marshalledServiceCollection);
+    }
+
+    Partition start() throws CoreException {
+      LifecycleHelper.initAndStart(services, false);
+      thread = ManagedThreadFactory.createThread(PartitionedWorkflow.this.getClass().getSimpleName() + "@"
+          + obtainWorkflowId() + "-" + Integer.toHexString(hashCode()), this);
+      thread.start();
+      return this;
+    }
+
+    boolean queue(AdaptrisMessage msg) throws InterruptedException {
+      while (!messages.offer(msg, 100L, TimeUnit.MILLISECONDS)) {
+        if (!running || !accepting) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void run() {
+      while (running || !messages.isEmpty()) {
+        try {
+          AdaptrisMessage msg = messages.poll(100L, TimeUnit.MILLISECONDS);
+          if (msg != null) {
+            handleMessage(msg);
+          }
+        }
+        catch (InterruptedException e) {
+          break;
+        }
+      }
+    }
+
+    void stop(long deadline) {
+      running = false;
+      if (thread != null && thread != Thread.currentThread()) {
+        try {
+          thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        thread.interrupt();
+      }
+      List<AdaptrisMessage> remaining = new ArrayList<>();
+      messages.drainTo(remaining);
+      for (AdaptrisMessage msg : remaining) {
+        handleBadMessage(msg);
+        workflowEnd(msg, msg);
+      }
+      LifecycleHelper.stopAndClose(services, false);
+    }
+
+    private void handleMessage(AdaptrisMessage msg) {
+      AdaptrisMessage wip = null;
+      try {
+        long start = System.currentTimeMillis();
+        log.debug("start processing msg [{}]", messageLogger().toString(msg));
+        wip = (AdaptrisMessage) msg.clone();
+        wip.getMessageLifecycleEvent().setChannelId(obtainChannel().getUniqueId());
+        wip.getMessageLifecycleEvent().setWorkflowId(obtainWorkflowId());
+        wip.addEvent(getConsumer(), true);
+        services.doService(wip);
+        doProduce(wip);
+        logSuccess(wip, start);
+      }
+      catch (ServiceException e) {
+        handleBadMessage("Exception from ServiceCollection", e, copyExceptionHeaders(wip, msg));
+      }
+      catch (ProduceException e) {
+        wip.addEvent(getProducer(), false);
+        handleBadMessage("Exception producing msg", e, copyExceptionHeaders(wip, msg));
+        handleProduceException();
+      }
+      catch (Exception e) {
+        handleBadMessage("Exception processing message", e, copyExceptionHeaders(wip != null ? wip : msg, msg));
+      }
+      finally {
+        if (wip != null) {
+          sendMessageLifecycleEvent(wip);
+        }
+      }
+      workflowEnd(msg, wip);
+    }
+  }
+}
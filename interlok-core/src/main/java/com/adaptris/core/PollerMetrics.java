@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing statistics for a single {@link ScheduledTaskPoller}.
+ * <p>
+ * Lag is the difference between when a poll was due and when it actually started; this is only recorded when the poller uses the
+ * shared polling scheduler, where a consistently high lag means that the worker pool is too small. Duration is how long each poll
+ * took and is always recorded. Queue depth is the number of polls (for any poller) that were already waiting for a worker thread
+ * when a poll became due; it is also only recorded when the poller uses the shared polling scheduler. All times are in
+ * milliseconds.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public final class PollerMetrics {
+
+  private final LongAdder polls = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder totalDuration = new LongAdder();
+  private final AtomicLong lastDuration = new AtomicLong();
+  private final AtomicLong maxDuration = new AtomicLong();
+  private final AtomicLong lastLag = new AtomicLong();
+  private final AtomicLong maxLag = new AtomicLong();
+  private final AtomicLong lastQueueDepth = new AtomicLong();
+  private final AtomicLong maxQueueDepth = new AtomicLong();
+
+  PollerMetrics() {
+  }
+
+  void recordLag(long ms) {
+    long lag = Math.max(0, ms);
+    lastLag.set(lag);
+    maxLag.accumulateAndGet(lag, Math::max);
+  }
+
+  void recordQueueDepth(long depth) {
+    lastQueueDepth.set(depth);
+    maxQueueDepth.accumulateAndGet(depth, Math::max);
+  }
+
+  void recordPoll(long durationMs) {
+    polls.increment();
+    totalDuration.add(durationMs);
+    lastDuration.set(durationMs);
+    maxDuration.accumulateAndGet(durationMs, Math::max);
+  }
+
+  void recordSkipped() {
+    skipped.increment();
+  }
+
+  /**
+   * @return the number of polls that were executed (excluding those that were skipped).
+   */
+  public long getPollCount() {
+    return polls.sum();
+  }
+
+  /**
+   * @return the number of polls skipped because the previous poll had not finished.
+   */
+  public long getSkippedCount() {
+    return skipped.sum();
+  }
+
+  public long getLastDuration() {
+    return lastDuration.get();
+  }
+
+  public long getMaxDuration() {
+    return maxDuration.get();
+  }
+
+  public long getAverageDuration() {
+    long count = polls.sum();
+    return count == 0 ? 0 : totalDuration.sum() / count;
+  }
+
+  public long getLastLag() {
+    return lastLag.get();
+  }
+
+  public long getMaxLag() {
+    return maxLag.get();
+  }
+
+  public long getLastQueueDepth() {
+    return lastQueueDepth.get();
+  }
+
+  public long getMaxQueueDepth() {
+    return maxQueueDepth.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("polls=%d, skipped=%d, duration(last/avg/max)=%d/%d/%dms, lag(last/max)=%d/%dms, queue(last/max)=%d/%d",
+        getPollCount(), getSkippedCount(), getLastDuration(), getAverageDuration(), getMaxDuration(), getLastLag(), getMaxLag(),
+        getLastQueueDepth(), getMaxQueueDepth());
+  }
+}
@@ -16,7 +16,10 @@
 
 package com.adaptris.core;
 
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
@@ -25,9 +28,12 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.MalformedObjectNameException;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.PooledObjectFactory;
@@ -38,6 +44,9 @@ import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponentFactory;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.LoggingHelper;
 import com.adaptris.core.util.ManagedThreadFactory;
@@ -69,6 +78,28 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * <code>AdaptrisMessageConsumer</code> is succesfully stopped will be treated as <b>bad</b> messages and sent directly to the
  * configured {@link com.adaptris.core.ProcessingExceptionHandler}.
  * </p>
+ * <p>
+ * By default all the workers share the configured producer, so only one message can be produced at a time. If the producer is the
+ * bottleneck, and it is safe to have multiple instances of it (e.g. HTTP, JMS or JDBC producers), then you can set
+ * {@link #setPoolProducers(Boolean)} to true; each worker then gets its own copy of the producer, created in the same way as the
+ * service collection, and messages are produced concurrently. The copies share the workflow's produce connection. A
+ * {@link ProduceException} from any copy is still handled by the configured {@link ProduceExceptionHandler}; restarting the workflow
+ * discards all the workers (and their producers) so they are recreated when the workflow is started again.
+ * </p>
+ * <p>
+ * If the service collection spends most of its time waiting on I/O (HTTP, JDBC, SFTP etc) and you are running on a JVM that supports
+ * virtual threads (Java 21+) then you can set {@link #setUseVirtualThreads(Boolean)} to true; each message is then processed in its
+ * own virtual thread and the pool-size alone limits the number of messages processed concurrently. The thread-priority and
+ * thread-keep-alive settings have no effect on virtual threads. If virtual threads are not available, then a warning is logged and
+ * platform threads are used as normal.
+ * </p>
+ * <p>
+ * If you set {@link #setElasticPool(Boolean)} to true then the pool of workers is managed more actively: when the last idle worker
+ * is handed a message, another worker is created in the background (up to the pool-size) so that the next message doesn't have to
+ * wait for a worker to be initialised; idle workers above min-idle are discarded once they have been idle for longer than the
+ * thread-keep-alive; and the min-idle workers are kept rather than being periodically recycled. The pool bounds can be changed at
+ * runtime, and the utilisation and borrow wait times of the pool are available, via {@link PoolingWorkflowJmxMBean}.
+ * </p>
  * 
  * @config pooling-workflow
  * 
@@ -80,7 +111,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("pooling-workflow")
 @AdapterComponent
 @ComponentProfile(summary = "Workflow with a thread pool handling the service chain", tag = "workflow,base")
-@DisplayOrder(order = {"poolSize", "minIdle", "maxIdle", "threadPriority", "disableDefaultMessageCount"})
+@DisplayOrder(order = {"poolSize", "minIdle", "maxIdle", "threadPriority", "poolProducers", "useVirtualThreads",
+    "elasticPool", "disableDefaultMessageCount"})
 public class PoolingWorkflow extends WorkflowImp {
 
   /**
@@ -108,6 +140,9 @@ public class PoolingWorkflow extends WorkflowImp {
    *
    */
   private static final TimeInterval DEFAULT_SHUTDOWN_WAIT = new TimeInterval(1L, TimeUnit.MINUTES.name());
+
+  private static final long MIN_EVICTION_INTERVAL_MS = 1000L;
+
   /**
    * The default wait time for pool initialisation
    *
@@ -145,12 +180,31 @@ public class PoolingWorkflow extends WorkflowImp {
   @Max(Thread.MAX_PRIORITY)
   private Integer threadPriority;
 
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean poolProducers;
+
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useVirtualThreads;
+
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean elasticPool;
+
   private transient ExecutorService threadPool;
   private transient GenericObjectPool<Worker> objectPool;
   private transient FifoMutexLock poolLock;
   private transient AdaptrisMarshaller serviceListMarshaller;
   private transient String currentThreadName;
   private transient ServiceCollection marshalledServiceCollection;
+  private transient AdaptrisMessageProducer marshalledProducer;
+  private transient ExecutorService poolGrower;
+  private transient AtomicBoolean growing = new AtomicBoolean(false);
+
+  static {
+    RuntimeInfoComponentFactory.registerComponentFactory(new JmxFactory());
+  }
 
   public PoolingWorkflow() {
     super();
@@ -252,6 +306,10 @@ public class PoolingWorkflow extends WorkflowImp {
     }
     marshalledServiceCollection = cloneServiceCollection(getServiceCollection());
     LifecycleHelper.prepare(marshalledServiceCollection);
+    marshalledProducer = poolProducers() ? cloneProducer(getProducer()) : null;
+    if (useVirtualThreads() && !ManagedThreadFactory.virtualThreadsAvailable()) {
+      log.warn("Virtual threads are not available in this JVM, using platform threads");
+    }
     LifecycleHelper.init(getProducer());
     getConsumer().registerAdaptrisMessageListener(this);
     LifecycleHelper.init(getConsumer());
@@ -267,6 +325,9 @@ public class PoolingWorkflow extends WorkflowImp {
     LifecycleHelper.start(getProducer());
     objectPool = createObjectPool();
     threadPool = createExecutor();
+    if (elasticPool()) {
+      poolGrower = Executors.newSingleThreadExecutor(new ManagedThreadFactory(getClass().getSimpleName()));
+    }
     populatePool();
     LifecycleHelper.start(getConsumer());
   }
@@ -331,6 +392,7 @@ public class PoolingWorkflow extends WorkflowImp {
         workflowStart(msg);
         // workflowCompletion.add(msg, threadPool.submit(new CallableWorker(msg)));
         threadPool.submit(new CallableWorker(msg));
+        growIfRequired();
       }
       else {
         log.warn("Attempt to process message during shutdown; failing it");
@@ -343,15 +405,6 @@ public class PoolingWorkflow extends WorkflowImp {
     }
   }
 
-  /**
-   *
-   * @see WorkflowImp#handleBadMessage(AdaptrisMessage)
-   */
-  @Override
-  public synchronized void handleBadMessage(AdaptrisMessage msg) {
-    super.handleBadMessage(msg);
-  }
-
   @Override
   protected void handleBadMessage(String logMsg, Exception e, AdaptrisMessage msg) {
     if (retrieveActiveMsgErrorHandler() instanceof RetryMessageErrorHandler) {
@@ -382,15 +435,6 @@ public class PoolingWorkflow extends WorkflowImp {
     super.handleProduceException();
   }
 
-  /**
-   *
-   * @see WorkflowImp#sendMessageLifecycleEvent(AdaptrisMessage)
-   */
-  @Override
-  protected synchronized void sendMessageLifecycleEvent(AdaptrisMessage msg) {
-    super.sendMessageLifecycleEvent(msg);
-  }
-
   private GenericObjectPool<Worker> createObjectPool() {
     GenericObjectPool<Worker> pool = new GenericObjectPool<>(new WorkerFactory());
     long lifetime = threadLifetimeMs();
@@ -399,13 +443,49 @@ public class PoolingWorkflow extends WorkflowImp {
     pool.setMaxIdle(maxIdle());
     pool.setMaxWaitMillis(-1L);
     pool.setBlockWhenExhausted(true);
-    pool.setMinEvictableIdleTimeMillis(lifetime);
-    pool.setTimeBetweenEvictionRunsMillis(
-        lifetime + ThreadLocalRandom.current().nextLong(lifetime));
+    if (elasticPool()) {
+      // Only evict workers above min-idle, but check all of them on each run.
+      pool.setMinEvictableIdleTimeMillis(-1L);
+      pool.setSoftMinEvictableIdleTimeMillis(lifetime);
+      pool.setNumTestsPerEvictionRun(-1);
+      pool.setTimeBetweenEvictionRunsMillis(Math.max(lifetime / 2, MIN_EVICTION_INTERVAL_MS));
+    }
+    else {
+      pool.setMinEvictableIdleTimeMillis(lifetime);
+      pool.setTimeBetweenEvictionRunsMillis(lifetime + ThreadLocalRandom.current().nextLong(lifetime));
+    }
     return pool;
   }
 
+  private void growIfRequired() {
+    final GenericObjectPool<Worker> pool = objectPool;
+    if (poolGrower == null || pool == null) {
+      return;
+    }
+    if (pool.getNumIdle() == 0 && pool.getNumActive() < pool.getMaxTotal() && growing.compareAndSet(false, true)) {
+      try {
+        poolGrower.execute(() -> {
+          try {
+            pool.addObject();
+          }
+          catch (Exception e) {
+            log.trace("Failed to add worker to pool : {}", e.getMessage());
+          }
+          finally {
+            growing.set(false);
+          }
+        });
+      }
+      catch (Exception e) {
+        growing.set(false);
+      }
+    }
+  }
+
   private ExecutorService createExecutor() {
+    if (useVirtualThreads() && ManagedThreadFactory.virtualThreadsAvailable()) {
+      return ManagedThreadFactory.newVirtualThreadPerTaskExecutor(PoolingWorkflow.class.getSimpleName());
+    }
     ExecutorService es = Executors.newCachedThreadPool(new WorkerThreadFactory());
     if (es instanceof ThreadPoolExecutor) {
       ((ThreadPoolExecutor) es).setKeepAliveTime(threadLifetimeMs(), TimeUnit.MILLISECONDS);
@@ -415,11 +495,11 @@ public class PoolingWorkflow extends WorkflowImp {
 
   private void populatePool() throws CoreException {
     int size = minIdle();
-    ExecutorService populator = Executors.newCachedThreadPool();
+    ExecutorService populator = Executors.newCachedThreadPool(new ManagedThreadFactory(getClass().getSimpleName()));
     try {
       final CyclicBarrier barrier = new CyclicBarrier(size + 1);
       log.trace("Need more ({}) children as soon as possible to handle work. Get to it", size);
-      final List<Worker> workers = new ArrayList<>(size);
+      final List<Worker> workers = Collections.synchronizedList(new ArrayList<Worker>(size));
       for (int i = 0; i < size; i++) {
         populator.execute(new Runnable() {
           @Override
@@ -450,6 +530,7 @@ public class PoolingWorkflow extends WorkflowImp {
   private void shutdownPool() {
     try {
       poolLock.acquire();
+      ManagedThreadFactory.shutdownQuietly(poolGrower, shutdownWaitTimeMs());
       List<Runnable> list = ManagedThreadFactory.shutdownQuietly(threadPool, shutdownWaitTimeMs());
       for (Runnable l : list) {
         CallableWorker sd = (CallableWorker) l;
@@ -464,6 +545,7 @@ public class PoolingWorkflow extends WorkflowImp {
     finally {
       threadPool = null;
       objectPool = null;
+      poolGrower = null;
     }
     poolLock.release();
   }
@@ -562,6 +644,62 @@ public class PoolingWorkflow extends WorkflowImp {
     this.initWaitTime = t;
   }
 
+  public Boolean getPoolProducers() {
+    return poolProducers;
+  }
+
+  /**
+   * Whether or not each worker should have its own copy of the producer.
+   *
+   * @param b true to give each worker its own producer, so that messages can be produced concurrently; default is false which
+   *          means that all workers share the configured producer and produce messages one at a time.
+   * @since 3.8.4
+   */
+  public void setPoolProducers(Boolean b) {
+    poolProducers = b;
+  }
+
+  boolean poolProducers() {
+    return BooleanUtils.toBooleanDefaultIfNull(getPoolProducers(), false);
+  }
+
+  public Boolean getUseVirtualThreads() {
+    return useVirtualThreads;
+  }
+
+  /**
+   * Whether or not to process each message in its own virtual thread.
+   *
+   * @param b true to use virtual threads if they are available; default is false.
+   * @since 3.8.4
+   */
+  public void setUseVirtualThreads(Boolean b) {
+    useVirtualThreads = b;
+  }
+
+  boolean useVirtualThreads() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseVirtualThreads(), false);
+  }
+
+  public Boolean getElasticPool() {
+    return elasticPool;
+  }
+
+  /**
+   * Whether or not to actively grow and shrink the pool of workers in response to load.
+   *
+   * @param b true to create workers ahead of demand and discard idle workers above min-idle after the thread-keep-alive; default
+   *          is false.
+   * @since 3.8.4
+   */
+  public void setElasticPool(Boolean b) {
+    elasticPool = b;
+  }
+
+  boolean elasticPool() {
+    return BooleanUtils.toBooleanDefaultIfNull(getElasticPool(), false);
+  }
+
   public long initWaitTimeMs() {
     return TimeInterval.toMillisecondsDefaultIfNull(getInitWaitTime(), DEFAULT_INIT_WAIT);
   }
@@ -594,6 +732,13 @@ public class PoolingWorkflow extends WorkflowImp {
     return objectPool.getNumIdle();
   }
 
+  private AdaptrisMessageProducer cloneProducer(AdaptrisMessageProducer original) throws CoreException {
+    AdaptrisMessageProducer result = (AdaptrisMessageProducer) serviceListMarshaller
+        .unmarshal(serviceListMarshaller.marshal(original));
+    result.registerConnection(getProducer().retrieveConnection(AdaptrisConnection.class));
+    return result;
+  }
+
   private ServiceCollection cloneServiceCollection(ServiceCollection original) throws CoreException {
     ServiceCollection result = null;
     result = (ServiceCollection) serviceListMarshaller.unmarshal(serviceListMarshaller.marshal(original));
@@ -608,7 +753,100 @@ public class PoolingWorkflow extends WorkflowImp {
    * @return the number of threads in the threadpool.
    */
   public int currentThreadPoolCount() {
-    return ((ThreadPoolExecutor) threadPool).getPoolSize();
+    if (threadPool instanceof ThreadPoolExecutor) {
+      return ((ThreadPoolExecutor) threadPool).getPoolSize();
+    }
+    // Thread per task, so it's just the number of workers that are busy.
+    return objectPool.getNumActive();
+  }
+
+  /**
+   * Change the size of the pool.
+   * <p>
+   * If the workflow is started then the change is applied to the existing pool immediately; excess idle workers are discarded and
+   * new workers are created as required. The configuration is updated so that the change survives a restart of the workflow.
+   * </p>
+   *
+   * @param poolSize the maximum number of workers.
+   * @param minIdle the minimum number of idle workers.
+   * @param maxIdle the maximum number of idle workers.
+   * @throws IllegalArgumentException if minIdle &gt; maxIdle, or maxIdle &gt; poolSize.
+   * @since 3.8.4
+   */
+  public void resizePool(int poolSize, int minIdle, int maxIdle) {
+    if (poolSize < 1 || minIdle < 0 || minIdle > maxIdle || maxIdle > poolSize) {
+      throw new IllegalArgumentException(
+          String.format("Invalid pool bounds: pool-size=%d, min-idle=%d, max-idle=%d", poolSize, minIdle, maxIdle));
+    }
+    setPoolSize(poolSize);
+    setMinIdle(minIdle);
+    setMaxIdle(maxIdle);
+    GenericObjectPool<Worker> pool = objectPool;
+    if (pool != null) {
+      pool.setMaxTotal(poolSize);
+      pool.setMaxIdle(maxIdle);
+      pool.setMinIdle(minIdle);
+      try {
+        pool.preparePool();
+      }
+      catch (Exception e) {
+        log.warn("Failed to add workers to pool : {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Return the number of workers currently processing a message.
+   *
+   * @return the number of active workers, 0 if the workflow is not started.
+   * @since 3.8.4
+   */
+  public int currentActiveWorkers() {
+    GenericObjectPool<Worker> pool = objectPool;
+    return pool != null ? pool.getNumActive() : 0;
+  }
+
+  /**
+   * Return the number of workers currently waiting for a message.
+   *
+   * @return the number of idle workers, 0 if the workflow is not started.
+   * @since 3.8.4
+   */
+  public int currentIdleWorkers() {
+    GenericObjectPool<Worker> pool = objectPool;
+    return pool != null ? pool.getNumIdle() : 0;
+  }
+
+  /**
+   * Return the mean time that a message has waited for a worker.
+   *
+   * @return the mean wait time in milliseconds, 0 if the workflow is not started.
+   * @since 3.8.4
+   */
+  public long meanBorrowWaitTimeMs() {
+    GenericObjectPool<Worker> pool = objectPool;
+    return pool != null ? pool.getMeanBorrowWaitTimeMillis() : 0;
+  }
+
+  /**
+   * Return the longest time that a message has waited for a worker.
+   *
+   * @return the maximum wait time in milliseconds, 0 if the workflow is not started.
+   * @since 3.8.4
+   */
+  public long maxBorrowWaitTimeMs() {
+    GenericObjectPool<Worker> pool = objectPool;
+    return pool != null ? pool.getMaxBorrowWaitTimeMillis() : 0;
+  }
+
+  /**
+   * Return the proportion of the pool that is currently processing messages.
+   *
+   * @return a value between 0 and 1.
+   * @since 3.8.4
+   */
+  public double poolUtilisation() {
+    return (double) currentActiveWorkers() / poolSize();
   }
 
   @Override
@@ -723,10 +961,14 @@ public class PoolingWorkflow extends WorkflowImp {
   class Worker {
 
     private ServiceCollection sc;
+    private AdaptrisMessageProducer producer;
 
     Worker() throws CoreException {
       try {
         sc = cloneServiceCollection(marshalledServiceCollection);
+        if (marshalledProducer != null) {
+          producer = cloneProducer(marshalledProducer);
+        }
       }
       catch (Exception e) {
         throw new CoreException(e);
@@ -735,9 +977,20 @@ public class PoolingWorkflow extends WorkflowImp {
 
     public void start() throws CoreException {
       LifecycleHelper.initAndStart(sc, false);
+      if (producer != null) {
+        try {
+          LifecycleHelper.prepare(producer);
+          LifecycleHelper.initAndStart(producer, false);
+        }
+        catch (CoreException e) {
+          stop();
+          throw e;
+        }
+      }
     }
 
     public void stop() throws CoreException {
+      LifecycleHelper.stopAndClose(producer, false);
       LifecycleHelper.stopAndClose(sc, false);
     }
 
@@ -756,11 +1009,17 @@ public class PoolingWorkflow extends WorkflowImp {
         wip.getMessageLifecycleEvent().setWorkflowId(obtainWorkflowId());
         wip.addEvent(getConsumer(), true);
         sc.doService(wip);
-        doProduce(wip);
+        if (producer != null) {
+          // Our own producer, so no need to synchronize.
+          doProduce(producer, wip);
+        }
+        else {
+          doProduce(wip);
+        }
         logSuccess(wip, start);
       }
       catch (ProduceException e) {
-        wip.addEvent(getProducer(), false);
+        wip.addEvent(producer != null ? producer : getProducer(), false);
         handleBadMessage("Exception producing message", e, copyExceptionHeaders(wip, msg));
         handleProduceException();
       }
@@ -774,4 +1033,20 @@ public class PoolingWorkflow extends WorkflowImp {
     }
   }
 
+  private static class JmxFactory extends RuntimeInfoComponentFactory {
+
+    @Override
+    protected boolean isSupported(AdaptrisComponent e) {
+      if (e != null && e instanceof PoolingWorkflow) {
+        return !isEmpty(e.getUniqueId());
+      }
+      return false;
+    }
+
+    @Override
+    protected RuntimeInfoComponent createComponent(ParentRuntimeInfoComponent parent, AdaptrisComponent e)
+        throws MalformedObjectNameException {
+      return new PoolingWorkflowJmx(parent, (PoolingWorkflow) e);
+    }
+  }
 }
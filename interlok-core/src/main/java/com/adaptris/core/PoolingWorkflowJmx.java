@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import static com.adaptris.core.runtime.AdapterComponentMBean.JMX_POOLING_WORKFLOW_TYPE;
+
+import com.adaptris.core.runtime.ChildRuntimeInfoComponentImpl;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+
+public class PoolingWorkflowJmx extends ChildRuntimeInfoComponentImpl implements PoolingWorkflowJmxMBean {
+  private transient ParentRuntimeInfoComponent parent;
+  private transient PoolingWorkflow wrappedComponent;
+
+  private PoolingWorkflowJmx() {
+    super();
+  }
+
+  PoolingWorkflowJmx(ParentRuntimeInfoComponent owner, PoolingWorkflow workflow) {
+    this();
+    parent = owner;
+    wrappedComponent = workflow;
+  }
+
+  @Override
+  protected String getType() {
+    return JMX_POOLING_WORKFLOW_TYPE;
+  }
+
+  @Override
+  protected String uniqueId() {
+    return wrappedComponent.getUniqueId();
+  }
+
+  @Override
+  public ParentRuntimeInfoComponent getParentRuntimeInfoComponent() {
+    return parent;
+  }
+
+  @Override
+  public int getPoolSize() {
+    return wrappedComponent.poolSize();
+  }
+
+  @Override
+  public int getMinIdle() {
+    return wrappedComponent.minIdle();
+  }
+
+  @Override
+  public int getMaxIdle() {
+    return wrappedComponent.maxIdle();
+  }
+
+  @Override
+  public void resizePool(int poolSize, int minIdle, int maxIdle) {
+    wrappedComponent.resizePool(poolSize, minIdle, maxIdle);
+  }
+
+  @Override
+  public int getActiveWorkers() {
+    return wrappedComponent.currentActiveWorkers();
+  }
+
+  @Override
+  public int getIdleWorkers() {
+    return wrappedComponent.currentIdleWorkers();
+  }
+
+  @Override
+  public long getMeanBorrowWaitMillis() {
+    return wrappedComponent.meanBorrowWaitTimeMs();
+  }
+
+  @Override
+  public long getMaxBorrowWaitMillis() {
+    return wrappedComponent.maxBorrowWaitTimeMs();
+  }
+
+  @Override
+  public double getUtilisation() {
+    return wrappedComponent.poolUtilisation();
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import com.adaptris.core.runtime.ChildRuntimeInfoComponentMBean;
+
+/**
+ * Management interface for the pool of workers in a {@link PoolingWorkflow}.
+ *
+ * @since 3.8.4
+ */
+public interface PoolingWorkflowJmxMBean extends ChildRuntimeInfoComponentMBean {
+
+  /**
+   * Get the maximum number of workers.
+   *
+   */
+  int getPoolSize();
+
+  /**
+   * Get the minimum number of idle workers.
+   *
+   */
+  int getMinIdle();
+
+  /**
+   * Get the maximum number of idle workers.
+   *
+   */
+  int getMaxIdle();
+
+  /**
+   * Change the size of the pool.
+   *
+   * @param poolSize the maximum number of workers.
+   * @param minIdle the minimum number of idle workers.
+   * @param maxIdle the maximum number of idle workers.
+   * @see PoolingWorkflow#resizePool(int, int, int)
+   */
+  void resizePool(int poolSize, int minIdle, int maxIdle);
+
+  /**
+   * Get the number of workers currently processing a message.
+   *
+   */
+  int getActiveWorkers();
+
+  /**
+   * Get the number of workers currently waiting for a message.
+   *
+   */
+  int getIdleWorkers();
+
+  /**
+   * Get the mean time in milliseconds that a message has waited for a worker.
+   *
+   */
+  long getMeanBorrowWaitMillis();
+
+  /**
+   * Get the longest time in milliseconds that a message has waited for a worker.
+   *
+   */
+  long getMaxBorrowWaitMillis();
+
+  /**
+   * Get the proportion of the pool that is currently processing messages.
+   *
+   * @return a value between 0 and 1.
+   */
+  double getUtilisation();
+
+}
@@ -26,7 +26,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * MessageErrorHandler implementation that allows automatic retries for a problem message.
  * 
  * <p>
- * This implementation keeps the {@link com.adaptris.core.AdaptrisMessage} that was consumed in memory, and periodically retries the message in the
+ * By default this implementation keeps the {@link com.adaptris.core.AdaptrisMessage} that was consumed in memory (use
+ * {@link #setRetryStore(RetryMessageStore)} to change that), and periodically retries the message in the
  * workflow that failed; the retry schedule and maximum number of retries is determined by {@link #setRetryInterval(TimeInterval)}
  * and {@link #setRetryLimit(Integer)} respectively. If the retry count exceeds the maximum number of retries then the message is
  * deemed to have failed, and passed off to any configured {@link #getProcessingExceptionService()}.
@@ -34,7 +35,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * <p>
  * In the event that the {@link AdaptrisComponent} that owns this implementation is stopped or closed (using
  * {@link AdaptrisComponent#stop()} or {@link AdaptrisComponent#close()} then all messages are deemed to have failed, and treated as
- * a message that has failed.
+ * a message that has failed; unless the configured {@link RetryMessageStore} is persistent, in which case they are retried when
+ * this implementation is next started.
  * </p>
  * <p>
  * Note that messages are not guaranteed to be in order (even if they were originally) once a message has entered retry mode. Also
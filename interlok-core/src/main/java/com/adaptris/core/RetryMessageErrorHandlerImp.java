@@ -20,19 +20,20 @@ import static org.apache.commons.lang.StringUtils.isEmpty;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import javax.management.MalformedObjectNameException;
+import javax.validation.Valid;
+
+import org.apache.commons.lang3.BooleanUtils;
 
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.InputFieldDefault;
@@ -40,6 +41,7 @@ import com.adaptris.annotation.Removal;
 import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
 import com.adaptris.core.runtime.RuntimeInfoComponent;
 import com.adaptris.core.runtime.RuntimeInfoComponentFactory;
+import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.core.util.ManagedThreadFactory;
 import com.adaptris.util.NumberUtils;
 import com.adaptris.util.TimeInterval;
@@ -47,11 +49,24 @@ import com.adaptris.util.TimeInterval;
 /**
  * Abstract MessageErrorHandler implementation that allows automatic retries for
  * a problem message.
+ * <p>
+ * Messages waiting to be retried are kept in a {@link RetryMessageStore}; only the message id and its schedule are held by the
+ * error handler itself. By default messages are kept in memory (see {@link InMemoryRetryMessageStore}) and failed when the error
+ * handler is stopped; if you configure a persistent store such as {@link FilesystemRetryMessageStore} then messages are left in
+ * the store when the error handler is stopped and rescheduled when it is next started.
+ * </p>
+ * <p>
+ * The delay between retries is {@link #getRetryInterval()}; if {@link #getExponentialBackoff()} is true, then the delay doubles for
+ * each retry (up to {@link #getMaxRetryInterval()}) and is randomised between half and all of that value so that messages that
+ * failed at the same time are not all retried at the same time.
+ * </p>
  */
 public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExceptionHandler {
 
   private static final TimeInterval DEFAULT_RETRY_INTERVAL = new TimeInterval(10L, TimeUnit.MINUTES);
   private static final TimeInterval DEFAULT_POOL_TIMEOUT = new TimeInterval(30L, TimeUnit.SECONDS);
+  private static final TimeInterval DEFAULT_MAX_RETRY_INTERVAL = new TimeInterval(1L, TimeUnit.HOURS);
+  private static final int MAX_BACKOFF_SHIFT = 30;
 
   private static final int RETRY_LIMIT_DEFAULT = 10;
   protected static final String IS_RETRY_KEY = "autoRetryInProgress";
@@ -66,12 +81,26 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
   private TimeInterval lockTimeout;
   @InputFieldDefault(value = "10 minutes")
   private TimeInterval retryInterval;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean exponentialBackoff;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1 hour")
+  private TimeInterval maxRetryInterval;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1")
+  private Integer retryThreads;
+  @AdvancedConfig
+  @InputFieldDefault(value = "unbounded")
+  private Integer maxPendingRetries;
+  @AdvancedConfig
+  @Valid
+  @InputFieldDefault(value = "in-memory-retry-message-store")
+  private RetryMessageStore retryStore;
 
   protected transient ScheduledExecutorService executor;
-  protected transient List<AdaptrisMessage> retryList;
-  protected transient List<AdaptrisMessage> inProgress;
-  private transient Set<ScheduledFuture> retries = Collections.newSetFromMap(new WeakHashMap<ScheduledFuture, Boolean>());
-  private transient ScheduledFuture sweeper = null;
+  private transient Map<String, ScheduledFuture> pendingRetries = new ConcurrentHashMap<>();
+  private transient RetryMessageStore activeStore;
   private transient boolean failAll = false;
 
   static {
@@ -80,8 +109,6 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
 
   public RetryMessageErrorHandlerImp() {
     super();
-    retryList = Collections.synchronizedList(new ArrayList<AdaptrisMessage>());
-    inProgress = Collections.synchronizedList(new ArrayList<AdaptrisMessage>());
   }
 
   @Override
@@ -122,15 +149,17 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
 
   @Override
   public void start() throws CoreException {
-    executor = Executors.newScheduledThreadPool(1, new ManagedThreadFactory(getClass().getSimpleName()));
-    sweeper = executor.scheduleWithFixedDelay(new CleanupTask(), 100L, retryIntervalMs(), TimeUnit.MILLISECONDS);
+    executor = Executors.newScheduledThreadPool(retryThreads(), new ManagedThreadFactory(getClass().getSimpleName()));
     failAll = false;
     super.start();
+    reschedulePending();
   }
 
   @Override
   public void stop() {
-    failAllMessages();
+    if (!retryStore().persistent()) {
+      failAllMessages();
+    }
     shutdownExecutor();
     super.stop();
   }
@@ -141,15 +170,29 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
   }
 
   private void shutdownExecutor() {
-    sweeper.cancel(true);
-    for (ScheduledFuture f : retries) {
-      f.cancel(true);
+    for (ScheduledFuture f : pendingRetries.values()) {
+      f.cancel(false);
     }
-    retries.clear();
+    pendingRetries.clear();
     ManagedThreadFactory.shutdownQuietly(executor, DEFAULT_POOL_TIMEOUT);
     executor = null;
   }
 
+  // Anything already in a persistent store is from a previous run; don't retry it until a full retry-interval has passed, to give
+  // the workflows a chance to start.
+  private void reschedulePending() throws CoreException {
+    if (!retryStore().persistent()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    for (Map.Entry<String, Long> entry : retryStore().pending().entrySet()) {
+      long delay = Math.max(entry.getValue() - now, retryIntervalMs());
+      log.trace("Rescheduling stored message [{}] for retry in {}ms", entry.getKey(), delay);
+      pendingRetries.put(entry.getKey(),
+          executor.schedule(new RetryThread(entry.getKey()), delay, TimeUnit.MILLISECONDS));
+    }
+  }
+
   /**
    * Set the limit on the number of retries that a message may have.
    *
@@ -177,6 +220,47 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
     return TimeInterval.toMillisecondsDefaultIfNull(getRetryInterval(), DEFAULT_RETRY_INTERVAL);
   }
 
+  long maxRetryIntervalMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getMaxRetryInterval(), DEFAULT_MAX_RETRY_INTERVAL);
+  }
+
+  boolean exponentialBackoff() {
+    return BooleanUtils.toBooleanDefaultIfNull(getExponentialBackoff(), false);
+  }
+
+  int retryThreads() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getRetryThreads(), 1));
+  }
+
+  int maxPendingRetries() {
+    return NumberUtils.toIntDefaultIfNull(getMaxPendingRetries(), Integer.MAX_VALUE);
+  }
+
+  RetryMessageStore retryStore() {
+    if (activeStore == null) {
+      activeStore = getRetryStore() != null ? getRetryStore() : new InMemoryRetryMessageStore();
+    }
+    return activeStore;
+  }
+
+  /**
+   * Calculate the delay before the next retry of the message.
+   *
+   * @param retryCount the number of retries that have already happened.
+   * @return the delay in milliseconds.
+   */
+  long nextRetryDelay(int retryCount) {
+    if (!exponentialBackoff()) {
+      return retryIntervalMs();
+    }
+    long max = maxRetryIntervalMs();
+    int shift = Math.min(Math.max(retryCount, 0), MAX_BACKOFF_SHIFT);
+    long base = retryIntervalMs();
+    long delay = base > (max >> shift) ? max : base << shift;
+    long half = delay / 2;
+    return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+  }
+
 
   /**
    * @deprecated since 3.6.6 has no effect.
@@ -212,11 +296,103 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
     retryInterval = interval;
   }
 
+  /**
+   * @since 3.8.4
+   */
+  public Boolean getExponentialBackoff() {
+    return exponentialBackoff;
+  }
+
+  /**
+   * Whether or not to increase the delay between each retry.
+   * <p>
+   * If true, then the delay doubles with each retry starting from {@link #getRetryInterval()} up to a maximum of
+   * {@link #getMaxRetryInterval()}; the actual delay is a random value between half and all of that value.
+   * </p>
+   *
+   * @param b true to use exponential backoff with jitter; default is false.
+   * @since 3.8.4
+   */
+  public void setExponentialBackoff(Boolean b) {
+    exponentialBackoff = b;
+  }
+
+  /**
+   * @since 3.8.4
+   */
+  public TimeInterval getMaxRetryInterval() {
+    return maxRetryInterval;
+  }
+
+  /**
+   * Set the maximum interval between retries when {@link #getExponentialBackoff()} is true.
+   *
+   * @param interval the maximum interval; default is 1 hour if not explicitly configured.
+   * @since 3.8.4
+   */
+  public void setMaxRetryInterval(TimeInterval interval) {
+    maxRetryInterval = interval;
+  }
+
+  /**
+   * @since 3.8.4
+   */
+  public Integer getRetryThreads() {
+    return retryThreads;
+  }
+
+  /**
+   * Set the number of threads used to retry messages.
+   *
+   * @param i the number of threads; default is 1, which means that retries happen one at a time.
+   * @since 3.8.4
+   */
+  public void setRetryThreads(Integer i) {
+    retryThreads = i;
+  }
+
+  /**
+   * @since 3.8.4
+   */
+  public Integer getMaxPendingRetries() {
+    return maxPendingRetries;
+  }
+
+  /**
+   * Set the maximum number of messages that may be waiting for retry.
+   * <p>
+   * Once the limit is reached, any further message that would be retried is treated as having failed.
+   * </p>
+   *
+   * @param i the maximum number of messages; default is unbounded.
+   * @since 3.8.4
+   */
+  public void setMaxPendingRetries(Integer i) {
+    maxPendingRetries = i;
+  }
+
+  /**
+   * @since 3.8.4
+   */
+  public RetryMessageStore getRetryStore() {
+    return retryStore;
+  }
+
+  /**
+   * Set where messages waiting for retry are stored.
+   *
+   * @param store the store; default is {@link InMemoryRetryMessageStore} if not explicitly configured.
+   * @since 3.8.4
+   */
+  public void setRetryStore(RetryMessageStore store) {
+    retryStore = store;
+    activeStore = null;
+  }
+
   protected void failAllMessages() {
-    for (AdaptrisMessage msg : new ArrayList<AdaptrisMessage>(retryList)) {
-      failMessage(msg);
+    for (String id : new ArrayList<String>(pendingRetries.keySet())) {
+      failMessage(id);
     }
-    retryList.clear();
   }
 
   protected void failFutureMessages(boolean failFuture) {
@@ -224,35 +400,55 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
   }
 
   protected Collection<String> waitingForRetry() {
-    Set<String> result = new HashSet<String>();
-    for (AdaptrisMessage msg : new ArrayList<AdaptrisMessage>(retryList)) {
-      result.add(msg.getUniqueId());
-    }
-    return result;
+    return new HashSet<String>(pendingRetries.keySet());
   }
 
   protected void failMessage(String s) {
-    for (AdaptrisMessage msg : new ArrayList<AdaptrisMessage>(retryList)) {
-      if (msg.getUniqueId().equals(s)) {
+    ScheduledFuture f = pendingRetries.remove(s);
+    if (f == null) {
+      return;
+    }
+    f.cancel(false);
+    try {
+      AdaptrisMessage msg = retryStore().read(s);
+      if (msg != null) {
         failMessage(msg);
       }
     }
+    catch (CoreException e) {
+      log.error("Failed to read message [{}] from the retry store", s, e);
+    }
   }
 
   protected void failMessage(AdaptrisMessage msg) {
+    ScheduledFuture f = pendingRetries.remove(msg.getUniqueId());
+    if (f != null) {
+      f.cancel(false);
+    }
     log.error("Message [{}] deemed to have failed", msg.getUniqueId());
     if (msg.getObjectHeaders().containsKey(CoreConstants.OBJ_METADATA_EXCEPTION)) {
       Exception e = (Exception) msg.getObjectHeaders().get(CoreConstants.OBJ_METADATA_EXCEPTION);
       log.error(e.getMessage(), e);
     }
-    super.handleProcessingException(msg);
+    try {
+      super.handleProcessingException(msg);
+    }
+    finally {
+      // The message may be backed by the store (e.g. FilesystemRetryMessageStore), so only remove it once it has been handled.
+      deleteQuietly(msg.getUniqueId());
+    }
   }
 
   protected void scheduleNextRun(AdaptrisMessage msg) {
     log.trace("Message [{}] should be retried", msg.getUniqueId());
     try {
-      ScheduledFuture f = executor.schedule(new RetryThread(msg), retryIntervalMs(), TimeUnit.MILLISECONDS);
-      retries.add(f);
+      if (pendingRetries.size() >= maxPendingRetries()) {
+        throw new CoreException("Too many messages waiting for retry");
+      }
+      long delay = nextRetryDelay(retryCount(msg));
+      retryStore().write(msg, System.currentTimeMillis() + delay);
+      ScheduledFuture f = executor.schedule(new RetryThread(msg.getUniqueId()), delay, TimeUnit.MILLISECONDS);
+      pendingRetries.put(msg.getUniqueId(), f);
     }
     catch (Exception e) {
       log.warn("Failed to reschedule retry, failing message");
@@ -260,6 +456,44 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
     }
   }
 
+  private static int retryCount(AdaptrisMessage msg) {
+    Object count = msg.getObjectHeaders().get(RETRY_COUNT_KEY);
+    return count != null ? Integer.parseInt(count.toString()) : 0;
+  }
+
+  /**
+   * Read the message from the store, and remove it from the store.
+   * <p>
+   * The message is copied so that it is independent of the store; once it is handed back to a workflow it may be processed
+   * asynchronously, and if it fails again it will be written back to the store as a new entry.
+   * </p>
+   *
+   * @return the message, or null if it is no longer in the store.
+   */
+  private AdaptrisMessage detach(String id) throws CoreException {
+    AdaptrisMessage stored = retryStore().read(id);
+    if (stored == null) {
+      return null;
+    }
+    try {
+      AdaptrisMessage result = (AdaptrisMessage) stored.clone();
+      deleteQuietly(id);
+      return result;
+    }
+    catch (CloneNotSupportedException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  private void deleteQuietly(String id) {
+    try {
+      retryStore().delete(id);
+    }
+    catch (CoreException e) {
+      log.warn("Failed to remove message [{}] from the retry store", id, e);
+    }
+  }
+
 
   protected static Map<String, Workflow> filterStarted(Map<String, Workflow> workflows) {
     Map<String, Workflow> result = new HashMap<>(workflows.size());
@@ -275,11 +509,10 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
    *
    */
   protected class RetryThread implements Runnable {
-    private AdaptrisMessage msg;
+    private String messageId;
 
-    RetryThread(AdaptrisMessage m) {
-      msg = m;
-      retryList.add(msg);
+    RetryThread(String id) {
+      messageId = id;
     }
 
     @Override
@@ -287,8 +520,12 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
       String oldName = Thread.currentThread().getName();
       Thread.currentThread().setName(toString());
       try {
-        retryList.remove(msg);
-        inProgress.add(msg);
+        pendingRetries.remove(messageId);
+        AdaptrisMessage msg = detach(messageId);
+        if (msg == null) {
+          log.warn("Message [{}] no longer available for retry", messageId);
+          return;
+        }
         log.trace("Retrying message [{}]", msg.getUniqueId());
         Workflow workflow = filterStarted(registeredWorkflows()).get(msg.getMetadataValue(Workflow.WORKFLOW_ID_KEY));
         if (workflow != null) {
@@ -300,7 +537,9 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
           log.debug("Registered Workflows :{}", registeredWorkflows().keySet());
           failMessage(msg);
         }
-        inProgress.remove(msg);
+      }
+      catch (CoreException e) {
+        log.error("Failed to read message [{}] from the retry store", messageId, e);
       }
       finally {
         Thread.currentThread().setName(oldName);
@@ -313,26 +552,6 @@ public abstract class RetryMessageErrorHandlerImp extends StandardProcessingExce
 
   }
 
-  private class CleanupTask implements Runnable {
-
-    @Override
-    public void run() {
-      retries.removeAll(filter(new ArrayList<ScheduledFuture>(retries)));
-    }
-
-    private List<ScheduledFuture> filter(Collection<ScheduledFuture> workingSet) {
-      // surely time for a filter() lambda...
-      // return workingSet.stream().filter(future -> future.isDone()).collect(Collectors.toList());
-      List<ScheduledFuture> done = new ArrayList<>();
-      for (ScheduledFuture f : workingSet) {
-        if (f.isDone()) {
-          done.add(f);
-        }
-      }
-      return done;
-    }
-  }
-
   private static class JmxFactory extends RuntimeInfoComponentFactory {
 
     @Override
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.Map;
+
+/**
+ * Storage for messages that are waiting to be retried by a {@link RetryMessageErrorHandlerImp} instance.
+ * <p>
+ * The error handler itself only keeps the message id and its schedule in memory; the message itself is written to the store when a
+ * retry is scheduled and read back from it when the retry is due.
+ * </p>
+ *
+ * @since 3.8.4
+ * @see InMemoryRetryMessageStore
+ * @see FilesystemRetryMessageStore
+ */
+public interface RetryMessageStore {
+
+  /**
+   * Write the message into the store, replacing any existing entry with the same id.
+   *
+   * @param msg the message.
+   * @param nextRetry the time (in milliseconds since the epoch) when the message is next due to be retried.
+   * @throws CoreException wrapping any exception.
+   */
+  void write(AdaptrisMessage msg, long nextRetry) throws CoreException;
+
+  /**
+   * Read a message from the store.
+   *
+   * @param messageId the message id.
+   * @return the message or null if it does not exist.
+   * @throws CoreException wrapping any exception.
+   */
+  AdaptrisMessage read(String messageId) throws CoreException;
+
+  /**
+   * Remove a message from the store.
+   *
+   * @param messageId the message id; it is not an error if the message does not exist.
+   * @throws CoreException wrapping any exception.
+   */
+  void delete(String messageId) throws CoreException;
+
+  /**
+   * Report the messages currently held in the store.
+   *
+   * @return a map of message id against the time (in milliseconds since the epoch) when it is next due to be retried.
+   * @throws CoreException wrapping any exception.
+   */
+  Map<String, Long> pending() throws CoreException;
+
+  /**
+   * Whether or not messages in the store survive a restart.
+   * <p>
+   * If the store is not persistent then all messages in the store are failed when the owning error handler is stopped; otherwise
+   * they are left in the store, and rescheduled when the error handler is next started.
+   * </p>
+   *
+   * @return true if messages survive a restart.
+   */
+  boolean persistent();
+}
@@ -21,22 +21,48 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.BooleanUtils;
+
 import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.util.ManagedThreadFactory;
 import com.adaptris.util.TimeInterval;
 
 /**
+ * Base class for pollers that use a {@link ScheduledExecutorService} to trigger each poll.
+ * <p>
+ * By default each poller has its own single threaded executor. If {@link #setUseSharedScheduler(Boolean)} is true (or the system
+ * property {@value #SHARED_SCHEDULER_PROPERTY} is set to true, which changes the default for all pollers in the adapter) then the
+ * poller is scheduled using an adapter wide scheduler; a single timer thread triggers the polls, which are executed by a bounded
+ * pool of worker threads (sized by the system property {@code interlok.poller.shared.threads}). This is useful if you have a large
+ * number of polling consumers, as each poller no longer needs its own thread. Either way, a poll is still skipped if the previous
+ * poll has not finished.
+ * </p>
+ * <p>
+ * Timing statistics are available via {@link #metrics()}.
+ * </p>
+ *
  * @since 3.4.0
  */
 public abstract class ScheduledTaskPoller extends PollerImp {
 
+  /**
+   * System property that changes the default for {@link #setUseSharedScheduler(Boolean)}.
+   */
+  public static final String SHARED_SCHEDULER_PROPERTY = "interlok.poller.shared.scheduler";
+
   private static final TimeInterval DEFAULT_SHUTDOWN_WAIT = new TimeInterval(1L, TimeUnit.MINUTES);
 
   @AdvancedConfig
   private TimeInterval shutdownWaitTime;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useSharedScheduler;
 
   protected transient ScheduledExecutorService executor;
   protected transient ScheduledFuture pollerTask;
+  private transient PollerMetrics metrics = new PollerMetrics();
+  private transient volatile long pollStarted;
 
   public ScheduledTaskPoller() {
   }
@@ -45,7 +71,12 @@ public abstract class ScheduledTaskPoller extends PollerImp {
   }
 
   public void start() throws CoreException {
-    executor = Executors.newSingleThreadScheduledExecutor(new ManagedThreadFactory(getClass().getSimpleName()));
+    if (useSharedScheduler()) {
+      executor = SharedPollingScheduler.getInstance().newExecutor(metrics);
+    }
+    else {
+      executor = Executors.newSingleThreadScheduledExecutor(new ManagedThreadFactory(getClass().getSimpleName()));
+    }
     scheduleTask();
   }
 
@@ -73,6 +104,34 @@ public abstract class ScheduledTaskPoller extends PollerImp {
     shutdownExecutor();
   }
 
+  @Override
+  protected boolean attemptLock() {
+    boolean locked = super.attemptLock();
+    if (locked) {
+      pollStarted = System.currentTimeMillis();
+    }
+    else {
+      metrics.recordSkipped();
+    }
+    return locked;
+  }
+
+  @Override
+  protected void releaseLock() {
+    metrics.recordPoll(System.currentTimeMillis() - pollStarted);
+    super.releaseLock();
+  }
+
+  /**
+   * Return the timing statistics for this poller.
+   *
+   * @return the metrics.
+   * @since 3.8.4
+   */
+  public PollerMetrics metrics() {
+    return metrics;
+  }
+
   private class PollerTask implements Runnable {
 
     /** @see java.lang.Runnable#run() */
@@ -107,6 +166,25 @@ public abstract class ScheduledTaskPoller extends PollerImp {
     shutdownWaitTime = interval;
   }
 
+  public Boolean getUseSharedScheduler() {
+    return useSharedScheduler;
+  }
+
+  /**
+   * Whether or not to use the adapter wide polling scheduler.
+   *
+   * @param b true to use the shared scheduler; the default is false unless the system property
+   *          {@value #SHARED_SCHEDULER_PROPERTY} is set to true.
+   * @since 3.8.4
+   */
+  public void setUseSharedScheduler(Boolean b) {
+    useSharedScheduler = b;
+  }
+
+  boolean useSharedScheduler() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseSharedScheduler(), Boolean.getBoolean(SHARED_SCHEDULER_PROPERTY));
+  }
+
   @Override
   public void prepare() throws CoreException {}
 }
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ManagedThreadFactory;
+
+/**
+ * Adapter wide scheduler that is shared by {@link ScheduledTaskPoller} instances.
+ * <p>
+ * A single timer thread keeps track of when each poller is next due, and hands the poll itself to a bounded pool of worker
+ * threads. This means that hundreds of mostly idle polling consumers do not each need their own thread. The size of the worker pool
+ * defaults to twice the number of available processors (minimum 4) and can be changed with the system property
+ * {@value #WORKER_THREADS_PROPERTY}. All threads are daemon threads and time out when idle.
+ * </p>
+ * <p>
+ * A recurring poll is only rescheduled once the previous execution has finished, so each poller has at most one poll waiting for,
+ * or running on, the worker pool. However, a slow poll still occupies a worker thread for as long as it runs; if every worker
+ * thread is busy, then polls that become due wait in the (unbounded) worker queue until a thread is free. The lag and the queue
+ * depth recorded in {@link PollerMetrics} show when this happens, in which case the worker pool should be made larger.
+ * </p>
+ * <p>
+ * Each poller gets its own {@link ScheduledExecutorService} view via {@link #newExecutor(PollerMetrics)}; shutting down the view only
+ * cancels the tasks scheduled through that view.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+final class SharedPollingScheduler {
+
+  static final String WORKER_THREADS_PROPERTY = "interlok.poller.shared.threads";
+
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+  private static final SharedPollingScheduler INSTANCE = new SharedPollingScheduler(
+      Integer.getInteger(WORKER_THREADS_PROPERTY, Math.max(4, Runtime.getRuntime().availableProcessors() * 2)));
+
+  private final ScheduledThreadPoolExecutor timer;
+  private final ThreadPoolExecutor workers;
+
+  SharedPollingScheduler(int workerThreads) {
+    ThreadFactory factory = daemonThreadFactory(getClass().getSimpleName());
+    timer = new ScheduledThreadPoolExecutor(1, factory);
+    timer.setRemoveOnCancelPolicy(true);
+    timer.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+    timer.allowCoreThreadTimeOut(true);
+    int max = Math.max(1, workerThreads);
+    workers = new ThreadPoolExecutor(max, max, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+    workers.allowCoreThreadTimeOut(true);
+  }
+
+  static SharedPollingScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Create a new executor view for a single poller.
+   *
+   * @param metrics where to record the lag for each scheduled execution.
+   */
+  ScheduledExecutorService newExecutor(PollerMetrics metrics) {
+    return new PollerExecutor(Args.notNull(metrics, "metrics"));
+  }
+
+  int workerThreads() {
+    return workers.getMaximumPoolSize();
+  }
+
+  /**
+   * @return the number of polls that are due but waiting for a worker thread.
+   */
+  int queueDepth() {
+    return workers.getQueue().size();
+  }
+
+  private static ThreadFactory daemonThreadFactory(String name) {
+    final ManagedThreadFactory factory = new ManagedThreadFactory(name);
+    return r -> {
+      Thread t = factory.newThread(r);
+      t.setDaemon(true);
+      return t;
+    };
+  }
+
+  private class PollerExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+    private final Set<PollerTask<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<PollerTask<?>, Boolean>());
+    private final PollerMetrics metrics;
+    private volatile boolean shutdown = false;
+
+    PollerExecutor(PollerMetrics m) {
+      metrics = m;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      return submit(new PollerTask<Void>(this, Executors.callable(command, (Void) null), unit.toNanos(delay), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+      return submit(new PollerTask<V>(this, callable, unit.toNanos(delay), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+      Args.notNull(command, "command");
+      if (period <= 0) {
+        throw new IllegalArgumentException("period must be positive");
+      }
+      return submit(new PollerTask<Void>(this, Executors.callable(command, (Void) null), unit.toNanos(initialDelay),
+          unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+      Args.notNull(command, "command");
+      if (delay <= 0) {
+        throw new IllegalArgumentException("delay must be positive");
+      }
+      return submit(new PollerTask<Void>(this, Executors.callable(command, (Void) null), unit.toNanos(initialDelay),
+          -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    private <V> PollerTask<V> submit(PollerTask<V> task) {
+      if (shutdown) {
+        throw new RejectedExecutionException("Executor has been shutdown");
+      }
+      tasks.add(task);
+      task.arm();
+      return task;
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+      for (PollerTask<?> t : tasks) {
+        t.cancelIfWaiting();
+      }
+      signalIfTerminated();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      shutdown = true;
+      for (PollerTask<?> t : tasks) {
+        t.cancel(true);
+      }
+      signalIfTerminated();
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return shutdown && tasks.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      synchronized (tasks) {
+        while (!isTerminated()) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return false;
+          }
+          TimeUnit.NANOSECONDS.timedWait(tasks, remaining);
+        }
+      }
+      return true;
+    }
+
+    void finished(PollerTask<?> task) {
+      tasks.remove(task);
+      signalIfTerminated();
+    }
+
+    private void signalIfTerminated() {
+      if (isTerminated()) {
+        synchronized (tasks) {
+          tasks.notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * A scheduled task; the timer thread only dispatches it to the worker pool, so a slow poll never delays the timer thread.
+   */
+  private class PollerTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+    private final PollerExecutor owner;
+    // 0 = one shot, > 0 = fixed rate, < 0 = fixed delay
+    private final long period;
+    private volatile long dueNanos;
+    private volatile ScheduledFuture<?> timerTask;
+    private volatile boolean dispatched = false;
+    private volatile boolean running = false;
+
+    PollerTask(PollerExecutor owner, Callable<V> callable, long delayNanos, long period) {
+      super(callable);
+      this.owner = owner;
+      this.period = period;
+      dueNanos = System.nanoTime() + Math.max(0, delayNanos);
+    }
+
+    void arm() {
+      dispatched = false;
+      try {
+        timerTask = timer.schedule(this::dispatch, dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+      catch (RejectedExecutionException e) {
+        setException(e);
+      }
+      if (isCancelled() && timerTask != null) {
+        timerTask.cancel(false);
+      }
+    }
+
+    private void dispatch() {
+      if (isDone()) {
+        return;
+      }
+      dispatched = true;
+      owner.metrics.recordQueueDepth(queueDepth());
+      try {
+        workers.execute(this::execute);
+      }
+      catch (RejectedExecutionException e) {
+        setException(e);
+      }
+    }
+
+    private void execute() {
+      running = true;
+      try {
+        owner.metrics.recordLag(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dueNanos));
+        if (period == 0) {
+          run();
+        }
+        else if (runAndReset() && !owner.isShutdown()) {
+          dueNanos = period > 0 ? dueNanos + period : System.nanoTime() - period;
+          arm();
+        }
+        else {
+          // runAndReset() failed, or we were shutdown while running.
+          cancel(false);
+        }
+      }
+      finally {
+        running = false;
+        if (isDone()) {
+          owner.finished(this);
+        }
+      }
+    }
+
+    void cancelIfWaiting() {
+      if (!dispatched || period != 0) {
+        cancel(false);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean result = super.cancel(mayInterruptIfRunning);
+      ScheduledFuture<?> t = timerTask;
+      if (t != null) {
+        t.cancel(false);
+      }
+      return result;
+    }
+
+    @Override
+    protected void done() {
+      // If we are still running, then execute() will tidy up.
+      if (!running) {
+        owner.finished(this);
+      }
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      if (o == this) {
+        return 0;
+      }
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+    }
+  }
+}
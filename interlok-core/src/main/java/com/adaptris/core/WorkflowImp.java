@@ -381,9 +381,20 @@ public abstract class WorkflowImp implements Workflow {
    */
   @Override
   public void doProduce(AdaptrisMessage msg) throws ServiceException, ProduceException {
+    doProduce(producer, msg);
+  }
+
+  /**
+   * Produce the message using the specified producer, unless {@link CoreConstants#KEY_WORKFLOW_SKIP_PRODUCER} is set to true.
+   *
+   * @param p the producer to use
+   * @param msg the message to produce
+   * @throws ProduceException if any occur
+   */
+  protected final void doProduce(AdaptrisMessageProducer p, AdaptrisMessage msg) throws ProduceException {
     if (!Boolean.valueOf(msg.getMetadataValue(KEY_WORKFLOW_SKIP_PRODUCER)).booleanValue()) {
-      producer.produce(msg);
-      msg.addEvent(producer, true);
+      p.produce(msg);
+      msg.addEvent(p, true);
     }
     else {
       log.debug("Skipping message producer, {} set to true", KEY_WORKFLOW_SKIP_PRODUCER);
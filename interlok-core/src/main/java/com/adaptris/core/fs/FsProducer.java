@@ -40,6 +40,7 @@ import com.adaptris.core.NullConnection;
 import com.adaptris.core.ProduceDestination;
 import com.adaptris.core.ProduceException;
 import com.adaptris.core.ProduceOnlyProducerImp;
+import com.adaptris.core.lms.FileBackedMessage;
 import com.adaptris.core.util.Args;
 import com.adaptris.fs.FsWorker;
 import com.adaptris.fs.NioWorker;
@@ -174,13 +175,23 @@ public class FsProducer extends ProduceOnlyProducerImp {
       log.trace("Writing to temporary file " + tmpFile.getCanonicalPath());
       fileToWriteTo = tmpFile;
     }
-    fsWorker.put(encode(msg), fileToWriteTo);
+    if (getEncoder() == null && isFileResident(msg)) {
+      // No need to read the payload into memory, just copy the file.
+      fsWorker.put(((FileBackedMessage) msg).currentSource(), fileToWriteTo);
+    }
+    else {
+      fsWorker.put(encode(msg), fileToWriteTo);
+    }
     if (getTempDirectory() != null) {
       log.trace("Renaming temporary file to " + destFile.getCanonicalPath());
       fileToWriteTo.renameTo(destFile);
     }
   }
 
+  private static boolean isFileResident(AdaptrisMessage msg) {
+    return msg instanceof FileBackedMessage && ((FileBackedMessage) msg).isFileResident();
+  }
+
   protected File createTempFile(AdaptrisMessage msg) throws Exception {
     URL tmpDirUrl = FsHelper.createUrlFromString(getTempDirectory(), true);
     validateDir(tmpDirUrl);
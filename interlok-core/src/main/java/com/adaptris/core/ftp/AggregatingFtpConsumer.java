@@ -40,6 +40,7 @@ import com.adaptris.core.services.aggregator.AggregatingConsumerImpl;
 import com.adaptris.core.services.aggregator.ConsumeDestinationGenerator;
 import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.filetransfer.FileTransferClient;
+import com.adaptris.filetransfer.RemoteFile;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
@@ -135,12 +136,16 @@ public class AggregatingFtpConsumer extends AggregatingConsumerImpl<AggregatingF
       if (additionalDebug) {
         log.trace("Polling {}", pollDirectory);
       }
-      String[] files = ftpClient.dir(pollDirectory, FsHelper.createFilter(cfg.dest.getFilterExpression(), fileFilterImp()));
+      List<RemoteFile> files =
+          ftpClient.listFiles(pollDirectory, FsHelper.createFilter(cfg.dest.getFilterExpression(), fileFilterImp()));
       if (additionalDebug) {
-        log.trace("There are potentially [{}] messages to aggregate", files.length);
+        log.trace("There are potentially [{}] messages to aggregate", files.size());
       }
-      for (int i = 0; i < files.length; i++) {
-        String fullPath = pollDirectory + FORWARD_SLASH + FtpHelper.getFilename(files[i], cfg.remote.windowsWorkaround());
+      for (RemoteFile file : files) {
+        if (file.isDirectory()) {
+          continue;
+        }
+        String fullPath = pollDirectory + FORWARD_SLASH + FtpHelper.getFilename(file.getRemoteName(), cfg.remote.windowsWorkaround());
         result.add(fetch(ftpClient, fullPath, additionalDebug, factory));
       }
     }
@@ -72,7 +72,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
     "originalname", "fsFileSize"
 }, 
     recommended = {FileTransferConnection.class})
-@DisplayOrder(order = {"poller", "workDirectory", "fileFilterImp", "procDirectory", "wipSuffix", "quietInterval"})
+@DisplayOrder(order = {"poller", "workDirectory", "fileFilterImp", "procDirectory", "wipSuffix", "quietInterval", "fileSorter"})
 public class FtpConsumer extends FtpConsumerImpl {
   private static final String DEFAULT_WIP_SUFFIX = "_wip";
 
@@ -117,11 +117,15 @@ public class FtpConsumer extends FtpConsumerImpl {
   }
 
   protected boolean accept(String path) throws Exception {
+    return notWip(path) && super.accept(path);
+  }
+
+  private boolean notWip(String path) {
     if (path.endsWith(wipSuffix())) {
       log.warn("[{}] matches [{}], assuming part processed and ignoring", path, wipSuffix());
       return false;
     }
-    return super.accept(path);
+    return true;
   }
 
   @Override
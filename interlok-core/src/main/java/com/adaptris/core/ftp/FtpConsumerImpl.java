@@ -18,11 +18,16 @@ package com.adaptris.core.ftp;
 
 import static com.adaptris.core.ftp.FtpHelper.FORWARD_SLASH;
 
+import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import javax.validation.Valid;
+
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageConsumer;
@@ -30,9 +35,12 @@ import com.adaptris.core.AdaptrisPollingConsumer;
 import com.adaptris.core.CoreConstants;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.fs.FsHelper;
+import com.adaptris.core.fs.enhanced.FileSorter;
+import com.adaptris.core.fs.enhanced.NoSorting;
 import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.filetransfer.FileTransferClient;
 import com.adaptris.filetransfer.FileTransferException;
+import com.adaptris.filetransfer.RemoteFile;
 import com.adaptris.util.TimeInterval;
 
 /**
@@ -46,9 +54,15 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
   private String fileFilterImp;
   @AdvancedConfig
   private TimeInterval quietInterval;
+  @AdvancedConfig
+  @Valid
+  private FileSorter fileSorter;
 
   protected transient FileFilter fileFilter;
   protected transient FileTransferClient ftpClient = null;
+  // The file currently being handled, as returned by the directory listing.
+  private transient String listedPath;
+  private transient RemoteFile listedFile;
 
   public FtpConsumerImpl() {
     setReacquireLockBetweenMessages(true);
@@ -73,11 +87,27 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
   }
 
   protected boolean oldEnough(String fullPath) throws FileTransferException, IOException {
+    return oldEnough(fullPath, fullPath.equals(listedPath) ? listedFile : new RemoteFile(fullPath));
+  }
+
+  /**
+   * Check that the file is old enough to process.
+   * <p>
+   * The last modified time is taken from the directory listing if the server provided it; otherwise the server is asked for it
+   * explicitly.
+   * </p>
+   *
+   * @param fullPath the full path to the file.
+   * @param file the file as returned by {@link FileTransferClient#listFiles(String, FileFilter)}.
+   * @return true if the file is old enough to process
+   * @since 3.8.4
+   */
+  protected boolean oldEnough(String fullPath, RemoteFile file) throws FileTransferException, IOException {
     boolean result = true;
     long olderThanMs = olderThanMs();
     if (olderThanMs > 0) {
       long now = System.currentTimeMillis();
-      long lastModified = ftpClient.lastModified(fullPath);
+      long lastModified = file.hasLastModified() ? file.lastModified() : ftpClient.lastModified(fullPath);
       if (additionalDebug()) {
         log.trace("lastModified for [{}] is [{}]", fullPath, new Date(lastModified));
       }
@@ -113,13 +143,17 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
       if (additionalDebug()) {
         log.trace("Polling [{}]", pollDirectory);
       }
-      String[] files = ftpClient.dir(pollDirectory, fileFilter);
+      List<File> files = fileSorter().sort(new ArrayList<File>(ftpClient.listFiles(pollDirectory, fileFilter)));
       if (additionalDebug()) {
-        log.trace("There are potentially [{}] messages to process", files.length);
+        log.trace("There are potentially [{}] messages to process", files.size());
       }
-      for (String file : files) {
-        String fileToGet = pollDirectory + FORWARD_SLASH + FtpHelper.getFilename(file, con.windowsWorkaround());
-        count += handle(fileToGet) ? 1 : 0;
+      for (File f : files) {
+        RemoteFile file = (RemoteFile) f;
+        if (file.isDirectory()) {
+          continue;
+        }
+        String fileToGet = pollDirectory + FORWARD_SLASH + FtpHelper.getFilename(file.getRemoteName(), con.windowsWorkaround());
+        count += handle(fileToGet, file) ? 1 : 0;
         if (!continueProcessingMessages(count)) {
           break;
         }
@@ -138,15 +172,21 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
     return count;
   }
 
-  private boolean handle(String fileToGet) {
+  private boolean handle(String fileToGet, RemoteFile file) {
     try {
-      if (accept(fileToGet)) {
+      listedPath = fileToGet;
+      listedFile = file;
+      if (accept(fileToGet, file)) {
         return fetchAndProcess(fileToGet);
       }
     }
     catch (Exception e) {
       log.error("Error processing [{}]", fileToGet, e);
     }
+    finally {
+      listedPath = null;
+      listedFile = null;
+    }
     return false;
   }
 
@@ -160,6 +200,22 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
     return oldEnough(path);
   }
 
+  /**
+   * Whether or not to process the file.
+   * <p>
+   * The default implementation delegates to {@link #accept(String)}, so subclasses that only override that still work; while the
+   * file is being handled, {@link #oldEnough(String)} uses the last modified time from the directory listing if it is available.
+   * </p>
+   *
+   * @param path the full path to the file.
+   * @param file the file as returned by {@link FileTransferClient#listFiles(String, FileFilter)}.
+   * @return true if the file should be processed.
+   * @since 3.8.4
+   */
+  protected boolean accept(String path, RemoteFile file) throws Exception {
+    return accept(path);
+  }
+
   @Override
   protected void prepareConsumer() throws CoreException {
   }
@@ -181,9 +237,10 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
    * The <code>String</code> expression that is used to filter messages is obtained from <code>ConsumeDestination</code>.
    * </p>
    * <p>
-   * Note that because we working against a remote server, support for additional file attributes such as size (e.g. via
-   * {@link com.adaptris.core.fs.SizeGreaterThan}) or last modified may not be supported. We encourage you to stick with filtering
-   * by filename only.
+   * Note that because we working against a remote server, file attributes such as size (e.g. via
+   * {@link com.adaptris.core.fs.SizeGreaterThan}) or last modified are those reported by the server in its directory listing. If
+   * the server does not report them (e.g. the last modified time when the FTP server does not support {@code MLSD}) then they will
+   * be 0. We encourage you to stick with filtering by filename only.
    * </p>
    * 
    * @param s The fileFilterImp to set, if not specified, then the default is "org.apache.oro.io.GlobFilenameFilter" which uses the
@@ -225,4 +282,31 @@ public abstract class FtpConsumerImpl extends AdaptrisPollingConsumer {
     quietInterval = interval;
   }
 
+  /**
+   * @return the file sorter.
+   * @since 3.8.4
+   */
+  public FileSorter getFileSorter() {
+    return fileSorter;
+  }
+
+  /**
+   * Specify the sort order for the files that are to be processed.
+   * <p>
+   * The files are sorted using the attributes returned by the remote server as part of the directory listing (see
+   * {@link FileTransferClient#listFiles(String, FileFilter)}), so sorting by size or last modified time does not require any
+   * additional requests to the server.
+   * </p>
+   *
+   * @param s the sorter, defaults to {@link NoSorting} if not specified.
+   * @since 3.8.4
+   */
+  public void setFileSorter(FileSorter s) {
+    fileSorter = s;
+  }
+
+  protected FileSorter fileSorter() {
+    return getFileSorter() != null ? getFileSorter() : new NoSorting();
+  }
+
 }
@@ -64,7 +64,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
     tag = "consumer,ftp,ftps,sftp", recommended = {FileTransferConnection.class})
 @DisplayOrder(order =
 {
-    "poller", "fileFilterImp", "quietInterval", "failOnDeleteFailure"
+    "poller", "fileFilterImp", "quietInterval", "failOnDeleteFailure", "fileSorter"
 })
 public class RelaxedFtpConsumer extends FtpConsumerImpl {
 
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.ByteBufferPool;
+
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.util.NumberUtils;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Configures the jetty {@link ArrayByteBufferPool} used by the {@code ServerConnector} created by {@link HttpConnection}.
+ * <p>
+ * Any value that is not specified (or is less than 1) will cause jetty to use its internal default.
+ * </p>
+ *
+ * @config jetty-array-byte-buffer-pool
+ * @since 3.8.4
+ */
+@XStreamAlias("jetty-array-byte-buffer-pool")
+@DisplayOrder(order =
+{
+    "minCapacity", "factor", "maxCapacity", "maxQueueLength"
+})
+public class ArrayByteBufferPoolFactory {
+
+  private static final int JETTY_DEFAULT = -1;
+
+  @InputFieldDefault(value = "0")
+  private Integer minCapacity;
+  @InputFieldDefault(value = "1024")
+  private Integer factor;
+  @InputFieldDefault(value = "65536")
+  private Integer maxCapacity;
+  @InputFieldDefault(value = "unbounded")
+  private Integer maxQueueLength;
+
+  public ArrayByteBufferPoolFactory() {
+  }
+
+  ByteBufferPool createByteBufferPool() {
+    return new ArrayByteBufferPool(NumberUtils.toIntDefaultIfNull(getMinCapacity(), JETTY_DEFAULT),
+        NumberUtils.toIntDefaultIfNull(getFactor(), JETTY_DEFAULT), NumberUtils.toIntDefaultIfNull(getMaxCapacity(), JETTY_DEFAULT),
+        NumberUtils.toIntDefaultIfNull(getMaxQueueLength(), JETTY_DEFAULT));
+  }
+
+  public Integer getMinCapacity() {
+    return minCapacity;
+  }
+
+  /**
+   * Set the minimum size of a pooled buffer.
+   *
+   * @param i the minimum capacity.
+   */
+  public void setMinCapacity(Integer i) {
+    minCapacity = i;
+  }
+
+  public Integer getFactor() {
+    return factor;
+  }
+
+  /**
+   * Set the size increment between the buckets of pooled buffers.
+   *
+   * @param i the factor.
+   */
+  public void setFactor(Integer i) {
+    factor = i;
+  }
+
+  public Integer getMaxCapacity() {
+    return maxCapacity;
+  }
+
+  /**
+   * Set the maximum size of a pooled buffer; larger buffers are not pooled.
+   *
+   * @param i the maximum capacity.
+   */
+  public void setMaxCapacity(Integer i) {
+    maxCapacity = i;
+  }
+
+  public Integer getMaxQueueLength() {
+    return maxQueueLength;
+  }
+
+  /**
+   * Set the maximum number of buffers pooled in each bucket.
+   *
+   * @param i the maximum queue length.
+   */
+  public void setMaxQueueLength(Integer i) {
+    maxQueueLength = i;
+  }
+}
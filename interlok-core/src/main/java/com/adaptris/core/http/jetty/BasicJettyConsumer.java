@@ -41,6 +41,7 @@ import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import javax.management.MalformedObjectNameException;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -52,6 +53,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.annotation.Removal;
+import com.adaptris.core.AdaptrisComponent;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageConsumerImp;
 import com.adaptris.core.ClosedState;
@@ -59,6 +61,9 @@ import com.adaptris.core.CoreException;
 import com.adaptris.core.WorkflowImp;
 import com.adaptris.core.WorkflowInterceptor;
 import com.adaptris.core.http.client.RequestMethodProvider.RequestMethod;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponentFactory;
 import com.adaptris.util.TimeInterval;
 
 /**
@@ -112,6 +117,7 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
       methods.add(m.name());
     }
     HTTP_METHODS = Collections.unmodifiableList(methods);
+    RuntimeInfoComponentFactory.registerComponentFactory(new JmxFactory());
   }
 
   public BasicJettyConsumer() {
@@ -526,5 +532,20 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
     }
   }
 
+  private static class JmxFactory extends RuntimeInfoComponentFactory {
 
+    @Override
+    protected boolean isSupported(AdaptrisComponent e) {
+      if (e != null && e instanceof BasicJettyConsumer) {
+        return !isEmpty(((BasicJettyConsumer) e).getUniqueId());
+      }
+      return false;
+    }
+
+    @Override
+    protected RuntimeInfoComponent createComponent(ParentRuntimeInfoComponent parent, AdaptrisComponent e)
+        throws MalformedObjectNameException {
+      return new JettyThreadPoolMonitor(parent, (BasicJettyConsumer) e);
+    }
+  }
 }
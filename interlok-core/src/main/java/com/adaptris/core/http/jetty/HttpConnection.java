@@ -30,18 +30,22 @@ import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.thread.ThreadPool;
 
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AutoPopulated;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.annotation.InputFieldHint;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.management.webserver.SecurityHandlerWrapper;
 import com.adaptris.util.KeyValuePair;
 import com.adaptris.util.KeyValuePairSet;
+import com.adaptris.util.NumberUtils;
 import com.adaptris.util.SimpleBeanUtil;
+import com.adaptris.util.TimeInterval;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
@@ -68,6 +72,12 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * transform into the correct type. Invalid combinations may result in undefined behaviour. Similarly additional
  * {@code HttpConfiguration} properties can be configured via the {@code http-connection} element.
  * </p>
+ * <p>
+ * For high throughput scenarios, the jetty thread pool can be configured via {@link #setThreadPool(JettyThreadPoolFactory)}, and
+ * the number of acceptor and selector threads, the {@code ByteBufferPool} and the connector idle timeout can all be configured
+ * directly. Thread pool metrics (busy threads, queue size, rejected jobs) are available via JMX for any jetty consumer that uses
+ * this connection.
+ * </p>
  * 
  * @config jetty-http-connection
  * 
@@ -79,7 +89,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
     tag = "connections,http,jetty")
 @DisplayOrder(order =
 {
-    "port", "httpConfiguration", "serverConnectorProperties"
+    "port", "httpConfiguration", "serverConnectorProperties", "threadPool", "acceptors", "selectors", "byteBufferPool",
+    "idleTimeout"
 })
 public class HttpConnection extends JettyConnection {
 
@@ -339,6 +350,21 @@ public class HttpConnection extends JettyConnection {
   @InputFieldHint(style = "com.adaptris.core.http.jetty.HttpConnection.HttpConfigurationProperty")
   private KeyValuePairSet httpConfiguration;
 
+  @Valid
+  @AdvancedConfig
+  private JettyThreadPoolFactory threadPool;
+  @AdvancedConfig
+  @InputFieldDefault(value = "-1")
+  private Integer acceptors;
+  @AdvancedConfig
+  @InputFieldDefault(value = "-1")
+  private Integer selectors;
+  @Valid
+  @AdvancedConfig
+  private ArrayByteBufferPoolFactory byteBufferPool;
+  @Valid
+  @AdvancedConfig
+  private TimeInterval idleTimeout;
 
   public HttpConnection() {
     super();
@@ -374,12 +400,35 @@ public class HttpConnection extends JettyConnection {
     return cfg;
   }
 
+  @Override
+  Server createServer() throws Exception {
+    if (getThreadPool() == null) {
+      return super.createServer();
+    }
+    return new Server(getThreadPool().createThreadPool(threadPoolName()));
+  }
+
   @Override
   Server configure(Server server) throws Exception {
-    server.addConnector(configure(new ServerConnector(server, -1, -1, createConnectionFactory())));
+    server.addConnector(configure(new ServerConnector(server, null, null,
+        getByteBufferPool() != null ? getByteBufferPool().createByteBufferPool() : null, acceptors(), selectors(),
+        createConnectionFactory())));
     return server;
   }
 
+  private String threadPoolName() {
+    return getClass().getSimpleName() + "-" + getPort();
+  }
+
+  /**
+   * Return the thread pool of the jetty server.
+   *
+   * @return the thread pool, or null if the connection has not been initialised.
+   */
+  ThreadPool serverThreadPool() {
+    return server != null ? server.getThreadPool() : null;
+  }
+
   @Override
   Handler createHandler(ServletContextHandler context) throws Exception {
     ContextHandlerCollection handlerCollection = new ContextHandlerCollection();
@@ -395,6 +444,9 @@ public class HttpConnection extends JettyConnection {
 
   protected ServerConnector configure(ServerConnector connector) throws Exception {
     connector.setPort(getPort());
+    if (getIdleTimeout() != null) {
+      connector.setIdleTimeout(getIdleTimeout().toMilliseconds());
+    }
     for (KeyValuePair kvp : getServerConnectorProperties().getKeyValuePairs()) {
       boolean matched = false;
       for (ServerConnectorProperty sp : ServerConnectorProperty.values()) {
@@ -473,4 +525,83 @@ public class HttpConnection extends JettyConnection {
     this.httpConfiguration = kvps;
   }
 
+  public JettyThreadPoolFactory getThreadPool() {
+    return threadPool;
+  }
+
+  /**
+   * Set the thread pool used by the jetty server.
+   *
+   * @param t the thread pool; if not specified then jetty's default {@code QueuedThreadPool} is used.
+   * @see QueuedThreadPoolFactory
+   * @see VirtualThreadPoolFactory
+   */
+  public void setThreadPool(JettyThreadPoolFactory t) {
+    threadPool = t;
+  }
+
+  public Integer getAcceptors() {
+    return acceptors;
+  }
+
+  /**
+   * Set the number of acceptor threads.
+   *
+   * @param i the number of acceptors, default is -1 which lets jetty decide based on the number of processors.
+   */
+  public void setAcceptors(Integer i) {
+    acceptors = i;
+  }
+
+  int acceptors() {
+    return NumberUtils.toIntDefaultIfNull(getAcceptors(), -1);
+  }
+
+  public Integer getSelectors() {
+    return selectors;
+  }
+
+  /**
+   * Set the number of selector threads.
+   *
+   * @param i the number of selectors, default is -1 which lets jetty decide based on the number of processors.
+   */
+  public void setSelectors(Integer i) {
+    selectors = i;
+  }
+
+  int selectors() {
+    return NumberUtils.toIntDefaultIfNull(getSelectors(), -1);
+  }
+
+  public ArrayByteBufferPoolFactory getByteBufferPool() {
+    return byteBufferPool;
+  }
+
+  /**
+   * Set the {@code ByteBufferPool} used by the connector.
+   *
+   * @param b the byte buffer pool configuration; if not specified then jetty's default is used.
+   */
+  public void setByteBufferPool(ArrayByteBufferPoolFactory b) {
+    byteBufferPool = b;
+  }
+
+  public TimeInterval getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  /**
+   * Set the idle timeout for connections.
+   * <p>
+   * This is equivalent to specifying {@link ServerConnectorProperty#IdleTimeout} as one of the server connector properties; if
+   * both are specified then the server connector property takes precedence.
+   * </p>
+   *
+   * @param t the idle timeout; if not specified then jetty's default is used.
+   */
+  public void setIdleTimeout(TimeInterval t) {
+    idleTimeout = t;
+  }
+
 }
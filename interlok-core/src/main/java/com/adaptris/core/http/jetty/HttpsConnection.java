@@ -75,7 +75,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
     tag = "connections,https,jetty")
 @DisplayOrder(order =
 {
-    "port", "httpConfiguration", "serverConnectorProperties", "sslProperties"
+    "port", "httpConfiguration", "serverConnectorProperties", "sslProperties", "threadPool", "acceptors", "selectors",
+    "byteBufferPool", "idleTimeout"
 })
 public class HttpsConnection extends HttpConnection {
   /**
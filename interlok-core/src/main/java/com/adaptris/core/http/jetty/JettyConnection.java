@@ -78,7 +78,7 @@ public abstract class JettyConnection extends AdaptrisConnectionImp implements J
     // Would that even work in the context of the logging...
     // Would be better to rate limit based on iptables (!).
     try {
-      server = configure(new Server());
+      server = configure(createServer());
       context = new ServletContextHandler(ServletContextHandler.SESSIONS);
       context.setContextPath("/");
       context.addServlet(new ServletHolder(new DefaultServlet()), "/");
@@ -164,6 +164,10 @@ public abstract class JettyConnection extends AdaptrisConnectionImp implements J
     return l.toArray(new String[0]);
   }
 
+  Server createServer() throws Exception {
+    return new Server();
+  }
+
   abstract Server configure(Server server) throws Exception;
 
   abstract Handler createHandler(ServletContextHandler context) throws Exception;
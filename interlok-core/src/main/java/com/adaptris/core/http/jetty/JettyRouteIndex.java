@@ -0,0 +1,343 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.http.jetty;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.adaptris.core.MetadataElement;
+import com.adaptris.core.http.jetty.JettyRouteSpec.RouteMatch;
+
+/**
+ * Index over a list of {@link JettyRouteSpec} used by {@link JettyRoutingService}.
+ * <p>
+ * Each route's URL pattern is split into path segments; routes are stored in a path trie (one per HTTP method, plus one for routes
+ * that match any method). Segments that are plain literals, or a capturing group that matches a single path segment (e.g.
+ * {@code ([^/]+)}, {@code (\d+)}) are matched directly by walking the trie. Any other pattern (e.g. {@code (.*)}, alternation,
+ * optional segments) is attached to the trie at the end of its leading literal segments, and only has its regular expression
+ * evaluated when a request reaches that point in the trie.
+ * </p>
+ * <p>
+ * Routes are still evaluated in the order they were configured; the first matching route wins, exactly as if each regular
+ * expression were evaluated in turn.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+final class JettyRouteIndex {
+
+  private static final String ANY_METHOD = "";
+  private static final String SINGLE_SEGMENT = "[^/]";
+  private static final Pattern SEGMENT_CLASS = Pattern.compile("(\\\\[wd]|\\[([^\\^\\[\\]/&\\\\]+)\\])[+*]\\??");
+
+  private final Map<String, Node> tries = new HashMap<>();
+
+  JettyRouteIndex(List<JettyRouteSpec> routes) {
+    for (int i = 0; i < routes.size(); i++) {
+      add(new Entry(i, routes.get(i)));
+    }
+  }
+
+  /**
+   * Find the first route that matches.
+   *
+   * @return the match, or null if no routes match.
+   */
+  RouteMatch match(String method, String uri) {
+    List<Result> results = new ArrayList<>();
+    String[] path = uri.split("/", -1);
+    search(tries.get(ANY_METHOD), path, 0, new ArrayList<>(), results);
+    if (method != null) {
+      search(tries.get(method.toUpperCase(Locale.ROOT)), path, 0, new ArrayList<>(), results);
+    }
+    Collections.sort(results, (a, b) -> Integer.compare(a.entry.index, b.entry.index));
+    for (Result r : results) {
+      if (r.params != null) {
+        return r.entry.spec.matched(r.metadata());
+      }
+      RouteMatch m = r.entry.spec.build(method, uri);
+      if (m.matches()) {
+        return m;
+      }
+    }
+    return null;
+  }
+
+  private void search(Node node, String[] path, int depth, List<String> params, List<Result> results) {
+    if (node == null) {
+      return;
+    }
+    for (Entry e : node.candidates) {
+      results.add(new Result(e, null));
+    }
+    if (depth == path.length) {
+      for (Entry e : node.routes) {
+        results.add(new Result(e, new ArrayList<>(params)));
+      }
+      return;
+    }
+    String segment = path[depth];
+    search(node.literals.get(segment), path, depth + 1, params, results);
+    for (Map.Entry<String, Node> p : node.params.entrySet()) {
+      if (matchesParam(p.getKey(), segment)) {
+        params.add(segment);
+        search(p.getValue(), path, depth + 1, params, results);
+        params.remove(params.size() - 1);
+      }
+    }
+  }
+
+  private void add(Entry entry) {
+    if (!hasEnoughKeys(entry.spec)) {
+      // Always evaluated, so that any misconfiguration is reported when a message is processed, as it was before.
+      tries.computeIfAbsent(ANY_METHOD, k -> new Node()).candidates.add(entry);
+      return;
+    }
+    String method = isBlank(entry.spec.getMethod()) ? ANY_METHOD : entry.spec.getMethod().toUpperCase(Locale.ROOT);
+    Node node = tries.computeIfAbsent(method, k -> new Node());
+    List<String> segments = segments(entry.spec.getUrlPattern());
+    if (segments == null) {
+      node.candidates.add(entry);
+      return;
+    }
+    if (isDirect(segments)) {
+      for (String s : segments) {
+        String literal = literal(s);
+        node = literal != null ? node.literal(literal) : node.param(paramRegex(s));
+      }
+      node.routes.add(entry);
+      return;
+    }
+    // Walk the leading literals; a literal is only safe if the following '/' can't be made optional by a quantifier.
+    for (int i = 0; i < segments.size() - 1; i++) {
+      String literal = literal(segments.get(i));
+      if (literal == null || startsWithQuantifier(segments.get(i + 1))) {
+        break;
+      }
+      node = node.literal(literal);
+    }
+    node.candidates.add(entry);
+  }
+
+  private static boolean isDirect(List<String> segments) {
+    for (String s : segments) {
+      if (literal(s) == null && paramRegex(s) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasEnoughKeys(JettyRouteSpec spec) {
+    if (spec.getUrlPattern() == null) {
+      return false;
+    }
+    try {
+      List<String> keys = spec.getMetadataKeys();
+      int groups = Pattern.compile(spec.getUrlPattern()).matcher("").groupCount();
+      return groups <= (keys != null ? keys.size() : 0);
+    }
+    catch (PatternSyntaxException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Split the pattern into path segments, ignoring any '/' inside groups or character classes.
+   *
+   * @return the segments or null if the pattern can't be split (e.g. it has a top level alternation).
+   */
+  static List<String> segments(String pattern) {
+    if (pattern == null) {
+      return null;
+    }
+    String p = pattern;
+    if (p.startsWith("^")) {
+      p = p.substring(1);
+    }
+    if (p.endsWith("$") && !p.endsWith("\\$")) {
+      p = p.substring(0, p.length() - 1);
+    }
+    List<String> result = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    int depth = 0;
+    boolean inClass = false;
+    boolean escaped = false;
+    for (char c : p.toCharArray()) {
+      if (escaped) {
+        escaped = false;
+      }
+      else if (c == '\\') {
+        escaped = true;
+      }
+      else if (inClass) {
+        inClass = c != ']';
+      }
+      else if (c == '[') {
+        inClass = true;
+      }
+      else if (c == '(') {
+        depth++;
+      }
+      else if (c == ')') {
+        depth--;
+      }
+      else if (c == '|' && depth == 0) {
+        return null;
+      }
+      else if (c == '/' && depth == 0) {
+        result.add(current.toString());
+        current.setLength(0);
+        continue;
+      }
+      current.append(c);
+    }
+    if (escaped || inClass || depth != 0) {
+      return null;
+    }
+    result.add(current.toString());
+    return result;
+  }
+
+  /**
+   * @return the literal value of the segment, or null if it contains any regular expression constructs.
+   */
+  static String literal(String segment) {
+    StringBuilder result = new StringBuilder(segment.length());
+    boolean escaped = false;
+    for (char c : segment.toCharArray()) {
+      if (escaped) {
+        if (Character.isLetterOrDigit(c)) {
+          return null; // \d, \w, \Q etc.
+        }
+        result.append(c);
+        escaped = false;
+      }
+      else if (c == '\\') {
+        escaped = true;
+      }
+      else if (Character.isLetterOrDigit(c) || "-_~%,;=:@!'&".indexOf(c) >= 0) {
+        result.append(c);
+      }
+      else {
+        return null;
+      }
+    }
+    return escaped || result.indexOf("/") >= 0 ? null : result.toString();
+  }
+
+  /**
+   * @return the regular expression for a capturing group that matches exactly one path segment, or null.
+   */
+  static String paramRegex(String segment) {
+    if (segment.length() < 3 || segment.charAt(0) != '(' || segment.charAt(segment.length() - 1) != ')') {
+      return null;
+    }
+    String inner = segment.substring(1, segment.length() - 1);
+    if (inner.startsWith(SINGLE_SEGMENT)) {
+      return inner.matches("\\[\\^/\\][+*]\\??") ? inner : null;
+    }
+    Matcher m = SEGMENT_CLASS.matcher(inner);
+    return m.matches() && excludesSlash(m.group(2)) ? inner : null;
+  }
+
+  // Escapes are already excluded (e.g. [\W] matches '/'), so only a range (e.g. [ -0]) can still include '/'.
+  private static boolean excludesSlash(String members) {
+    if (members == null) {
+      return true;
+    }
+    for (int i = 1; i < members.length() - 1; i++) {
+      if (members.charAt(i) == '-' && members.charAt(i - 1) <= '/' && members.charAt(i + 1) >= '/') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matchesParam(String regex, String segment) {
+    if (regex.startsWith(SINGLE_SEGMENT)) {
+      return !segment.isEmpty() || regex.charAt(SINGLE_SEGMENT.length()) == '*';
+    }
+    return Node.compiled(regex).matcher(segment).matches();
+  }
+
+  private static boolean startsWithQuantifier(String segment) {
+    return !segment.isEmpty() && "?*+{".indexOf(segment.charAt(0)) >= 0;
+  }
+
+  private static class Node {
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private final Map<String, Node> literals = new HashMap<>();
+    private final Map<String, Node> params = new HashMap<>();
+    private final List<Entry> routes = new ArrayList<>();
+    private final List<Entry> candidates = new ArrayList<>();
+
+    Node literal(String s) {
+      return literals.computeIfAbsent(s, k -> new Node());
+    }
+
+    Node param(String regex) {
+      compiled(regex);
+      return params.computeIfAbsent(regex, k -> new Node());
+    }
+
+    static Pattern compiled(String regex) {
+      return PATTERNS.computeIfAbsent(regex, Pattern::compile);
+    }
+  }
+
+  private static class Entry {
+    private final int index;
+    private final JettyRouteSpec spec;
+
+    Entry(int index, JettyRouteSpec spec) {
+      this.index = index;
+      this.spec = spec;
+    }
+  }
+
+  private static class Result {
+    private final Entry entry;
+    private final List<String> params;
+
+    Result(Entry entry, List<String> params) {
+      this.entry = entry;
+      this.params = params;
+    }
+
+    Set<MetadataElement> metadata() {
+      Set<MetadataElement> result = new HashSet<>();
+      for (int i = 0; i < params.size(); i++) {
+        result.add(new MetadataElement(entry.spec.getMetadataKeys().get(i), params.get(i)));
+      }
+      return result;
+    }
+  }
+}
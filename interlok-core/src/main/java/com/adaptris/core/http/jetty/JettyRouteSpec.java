@@ -150,6 +150,10 @@ public class JettyRouteSpec {
     return new RouteMatch(rc == expected, matchedMetadata);
   }
 
+  RouteMatch matched(Set<MetadataElement> metadata) {
+    return new RouteMatch(true, metadata);
+  }
+
   private Matcher createMatcher(String uri) {
     if (_urlPattern == null || !_urlPattern.pattern().equals(getUrlPattern())) {
       _urlPattern = Pattern.compile(getUrlPattern());
@@ -179,6 +183,10 @@ public class JettyRouteSpec {
       return match;
     }
 
+    JettyRouteSpec route() {
+      return JettyRouteSpec.this;
+    }
+
     public void apply(AdaptrisMessage msg) {
       log.trace("Adding [{}] as metadata", metadata);
       log.trace("nextServiceID={}", getServiceId());
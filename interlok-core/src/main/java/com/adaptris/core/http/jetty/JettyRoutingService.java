@@ -46,6 +46,13 @@ import com.thoughtworks.xstream.annotations.XStreamImplicit;
  * against a list of configured routes. If a route matches the URI and the http method (if specified) then the next service id is
  * set appropriately.
  * </p>
+ * <p>
+ * Routes are still evaluated in the order they are configured, with the first match winning; however, when the service is
+ * initialised the routes are compiled into a path trie keyed by HTTP method, so that only routes that could possibly match the
+ * request are considered. Simple URL patterns (literal path segments, and capturing groups such as {@code ([^/]+)} or {@code (\d+)}
+ * that match a single path segment) are resolved entirely from the trie; more complex patterns fall back to the regular expression.
+ * Changes made to the routes after the service is initialised are not reflected until it is re-initialised.
+ * </p>
  * 
  * @config jetty-routing-service
  *
@@ -65,7 +72,9 @@ public class JettyRoutingService extends BranchingServiceImp {
   @XStreamImplicit(itemFieldName = "route")
   private List<JettyRouteSpec> routes;
   private String defaultServiceId;
-  
+
+  private transient volatile JettyRouteIndex routeIndex;
+
   public JettyRoutingService() {
     setRoutes(new ArrayList<JettyRouteSpec>());
   }
@@ -80,20 +89,33 @@ public class JettyRoutingService extends BranchingServiceImp {
   public void doService(AdaptrisMessage msg) throws ServiceException {
     String method = msg.getMetadataValue(HTTP_METHOD);
     String uri = msg.getMetadataValue(JETTY_URI);
-    boolean matched = false;
+    RouteMatch m = uri != null ? routeIndex().match(method, uri) : linearMatch(method, uri);
+    if (m != null) {
+      log.trace("[{}][{}], matched by [{}][{}]", method, uri, m.route().getMethod(), m.route().getUrlPattern());
+      m.apply(msg);
+    }
+    else {
+      log.debug("No Matches from configured routes, using {}", getDefaultServiceId());
+      msg.setNextServiceId(getDefaultServiceId());
+    }
+  }
+
+  private RouteMatch linearMatch(String method, String uri) {
     for (JettyRouteSpec route : routes) {
       RouteMatch m = route.build(method, uri);
       if (m.matches()) {
-        log.trace("[{}][{}], matched by [{}][{}]", method, uri, route.getMethod(), route.getUrlPattern());
-        m.apply(msg);
-        matched = true;
-        break;
+        return m;
       }
     }
-    if (!matched) {
-      log.debug("No Matches from configured routes, using {}", getDefaultServiceId());
-      msg.setNextServiceId(getDefaultServiceId());
+    return null;
+  }
+
+  private JettyRouteIndex routeIndex() {
+    JettyRouteIndex result = routeIndex;
+    if (result == null) {
+      result = routeIndex = new JettyRouteIndex(routes);
     }
+    return result;
   }
 
   @Override
@@ -102,6 +124,7 @@ public class JettyRoutingService extends BranchingServiceImp {
 
   @Override
   protected void initService() throws CoreException {
+    routeIndex = new JettyRouteIndex(routes);
   }
 
   @Override
@@ -114,6 +137,7 @@ public class JettyRoutingService extends BranchingServiceImp {
 
   public void setRoutes(List<JettyRouteSpec> r) {
     this.routes = r;
+    routeIndex = null;
   }
 
   public String getDefaultServiceId() {
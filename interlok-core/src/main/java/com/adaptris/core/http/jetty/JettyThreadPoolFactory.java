@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * Creates the {@link ThreadPool} used by the jetty {@code Server} instance created by {@link HttpConnection}.
+ *
+ * @see HttpConnection#setThreadPool(JettyThreadPoolFactory)
+ * @since 3.8.4
+ */
+public interface JettyThreadPoolFactory {
+
+  /**
+   * Create the thread pool.
+   *
+   * @param name a name that may be used to name the threads.
+   * @return a thread pool that is not yet started, it will be managed by the jetty {@code Server}.
+   */
+  ThreadPool createThreadPool(String name) throws Exception;
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import static com.adaptris.core.runtime.AdapterComponentMBean.JMX_JETTY_THREAD_POOL_TYPE;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import com.adaptris.core.AdaptrisConnection;
+import com.adaptris.core.runtime.ChildRuntimeInfoComponentImpl;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+
+/**
+ * Exposes the jetty thread pool used by a jetty consumer via JMX.
+ *
+ * @since 3.8.4
+ */
+public class JettyThreadPoolMonitor extends ChildRuntimeInfoComponentImpl implements JettyThreadPoolMonitorMBean {
+  private transient ParentRuntimeInfoComponent parent;
+  private transient BasicJettyConsumer wrappedComponent;
+
+  private JettyThreadPoolMonitor() {
+    super();
+  }
+
+  JettyThreadPoolMonitor(ParentRuntimeInfoComponent owner, BasicJettyConsumer consumer) {
+    this();
+    parent = owner;
+    wrappedComponent = consumer;
+  }
+
+  @Override
+  protected String getType() {
+    return JMX_JETTY_THREAD_POOL_TYPE;
+  }
+
+  @Override
+  protected String uniqueId() {
+    return wrappedComponent.getUniqueId();
+  }
+
+  @Override
+  public ParentRuntimeInfoComponent getParentRuntimeInfoComponent() {
+    return parent;
+  }
+
+  @Override
+  public int getThreads() {
+    ThreadPool pool = threadPool();
+    return pool != null ? pool.getThreads() : 0;
+  }
+
+  @Override
+  public int getBusyThreads() {
+    ThreadPool pool = threadPool();
+    if (pool instanceof QueuedThreadPool) {
+      return ((QueuedThreadPool) pool).getBusyThreads();
+    }
+    return pool != null ? pool.getThreads() - pool.getIdleThreads() : 0;
+  }
+
+  @Override
+  public int getIdleThreads() {
+    ThreadPool pool = threadPool();
+    return pool != null ? pool.getIdleThreads() : 0;
+  }
+
+  @Override
+  public int getMaxThreads() {
+    ThreadPool pool = threadPool();
+    if (pool instanceof ThreadPool.SizedThreadPool) {
+      return ((ThreadPool.SizedThreadPool) pool).getMaxThreads();
+    }
+    return pool != null ? -1 : 0;
+  }
+
+  @Override
+  public int getQueueSize() {
+    ThreadPool pool = threadPool();
+    return pool instanceof QueuedThreadPool ? ((QueuedThreadPool) pool).getQueueSize() : 0;
+  }
+
+  @Override
+  public long getRejectedRequests() {
+    ThreadPool pool = threadPool();
+    return pool instanceof MeteredThreadPool ? ((MeteredThreadPool) pool).rejectedExecutions() : 0;
+  }
+
+  @Override
+  public boolean isLowOnThreads() {
+    ThreadPool pool = threadPool();
+    return pool != null && pool.isLowOnThreads();
+  }
+
+  private ThreadPool threadPool() {
+    AdaptrisConnection c = wrappedComponent.retrieveConnection(AdaptrisConnection.class);
+    return c instanceof HttpConnection ? ((HttpConnection) c).serverThreadPool() : null;
+  }
+}
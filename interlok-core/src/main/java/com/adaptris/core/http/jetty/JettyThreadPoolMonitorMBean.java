@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import com.adaptris.core.runtime.ChildRuntimeInfoComponentMBean;
+
+/**
+ * Management interface for the jetty thread pool used by a jetty consumer.
+ * <p>
+ * Metrics are only available if the consumer uses a {@link HttpConnection} (or {@link HttpsConnection}) which has been
+ * initialised; otherwise all values are 0.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public interface JettyThreadPoolMonitorMBean extends ChildRuntimeInfoComponentMBean {
+
+  /**
+   * Get the current number of threads in the pool.
+   *
+   */
+  int getThreads();
+
+  /**
+   * Get the number of threads that are currently running a job.
+   *
+   */
+  int getBusyThreads();
+
+  /**
+   * Get the number of idle threads.
+   *
+   */
+  int getIdleThreads();
+
+  /**
+   * Get the maximum number of threads, or -1 if the pool is not bounded.
+   *
+   */
+  int getMaxThreads();
+
+  /**
+   * Get the number of jobs waiting for a thread.
+   *
+   */
+  int getQueueSize();
+
+  /**
+   * Get the number of jobs (typically requests) that have been rejected because the pool was saturated.
+   *
+   */
+  long getRejectedRequests();
+
+  /**
+   * Whether or not the pool is low on threads.
+   *
+   */
+  boolean isLowOnThreads();
+}
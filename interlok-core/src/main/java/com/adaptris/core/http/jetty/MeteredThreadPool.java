@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * A {@link ThreadPool} that keeps track of the number of jobs that it has rejected.
+ *
+ * @since 3.8.4
+ */
+interface MeteredThreadPool extends ThreadPool {
+
+  /**
+   * @return the number of jobs that were rejected because the pool was saturated or stopped.
+   */
+  long rejectedExecutions();
+}
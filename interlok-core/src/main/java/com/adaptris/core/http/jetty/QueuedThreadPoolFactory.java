@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.validation.Valid;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.util.NumberUtils;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Configures a jetty {@link QueuedThreadPool} for use with {@link HttpConnection}.
+ * <p>
+ * By default jetty's {@link QueuedThreadPool} has an effectively unbounded job queue, which means that under sustained load,
+ * requests will queue up waiting for a thread rather than being rejected. Setting {@link #setMaxQueueSize(Integer)} bounds the
+ * queue; once the queue is full any new jobs are rejected (and the connection closed by jetty) which allows clients to fail fast
+ * and retry elsewhere. The number of rejected jobs is available via JMX.
+ * </p>
+ *
+ * @config jetty-queued-thread-pool
+ * @since 3.8.4
+ */
+@XStreamAlias("jetty-queued-thread-pool")
+@DisplayOrder(order =
+{
+    "minThreads", "maxThreads", "maxQueueSize", "threadIdleTimeout", "reservedThreads"
+})
+public class QueuedThreadPoolFactory implements JettyThreadPoolFactory {
+
+  private static final int DEFAULT_MIN_THREADS = 8;
+  private static final int DEFAULT_MAX_THREADS = 200;
+  private static final int DEFAULT_RESERVED_THREADS = -1;
+  private static final TimeInterval DEFAULT_IDLE_TIMEOUT = new TimeInterval(1L, TimeUnit.MINUTES);
+
+  @InputFieldDefault(value = "8")
+  private Integer minThreads;
+  @InputFieldDefault(value = "200")
+  private Integer maxThreads;
+  @InputFieldDefault(value = "unbounded")
+  private Integer maxQueueSize;
+  @Valid
+  @AdvancedConfig
+  @InputFieldDefault(value = "1 minute")
+  private TimeInterval threadIdleTimeout;
+  @AdvancedConfig
+  @InputFieldDefault(value = "-1")
+  private Integer reservedThreads;
+
+  public QueuedThreadPoolFactory() {
+  }
+
+  public QueuedThreadPoolFactory(Integer min, Integer max, Integer maxQueueSize) {
+    this();
+    setMinThreads(min);
+    setMaxThreads(max);
+    setMaxQueueSize(maxQueueSize);
+  }
+
+  @Override
+  public ThreadPool createThreadPool(String name) throws Exception {
+    MeteredQueuedThreadPool pool = new MeteredQueuedThreadPool(maxThreads(), minThreads(),
+        (int) TimeInterval.toMillisecondsDefaultIfNull(getThreadIdleTimeout(), DEFAULT_IDLE_TIMEOUT), createQueue());
+    pool.setReservedThreads(NumberUtils.toIntDefaultIfNull(getReservedThreads(), DEFAULT_RESERVED_THREADS));
+    pool.setName(name);
+    return pool;
+  }
+
+  private BlockingQueue<Runnable> createQueue() {
+    // null means that jetty will create its default queue.
+    return getMaxQueueSize() != null ? new BlockingArrayQueue<Runnable>(Math.max(1, getMaxQueueSize().intValue())) : null;
+  }
+
+  public Integer getMinThreads() {
+    return minThreads;
+  }
+
+  /**
+   * Set the minimum number of threads.
+   *
+   * @param i the minimum number of threads, default is 8.
+   */
+  public void setMinThreads(Integer i) {
+    minThreads = i;
+  }
+
+  int minThreads() {
+    return NumberUtils.toIntDefaultIfNull(getMinThreads(), DEFAULT_MIN_THREADS);
+  }
+
+  public Integer getMaxThreads() {
+    return maxThreads;
+  }
+
+  /**
+   * Set the maximum number of threads.
+   * <p>
+   * Note that jetty's acceptor and selector threads are taken from this pool so it needs to be large enough to service those as
+   * well as any requests.
+   * </p>
+   *
+   * @param i the maximum number of threads, default is 200.
+   */
+  public void setMaxThreads(Integer i) {
+    maxThreads = i;
+  }
+
+  int maxThreads() {
+    return NumberUtils.toIntDefaultIfNull(getMaxThreads(), DEFAULT_MAX_THREADS);
+  }
+
+  public Integer getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * Set the maximum number of jobs that can wait for a thread.
+   *
+   * @param i the maximum size of the queue; if not specified then jetty's default (effectively unbounded) queue is used.
+   */
+  public void setMaxQueueSize(Integer i) {
+    maxQueueSize = i;
+  }
+
+  public TimeInterval getThreadIdleTimeout() {
+    return threadIdleTimeout;
+  }
+
+  /**
+   * Set how long a thread above the minimum can be idle before it is stopped.
+   *
+   * @param t the idle timeout, default is 1 minute.
+   */
+  public void setThreadIdleTimeout(TimeInterval t) {
+    threadIdleTimeout = t;
+  }
+
+  public Integer getReservedThreads() {
+    return reservedThreads;
+  }
+
+  /**
+   * Set the number of reserved threads.
+   *
+   * @param i the number of reserved threads, default is -1 which lets jetty decide based on the number of processors.
+   * @see QueuedThreadPool#setReservedThreads(int)
+   */
+  public void setReservedThreads(Integer i) {
+    reservedThreads = i;
+  }
+
+  static class MeteredQueuedThreadPool extends QueuedThreadPool implements MeteredThreadPool {
+    private final AtomicLong rejected = new AtomicLong();
+
+    MeteredQueuedThreadPool(int maxThreads, int minThreads, int idleTimeout, BlockingQueue<Runnable> queue) {
+      super(maxThreads, minThreads, idleTimeout, queue);
+    }
+
+    @Override
+    public void execute(Runnable job) {
+      try {
+        super.execute(job);
+      }
+      catch (RejectedExecutionException e) {
+        rejected.incrementAndGet();
+        throw e;
+      }
+    }
+
+    @Override
+    public long rejectedExecutions() {
+      return rejected.get();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.util.ManagedThreadFactory;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Jetty {@link ThreadPool} for use with {@link HttpConnection} that runs each job in a new virtual thread.
+ * <p>
+ * Virtual threads are only available in Java 21+; if they are not available then a cached pool of platform threads is used
+ * instead (and a warning logged) which behaves like an unbounded thread pool. Since there is no pooling, all of jetty's jobs
+ * (including the acceptor and selector loops) run in their own virtual thread; you can limit the number of concurrent jobs with
+ * {@link #setMaxConcurrency(Integer)}, in which case jobs over that limit are rejected and counted in the same way as
+ * {@link QueuedThreadPoolFactory} with a bounded queue.
+ * </p>
+ *
+ * @config jetty-virtual-thread-pool
+ * @since 3.8.4
+ */
+@XStreamAlias("jetty-virtual-thread-pool")
+public class VirtualThreadPoolFactory implements JettyThreadPoolFactory {
+
+  private static final long STOP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+  private transient Logger log = LoggerFactory.getLogger(this.getClass());
+
+  @InputFieldDefault(value = "unbounded")
+  private Integer maxConcurrency;
+
+  public VirtualThreadPoolFactory() {
+  }
+
+  public VirtualThreadPoolFactory(Integer maxConcurrency) {
+    this();
+    setMaxConcurrency(maxConcurrency);
+  }
+
+  @Override
+  public ThreadPool createThreadPool(String name) throws Exception {
+    if (!ManagedThreadFactory.virtualThreadsAvailable()) {
+      log.warn("Virtual threads are not available, [{}] will use platform threads", name);
+    }
+    return new VirtualThreadPool(name, getMaxConcurrency());
+  }
+
+  public Integer getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * Set the maximum number of jobs that can run concurrently.
+   * <p>
+   * Note that jetty's acceptor and selector jobs run for the lifetime of the server, so this needs to be large enough to cover
+   * those as well as any requests.
+   * </p>
+   *
+   * @param i the maximum number of concurrent jobs, default is unbounded.
+   */
+  public void setMaxConcurrency(Integer i) {
+    maxConcurrency = i;
+  }
+
+  static class VirtualThreadPool extends AbstractLifeCycle implements MeteredThreadPool {
+    private final String name;
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile ExecutorService executor;
+
+    VirtualThreadPool(String name, Integer maxConcurrency) {
+      this.name = name;
+      permits = maxConcurrency != null ? new Semaphore(Math.max(1, maxConcurrency.intValue())) : null;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+      executor = ManagedThreadFactory.newVirtualThreadPerTaskExecutor(name);
+      super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+      super.doStop();
+      ManagedThreadFactory.shutdownQuietly(executor, STOP_TIMEOUT_MS);
+    }
+
+    @Override
+    public void execute(Runnable job) {
+      ExecutorService current = executor;
+      if (current == null || !isRunning() || permits != null && !permits.tryAcquire()) {
+        rejected.incrementAndGet();
+        throw new RejectedExecutionException(job.toString());
+      }
+      try {
+        current.execute(() -> {
+          active.incrementAndGet();
+          try {
+            job.run();
+          }
+          finally {
+            active.decrementAndGet();
+            release();
+          }
+        });
+      }
+      catch (RejectedExecutionException e) {
+        release();
+        rejected.incrementAndGet();
+        throw e;
+      }
+    }
+
+    private void release() {
+      if (permits != null) {
+        permits.release();
+      }
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+      ExecutorService current = executor;
+      if (current != null) {
+        current.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    @Override
+    public int getThreads() {
+      return active.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+      return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+      return permits != null && permits.availablePermits() == 0;
+    }
+
+    @Override
+    public long rejectedExecutions() {
+      return rejected.get();
+    }
+  }
+}
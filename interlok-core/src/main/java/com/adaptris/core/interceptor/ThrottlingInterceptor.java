@@ -18,13 +18,8 @@ package com.adaptris.core.interceptor;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
-import java.util.Calendar;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -33,12 +28,12 @@ import org.hibernate.validator.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AutoPopulated;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
-import com.adaptris.core.util.ManagedThreadFactory;
 import com.adaptris.util.TimeInterval;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
@@ -67,6 +62,15 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * Likewise, you may have a third workflow with an interceptor configured to use a different cache name. This means messages passing
  * through the third workflow will not have the same throttling restrictions as those on workflow A and B.
  * </p>
+ * <p>
+ * If {@link #setMetadataKey(String)} is specified, then the value of that metadata key is appended to the cache name, so that
+ * each distinct value (e.g. each trading partner) has its own time slice. Time slices that have ended are periodically discarded
+ * by {@link TimeSliceDefaultCacheProvider}, so values that are no longer seen do not accumulate.
+ * </p>
+ * <p>
+ * Threads that are delayed wait independently of each other; other threads in the same workflow continue to be processed if the
+ * current time slice still has capacity.
+ * </p>
  * The following properties may be set in configuration;
  * <ul>
  * <li>time-slice-interval - This is the number of time units each time slice will use. The default value is 5.</li>
@@ -76,6 +80,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * {@link TimeSliceDefaultCacheProvider}</li>
  * <li>cache-name - This allows you to set the cache name that the time slice statistics will be created/used from;<strong>this must
  * be specified</strong></li>
+ * <li>metadata-key - if specified, then each distinct value of this metadata key is throttled separately.</li>
  * </ul>
  * 
  * @config throttling-interceptor
@@ -85,7 +90,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("throttling-interceptor")
 @ComponentProfile(summary = "Throttles message flow based on some message count criteria",
     tag = "interceptor,jmx")
-@DisplayOrder(order = {"maximumMessages", "timeSliceInterval"})
+@DisplayOrder(order = {"maximumMessages", "timeSliceInterval", "metadataKey"})
 public class ThrottlingInterceptor extends WorkflowInterceptorImpl {
 
   private transient Logger log = LoggerFactory.getLogger(this.getClass().getName());
@@ -96,8 +101,6 @@ public class ThrottlingInterceptor extends WorkflowInterceptorImpl {
   private TimeInterval timeSliceInterval;
   private int maximumMessages;
 
-  private transient ExecutorService executor;
-
   @Valid
   @NotNull
   @AutoPopulated
@@ -107,6 +110,8 @@ public class ThrottlingInterceptor extends WorkflowInterceptorImpl {
    */
   @NotBlank
   private String cacheName;
+  @AdvancedConfig
+  private String metadataKey;
 
   public ThrottlingInterceptor() {
     super();
@@ -122,7 +127,6 @@ public class ThrottlingInterceptor extends WorkflowInterceptorImpl {
 
     ((TimeSliceAbstractCacheProvider) cacheProvider).setTimeSliceDurationMilliseconds(getMillisecondDuration());
     getCacheProvider().init();
-    executor = Executors.newSingleThreadExecutor(new ManagedThreadFactory(getClass().getSimpleName()));
   }
 
   @Override
@@ -137,58 +141,45 @@ public class ThrottlingInterceptor extends WorkflowInterceptorImpl {
 
   @Override
   public void close() {
-    ManagedThreadFactory.shutdownQuietly(executor, new TimeInterval());
   }
 
-  //
   @Override
-  public synchronized void workflowStart(AdaptrisMessage inputMsg) {
-    // CacheProvider.get() will always return a timeslice - can never be null.
-    TimeSlice currentTimeSlice = getCacheProvider().get(getCacheName());
-
-    log.debug("Using timeslice - " + currentTimeSlice.toString());
-    if (currentTimeSlice.getTotalMessageCount() >= getMaximumMessages()) {
-      long currentTime = Calendar.getInstance().getTimeInMillis();
-      long delayUntil = currentTimeSlice.getEndMillis();
-
-      long delayFor = Math.abs(delayUntil - currentTime);
-      log.debug("Delaying thread (Throttling) for {} ms", delayFor);
-      if (throttle(delayFor)) workflowStart(inputMsg);
-    }
-    else {
-      currentTimeSlice.setTotalMessageCount(currentTimeSlice.getTotalMessageCount() + 1);
+  public void workflowStart(AdaptrisMessage inputMsg) {
+    String name = throttleName(getCacheName(), getMetadataKey(), inputMsg);
+    while (true) {
+      // CacheProvider.get() will always return a timeslice - can never be null.
+      TimeSlice currentTimeSlice = getCacheProvider().get(name);
+      if (currentTimeSlice.tryIncrement(getMaximumMessages())) {
+        return;
+      }
+      long delayFor = Math.max(1L, currentTimeSlice.getEndMillis() - System.currentTimeMillis() + 1L);
+      log.debug("Delaying thread (Throttling) for {} ms, using timeslice {}", delayFor, currentTimeSlice);
+      if (!throttle(TimeUnit.MILLISECONDS.toNanos(delayFor))) {
+        return;
+      }
     }
   }
 
-  // returns true if the throttle was successfully applied
-  private boolean throttle(final long delay) {
-    final CyclicBarrier barrier = new CyclicBarrier(2);
-    // This is to make sure we don't break the barrier before the real delay is up.
-    // 
-    long barrierDelay = delay + TimeUnit.SECONDS.toMillis(1L);
-    boolean result = true;
-    try {
-      executor.execute(new Runnable() {
-
-        @Override
-        public void run() {
-          try {
-            Thread.sleep(delay);
-            barrier.await(TimeUnit.SECONDS.toMillis(1L), TimeUnit.MILLISECONDS);
-          }
-          catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
-            log.trace("Interrupted during sleep; breaking barrier");
-            barrier.reset();
-          }
-        }
-        
-      });
-      barrier.await(barrierDelay, TimeUnit.MILLISECONDS);
+  // returns true if the throttle was successfully applied; false if we were interrupted.
+  static boolean throttle(long delayNanos) {
+    long deadline = System.nanoTime() + delayNanos;
+    long remaining = delayNanos;
+    while (remaining > 0) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      remaining = deadline - System.nanoTime();
     }
-    catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
-      result = false;
+    return true;
+  }
+
+  static String throttleName(String cacheName, String metadataKey, AdaptrisMessage msg) {
+    if (isEmpty(metadataKey)) {
+      return cacheName;
     }
-    return result;
+    String value = msg.getMetadataValue(metadataKey);
+    return isEmpty(value) ? cacheName : cacheName + "." + value;
   }
 
   private long getMillisecondDuration() {
@@ -239,6 +230,22 @@ public class ThrottlingInterceptor extends WorkflowInterceptorImpl {
     this.cacheName = cacheName;
   }
 
+  public String getMetadataKey() {
+    return metadataKey;
+  }
+
+  /**
+   * Set the metadata key used to throttle messages separately.
+   * 
+   * @param key the metadata key; if specified, then each distinct value of this metadata key (e.g. the trading partner) will
+   *          have its own time slice. Messages without the metadata key share the time slice for the cache name. The default is
+   *          null (all messages share a single time slice).
+   * @since 3.8.4
+   */
+  public void setMetadataKey(String key) {
+    metadataKey = key;
+  }
+
   /**
    * Set the interval for each timeslice.
    * 
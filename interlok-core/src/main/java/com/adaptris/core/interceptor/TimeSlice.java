@@ -17,6 +17,7 @@
 package com.adaptris.core.interceptor;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A Timeslice used by {@link ThrottlingInterceptor}.
@@ -26,8 +27,11 @@ import java.util.Date;
  */
 public class TimeSlice {
 
+  private static final AtomicIntegerFieldUpdater<TimeSlice> COUNT_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(TimeSlice.class, "totalMessageCount");
+
 	private long endMillis;
-	private int totalMessageCount;
+	private volatile int totalMessageCount;
 
 	public TimeSlice() {
 		super();
@@ -54,6 +58,25 @@ public class TimeSlice {
 		totalMessageCount = messageCount;
 	}
 
+  /**
+   * Atomically increment the message count if it is less than the maximum.
+   *
+   * @param maximum the maximum number of messages in this time slice.
+   * @return true if the count was incremented, false if the maximum has already been reached.
+   * @since 3.8.4
+   */
+  public boolean tryIncrement(int maximum) {
+    int current;
+    do {
+      current = totalMessageCount;
+      if (current >= maximum) {
+        return false;
+      }
+    }
+    while (!COUNT_UPDATER.compareAndSet(this, current, current + 1));
+    return true;
+  }
+
 	@Override
   public String toString() {
     return "[Count-" + getTotalMessageCount() + "][End-(" + new Date(getEndMillis()) + ")]";
@@ -16,7 +16,8 @@
 
 package com.adaptris.core.interceptor;
 
-import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.adaptris.core.CoreException;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -27,6 +28,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * This implementation uses a singleton (TimeSlicePersistence) which maintains a list of cache names and for each cache name a cache
  * of time slices. This provider exposes methods that will call into the persistence for common usage; get and put.
  * </p>
+ * <p>
+ * Time slices that have ended are periodically removed from the persistence, so that the time slices for metadata values that
+ * are no longer seen (see {@link ThrottlingInterceptor#setMetadataKey(String)}) do not accumulate.
+ * </p>
  * 
  * @config time-slice-default-cache-provider
  * @author amcgrath
@@ -34,7 +39,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("time-slice-default-cache-provider")
 public class TimeSliceDefaultCacheProvider extends TimeSliceAbstractCacheProvider {
 
+  private static final long EVICTION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
   private TimeSlicePersistence persistence;
+  private transient AtomicLong nextEviction = new AtomicLong(System.currentTimeMillis() + EVICTION_INTERVAL_MS);
 
   @Override
   public void start() throws CoreException {
@@ -51,23 +59,25 @@ public class TimeSliceDefaultCacheProvider extends TimeSliceAbstractCacheProvide
 
   @Override
   public TimeSlice get(String cacheName) {
-      Calendar cal = Calendar.getInstance();
-      TimeSlice lastTimeSlice = persistence.getCurrentTimeSlice(cacheName);
-
-      if(lastTimeSlice == null) {
-          lastTimeSlice = new TimeSlice();
-			lastTimeSlice.setEndMillis(cal.getTimeInMillis() + timeSliceDurationMilliseconds());
-
-          persistence.updateCurrentTimeSlice(cacheName, lastTimeSlice);
-      }
-      if(lastTimeSlice.getEndMillis() < cal.getTimeInMillis()) {
-          lastTimeSlice = new TimeSlice();
-			lastTimeSlice.setEndMillis(cal.getTimeInMillis() + timeSliceDurationMilliseconds());
-
-          persistence.updateCurrentTimeSlice(cacheName, lastTimeSlice);
+    long now = System.currentTimeMillis();
+    evictExpiredTimeSlices(now);
+    TimeSlice lastTimeSlice = persistence.getCurrentTimeSlice(cacheName);
+    // Lock free; if another thread beats us to creating the new time slice, then use theirs.
+    while (lastTimeSlice == null || lastTimeSlice.getEndMillis() < now) {
+      TimeSlice newTimeSlice = new TimeSlice(now + timeSliceDurationMilliseconds(), 0);
+      if (persistence.replaceCurrentTimeSlice(cacheName, lastTimeSlice, newTimeSlice)) {
+        return newTimeSlice;
       }
+      lastTimeSlice = persistence.getCurrentTimeSlice(cacheName);
+    }
+    return lastTimeSlice;
+  }
 
-      return lastTimeSlice;
+  private void evictExpiredTimeSlices(long now) {
+    long next = nextEviction.get();
+    if (now >= next && nextEviction.compareAndSet(next, now + EVICTION_INTERVAL_MS)) {
+      persistence.evictExpiredTimeSlices(now);
+    }
   }
 
   @Override
@@ -17,9 +17,8 @@
 package com.adaptris.core.interceptor;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A singleton that will manage all caches and for each cache will maintain the current time slice.
@@ -28,19 +27,15 @@ import java.util.Map;
  */
 public class TimeSlicePersistence {
 
-	private static TimeSlicePersistence instance;
-	private Map<String, TimeSlice> timeSlices;
+	private static final TimeSlicePersistence INSTANCE = new TimeSlicePersistence();
+	private ConcurrentMap<String, TimeSlice> timeSlices;
 
 	private TimeSlicePersistence() {
-		timeSlices = Collections.synchronizedMap(new HashMap<String, TimeSlice>());
+		timeSlices = new ConcurrentHashMap<String, TimeSlice>();
 	}
 
-	public static synchronized TimeSlicePersistence getInstance() {
-		if(instance == null) {
-			instance = new TimeSlicePersistence();
-		}
-
-		return instance;
+	public static TimeSlicePersistence getInstance() {
+		return INSTANCE;
 	}
 
 	public TimeSlice getCurrentTimeSlice(String cacheName) {
@@ -51,6 +46,40 @@ public class TimeSlicePersistence {
 		timeSlices.put(cacheName, timeSlice);
 	}
 
+  /**
+   * Replace the current time slice only if it is still the expected time slice.
+   * 
+   * @param cacheName the cache name.
+   * @param expected the expected current time slice (may be null if there is no current time slice).
+   * @param timeSlice the new time slice.
+   * @return true if the time slice was replaced.
+   * @since 3.8.4
+   */
+  public boolean replaceCurrentTimeSlice(String cacheName, TimeSlice expected, TimeSlice timeSlice) {
+    if (expected == null) {
+      return timeSlices.putIfAbsent(cacheName, timeSlice) == null;
+    }
+    return timeSlices.replace(cacheName, expected, timeSlice);
+  }
+
+  /**
+   * Remove any time slices that have ended.
+   * <p>
+   * A time slice that has ended is never used again (a new one is created on demand), so removing it does not change the
+   * throttling behaviour; this stops time slices for metadata values that are no longer seen from accumulating.
+   * </p>
+   * 
+   * @param now the current time in milliseconds.
+   * @since 3.8.4
+   */
+  public void evictExpiredTimeSlices(long now) {
+    timeSlices.forEach((k, v) -> {
+      if (v.getEndMillis() < now) {
+        timeSlices.remove(k, v);
+      }
+    });
+  }
+
 	/**
 	 * Will clear the time slices that have been recorded so far.
 	 * Warning: Calling this method will clear the timeslices for ALL caches.
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket used by {@link TokenBucketThrottlingInterceptor}.
+ * <p>
+ * This is implemented as a generic cell rate algorithm; rather than tracking the number of tokens and refilling them periodically,
+ * the only state is the theoretical arrival time of the next message (in nanoseconds). Each caller atomically reserves the next
+ * available slot and is told how long it must wait for it; so callers never need to retry, and each of them waits independently.
+ * </p>
+ */
+final class TokenBucket {
+
+  /**
+   * Returned by {@link #reserve(long)} if the bucket has been retired; the caller should get a new bucket.
+   */
+  static final long RETIRED = Long.MIN_VALUE;
+
+  private final long emissionIntervalNanos;
+  private final long toleranceNanos;
+  private final AtomicLong theoreticalArrival;
+
+  /**
+   * Create a token bucket.
+   *
+   * @param messages the number of messages allowed per interval.
+   * @param intervalNanos the interval in nanoseconds.
+   * @param burst the number of messages that can be processed back-to-back when the bucket is full.
+   */
+  TokenBucket(int messages, long intervalNanos, int burst) {
+    emissionIntervalNanos = Math.max(1L, intervalNanos / Math.max(1, messages));
+    toleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+    theoreticalArrival = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Reserve the next slot.
+   *
+   * @param now the current time as per {@link System#nanoTime()}.
+   * @return the number of nanoseconds to wait before the slot is available; zero or less means that it is available now, and
+   *         {@link #RETIRED} means that the bucket can no longer be used.
+   */
+  long reserve(long now) {
+    while (true) {
+      long tat = theoreticalArrival.get();
+      if (tat == RETIRED) {
+        return RETIRED;
+      }
+      // nanoTime may be negative so compare by subtraction.
+      long start = now - tat > 0 ? now : tat;
+      if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+        return start - toleranceNanos - now;
+      }
+    }
+  }
+
+  /**
+   * Retire the bucket if it is full.
+   * <p>
+   * A full bucket behaves exactly like a newly created one, so it can be discarded and recreated on demand without changing the
+   * rate. Once retired, {@link #reserve(long)} always returns {@link #RETIRED}.
+   * </p>
+   *
+   * @param now the current time as per {@link System#nanoTime()}.
+   * @return true if the bucket was retired.
+   */
+  boolean retireIfFull(long now) {
+    long tat = theoreticalArrival.get();
+    return tat != RETIRED && now - tat >= 0 && theoreticalArrival.compareAndSet(tat, RETIRED);
+  }
+
+  boolean retired() {
+    return theoreticalArrival.get() == RETIRED;
+  }
+
+  long emissionIntervalNanos() {
+    return emissionIntervalNanos;
+  }
+}
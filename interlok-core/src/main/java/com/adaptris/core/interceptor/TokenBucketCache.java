@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.core.interceptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Holds the token buckets used by {@link TokenBucketThrottlingInterceptor}.
+ * <p>
+ * Token buckets that are full (i.e. have not been used recently) are periodically discarded, and are recreated when next
+ * required. Interceptors share {@link #getInstance()} by default, in the same way that {@link TimeSliceDefaultCacheProvider}
+ * shares {@link TimeSlicePersistence}.
+ * </p>
+ */
+final class TokenBucketCache {
+
+  private static final TokenBucketCache INSTANCE = new TokenBucketCache();
+  private static final long EVICTION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final AtomicLong nextEviction = new AtomicLong(System.nanoTime() + EVICTION_INTERVAL_NANOS);
+
+  TokenBucketCache() {
+  }
+
+  static TokenBucketCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Reserve the next slot from the named token bucket, creating the bucket if required.
+   *
+   * @param name the name of the bucket.
+   * @param factory creates the bucket if it does not exist.
+   * @param now the current time as per {@link System#nanoTime()}.
+   * @return the number of nanoseconds to wait before the slot is available.
+   * @see TokenBucket#reserve(long)
+   */
+  long reserve(String name, Supplier<TokenBucket> factory, long now) {
+    evictIfRequired(now);
+    long delay = TokenBucket.RETIRED;
+    while (delay == TokenBucket.RETIRED) {
+      delay = bucket(name, factory).reserve(now);
+    }
+    return delay;
+  }
+
+  private TokenBucket bucket(String name, Supplier<TokenBucket> factory) {
+    TokenBucket result = buckets.get(name);
+    if (result == null || result.retired()) {
+      result = buckets.compute(name, (k, v) -> v == null || v.retired() ? factory.get() : v);
+    }
+    return result;
+  }
+
+  private void evictIfRequired(long now) {
+    long next = nextEviction.get();
+    if (now - next >= 0 && nextEviction.compareAndSet(next, now + EVICTION_INTERVAL_NANOS)) {
+      evictFullBuckets(now);
+    }
+  }
+
+  void evictFullBuckets(long now) {
+    buckets.forEach((k, v) -> {
+      if (v.retireIfFull(now)) {
+        buckets.remove(k, v);
+      }
+    });
+  }
+
+  int size() {
+    return buckets.size();
+  }
+}
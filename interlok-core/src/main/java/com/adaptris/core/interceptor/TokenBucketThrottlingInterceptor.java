@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.validator.constraints.NotBlank;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.util.NumberUtils;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Throttles messages using a token bucket.
+ * <p>
+ * Unlike {@link ThrottlingInterceptor} which allows up to the maximum number of messages as quickly as possible and then waits for
+ * the end of the time slice, this interceptor spreads the messages evenly over the interval; a token is added to the bucket every
+ * {@code interval / maximum-messages} and each message requires a token. The bucket can hold up to {@link #setBurst(Integer)}
+ * tokens, which controls how many messages can be processed back-to-back after a quiet period. Tokens are replenished continuously
+ * (with nanosecond precision), rather than all at once at the end of a time slice.
+ * </p>
+ * <p>
+ * The token bucket is lock free; each thread that needs to wait does so independently and does not hold up any other thread.
+ * </p>
+ * <p>
+ * As with {@link ThrottlingInterceptor}, interceptors on different workflows that are configured with the same cache name share the
+ * same token bucket, provided that they are also configured with the same rate; an interceptor with a different rate (e.g. after
+ * the configuration has been changed) has its own token bucket. If {@link #setMetadataKey(String)} is specified, then each
+ * distinct value of the metadata key (e.g. each trading partner) has its own token bucket. Token buckets that are full (i.e. have
+ * not been used recently) are periodically discarded, and are recreated when next required.
+ * </p>
+ *
+ * @config token-bucket-throttling-interceptor
+ * @since 3.8.4
+ */
+@XStreamAlias("token-bucket-throttling-interceptor")
+@ComponentProfile(summary = "Throttles message flow using a token bucket", tag = "interceptor", since = "3.8.4")
+@DisplayOrder(order = {"cacheName", "maximumMessages", "interval", "burst", "metadataKey"})
+public class TokenBucketThrottlingInterceptor extends WorkflowInterceptorImpl {
+
+  private static final TimeInterval DEFAULT_INTERVAL = new TimeInterval(1L, TimeUnit.SECONDS);
+
+  @NotBlank
+  private String cacheName;
+  @InputFieldDefault(value = "2147483647")
+  private Integer maximumMessages;
+  @InputFieldDefault(value = "1 second")
+  private TimeInterval interval;
+  @InputFieldDefault(value = "1")
+  private Integer burst;
+  @AdvancedConfig
+  private String metadataKey;
+
+  private transient String rate;
+  private transient TokenBucketCache bucketCache = TokenBucketCache.getInstance();
+
+  public TokenBucketThrottlingInterceptor() {
+    super();
+  }
+
+  public TokenBucketThrottlingInterceptor(String cacheName, int maxMessages, TimeInterval interval) {
+    this();
+    setCacheName(cacheName);
+    setMaximumMessages(maxMessages);
+    setInterval(interval);
+  }
+
+  @Override
+  public void init() throws CoreException {
+    if (isEmpty(getCacheName())) {
+      throw new CoreException("Cache Name not specified.");
+    }
+    if (maximumMessages() < 1) {
+      throw new CoreException("Maximum messages must be at least 1");
+    }
+    rate = String.format("%d/%dms/%d", maximumMessages(), interval(), burst());
+  }
+
+  @Override
+  public void start() throws CoreException {
+  }
+
+  @Override
+  public void stop() {
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public void workflowStart(AdaptrisMessage inputMsg) {
+    String name = ThrottlingInterceptor.throttleName(getCacheName(), getMetadataKey(), inputMsg) + "@" + rate;
+    long delay = bucketCache.reserve(name, () -> new TokenBucket(maximumMessages(),
+        TimeUnit.MILLISECONDS.toNanos(interval()), burst()), System.nanoTime());
+    if (delay > 0) {
+      log.trace("Delaying thread (Throttling) for {} ns", delay);
+      ThrottlingInterceptor.throttle(delay);
+    }
+  }
+
+  @Override
+  public void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
+  }
+
+  TokenBucketThrottlingInterceptor withBucketCache(TokenBucketCache c) {
+    bucketCache = c;
+    return this;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  /**
+   * Set the cache name for shared throttles.
+   *
+   * @param s the cache name.
+   */
+  public void setCacheName(String s) {
+    cacheName = s;
+  }
+
+  public Integer getMaximumMessages() {
+    return maximumMessages;
+  }
+
+  /**
+   * Set the maximum number of messages that can be processed in each interval.
+   *
+   * @param i the max number of messages, default is {@value java.lang.Integer#MAX_VALUE}
+   */
+  public void setMaximumMessages(Integer i) {
+    maximumMessages = i;
+  }
+
+  int maximumMessages() {
+    return NumberUtils.toIntDefaultIfNull(getMaximumMessages(), Integer.MAX_VALUE);
+  }
+
+  public TimeInterval getInterval() {
+    return interval;
+  }
+
+  /**
+   * Set the interval over which the maximum number of messages applies.
+   *
+   * @param t the interval, default is 1 second.
+   */
+  public void setInterval(TimeInterval t) {
+    interval = t;
+  }
+
+  long interval() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getInterval(), DEFAULT_INTERVAL);
+  }
+
+  public Integer getBurst() {
+    return burst;
+  }
+
+  /**
+   * Set the number of messages that can be processed without delay after a quiet period.
+   *
+   * @param i the burst capacity, default is 1 (messages are always evenly spaced).
+   */
+  public void setBurst(Integer i) {
+    burst = i;
+  }
+
+  int burst() {
+    return NumberUtils.toIntDefaultIfNull(getBurst(), 1);
+  }
+
+  public String getMetadataKey() {
+    return metadataKey;
+  }
+
+  /**
+   * Set the metadata key used to throttle messages separately.
+   *
+   * @param key the metadata key; if specified, then each distinct value of this metadata key (e.g. the trading partner) will
+   *          have its own token bucket. Messages without the metadata key share the token bucket for the cache name. The default is
+   *          null (all messages share a single token bucket).
+   */
+  public void setMetadataKey(String key) {
+    metadataKey = key;
+  }
+}
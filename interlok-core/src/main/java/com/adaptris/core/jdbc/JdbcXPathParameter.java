@@ -27,7 +27,7 @@ import org.w3c.dom.Document;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
-import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.KeyValuePairSet;
 import com.adaptris.util.text.xml.SimpleNamespaceContext;
 import com.adaptris.util.text.xml.XPath;
@@ -79,7 +79,7 @@ public class JdbcXPathParameter extends NullableParameter {
     try {
       DocumentBuilderFactoryBuilder builder = documentFactoryBuilder();
       XPath xpathToUse = newXPathInstance(builder, ctx);
-      Document doc = XmlHelper.createDocument(msg, builder);
+      Document doc = ParsedDocumentCache.getDocument(msg, builder);
       String textItem = xpathToUse.selectSingleTextItem(doc, msg.resolve(getXpath()));
       return normalize(textItem);
     }
@@ -18,6 +18,8 @@ package com.adaptris.core.lms;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
 
 import com.adaptris.core.AdaptrisMessage;
 
@@ -46,4 +48,34 @@ public interface FileBackedMessage extends AdaptrisMessage {
    */
   File currentSource();
 
+  /**
+   * Whether the payload is already held, as is, in the file returned by {@link #currentSource()}.
+   * <p>
+   * If this returns false, then {@link #currentSource()} may have to write the payload to a file first (or the file may not be
+   * the raw payload), so callers that only want to avoid reading the payload into memory should use the streams instead.
+   * </p>
+   *
+   * @return true by default.
+   * @since 3.8.4
+   */
+  default boolean isFileResident() {
+    return true;
+  }
+
+  /**
+   * Returns a read-only view of the payload as a list of memory mapped buffers.
+   * <p>
+   * Each buffer is at most {@link Integer#MAX_VALUE} bytes, so larger payloads are split into consecutive chunks. The buffers
+   * reflect the payload at the time this method was invoked; subsequent changes to the payload are not visible.
+   * </p>
+   *
+   * @return the buffers, or null if the payload cannot be mapped (e.g. because the underlying file is not the raw payload).
+   * @throws IOException wrapping any access error.
+   * @since 3.8.4
+   * @see MappedPayload
+   */
+  default List<ByteBuffer> mapPayload() throws IOException {
+    return MappedPayload.map(currentSource());
+  }
+
 }
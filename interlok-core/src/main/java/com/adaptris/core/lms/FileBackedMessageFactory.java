@@ -83,6 +83,9 @@ public class FileBackedMessageFactory extends DefaultMessageFactory {
   @AdvancedConfig
   @InputFieldDefault(value = "false")
   private Boolean useNio;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useHardLinks;
   
   private transient Logger log = LoggerFactory.getLogger(this.getClass());
 
@@ -251,4 +254,30 @@ public class FileBackedMessageFactory extends DefaultMessageFactory {
   protected StreamWrapper newStreamWrapper() {
     return useNio() ? new NioStreamWrapper(extendedLogging()) : new StandardStreamWrapper(extendedLogging());
   }
+
+  public Boolean getUseHardLinks() {
+    return useHardLinks;
+  }
+
+  /**
+   * Whether or not to use hard links when cloning messages.
+   * <p>
+   * Payloads are never modified in place (writing to a message always creates a new file), so a cloned message can safely share
+   * the underlying data with the original. If enabled, then cloning a message creates a hard link to the existing file (if the
+   * filesystem supports it) rather than copying the data. Note that if you use a
+   * {@link LargeFsConsumer} then the original message is backed by the consumed file; a hard link will still share the data with
+   * that file, which is not what you want if something else modifies the file in place.
+   * </p>
+   *
+   * @param b true to enable, default if not specified is false, which copies the data using
+   *          {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+   * @since 3.8.4
+   */
+  public void setUseHardLinks(Boolean b) {
+    useHardLinks = b;
+  }
+
+  protected boolean useHardLinks() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseHardLinks(), false);
+  }
 }
@@ -19,13 +19,10 @@ package com.adaptris.core.lms;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.nio.channels.FileLock;
 import java.nio.charset.Charset;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -33,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageImp;
+import com.adaptris.fs.FileCopy;
 import com.adaptris.util.IdGenerator;
 
 class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMessage {
@@ -43,7 +41,6 @@ class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMess
   private transient StreamWrapper streamWrapper;
   protected transient Logger log = LoggerFactory.getLogger(FileBackedMessage.class);
   
-  private final int MEGABYTE = 1 << 10;
 
   FileBackedMessageImpl(IdGenerator guid, FileBackedMessageFactory fac) {
     super(guid, fac);
@@ -168,9 +165,11 @@ class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMess
     if(outputFile == null) {
       outputFile = createTempFile();
     }
+    payloadChanged();
     return streamWrapper.openOutputStream(outputFile, () -> {
       inputFile = outputFile;
       outputFile = null;
+      payloadChanged();
     });
   }
 
@@ -178,6 +177,7 @@ class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMess
   public void initialiseFrom(File sourceFile) throws IOException {
     if (sourceFile.exists() && sourceFile.isFile() && sourceFile.canRead()) {
       inputFile = sourceFile;
+      payloadChanged();
     }
     else {
       throw new IOException(sourceFile.getCanonicalPath() + " is not accessible");
@@ -209,17 +209,17 @@ class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMess
       // If we have an input file, copy our contents to the other message. If we don't,
       // the other message will create it's own file when written to and then closed.
       if (inputFile != null) {
-        // Should we make this use StreamWrapper? -> but what about the FileLock?
-        // probalby not a big deal because it only happens on CloneMessageServiceList...
-        result.inputFile = createTempFile();
-        try (InputStream in = new FileInputStream(inputFile);
-            FileOutputStream out = new FileOutputStream(result.inputFile);
-            FileLock lock = out.getChannel().lock()) {
-          byte[] buffer = new byte[10 * MEGABYTE]; // 10MB buffer
-          IOUtils.copyLarge(in, out, buffer);
+        FileBackedMessageFactory factory = (FileBackedMessageFactory) getFactory();
+        // Track the file against the clone, not us.
+        result.inputFile = factory.createTempFile(result);
+        if (factory.useHardLinks()) {
+          // payloads are never modified in place, so it's safe for both messages to share the same data.
+          FileCopy.linkOrCopy(inputFile, result.inputFile);
+        }
+        else {
+          FileCopy.transfer(inputFile, result.inputFile, false);
         }
       }
-
     });
     return result;
   }
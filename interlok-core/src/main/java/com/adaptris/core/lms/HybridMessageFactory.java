@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.lms;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.util.NumberUtils;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Message factory that keeps small payloads in memory and only falls back to a file once the payload exceeds a threshold.
+ * <p>
+ * Messages created by this factory are still {@link FileBackedMessage} instances; so components that have special handling for
+ * file backed messages (e.g. {@link LargeFsProducer}) continue to work. If the payload is currently held in memory when
+ * {@link FileBackedMessage#currentSource()} is invoked, then it is written to a temporary file first. Temporary files are tracked
+ * and deleted in the same way as {@link FileBackedMessageFactory}.
+ * </p>
+ * <p>
+ * This is useful where the majority of messages are small, but you still need to handle the occasional large message without
+ * exhausting the heap.
+ * </p>
+ *
+ * @config hybrid-message-factory
+ * @since 3.8.4
+ * @see FileBackedMessageFactory
+ */
+@XStreamAlias("hybrid-message-factory")
+@DisplayOrder(order = {"defaultCharEncoding", "inMemoryThresholdBytes", "tempDirectory", "maxMemorySizeBytes",
+    "defaultBufferSize"})
+public class HybridMessageFactory extends FileBackedMessageFactory {
+
+  // The default threshold (1Mb) before the payload is written to a file
+  private static final long DEFAULT_THRESHOLD = 1024 * 1024;
+
+  @AdvancedConfig
+  @InputFieldDefault(value = "1Mb")
+  private Long inMemoryThresholdBytes;
+
+  public HybridMessageFactory() {
+    super();
+  }
+
+  @Override
+  public AdaptrisMessage newMessage() {
+    AdaptrisMessage m = new HybridMessageImpl(uniqueIdGenerator(), this);
+    if (!isEmpty(getDefaultCharEncoding())) {
+      m.setContentEncoding(getDefaultCharEncoding());
+    }
+    return m;
+  }
+
+  public Long getInMemoryThresholdBytes() {
+    return inMemoryThresholdBytes;
+  }
+
+  /**
+   * Set the maximum size of payload that will be kept in memory.
+   * <p>
+   * Once more than this number of bytes is written to the message, the payload is written to a temporary file instead.
+   * </p>
+   *
+   * @param l the threshold, defaults to 1Mb if not specified.
+   */
+  public void setInMemoryThresholdBytes(Long l) {
+    inMemoryThresholdBytes = l;
+  }
+
+  protected long inMemoryThresholdBytes() {
+    return NumberUtils.toLongDefaultIfNull(getInMemoryThresholdBytes(), DEFAULT_THRESHOLD);
+  }
+}
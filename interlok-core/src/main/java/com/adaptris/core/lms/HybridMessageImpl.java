@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.lms;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import com.adaptris.util.IdGenerator;
+
+/**
+ * {@link FileBackedMessage} implementation that keeps small payloads in memory, and only uses a file once the payload exceeds the
+ * configured threshold.
+ *
+ * @see HybridMessageFactory
+ * @since 3.8.4
+ */
+class HybridMessageImpl extends FileBackedMessageImpl {
+
+  // Never modified in place, only ever replaced; so it's safe for a clone to share it.
+  private transient byte[] memory;
+  private final long threshold;
+  private final int bufferSize;
+
+  HybridMessageImpl(IdGenerator guid, HybridMessageFactory fac) {
+    super(guid, fac);
+    threshold = fac.inMemoryThresholdBytes();
+    bufferSize = fac.defaultBufferSize();
+  }
+
+  @Override
+  public String getPayloadForLogging() {
+    return isInMemory() ? "in-memory-size:" + memory.length : super.getPayloadForLogging();
+  }
+
+  @Override
+  public void setPayload(byte[] bytes) {
+    byte[] payload = bytes != null ? bytes : new byte[0];
+    if (payload.length <= threshold) {
+      memory = payload.clone();
+      inputFile = null;
+      payloadChanged();
+    }
+    else {
+      super.setPayload(payload);
+    }
+  }
+
+  @Override
+  public byte[] getPayload() {
+    if (isInMemory()) {
+      long max = ((FileBackedMessageFactory) getFactory()).maxMemorySizeBytes();
+      if (memory.length >= max) {
+        throw new RuntimeException("Payload is > " + max + " bytes, use getInputStream()");
+      }
+      return memory.clone();
+    }
+    return super.getPayload();
+  }
+
+  @Override
+  public long getSize() {
+    return isInMemory() ? memory.length : super.getSize();
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return isInMemory() ? new ByteArrayInputStream(memory) : super.getInputStream();
+  }
+
+  /**
+   * Returns an output stream that writes to memory until the threshold is exceeded, at which point everything is written to a
+   * temporary file instead.
+   * <p>
+   * As with {@link FileBackedMessageImpl}, the payload is only replaced when the stream is closed.
+   * </p>
+   */
+  @Override
+  public OutputStream getOutputStream() throws IOException {
+    payloadChanged();
+    return new SpillingOutputStream();
+  }
+
+  @Override
+  public List<ByteBuffer> mapPayload() throws IOException {
+    return isInMemory() ? Collections.singletonList(ByteBuffer.wrap(memory).asReadOnlyBuffer()) : super.mapPayload();
+  }
+
+  @Override
+  public void initialiseFrom(File sourceFile) throws IOException {
+    super.initialiseFrom(sourceFile);
+    memory = null;
+  }
+
+  /**
+   * Returns the current file that is the source of the message.
+   * <p>
+   * If the payload is currently held in memory, then it is written to a temporary file first, so that file based optimisations
+   * (such as {@link LargeFsProducer#setUseRenameTo(Boolean)}) still work.
+   * </p>
+   */
+  @Override
+  public File currentSource() {
+    if (isInMemory()) {
+      wrappedTry(() -> {
+        File f = createTempFile();
+        try (OutputStream out = new FileOutputStream(f)) {
+          out.write(memory);
+        }
+        inputFile = f;
+        memory = null;
+      });
+      return inputFile;
+    }
+    return super.currentSource();
+  }
+
+  @Override
+  public boolean isFileResident() {
+    return !isInMemory();
+  }
+
+  boolean isInMemory() {
+    return memory != null;
+  }
+
+  private File createTempFile() throws IOException {
+    return ((FileBackedMessageFactory) getFactory()).createTempFile(this);
+  }
+
+  private class SpillingOutputStream extends OutputStream {
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private File file;
+    private OutputStream fileOut;
+    private boolean closed = false;
+
+    @Override
+    public void write(int b) throws IOException {
+      spillIfRequired(1);
+      target().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      spillIfRequired(len);
+      target().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      target().flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (fileOut != null) {
+        fileOut.close();
+        inputFile = file;
+        memory = null;
+      }
+      else {
+        memory = buffer.toByteArray();
+        inputFile = null;
+      }
+      buffer = null;
+      payloadChanged();
+    }
+
+    private OutputStream target() {
+      return fileOut != null ? fileOut : buffer;
+    }
+
+    private void spillIfRequired(int len) throws IOException {
+      if (fileOut == null && buffer.size() + (long) len > threshold) {
+        file = createTempFile();
+        fileOut = new BufferedOutputStream(new FileOutputStream(file), bufferSize);
+        buffer.writeTo(fileOut);
+        buffer = new ByteArrayOutputStream(0);
+      }
+    }
+  }
+}
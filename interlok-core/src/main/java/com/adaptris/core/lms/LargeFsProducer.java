@@ -17,9 +17,7 @@
 package com.adaptris.core.lms;
 
 import java.io.File;
-import java.io.IOException;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
@@ -30,6 +28,7 @@ import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.NullConnection;
 import com.adaptris.core.ProduceDestination;
 import com.adaptris.core.fs.FsProducer;
+import com.adaptris.fs.FileCopy;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
@@ -108,22 +107,10 @@ public class LargeFsProducer extends FsProducer {
       log.trace("Writing to temporary file {}", tmpFile.getCanonicalPath());
       fileToWriteTo = tmpFile;
     }
-    try {
-      FileUtils.copyFile(msg.currentSource(), fileToWriteTo);
-    }
-    catch (IOException e) {
-      if (e.getMessage().contains("Failed to copy full contents")) {
-        // FileUtils.copyFile uses FileChannel.transferFrom(), which has been
-        // causing
-        // some problems with NFS mounts, so let's just try again.
-        // After all it's a "large file";
-        fileToWriteTo.delete();
-        FileUtils.copyFile(msg.currentSource(), fileToWriteTo);
-      }
-      else {
-        throw e;
-      }
-    }
+    // FileCopy keeps going until everything is copied, short transfers used to be a problem on NFS mounts.
+    File source = msg.currentSource();
+    FileCopy.transfer(source, fileToWriteTo, false);
+    fileToWriteTo.setLastModified(source.lastModified());
     if (getTempDirectory() != null) {
       log.trace("Renaming temporary file to " + t.getCanonicalPath());
       fileToWriteTo.renameTo(t);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.lms;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.util.stream.ByteBufferInputStream;
+
+/**
+ * Helper for accessing the payload of a {@link FileBackedMessage} via memory mapped, read-only {@link ByteBuffer}s.
+ * <p>
+ * Mapping the file means that large payloads can be scanned without copying the data onto the heap, and the same pages are shared
+ * by every thread that reads the file. A {@link ByteBuffer} can only address {@link Integer#MAX_VALUE} bytes, so larger files are
+ * mapped as a number of consecutive chunks.
+ * </p>
+ * <p>
+ * There is no way to explicitly release a mapping; it remains in place until the buffers are garbage collected. Until then the file
+ * cannot be deleted or renamed on Windows, and if the file is truncated by another process then accessing the buffer may crash the
+ * JVM (SIGBUS). For this reason, services that can use a mapped payload only do so if configured to.
+ * </p>
+ *
+ * @since 3.8.4
+ * @see FileBackedMessage#mapPayload()
+ */
+public final class MappedPayload {
+
+  private MappedPayload() {
+  }
+
+  /**
+   * Map a file as a list of read-only buffers.
+   *
+   * @param file the file.
+   * @return the buffers, in order; an empty file returns an empty list.
+   * @throws IOException on error.
+   */
+  public static List<ByteBuffer> map(File file) throws IOException {
+    return map(file, Integer.MAX_VALUE);
+  }
+
+  static List<ByteBuffer> map(File file, int chunkSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size == 0) {
+        return Collections.emptyList();
+      }
+      List<ByteBuffer> result = new ArrayList<>((int) (size / chunkSize) + 1);
+      for (long position = 0; position < size; position += chunkSize) {
+        result.add(channel.map(MapMode.READ_ONLY, position, Math.min(chunkSize, size - position)));
+      }
+      // Mappings remain valid after the channel is closed.
+      return Collections.unmodifiableList(result);
+    }
+  }
+
+  /**
+   * Return the payload of the message as a list of read-only buffers, if possible.
+   *
+   * @param msg the message.
+   * @return the buffers, or null if the message is not a {@link FileBackedMessage} or its payload cannot be mapped.
+   * @throws IOException on error.
+   */
+  public static List<ByteBuffer> buffers(AdaptrisMessage msg) throws IOException {
+    return msg instanceof FileBackedMessage ? ((FileBackedMessage) msg).mapPayload() : null;
+  }
+
+  /**
+   * Open an InputStream on the payload, using the mapped payload if possible.
+   *
+   * @param msg the message.
+   * @return an InputStream; either over the mapped payload or from {@link AdaptrisMessage#getInputStream()}.
+   * @throws IOException on error.
+   */
+  public static InputStream openInputStream(AdaptrisMessage msg) throws IOException {
+    List<ByteBuffer> buffers = buffers(msg);
+    return buffers != null ? new ByteBufferInputStream(buffers) : msg.getInputStream();
+  }
+
+  /**
+   * Open a Reader on the payload, using the mapped payload if possible.
+   *
+   * @param msg the message.
+   * @return a Reader that honours {@link AdaptrisMessage#getContentEncoding()}, as {@link AdaptrisMessage#getReader()} does.
+   * @throws IOException on error.
+   */
+  public static Reader openReader(AdaptrisMessage msg) throws IOException {
+    List<ByteBuffer> buffers = buffers(msg);
+    if (buffers == null) {
+      return msg.getReader();
+    }
+    InputStream in = new ByteBufferInputStream(buffers);
+    return msg.getContentEncoding() != null ? new InputStreamReader(in, msg.getContentEncoding()) : new InputStreamReader(in);
+  }
+}
@@ -20,7 +20,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -77,6 +79,26 @@ class ZipFileBackedMessageImpl extends FileBackedMessageImpl {
     return super.getInputStream();
   }
 
+  /**
+   * The underlying file is compressed, so it can't be mapped.
+   *
+   * @return null.
+   */
+  @Override
+  public List<ByteBuffer> mapPayload() {
+    return null;
+  }
+
+  /**
+   * The underlying file is compressed, so it isn't the raw payload.
+   *
+   * @return false.
+   */
+  @Override
+  public boolean isFileResident() {
+    return false;
+  }
+
   /**
    * Return the size of the uncompressed data
    */
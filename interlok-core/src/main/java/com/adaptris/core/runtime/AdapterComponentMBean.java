@@ -145,6 +145,18 @@ public interface AdapterComponentMBean extends BaseComponentMBean {
    */
   String JMX_RETRY_MONITOR_TYPE = JMX_DOMAIN_NAME + ":type=RetryMessageHandlerMonitor";
 
+  /**
+   * The standard JMX Prefix for the worker pool of a PoolingWorkflow exposed via JMX which resolves to {@value}
+   *
+   */
+  String JMX_POOLING_WORKFLOW_TYPE = JMX_DOMAIN_NAME + ":type=PoolingWorkflow";
+
+  /**
+   * The standard JMX Prefix for the jetty thread pool used by a jetty consumer exposed via JMX which resolves to {@value}
+   *
+   */
+  String JMX_JETTY_THREAD_POOL_TYPE = JMX_DOMAIN_NAME + ":type=JettyThreadPool";
+
   /**
    * The standard JMX Prefix for an Interceptor which emits {@link javax.management.Notification} which resolves to {@value}
    *
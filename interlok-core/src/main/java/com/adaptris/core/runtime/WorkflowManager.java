@@ -101,7 +101,8 @@ public class WorkflowManager extends ComponentManagerImpl<Workflow>implements Wo
     Collection<AdaptrisComponent> runtimeCandidates = CollectionUtils.union(managedWorkflow.getInterceptors(),
         Arrays.asList(new AdaptrisComponent[]
         {
-            managedWorkflow.getConsumer(), managedWorkflow.getProducer(), defaultIfNull(managedWorkflow.getMessageErrorHandler())
+            managedWorkflow, managedWorkflow.getConsumer(), managedWorkflow.getProducer(),
+            defaultIfNull(managedWorkflow.getMessageErrorHandler())
         }));
     for (AdaptrisComponent c : runtimeCandidates) {
       addChildJmxComponentQuietly((ChildRuntimeInfoComponent) RuntimeInfoComponentFactory.create(this, c));
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services;
+
+import static com.adaptris.util.stream.StreamUtil.copyAndClose;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.ServiceException;
+import com.adaptris.core.ServiceImp;
+import com.adaptris.util.NumberUtils;
+import com.adaptris.util.stream.ParallelGzipOutputStream;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Gzip the given payload, compressing independent blocks in parallel.
+ * <p>
+ * The payload is split into blocks of {@link #setBlockSize(Integer)} bytes; each block is compressed on a {@link ForkJoinPool} and
+ * written as a separate gzip member. The result is a standard gzip file that can be decompressed by {@link GunzipService} or any
+ * other gunzip implementation, though it will be slightly larger than the output from {@link GzipService} as each block is
+ * compressed independently.
+ * </p>
+ * <p>
+ * This is only worth using for large payloads (typically in combination with
+ * {@link com.adaptris.core.lms.FileBackedMessageFactory}); for small payloads the overhead of handing off to other threads
+ * outweighs any benefit and you should use {@link GzipService} instead.
+ * </p>
+ *
+ * @config parallel-gzip-service
+ * @since 3.8.4
+ */
+@XStreamAlias("parallel-gzip-service")
+@AdapterComponent
+@ComponentProfile(summary = "GZIP the contents of the message using multiple threads", tag = "service,zip", since = "3.8.4")
+@DisplayOrder(order = {"blockSize", "parallelism"})
+public class ParallelGzipService extends ServiceImp {
+
+  private static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  @AdvancedConfig
+  @InputFieldDefault(value = "1Mb")
+  private Integer blockSize;
+  @AdvancedConfig
+  @InputFieldDefault(value = "the number of available processors")
+  private Integer parallelism;
+
+  private transient ForkJoinPool pool;
+
+  public ParallelGzipService() {
+    super();
+  }
+
+  @Override
+  public void doService(AdaptrisMessage msg) throws ServiceException {
+    try (InputStream in = msg.getInputStream();
+        OutputStream msgOut = msg.getOutputStream();
+        ParallelGzipOutputStream out = new ParallelGzipOutputStream(msgOut, pool, blockSize(), parallelism() * 2)) {
+      copyAndClose(in, out);
+    }
+    catch (Exception e) {
+      throw new ServiceException(e);
+    }
+  }
+
+  @Override
+  public void prepare() throws CoreException {
+  }
+
+  @Override
+  protected void initService() throws CoreException {
+    pool = new ForkJoinPool(parallelism());
+  }
+
+  @Override
+  protected void closeService() {
+    if (pool != null) {
+      pool.shutdown();
+      try {
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      pool = null;
+    }
+  }
+
+  public Integer getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Set the size of each block that is compressed independently.
+   * <p>
+   * Larger blocks compress slightly better, but use more memory; at most {@code 2 * parallelism} blocks are held in memory at any
+   * one time.
+   * </p>
+   *
+   * @param i the block size in bytes; defaults to 1Mb if not specified.
+   */
+  public void setBlockSize(Integer i) {
+    blockSize = i;
+  }
+
+  int blockSize() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getBlockSize(), DEFAULT_BLOCK_SIZE));
+  }
+
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Set the number of threads used to compress blocks.
+   *
+   * @param i the parallelism; defaults to {@link Runtime#availableProcessors()} if not specified.
+   */
+  public void setParallelism(Integer i) {
+    parallelism = i;
+  }
+
+  int parallelism() {
+    return Math.max(1, NumberUtils.toIntDefaultIfNull(getParallelism(), Runtime.getRuntime().availableProcessors()));
+  }
+}
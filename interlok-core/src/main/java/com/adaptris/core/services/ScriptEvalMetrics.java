@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing statistics for script execution within a {@link ScriptingServiceImp}.
+ * <p>
+ * Only the evaluation of the script is timed; compilation (which happens the first time the script is used or after it has
+ * changed) is included in that first evaluation. All times are in microseconds.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public final class ScriptEvalMetrics {
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong lastNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  ScriptEvalMetrics() {
+  }
+
+  void record(long nanos) {
+    count.increment();
+    totalNanos.add(nanos);
+    lastNanos.set(nanos);
+    maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * @return the number of times the script was executed.
+   */
+  public long getEvalCount() {
+    return count.sum();
+  }
+
+  public long getLastDuration() {
+    return toMicros(lastNanos.get());
+  }
+
+  public long getMaxDuration() {
+    return toMicros(maxNanos.get());
+  }
+
+  public long getAverageDuration() {
+    long c = count.sum();
+    return c == 0 ? 0 : toMicros(totalNanos.sum() / c);
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("evals=%d, last=%dus, avg=%dus, max=%dus", getEvalCount(), getLastDuration(), getAverageDuration(),
+        getMaxDuration());
+  }
+}
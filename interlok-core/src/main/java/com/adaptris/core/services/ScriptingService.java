@@ -52,6 +52,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * #setBranchingEnabled(Boolean)}
  * should be true.
  * <p>
+ * <p>
+ * The script file is checked for changes (based on its last modified time and size) before each message; if it has changed then
+ * it is reloaded and recompiled.
+ * </p>
  * 
  * @config scripting-service
  * 
@@ -67,6 +71,10 @@ public class ScriptingService extends ScriptingServiceImp {
 
   @NotBlank
   private String scriptFilename;
+
+  private transient long scriptLastModified;
+  private transient long scriptLength;
+
   public ScriptingService() {
     super();
   }
@@ -96,6 +104,8 @@ public class ScriptingService extends ScriptingServiceImp {
       Args.notBlank(getScriptFilename(), "scriptFilename");
       File f = new File(getScriptFilename());
       FsWorker.isFile(FsWorker.checkReadable(f));
+      scriptLastModified = f.lastModified();
+      scriptLength = f.length();
       super.initService();
     } catch (Exception e) {
       throw ExceptionHelper.wrapCoreException(e);
@@ -107,6 +117,19 @@ public class ScriptingService extends ScriptingServiceImp {
     return new FileReader(getScriptFilename());
   }
 
+  @Override
+  protected synchronized boolean scriptChanged() {
+    File f = new File(getScriptFilename());
+    long lastModified = f.lastModified();
+    long length = f.length();
+    if (lastModified != scriptLastModified || length != scriptLength) {
+      scriptLastModified = lastModified;
+      scriptLength = length;
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public void prepare() throws CoreException {
   }
@@ -18,10 +18,16 @@ package com.adaptris.core.services;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.hibernate.validator.constraints.NotBlank;
@@ -39,7 +45,13 @@ import com.adaptris.core.util.ExceptionHelper;
 
 /**
  * Base class for enabling JSR223 enabled scripting languages.
- * 
+ * <p>
+ * If the {@link ScriptEngine} implements {@link Compilable} then the script is compiled the first time it is used and the
+ * resulting {@link CompiledScript} is reused for subsequent messages. If the engine does not declare a {@code THREADING}
+ * parameter (i.e. it is not thread-safe) then each concurrent thread (e.g. in a {@link com.adaptris.core.PoolingWorkflow}) gets
+ * its own engine from a small pool; otherwise a single engine is shared. Timings for each script execution are available via
+ * {@link #evalMetrics()}.
+ * </p>
  * 
  * @author lchan
  * 
@@ -52,6 +64,11 @@ public abstract class ScriptingServiceImp extends ServiceImp implements DynamicP
   private String language;
   private transient ScriptEngineManager fatController;
   private transient ScriptEngine engine;
+  private transient boolean threadSafe;
+  private transient volatile ScriptRunner sharedRunner;
+  private transient Queue<ScriptRunner> pool = new ConcurrentLinkedQueue<>();
+  private transient AtomicInteger generation = new AtomicInteger();
+  private transient ScriptEvalMetrics metrics = new ScriptEvalMetrics();
 
   @InputFieldDefault(value = "false")
   private Boolean branchingEnabled;
@@ -63,11 +80,20 @@ public abstract class ScriptingServiceImp extends ServiceImp implements DynamicP
   @Override
   public final void doService(AdaptrisMessage msg) throws ServiceException {
     try {
-      Bindings vars = engine.createBindings();
+      if (scriptChanged()) {
+        reload();
+      }
+      ScriptRunner runner = borrow();
+      Bindings vars = runner.engine.createBindings();
       vars.put("message", msg);
       vars.put("log", log);
-      try (Reader input = createReader()) {
-        engine.eval(input, vars);
+      long start = System.nanoTime();
+      try {
+        runner.eval(vars);
+      }
+      finally {
+        metrics.record(System.nanoTime() - start);
+        release(runner);
       }
     }
     catch (Exception e) {
@@ -77,13 +103,81 @@ public abstract class ScriptingServiceImp extends ServiceImp implements DynamicP
 
   protected abstract Reader createReader() throws IOException;
 
+  /**
+   * Whether or not the script has changed since it was last compiled.
+   *
+   * @return true if the script should be recompiled; the default implementation always returns false.
+   */
+  protected boolean scriptChanged() {
+    return false;
+  }
+
+  /**
+   * Discard any compiled scripts, they will be recompiled the next time they are used.
+   */
+  protected void reload() {
+    generation.incrementAndGet();
+    pool.clear();
+    sharedRunner = null;
+  }
+
+  /**
+   * Return the execution timings for this service.
+   *
+   * @return the metrics.
+   * @since 3.8.4
+   */
+  public ScriptEvalMetrics evalMetrics() {
+    return metrics;
+  }
+
+  private ScriptRunner borrow() throws IOException, ScriptException {
+    int current = generation.get();
+    if (threadSafe) {
+      ScriptRunner runner = sharedRunner;
+      if (runner == null || runner.generation != current) {
+        synchronized (this) {
+          runner = sharedRunner;
+          if (runner == null || runner.generation != current) {
+            runner = new ScriptRunner(engine, current);
+            sharedRunner = runner;
+          }
+        }
+      }
+      return runner;
+    }
+    ScriptRunner runner;
+    while ((runner = pool.poll()) != null) {
+      if (runner.generation == current) {
+        return runner;
+      }
+    }
+    return new ScriptRunner(newEngine(), current);
+  }
+
+  private void release(ScriptRunner runner) {
+    if (!threadSafe && runner.generation == generation.get()) {
+      pool.offer(runner);
+    }
+  }
+
+  private ScriptEngine newEngine() {
+    return Args.notNull(fatController.getEngineByName(getLanguage()), String.format("getEngineByName('%s')", getLanguage()));
+  }
+
+  static boolean isThreadSafe(ScriptEngine engine) {
+    // null means not thread-safe; MULTITHREADED, THREAD-ISOLATED & STATELESS are all safe since we use new bindings each time.
+    return engine.getFactory().getParameter("THREADING") != null;
+  }
+
   @Override
   protected void initService() throws CoreException {
     try {
       Args.notBlank(language, "language");
-      String error = String.format("getEngineByName('%s')", getLanguage());
       fatController = new ScriptEngineManager(this.getClass().getClassLoader());
-      engine = Args.notNull(fatController.getEngineByName(getLanguage()), error);
+      engine = newEngine();
+      threadSafe = isThreadSafe(engine);
+      reload();
     } catch (Exception e) {
       throw ExceptionHelper.wrapCoreException(e);
     }
@@ -91,6 +185,7 @@ public abstract class ScriptingServiceImp extends ServiceImp implements DynamicP
 
   @Override
   protected void closeService() {
+    reload();
   }
 
 
@@ -143,4 +238,32 @@ public abstract class ScriptingServiceImp extends ServiceImp implements DynamicP
     this.branchingEnabled = branching;
   }
 
+  private class ScriptRunner {
+    private final ScriptEngine engine;
+    private final CompiledScript compiled;
+    private final int generation;
+
+    ScriptRunner(ScriptEngine engine, int generation) throws IOException, ScriptException {
+      this.engine = engine;
+      this.generation = generation;
+      compiled = engine instanceof Compilable ? compile((Compilable) engine) : null;
+    }
+
+    private CompiledScript compile(Compilable c) throws IOException, ScriptException {
+      try (Reader input = createReader()) {
+        return c.compile(input);
+      }
+    }
+
+    void eval(Bindings vars) throws IOException, ScriptException {
+      if (compiled != null) {
+        compiled.eval(vars);
+      }
+      else {
+        try (Reader input = createReader()) {
+          engine.eval(input, vars);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.aggregator;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.XmlStreamHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link MessageAggregator} implementation that creates single XML using each message that needs to be joined up, writing the
+ * result directly to the message.
+ * 
+ * <p>
+ * Unlike {@link XmlDocumentAggregator} no {@link org.w3c.dom.Document} is ever created; the original document and each of the
+ * split documents are copied using {@link javax.xml.stream.XMLStreamReader} and {@link javax.xml.stream.XMLStreamWriter} so the
+ * memory used does not depend on the size or number of split documents. As a result, the only supported merge is to append the
+ * document element of each split document to the root element of the resulting document, which is equivalent to using
+ * {@link XmlDocumentAggregator} with {@link com.adaptris.util.text.xml.InsertNode} and the root element as the parent node.
+ * </p>
+ * <p>
+ * If {@link #setDocumentRoot(String)} is not specified, then the original pre-split document forms the basis of the resulting
+ * document; if it is specified, then the original document is ignored, and the resulting document has a root element of that name
+ * (which is equivalent to using {@link IgnoreOriginalXmlDocumentAggregator} with a template of {@code <documentRoot/>}).
+ * </p>
+ * <p>
+ * Use {@link #setDocumentEncoding(String)} to force the encoding of the resulting XML document to the required value; if not set,
+ * then either the original {@link com.adaptris.core.AdaptrisMessage#getContentEncoding()} (if set) or <code>UTF-8</code> will be
+ * used in that order. If the join fails, then the payload of the original message is undefined.
+ * </p>
+ * 
+ * @config streaming-xml-document-aggregator
+ * @since 3.8.4
+ */
+@XStreamAlias("streaming-xml-document-aggregator")
+@DisplayOrder(order = {"documentRoot", "documentEncoding"})
+public class StreamingXmlDocumentAggregator extends MessageAggregatorImpl {
+
+  private String documentRoot;
+  @AdvancedConfig
+  private String documentEncoding;
+
+  public StreamingXmlDocumentAggregator() {
+  }
+
+  public StreamingXmlDocumentAggregator(String root) {
+    this();
+    setDocumentRoot(root);
+  }
+
+  @Override
+  public void joinMessage(AdaptrisMessage original, Collection<AdaptrisMessage> messages) throws CoreException {
+    String encoding = XmlHelper.getXmlEncoding(original, getDocumentEncoding());
+    XMLStreamWriter writer = null;
+    // Writing to a message doesn't change its content until the output stream is closed; so we can
+    // still read the original while writing.
+    try (OutputStream out = original.getOutputStream()) {
+      writer = XmlStreamHelper.startDocument(out, encoding);
+      if (isBlank(getDocumentRoot())) {
+        try (InputStream in = original.getInputStream()) {
+          copyWithoutEndElement(in, writer);
+        }
+      }
+      else {
+        writer.writeStartElement(getDocumentRoot());
+      }
+      for (AdaptrisMessage m : messages) {
+        try (InputStream in = m.getInputStream()) {
+          XmlStreamHelper.copyDocumentElement(in, writer);
+        }
+        overwriteMetadata(m, original);
+      }
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.flush();
+    }
+    catch (Exception e) {
+      ExceptionHelper.rethrowCoreException(e);
+    }
+    finally {
+      XmlStreamHelper.closeQuietly(writer);
+    }
+    original.setContentEncoding(encoding);
+  }
+
+  // Copy everything in the document element, leaving the element open so that we can add to it.
+  private static void copyWithoutEndElement(InputStream in, XMLStreamWriter writer) throws Exception {
+    XMLStreamReader reader = null;
+    try {
+      reader = XmlStreamHelper.newInputFactory().createXMLStreamReader(in);
+      if (!XmlStreamHelper.skipToStartElement(reader)) {
+        throw new XMLStreamException("No document element in original message");
+      }
+      int depth = 0;
+      while (true) {
+        int event = reader.getEventType();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+        }
+        else if (event == XMLStreamConstants.END_ELEMENT && --depth == 0) {
+          break;
+        }
+        XmlStreamHelper.copyEvent(reader, writer);
+        reader.next();
+      }
+    }
+    finally {
+      XmlStreamHelper.closeQuietly(reader);
+    }
+  }
+
+  public String getDocumentRoot() {
+    return documentRoot;
+  }
+
+  /**
+   * Set the name of the root element of the resulting document.
+   * 
+   * @param s the name of the root element; if not specified, then the original document is used.
+   */
+  public void setDocumentRoot(String s) {
+    this.documentRoot = s;
+  }
+
+  public String getDocumentEncoding() {
+    return documentEncoding;
+  }
+
+  /**
+   * Set the XML encoding for the resulting document.
+   * 
+   * @param s the documentEncoding to set (defaults to UTF-8).
+   */
+  public void setDocumentEncoding(String s) {
+    this.documentEncoding = s;
+  }
+}
@@ -14,7 +14,7 @@ import com.adaptris.core.services.cache.CacheKeyTranslator;
 import com.adaptris.core.services.cache.CacheValueTranslator;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 import com.adaptris.core.util.ExceptionHelper;
-import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.KeyValuePairSet;
 import com.adaptris.util.text.xml.SimpleNamespaceContext;
 import com.adaptris.util.text.xml.XPath;
@@ -61,7 +61,7 @@ public class XpathCacheValueTranslator implements CacheValueTranslator<String>,
     String result = null;
     try {
       XPath xp = XPath.newXPathInstance(builder, ctx);
-      Document d = XmlHelper.createDocument(msg, builder);
+      Document d = ParsedDocumentCache.getDocument(msg, builder);
       result = xp.selectSingleTextItem(d, msg.resolve(getXpath()));
     }
     catch (Exception e) {
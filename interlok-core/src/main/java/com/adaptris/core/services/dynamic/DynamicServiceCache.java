@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.dynamic;
+
+import static com.adaptris.core.util.LoggingHelper.friendlyName;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.Service;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.NumberUtils;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Cache of initialised and started {@link Service} instances for use with {@link DynamicServiceLocator} and
+ * {@link DynamicServiceExecutor}.
+ * <p>
+ * Without a cache, each message causes the dynamic service to be unmarshalled, initialised, started, stopped and closed; which can
+ * be expensive if the service is complex. When a cache is configured, services are kept started between messages and are keyed by
+ * name (or by the service definition itself in the case of {@link DynamicServiceExecutor}). Each entry in the cache also records a
+ * version (e.g. the last modified time of the file) and if the version changes, the cached instances are discarded and the service
+ * is created anew.
+ * </p>
+ * <p>
+ * A started service instance is only ever used by a single thread at a time; if multiple threads require the same service
+ * concurrently then additional instances are created as required. Once finished with, up to {@link #getMaxIdleInstances()} instances
+ * per entry are retained for reuse. The least recently used entry is discarded when there are more than {@link #getMaxEntries()}
+ * entries. Discarded instances are always stopped and closed.
+ * </p>
+ * <p>
+ * Note that because the service instances are reused, any state held by the service is preserved between messages.
+ * </p>
+ *
+ * @config dynamic-service-cache
+ * @since 3.8.4
+ */
+@XStreamAlias("dynamic-service-cache")
+@ComponentProfile(summary = "Cache of started services for dynamic service execution", since = "3.8.4")
+@DisplayOrder(order = {"maxEntries", "maxIdleInstances"})
+public class DynamicServiceCache {
+
+  private static final int DEFAULT_MAX_ENTRIES = 16;
+  private static final int DEFAULT_MAX_IDLE_INSTANCES = 4;
+
+  @InputFieldDefault(value = "16")
+  private Integer maxEntries;
+  @InputFieldDefault(value = "4")
+  private Integer maxIdleInstances;
+
+  private transient Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private transient Logger log = LoggerFactory.getLogger(this.getClass());
+
+  public DynamicServiceCache() {
+
+  }
+
+  public DynamicServiceCache(Integer maxEntries) {
+    this();
+    setMaxEntries(maxEntries);
+  }
+
+  /**
+   * Creates a service instance that is ready for use.
+   *
+   */
+  @FunctionalInterface
+  public interface ServiceCreator {
+    /**
+     * Create a new service instance.
+     *
+     * @return a service that has been initialised and started.
+     * @throws CoreException on exception.
+     */
+    Service create() throws CoreException;
+  }
+
+  /**
+   * Obtain a service from the cache.
+   *
+   * @param key the key.
+   * @param version the current version of the service; if this differs from the cached version, then the cached instances are
+   *          discarded.
+   * @param creator used to create a new instance if there isn't an idle one available.
+   * @return a lease on the service which should be closed once the service is no longer required.
+   * @throws CoreException if a new service instance could not be created.
+   */
+  public Lease obtain(String key, String version, ServiceCreator creator) throws CoreException {
+    List<Service> discard = new ArrayList<>();
+    Entry entry = null;
+    Service service = null;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && !entry.version.equals(version)) {
+        log.trace("[{}] has changed, discarding cached instances", key);
+        entries.remove(key);
+        entry.retire(discard);
+        entry = null;
+      }
+      if (entry == null) {
+        entry = new Entry(version);
+        entries.put(key, entry);
+        for (Iterator<Entry> i = entries.values().iterator(); entries.size() > maxEntries() && i.hasNext();) {
+          Entry eldest = i.next();
+          i.remove();
+          eldest.retire(discard);
+        }
+      }
+      service = entry.idle.pollFirst();
+    }
+    dispose(discard);
+    if (service == null) {
+      service = creator.create();
+      log.trace("Created service [{}] for [{}]", friendlyName(service), key);
+    }
+    return new Lease(entry, service);
+  }
+
+  /**
+   * Stop and close all the cached instances.
+   * <p>
+   * Instances that are currently in use will be stopped and closed when their lease is closed.
+   * </p>
+   */
+  public void clear() {
+    List<Service> discard = new ArrayList<>();
+    synchronized (this) {
+      for (Entry e : entries.values()) {
+        e.retire(discard);
+      }
+      entries.clear();
+    }
+    dispose(discard);
+  }
+
+  /**
+   * Return the number of entries in the cache.
+   *
+   * @return the number of entries.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void release(Entry entry, Service service) {
+    synchronized (this) {
+      if (!entry.retired && entry.idle.size() < maxIdleInstances()) {
+        entry.idle.addFirst(service);
+        return;
+      }
+    }
+    LifecycleHelper.stopAndClose(service, false);
+  }
+
+  private static void dispose(List<Service> services) {
+    for (Service s : services) {
+      LifecycleHelper.stopAndClose(s, false);
+    }
+  }
+
+  public Integer getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Set the maximum number of entries in the cache.
+   *
+   * @param i the max number of entries, default is 16 if not specified.
+   */
+  public void setMaxEntries(Integer i) {
+    maxEntries = i;
+  }
+
+  int maxEntries() {
+    return NumberUtils.toIntDefaultIfNull(getMaxEntries(), DEFAULT_MAX_ENTRIES);
+  }
+
+  public Integer getMaxIdleInstances() {
+    return maxIdleInstances;
+  }
+
+  /**
+   * Set the maximum number of idle instances retained for each entry.
+   * <p>
+   * This should generally be set to the number of threads that might concurrently execute the same service (e.g. the pool size of
+   * a {@link com.adaptris.core.PoolingWorkflow}).
+   * </p>
+   *
+   * @param i the max number of idle instances per entry, default is 4 if not specified.
+   */
+  public void setMaxIdleInstances(Integer i) {
+    maxIdleInstances = i;
+  }
+
+  int maxIdleInstances() {
+    return NumberUtils.toIntDefaultIfNull(getMaxIdleInstances(), DEFAULT_MAX_IDLE_INSTANCES);
+  }
+
+  /**
+   * A service obtained from the cache which is returned to the cache when closed.
+   *
+   */
+  public final class Lease implements AutoCloseable {
+    private final Entry entry;
+    private final Service service;
+
+    private Lease(Entry e, Service s) {
+      entry = e;
+      service = s;
+    }
+
+    public Service getService() {
+      return service;
+    }
+
+    @Override
+    public void close() {
+      release(entry, service);
+    }
+  }
+
+  private static class Entry {
+    private final String version;
+    private final Deque<Service> idle = new ArrayDeque<>();
+    private boolean retired = false;
+
+    Entry(String version) {
+      this.version = version;
+    }
+
+    void retire(List<Service> discard) {
+      retired = true;
+      discard.addAll(idle);
+      idle.clear();
+    }
+  }
+}
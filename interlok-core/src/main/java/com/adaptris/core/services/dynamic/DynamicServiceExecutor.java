@@ -18,16 +18,23 @@ package com.adaptris.core.services.dynamic;
 
 import static com.adaptris.core.util.LoggingHelper.friendlyName;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.io.IOUtils;
+
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AutoPopulated;
 import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.core.AdaptrisMarshaller;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
@@ -55,6 +62,11 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * unmarshalled
  * service are simply rethrown back to the workflow for standard message error handling.
  * </p>
+ * <p>
+ * If a {@link DynamicServiceCache} is configured, then the started service is cached using a digest of the service definition as
+ * the key; subsequent messages that contain the identical service definition will reuse the started service rather than
+ * unmarshalling and starting it again.
+ * </p>
  * 
  * @config dynamic-service-executor
  * 
@@ -64,6 +76,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("dynamic-service-executor")
 @AdapterComponent
 @ComponentProfile(summary = "Execute a service definition which is defined in the message itself", tag = "service,dynamic")
+@DisplayOrder(order = {"serviceExtractor", "marshaller", "serviceCache"})
 public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAware {
 
   private transient EventHandler eventHandler;
@@ -75,6 +88,9 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
   @Valid
   @AdvancedConfig
   private AdaptrisMarshaller marshaller;
+  @Valid
+  @AdvancedConfig
+  private DynamicServiceCache serviceCache;
 
   public DynamicServiceExecutor() {
     this(new DefaultServiceExtractor());
@@ -86,6 +102,10 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
 
   @Override
   public void doService(AdaptrisMessage msg) throws ServiceException {
+    if (getServiceCache() != null) {
+      doCachedService(msg);
+      return;
+    }
     try {
       Service service = createService(msg);
       log.trace("Created service [{}]", friendlyName(service));
@@ -99,6 +119,37 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
     }
   }
 
+  private void doCachedService(AdaptrisMessage msg) throws ServiceException {
+    try {
+      byte[] definition;
+      try (InputStream in = serviceExtractor.getInputStream(msg)) {
+        definition = IOUtils.toByteArray(in);
+      }
+      try (DynamicServiceCache.Lease lease = getServiceCache().obtain(digest(definition), "", () -> createAndStart(definition))) {
+        lease.getService().doService(msg);
+      }
+    }
+    catch (IOException | CoreException e) {
+      throw ExceptionHelper.wrapServiceException(e);
+    }
+  }
+
+  private Service createAndStart(byte[] definition) throws CoreException {
+    Service service = (Service) currentMarshaller().unmarshal(new ByteArrayInputStream(definition));
+    log.trace("Created service [{}]", friendlyName(service));
+    LifecycleHelper.registerEventHandler(service, eventHandler);
+    return LifecycleHelper.initAndStart(service, false);
+  }
+
+  private static String digest(byte[] definition) throws CoreException {
+    try {
+      return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(definition));
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
   private Service createService(AdaptrisMessage msg) throws CoreException, IOException {
     try (InputStream in = serviceExtractor.getInputStream(msg)) {
       return (Service) currentMarshaller().unmarshal(in);
@@ -111,6 +162,9 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
 
   @Override
   protected void closeService() {
+    if (getServiceCache() != null) {
+      getServiceCache().clear();
+    }
   }
 
   @Override
@@ -150,6 +204,21 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
     this.marshaller = m;
   }
 
+  public DynamicServiceCache getServiceCache() {
+    return serviceCache;
+  }
+
+  /**
+   * Specify a cache of started services.
+   *
+   * @param c the cache, default is null (no caching, each message causes the service to be unmarshalled, initialised, started,
+   *          stopped and closed).
+   * @since 3.8.4
+   */
+  public void setServiceCache(DynamicServiceCache c) {
+    serviceCache = c;
+  }
+
   AdaptrisMarshaller currentMarshaller() {
     return DefaultMarshaller.defaultIfNull(getMarshaller());
   }
@@ -54,7 +54,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("dynamic-service-locator")
 @AdapterComponent
 @ComponentProfile(summary = "Locate and execute a service definition based on attributes of the message", tag = "service,dynamic")
-@DisplayOrder(order = {"treatNotFoundAsError"})
+@DisplayOrder(order = {"treatNotFoundAsError", "serviceCache"})
 public class DynamicServiceLocator extends ServiceImp implements EventHandlerAware {
 
   @NotNull
@@ -74,6 +74,9 @@ public class DynamicServiceLocator extends ServiceImp implements EventHandlerAwa
   @AdvancedConfig
   @InputFieldDefault(value = "false")
   private Boolean treatNotFoundAsError;
+  @AdvancedConfig
+  @Valid
+  private DynamicServiceCache serviceCache;
 
   private transient EventHandler eventHandler;
 
@@ -116,6 +119,9 @@ public class DynamicServiceLocator extends ServiceImp implements EventHandlerAwa
       TradingRelationship[] matches = matchingStrategy.create(t);
 
       String name = serviceNameProvider.obtain(matches);
+      if (executeCached(name, msg)) {
+        return;
+      }
       Service dynamicService = serviceStore.obtain(name);
 
       if (dynamicService != null) {
@@ -154,6 +160,33 @@ public class DynamicServiceLocator extends ServiceImp implements EventHandlerAwa
     }
   }
 
+  // Returns false if there's no cache, or the store can't tell us the version (including if it doesn't exist).
+  private boolean executeCached(String matchedName, AdaptrisMessage msg) throws CoreException {
+    if (getServiceCache() == null) {
+      return false;
+    }
+    String version = serviceStore.version(matchedName);
+    if (version == null) {
+      return false;
+    }
+    try (DynamicServiceCache.Lease lease = getServiceCache().obtain(matchedName, version, () -> create(matchedName))) {
+      log.debug("Applying cached service [{}] from [{}]", friendlyName(lease.getService()), matchedName);
+      lease.getService().doService(msg);
+    }
+    return true;
+  }
+
+  private Service create(String matchedName) throws CoreException {
+    Service dynamicService = serviceStore.obtain(matchedName);
+    if (dynamicService == null) {
+      throw new ServiceException(matchedName + " was not found");
+    }
+    LifecycleHelper.prepare(dynamicService);
+    LifecycleHelper.registerEventHandler(dynamicService, eventHandler);
+    start(dynamicService);
+    return dynamicService;
+  }
+
   private static void start(AdaptrisComponent c) throws CoreException {
     LifecycleHelper.init(c);
     try {
@@ -188,6 +221,9 @@ public class DynamicServiceLocator extends ServiceImp implements EventHandlerAwa
 
   @Override
   protected void closeService() {
+    if (getServiceCache() != null) {
+      getServiceCache().clear();
+    }
   }
 
   // getters & setters...
@@ -300,6 +336,28 @@ public class DynamicServiceLocator extends ServiceImp implements EventHandlerAwa
     treatNotFoundAsError = b;
   }
 
+  /**
+   * @return the service cache
+   */
+  public DynamicServiceCache getServiceCache() {
+    return serviceCache;
+  }
+
+  /**
+   * Specify a cache of started services.
+   * <p>
+   * If not specified, then each message causes the service to be retrieved from the {@link ServiceStore}, initialised, started,
+   * stopped and closed. If a cache is specified then started services are reused for as long as
+   * {@link ServiceStore#version(String)} reports that the stored service is unchanged.
+   * </p>
+   *
+   * @param c the cache, default is null (no caching).
+   * @since 3.8.4
+   */
+  public void setServiceCache(DynamicServiceCache c) {
+    serviceCache = c;
+  }
+
   boolean treatNotFoundAsError() {
     return BooleanUtils.toBooleanDefaultIfNull(getTreatNotFoundAsError(), false);
   }
@@ -90,7 +90,7 @@ public class LocalMarshallServiceStore extends MarshallFileServiceStore {
   protected Service unmarshal(String s) throws CoreException {
     Service result = null;
 
-    String filename = defaultIfEmpty(getFileNamePrefix(), "") + s + defaultIfEmpty(getFileNameSuffix(), "");
+    String filename = filename(s);
     try {
       if (baseDir == null) {
         validate();
@@ -105,6 +105,23 @@ public class LocalMarshallServiceStore extends MarshallFileServiceStore {
     return result;
   }
 
+  /**
+   * The version is derived from the last modified time and the size of the file.
+   *
+   */
+  @Override
+  protected String versionOf(String s) throws CoreException {
+    if (baseDir == null) {
+      validate();
+    }
+    File file = new File(baseDir, filename(s));
+    return file.isFile() ? file.lastModified() + ":" + file.length() : null;
+  }
+
+  private String filename(String s) {
+    return defaultIfEmpty(getFileNamePrefix(), "") + s + defaultIfEmpty(getFileNameSuffix(), "");
+  }
+
   /**
    * <p>
    * Returns the base directory of the store in the form of a file URL.
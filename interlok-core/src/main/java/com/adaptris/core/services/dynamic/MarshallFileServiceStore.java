@@ -147,6 +147,33 @@ public abstract class MarshallFileServiceStore extends MarshallServiceStore {
     return result;
   }
 
+  /** @see com.adaptris.core.services.dynamic.ServiceStore#version(String) */
+  @Override
+  public String version(String s) throws CoreException {
+    String result = versionOf(s);
+    if (result == null && getDefaultFileName() != null) {
+      String defaultVersion = versionOf(getDefaultFileName());
+      // so that we notice if the named file subsequently appears.
+      result = defaultVersion != null ? getDefaultFileName() + "@" + defaultVersion : null;
+    }
+    return result;
+  }
+
+  /**
+   * Get the version of the Service from the store.
+   * <p>
+   * The default implementation returns null, so the service is never cached.
+   * </p>
+   *
+   * @param s the name under which the service is stored.
+   * @return a token that changes whenever the stored service changes, or null if the service does not exist.
+   * @throws CoreException wrapping any underlying exceptions.
+   * @since 3.8.4
+   */
+  protected String versionOf(String s) throws CoreException {
+    return null;
+  }
+
   /**
    * Unmarshal the Service from the store.
    *
@@ -17,11 +17,14 @@
 package com.adaptris.core.services.dynamic;
 
 import static org.apache.commons.lang.StringUtils.defaultIfEmpty;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 
@@ -81,7 +84,7 @@ public class RemoteMarshallServiceStore extends MarshallFileServiceStore {
   protected Service unmarshal(String s) throws CoreException {
     Service result = null;
 
-    String remoteFile = getBaseUrl() + "/" + defaultIfEmpty(getFileNamePrefix(), "") + s + defaultIfEmpty(getFileNameSuffix(), "");
+    String remoteFile = remoteFile(s);
     try {
       URL url = new URL(remoteFile);
       log.debug("Retrieving [{}]", remoteFile);
@@ -102,6 +105,53 @@ public class RemoteMarshallServiceStore extends MarshallFileServiceStore {
     return result;
   }
 
+  /**
+   * The version is derived from the {@code ETag} (or {@code Last-Modified}) header of a {@code HEAD} request if the URL is a HTTP
+   * URL; otherwise it is the last modified time and size reported by the {@link URLConnection}.
+   *
+   */
+  @Override
+  protected String versionOf(String s) throws CoreException {
+    String remoteFile = remoteFile(s);
+    try {
+      URLConnection c = new URL(remoteFile).openConnection();
+      if (c instanceof HttpURLConnection) {
+        return httpVersion((HttpURLConnection) c);
+      }
+      try (InputStream in = c.getInputStream()) {
+        long lastModified = c.getLastModified();
+        return lastModified > 0 ? lastModified + ":" + c.getContentLengthLong() : null;
+      }
+    }
+    catch (FileNotFoundException e) {
+      return null;
+    }
+    catch (IOException e) {
+      throw new CoreException(e);
+    }
+  }
+
+  private static String httpVersion(HttpURLConnection c) throws IOException {
+    try {
+      c.setRequestMethod("HEAD");
+      if (c.getResponseCode() != HttpURLConnection.HTTP_OK) {
+        return null;
+      }
+      String etag = c.getHeaderField("ETag");
+      if (isNotBlank(etag)) {
+        return etag;
+      }
+      return c.getLastModified() > 0 ? c.getLastModified() + ":" + c.getContentLengthLong() : null;
+    }
+    finally {
+      c.disconnect();
+    }
+  }
+
+  private String remoteFile(String s) {
+    return getBaseUrl() + "/" + defaultIfEmpty(getFileNamePrefix(), "") + s + defaultIfEmpty(getFileNameSuffix(), "");
+  }
+
   public String getBaseUrl() {
     return baseUrl;
   }
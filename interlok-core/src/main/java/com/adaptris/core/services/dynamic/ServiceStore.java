@@ -45,4 +45,22 @@ public interface ServiceStore {
    * @throws CoreException wrapping any underlying Exception
    */
   Service obtain(String name) throws CoreException;
+
+  /**
+   * <p>
+   * Returns a token that changes whenever the <code>Service</code> stored against the passed logical <code>name</code> changes.
+   * </p>
+   * <p>
+   * This is used by {@link DynamicServiceCache} to decide whether a cached <code>Service</code> is still current. The default
+   * implementation returns null which means that the <code>Service</code> is never cached.
+   * </p>
+   *
+   * @param name the name of the <code>Service</code>
+   * @return an opaque version token, or null if the <code>Service</code> does not exist or has no version.
+   * @throws CoreException wrapping any underlying Exception
+   * @since 3.8.4
+   */
+  default String version(String name) throws CoreException {
+    return null;
+  }
 }
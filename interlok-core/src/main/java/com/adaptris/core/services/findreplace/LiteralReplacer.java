@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.findreplace;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.adaptris.util.text.AhoCorasick;
+import com.adaptris.util.text.AhoCorasick.State;
+
+/**
+ * Replaces multiple literal strings in a single pass using an {@link AhoCorasick} automaton.
+ * <p>
+ * All the finds are matched simultaneously; where matches overlap the leftmost match wins, and if more than one match starts at
+ * the same position the longest wins. Replacement text is never rescanned. The automaton is immutable once built, so a single
+ * instance can be shared between threads.
+ * </p>
+ * <p>
+ * If the same find appears more than once then, as with applying the units one after the other, the first one wins; unless each
+ * find is only replaced once, in which case successive occurrences are replaced by each of the duplicates in turn.
+ * </p>
+ */
+final class LiteralReplacer {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final List<String> finds;
+  private final List<String> replacements;
+  private final AhoCorasick automaton;
+  // The index of the next find that is the same as this one, or -1.
+  private final int[] nextDuplicate;
+
+  LiteralReplacer(List<String> finds, List<String> replacements) {
+    this.finds = finds;
+    this.replacements = replacements;
+    automaton = new AhoCorasick(finds);
+    nextDuplicate = new int[finds.size()];
+    Map<String, Integer> next = new HashMap<>();
+    for (int i = finds.size() - 1; i >= 0; i--) {
+      Integer duplicate = next.put(finds.get(i), i);
+      nextDuplicate[i] = duplicate != null ? duplicate : -1;
+    }
+  }
+
+  /**
+   * @return true if this instance was built for exactly these finds and replacements.
+   */
+  boolean builtFrom(List<String> f, List<String> r) {
+    return finds.equals(f) && replacements.equals(r);
+  }
+
+  /**
+   * Copy the reader to the writer replacing each find with its replacement.
+   *
+   * @param in the reader.
+   * @param out the writer.
+   * @param firstOnly if true then each find is only replaced once.
+   * @return the number of replacements made.
+   */
+  long replace(Reader in, Writer out, boolean firstOnly) throws IOException {
+    Scanner scanner = new Scanner(out, firstOnly);
+    char[] buf = new char[BUFFER_SIZE];
+    int read;
+    while ((read = in.read(buf)) != -1) {
+      for (int i = 0; i < read; i++) {
+        scanner.accept(buf[i]);
+      }
+    }
+    scanner.finish();
+    return scanner.replacements;
+  }
+
+  private class Scanner {
+    private final Writer out;
+    private final boolean[] used;
+    private final StringBuilder pending = new StringBuilder();
+    private final char[] outBuffer = new char[BUFFER_SIZE];
+    private int outLength = 0;
+    private State state = automaton.start();
+    // The best candidate match so far, relative to the start of pending.
+    private int candidateStart = -1;
+    private int candidateLength;
+    private int candidate;
+    private long replacements = 0;
+
+    Scanner(Writer w, boolean firstOnly) {
+      out = w;
+      used = firstOnly ? new boolean[finds.size()] : null;
+    }
+
+    void accept(char c) throws IOException {
+      pending.append(c);
+      scan(pending.length() - 1);
+    }
+
+    void finish() throws IOException {
+      while (candidateStart >= 0) {
+        emitCandidate();
+        scan(0);
+      }
+      emit(pending.length());
+      pending.setLength(0);
+      flush();
+    }
+
+    private void scan(int from) throws IOException {
+      int i = from;
+      while (i < pending.length()) {
+        state = automaton.next(state, pending.charAt(i));
+        for (State n = state.firstMatch(); n != null; n = n.nextMatch()) {
+          considerMatch(n, i);
+        }
+        // Nothing before the start of the current state can be part of a match we haven't seen yet.
+        int currentStart = i - state.depth() + 1;
+        if (candidateStart >= 0 && currentStart > candidateStart) {
+          emitCandidate();
+          i = 0;
+          continue;
+        }
+        int safe = candidateStart >= 0 ? Math.min(currentStart, candidateStart) : currentStart;
+        if (safe > 0) {
+          emit(safe);
+          pending.delete(0, safe);
+          i -= safe;
+          if (candidateStart >= 0) {
+            candidateStart -= safe;
+          }
+        }
+        i++;
+      }
+    }
+
+    private void emit(int length) throws IOException {
+      int offset = 0;
+      while (offset < length) {
+        int count = Math.min(length - offset, outBuffer.length - outLength);
+        pending.getChars(offset, offset + count, outBuffer, outLength);
+        outLength += count;
+        offset += count;
+        if (outLength == outBuffer.length) {
+          flush();
+        }
+      }
+    }
+
+    private void flush() throws IOException {
+      if (outLength > 0) {
+        out.write(outBuffer, 0, outLength);
+        outLength = 0;
+      }
+    }
+
+    private void considerMatch(State n, int end) {
+      int literal = n.literal();
+      if (used != null) {
+        while (used[literal] && nextDuplicate[literal] >= 0) {
+          literal = nextDuplicate[literal];
+        }
+        if (used[literal]) {
+          return;
+        }
+      }
+      int start = end - n.depth() + 1;
+      if (candidateStart < 0 || start < candidateStart || start == candidateStart && n.depth() > candidateLength) {
+        candidateStart = start;
+        candidateLength = n.depth();
+        candidate = literal;
+      }
+    }
+
+    // Write everything up to the candidate, then the replacement; what remains in pending needs to be rescanned.
+    private void emitCandidate() throws IOException {
+      emit(candidateStart);
+      flush();
+      out.write(LiteralReplacer.this.replacements.get(candidate));
+      pending.delete(0, candidateStart + candidateLength);
+      if (used != null) {
+        used[candidate] = true;
+      }
+      replacements++;
+      candidateStart = -1;
+      state = automaton.start();
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.findreplace;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Valid;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.ServiceException;
+import com.adaptris.core.ServiceImp;
+import com.adaptris.core.util.ExceptionHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamImplicit;
+
+/**
+ * Implementation of {@link com.adaptris.core.Service} which performs multiple literal find and replace operations on the message
+ * payload in a single pass.
+ * <p>
+ * Unlike {@link FindAndReplaceService}, the value to find is treated as a literal string rather than a regular expression and the
+ * replacement value is inserted as-is (there is no support for match groups). All the configured
+ * {@link com.adaptris.core.services.findreplace.FindAndReplaceUnit}s are combined into a single automaton and the payload is streamed
+ * from {@link AdaptrisMessage#getReader()} to {@link AdaptrisMessage#getWriter()}; so the cost is proportional to the size of the
+ * payload rather than the size of the payload multiplied by the number of units and the entire payload is never held in memory.
+ * </p>
+ * <p>
+ * Because all the units are applied at the same time, the output of one unit is never matched by another unit (with
+ * {@link FindAndReplaceService} each unit operates on the output of the previous one). Where matches overlap the leftmost match is
+ * used; if two matches start at the same position the longest is used.
+ * </p>
+ * <p>
+ * Only literal finds are supported; regular expressions cannot be combined into the automaton (nor matched in a bounded streaming
+ * window), so if any of the finds need to be regular expressions then use {@link FindAndReplaceService} instead.
+ * </p>
+ * <p>
+ * If the same find is configured more than once, then the first unit wins (the others would never match with
+ * {@link FindAndReplaceService} either), unless {@link #setReplaceFirstOnly(Boolean)} is true; in which case, just as with
+ * {@link FindAndReplaceService}, the first occurrence is replaced by the first unit, the second occurrence by the second unit and
+ * so on.
+ * </p>
+ *
+ * @config streaming-find-and-replace-service
+ * @since 3.8.4
+ * @see FindAndReplaceService
+ */
+@XStreamAlias("streaming-find-and-replace-service")
+@AdapterComponent
+@ComponentProfile(summary = "Perform multiple literal find and replace operations on the message in a single pass",
+    tag = "service")
+@DisplayOrder(order = {"findAndReplaceUnits", "replaceFirstOnly"})
+public class StreamingFindAndReplaceService extends ServiceImp {
+
+  @XStreamImplicit(itemFieldName = "find-replace-pair")
+  @Valid
+  private List<FindAndReplaceUnit> findAndReplaceUnits;
+  @InputFieldDefault(value = "false")
+  private Boolean replaceFirstOnly;
+
+  private transient volatile LiteralReplacer replacer;
+
+  public StreamingFindAndReplaceService() {
+    findAndReplaceUnits = new ArrayList<FindAndReplaceUnit>();
+  }
+
+  public StreamingFindAndReplaceService(List<FindAndReplaceUnit> units) {
+    this();
+    setFindAndReplaceUnits(units);
+  }
+
+  @Override
+  public void doService(AdaptrisMessage msg) throws ServiceException {
+    try {
+      List<String> finds = new ArrayList<>();
+      List<String> replacements = new ArrayList<>();
+      for (FindAndReplaceUnit unit : getFindAndReplaceUnits()) {
+        finds.add(StringUtils.defaultString(unit.getFind().obtainValue(msg)));
+        replacements.add(StringUtils.defaultString(unit.getReplace().obtainValue(msg)));
+      }
+      LiteralReplacer r = replacer(finds, replacements);
+      try (Reader in = msg.getReader(); Writer out = msg.getWriter()) {
+        long count = r.replace(in, out, replaceFirstOnly());
+        log.trace("Made {} replacement(s)", count);
+      }
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapServiceException(e);
+    }
+  }
+
+  // Finds/replacements only change per message if they are derived from metadata, so generally we only build it once.
+  private LiteralReplacer replacer(List<String> finds, List<String> replacements) {
+    LiteralReplacer result = replacer;
+    if (result == null || !result.builtFrom(finds, replacements)) {
+      result = new LiteralReplacer(finds, replacements);
+      replacer = result;
+    }
+    return result;
+  }
+
+  @Override
+  protected void initService() throws CoreException {
+    replacer = null;
+  }
+
+  @Override
+  protected void closeService() {
+  }
+
+  @Override
+  public void prepare() throws CoreException {
+  }
+
+  /**
+   * @return replaceFirstOnly if true only the first instances of each find will be replaced.
+   */
+  public Boolean getReplaceFirstOnly() {
+    return replaceFirstOnly;
+  }
+
+  /**
+   * Whether or not to only replace the first instance of each find.
+   *
+   * @param b if true only the first instance of each find will be replaced. If false all instances will be replaced; default is
+   *          null (false)
+   */
+  public void setReplaceFirstOnly(Boolean b) {
+    replaceFirstOnly = b;
+  }
+
+  boolean replaceFirstOnly() {
+    return BooleanUtils.toBooleanDefaultIfNull(getReplaceFirstOnly(), false);
+  }
+
+  public List<FindAndReplaceUnit> getFindAndReplaceUnits() {
+    return findAndReplaceUnits;
+  }
+
+  public void setFindAndReplaceUnits(List<FindAndReplaceUnit> units) {
+    this.findAndReplaceUnits = units;
+  }
+}
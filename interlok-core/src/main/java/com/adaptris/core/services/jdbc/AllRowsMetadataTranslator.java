@@ -85,10 +85,14 @@ public class AllRowsMetadataTranslator extends MetadataResultSetTranslatorImpl {
     for (JdbcResultSet resultSet : source.getResultSets()) {
       int counter = 0;
       String resultSetPrefix = source.countResultSets() > 1 ? Long.toString(resultSetCount) + getResultSetCounterPrefix() : "";
+      String[] keys = null;
       for (JdbcResultRow row : resultSet.getRows()) {
+        // All the rows in a result set have the same columns, so only build the keys once.
+        if (keys == null) {
+          keys = metadataKeys(resultSetPrefix, row);
+        }
         for (int i = 0; i < row.getFieldCount(); i++) {
-          MetadataElement md = new MetadataElement(resultSetPrefix + getMetadataKeyPrefix() + getSeparator()
-              + getColumnNameStyle().format(row.getFieldName(i)) + getSeparator() + counter, toString(row, i));
+          MetadataElement md = new MetadataElement(keys[i] + counter, toString(row, i));
           if (log.isTraceEnabled()) {
             added.add(md);
           }
@@ -110,4 +114,14 @@ public class AllRowsMetadataTranslator extends MetadataResultSetTranslatorImpl {
     }
     return resultSetCount;
   }
+
+  private String[] metadataKeys(String resultSetPrefix, JdbcResultRow row) {
+    String[] keys = new String[row.getFieldCount()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = resultSetPrefix + getMetadataKeyPrefix() + getSeparator() + getColumnNameStyle().format(row.getFieldName(i))
+          + getSeparator();
+    }
+    return keys;
+  }
+
 }
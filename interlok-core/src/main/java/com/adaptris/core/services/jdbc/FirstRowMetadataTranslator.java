@@ -82,11 +82,11 @@ public class FirstRowMetadataTranslator extends MetadataResultSetTranslatorImpl
       && iter.hasNext()) {
         JdbcResultRow storedProcedureResultRow = iter.next();
         if (storedProcedureResultRow != null) {
+          String resultSetPrefix = source.countResultSets() > 1
+              ? Long.toString(resultSetCount) + getResultSetCounterPrefix()
+              : "";
           for (int i = 0; i < storedProcedureResultRow.getFieldCount(); i++) {
             String column = storedProcedureResultRow.getFieldName(i);
-            String resultSetPrefix = source.countResultSets() > 1
-                ? Long.toString(resultSetCount) + getResultSetCounterPrefix()
-                : "";
             MetadataElement md = new MetadataElement(resultSetPrefix + getMetadataKeyPrefix() + getSeparator()
                 + getColumnNameStyle().format(column), toString(storedProcedureResultRow, i));
             if (log.isTraceEnabled()) {
@@ -66,7 +66,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @ComponentProfile(summary = "Query a database and store the results in the message", tag = "service,jdbc",
     recommended = {DatabaseConnection.class})
 @DisplayOrder(order = {"connection", "statementCreator", "statementParameters", "resultSetTranslator", "parameterApplicator",
- "namespaceContext", "xmlDocumentFactoryConfig", "ignoreExecuteQueryErrors"})
+ "namespaceContext", "xmlDocumentFactoryConfig", "ignoreExecuteQueryErrors", "fetchSize"})
 public class JdbcDataQueryService extends JdbcServiceWithParameters implements DynamicPollingTemplate.TemplateProvider {
 
   static final String KEY_XML_UTILS = "XmlUtils_" + JdbcDataQueryService.class.getCanonicalName();
@@ -95,6 +95,9 @@ public class JdbcDataQueryService extends JdbcServiceWithParameters implements D
   @InputFieldDefault(value = "false")
   private Boolean ignoreExecuteQueryErrors;
 
+  @AdvancedConfig
+  private Integer fetchSize;
+
   private transient DatabaseActor actor;
 
   public JdbcDataQueryService() {
@@ -163,6 +166,9 @@ public class JdbcDataQueryService extends JdbcServiceWithParameters implements D
       String statement = getStatementCreator().createStatement(msg);
       PreparedStatement preparedStatement = actor.getQueryStatement(statement); 
       preparedStatement.clearParameters();
+      if (getFetchSize() != null) {
+        preparedStatement.setFetchSize(getFetchSize().intValue());
+      }
       log.trace("Executing statement [{}]", statement);
       
       this.getParameterApplicator().applyStatementParameters(msg, preparedStatement, getStatementParameters(), statement);
@@ -345,6 +351,28 @@ public class JdbcDataQueryService extends JdbcServiceWithParameters implements D
     return BooleanUtils.toBooleanDefaultIfNull(getIgnoreExecuteQueryErrors(), false);
   }
 
+  /**
+   * @return the fetchSize
+   * @since 3.8.4
+   */
+  public Integer getFetchSize() {
+    return fetchSize;
+  }
+
+  /**
+   * Set the number of rows that should be fetched from the database when more rows are needed.
+   * <p>
+   * This is passed as a hint to the driver via {@link PreparedStatement#setFetchSize(int)}; for large result sets that are
+   * processed a row at a time, setting this stops some drivers from reading the entire result set into memory up front.
+   * </p>
+   *
+   * @param i the fetch size; if not specified then the driver default is used.
+   * @since 3.8.4
+   */
+  public void setFetchSize(Integer i) {
+    this.fetchSize = i;
+  }
+
 
   private class DatabaseActor {
     private String queryString = "";
@@ -16,6 +16,7 @@
 
 package com.adaptris.core.services.jdbc;
 
+import java.io.OutputStream;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
@@ -26,6 +27,7 @@ import javax.validation.constraints.NotNull;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -46,6 +48,7 @@ import com.adaptris.core.util.Args;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.XmlStreamHelper;
 import com.adaptris.jdbc.JdbcResult;
 import com.adaptris.jdbc.JdbcResultRow;
 import com.adaptris.jdbc.JdbcResultSet;
@@ -94,6 +97,9 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * </tr>
  * </table>
  * <p>
+ * If {@link #setStreamOutput(Boolean)} is true, then each row is written directly to the output message as it is read from the
+ * {@link java.sql.ResultSet}, so the memory used does not depend on {@link #setMaxRowsPerMessage(int)}.
+ * </p>
  * 
  * @config jdbc-splitting-xml-payload-translator
  * 
@@ -104,7 +110,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @DisplayOrder(order = {"maxRowsPerMessage", "producer",
     "columnNameStyle", "columnTranslators", "mergeImplementation", "outputMessageEncoding", 
     "stripIllegalXmlChars", "xmlColumnPrefix", "xmlColumnRegexp", "cdataColumnRegexp",
-    "messageFactory"})
+    "messageFactory", "streamOutput"})
 public class SplittingXmlPayloadTranslator extends XmlPayloadTranslatorImpl {
   @NotNull
   @AutoPopulated
@@ -179,11 +185,17 @@ public class SplittingXmlPayloadTranslator extends XmlPayloadTranslatorImpl {
           AdaptrisMessage outputMessage = factory.newMessage();
           
           // Fill the message with the requisite number of rows if this ResultSet has enough of them
-          DocumentWrapper doc = toDocument(outputMessage, new LimitedResultSet(rows, getMaxRowsPerMessage()));
-          XmlHelper.writeXmlDocument(doc.document, outputMessage, getOutputMessageEncoding());
+          JdbcResultSet limited = new LimitedResultSet(rows, getMaxRowsPerMessage());
+          if (streamOutput()) {
+            resultSetCount += writeResults(outputMessage, limited);
+          }
+          else {
+            DocumentWrapper doc = toDocument(outputMessage, limited);
+            XmlHelper.writeXmlDocument(doc.document, outputMessage, getOutputMessageEncoding());
+            resultSetCount += doc.resultSetCount;
+          }
           // Use the configured producer to send the message on its way
           getProducer().produce(outputMessage);
-          resultSetCount += doc.resultSetCount;
         }
       }
     } catch (ParserConfigurationException e) {
@@ -215,6 +227,25 @@ public class SplittingXmlPayloadTranslator extends XmlPayloadTranslatorImpl {
     return result;
   }
   
+  private long writeResults(AdaptrisMessage msg, JdbcResultSet rSet) throws Exception {
+    String encoding = XmlHelper.getXmlEncoding(msg, getOutputMessageEncoding());
+    long count = 0;
+    XMLStreamWriter writer = null;
+    try (OutputStream out = msg.getOutputStream()) {
+      writer = XmlStreamHelper.startDocument(out, encoding);
+      writer.writeStartElement(getColumnNameStyle().format(ELEMENT_NAME_RESULTS));
+      count = writeResultSet(writer, rSet);
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.flush();
+    }
+    finally {
+      XmlStreamHelper.closeQuietly(writer);
+    }
+    msg.setContentEncoding(encoding);
+    return count;
+  }
+
   private DocumentBuilderFactoryBuilder documentFactoryBuilder(AdaptrisMessage msg) {
     DocumentBuilderFactoryBuilder factoryBuilder =
         (DocumentBuilderFactoryBuilder) msg.getObjectHeaders().get(JdbcDataQueryService.KEY_DOCBUILDER_FAC);
@@ -25,7 +25,7 @@ import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
-import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.text.xml.XPath;
 
 public abstract class StatementParameterImpl extends NamedStatementParameter {
@@ -177,7 +177,7 @@ public abstract class StatementParameterImpl extends NamedStatementParameter {
         .get(JdbcDataQueryService.KEY_DOCBUILDER_FAC);
     NamespaceContext ctx = (NamespaceContext) msg.getObjectHeaders().get(JdbcDataQueryService.KEY_NAMESPACE_CTX);
     try {
-      Node node = XPath.newXPathInstance(builder, ctx).selectSingleNode(XmlHelper.createDocument(msg, builder), queryString);
+      Node node = XPath.newXPathInstance(builder, ctx).selectSingleNode(ParsedDocumentCache.getDocument(msg, builder), queryString);
       return node != null ? node.getTextContent() : null;
     } catch (Exception e) {
       throw new IllegalArgumentException(queryString + " didn't work as an xpath");
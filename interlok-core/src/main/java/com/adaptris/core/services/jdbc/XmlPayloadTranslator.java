@@ -16,11 +16,14 @@
 
 package com.adaptris.core.services.jdbc;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.SQLException;
 import java.util.List;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamWriter;
 import org.apache.commons.lang.BooleanUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -32,6 +35,7 @@ import com.adaptris.core.ServiceException;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.XmlStreamHelper;
 import com.adaptris.jdbc.JdbcResult;
 import com.adaptris.jdbc.JdbcResultSet;
 import com.adaptris.util.XmlUtils;
@@ -82,6 +86,9 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * </tr>
  * </table>
  * <p>
+ * If {@link #setStreamOutput(Boolean)} is true, then each row is written directly to the message as it is read from the
+ * {@link java.sql.ResultSet}, so the memory used does not depend on the number of rows.
+ * </p>
  *
  * @config jdbc-xml-payload-translator
  *
@@ -90,7 +97,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  */
 @XStreamAlias("jdbc-xml-payload-translator")
 @DisplayOrder(order = {"preserveOriginalMessage", "columnNameStyle", "columnTranslators", "mergeImplementation",
-    "outputMessageEncoding", "stripIllegalXmlChars", "xmlColumnPrefix", "xmlColumnRegexp", "cdataColumnRegexp"})
+    "outputMessageEncoding", "stripIllegalXmlChars", "xmlColumnPrefix", "xmlColumnRegexp", "cdataColumnRegexp", "streamOutput"})
 public class XmlPayloadTranslator extends XmlPayloadTranslatorImpl {
   private static final String ORIGINAL_MESSAGE_ELEMENT = "OriginalMessage";
   @InputFieldDefault(value = "false")
@@ -104,6 +111,9 @@ public class XmlPayloadTranslator extends XmlPayloadTranslatorImpl {
   public long translateResult(JdbcResult source, AdaptrisMessage target) throws SQLException, ServiceException {
     long resultSetCount = 0;
     try {
+      if (streamOutput()) {
+        return writeResults(source, target);
+      }
       DocumentWrapper d = toDocument(source, target);
       XmlHelper.writeXmlDocument(d.document, target, getOutputMessageEncoding());
       resultSetCount = d.resultSetCount;
@@ -153,6 +163,51 @@ public class XmlPayloadTranslator extends XmlPayloadTranslatorImpl {
     return result;
   }
 
+  private long writeResults(JdbcResult rs, AdaptrisMessage msg) throws Exception {
+    String encoding = XmlHelper.getXmlEncoding(msg, getOutputMessageEncoding());
+    ColumnStyle elementNameStyle = getColumnNameStyle();
+    long count = 0;
+    XMLStreamWriter writer = null;
+    // Writing to a message doesn't change its content until the output stream is closed; so we can
+    // still read the original while writing.
+    try (OutputStream out = msg.getOutputStream()) {
+      writer = XmlStreamHelper.startDocument(out, encoding);
+      writer.writeStartElement(elementNameStyle.format(ELEMENT_NAME_RESULTS));
+      if (isPreserveOriginalMessage()) {
+        writer.writeStartElement(elementNameStyle.format(ORIGINAL_MESSAGE_ELEMENT));
+        writeOriginal(msg, writer);
+        writer.writeEndElement();
+      }
+      for (JdbcResultSet rSet : rs.getResultSets()) {
+        count += writeResultSet(writer, rSet);
+      }
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.flush();
+    }
+    finally {
+      XmlStreamHelper.closeQuietly(writer);
+    }
+    msg.setContentEncoding(encoding);
+    return count;
+  }
+
+  private void writeOriginal(AdaptrisMessage msg, XMLStreamWriter writer) throws Exception {
+    boolean isXml = false;
+    try (InputStream in = msg.getInputStream()) {
+      isXml = XmlStreamHelper.isWellFormed(in);
+    }
+    if (isXml) {
+      try (InputStream in = msg.getInputStream()) {
+        XmlStreamHelper.copyDocumentElement(in, writer);
+      }
+    }
+    else {
+      // Not XML, so let's add it in as a CDATA node.
+      writeText(writer, msg.getContent(), true);
+    }
+  }
+
   private DocumentBuilderFactoryBuilder documentFactoryBuilder(AdaptrisMessage msg) {
     DocumentBuilderFactoryBuilder factoryBuilder =
         (DocumentBuilderFactoryBuilder) msg.getObjectHeaders().get(JdbcDataQueryService.KEY_DOCBUILDER_FAC);
@@ -24,6 +24,8 @@ import java.util.regex.Pattern;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.w3c.dom.Document;
@@ -37,6 +39,7 @@ import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.XmlStreamHelper;
 import com.adaptris.jdbc.JdbcResultRow;
 import com.adaptris.jdbc.JdbcResultSet;
 import com.adaptris.util.XmlUtils;
@@ -62,6 +65,9 @@ public abstract class XmlPayloadTranslatorImpl extends ResultSetTranslatorImp {
   @InputFieldDefault(value = "false")
   private Boolean stripIllegalXmlChars = null;
   private String outputMessageEncoding = null;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean streamOutput = null;
   private transient Pattern cdataColumnRegexpPattern = null;
 
   private transient Pattern xmlColumnRegexpPattern = null;
@@ -129,6 +135,55 @@ public abstract class XmlPayloadTranslatorImpl extends ResultSetTranslatorImp {
     return results;
   }
 
+  /**
+   * Write each row of the result set directly to the writer.
+   *
+   * @param writer the writer
+   * @param rs the result set
+   * @return the number of rows written.
+   * @see #setStreamOutput(Boolean)
+   */
+  protected long writeResultSet(XMLStreamWriter writer, JdbcResultSet rs) throws SQLException, XMLStreamException {
+    long count = 0;
+    List<String> elementNames = new ArrayList<>();
+    boolean firstRecord = true;
+    for (JdbcResultRow row : rs.getRows()) {
+      if (firstRecord) {
+        firstRecord = false;
+        elementNames = createElementNames(row);
+      }
+      writer.writeStartElement(getColumnNameStyle().format(ELEMENT_NAME_ROW));
+      for (int i = 0; i < row.getFieldCount(); i++) {
+        String columnName = row.getFieldName(i);
+        String value = toString(row, i);
+        writer.writeStartElement(elementNames.get(i));
+        if (isXmlColumn(columnName) && XmlStreamHelper.isWellFormed(value)) {
+          XmlStreamHelper.copyDocumentElement(value, writer);
+        }
+        else {
+          if (isXmlColumn(columnName) && isDisplayColumnErrors()) {
+            log.warn("Failed to parse column {} as an XML Document, treating as text.", columnName);
+          }
+          writeText(writer, value, isCdataColumn(columnName));
+        }
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+      count++;
+    }
+    return count;
+  }
+
+  protected void writeText(XMLStreamWriter writer, String value, boolean isCDATA) throws XMLStreamException {
+    String munged = stripIllegalXmlChars() ? XmlHelper.stripIllegalXmlCharacters(value) : value;
+    if (isCDATA) {
+      XmlStreamHelper.writeCData(writer, munged);
+    }
+    else if (munged != null) {
+      writer.writeCharacters(munged);
+    }
+  }
+
   private List<String> createElementNames(JdbcResultRow row) throws SQLException {
     List<String> result = new ArrayList<>();
     for (int i = 0; i < row.getFieldCount(); i++) {
@@ -277,6 +332,29 @@ public abstract class XmlPayloadTranslatorImpl extends ResultSetTranslatorImp {
     return BooleanUtils.toBooleanDefaultIfNull(getStripIllegalXmlChars(), false);
   }
 
+  public Boolean getStreamOutput() {
+    return streamOutput;
+  }
+
+  /**
+   * Specify whether or not to write each row directly to the message rather than building a {@link Document} first.
+   * <p>
+   * Writing directly means that the memory used no longer depends on the number of rows returned by the query. The element names,
+   * CDATA and XML column handling are the same; XML columns are parsed using a {@link javax.xml.stream.XMLStreamReader} with DTD
+   * support disabled rather than the configured {@link DocumentBuilderFactoryBuilder}.
+   * </p>
+   *
+   * @param b true to write each row directly, default is null (false)
+   * @since 3.8.4
+   */
+  public void setStreamOutput(Boolean b) {
+    streamOutput = b;
+  }
+
+  protected boolean streamOutput() {
+    return BooleanUtils.toBooleanDefaultIfNull(getStreamOutput(), false);
+  }
+
   protected class DocumentWrapper {
     Document document;
     long resultSetCount;
@@ -16,14 +16,18 @@
 
 package com.adaptris.core.services.metadata;
 
+import java.nio.ByteBuffer;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
+import java.util.List;
 
 import javax.validation.Valid;
 
+import org.apache.commons.lang3.BooleanUtils;
 import org.hibernate.validator.constraints.NotBlank;
 
 import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AffectsMetadata;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
@@ -32,6 +36,7 @@ import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.ServiceException;
 import com.adaptris.core.ServiceImp;
+import com.adaptris.core.lms.MappedPayload;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.security.util.SecurityUtil;
@@ -43,6 +48,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
  * Create a hash of the payload based on the configurable algorithm and stores it as metadata.
+ * <p>
+ * If {@link #setUseMemoryMapping(Boolean)} is true and the message is a {@link com.adaptris.core.lms.FileBackedMessage} then the
+ * payload is hashed directly from the memory mapped file (see {@link MappedPayload}).
+ * </p>
  * 
  * @config payload-hashing-service
  * 
@@ -65,6 +74,9 @@ public class PayloadHashingService extends ServiceImp {
   @Valid
   @InputFieldDefault(value = "base64")
   private ByteTranslator byteTranslator;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useMemoryMapping;
 
   public PayloadHashingService() {
     super();
@@ -80,7 +92,15 @@ public class PayloadHashingService extends ServiceImp {
   public void doService(AdaptrisMessage msg) throws ServiceException {
     try {
       MessageDigest digest = MessageDigest.getInstance(getHashAlgorithm());
-      StreamUtil.copyAndClose(msg.getInputStream(), new DigestOutputStream(new DevNullOutputStream(), digest));
+      List<ByteBuffer> buffers = useMemoryMapping() ? MappedPayload.buffers(msg) : null;
+      if (buffers != null) {
+        for (ByteBuffer b : buffers) {
+          digest.update(b);
+        }
+      }
+      else {
+        StreamUtil.copyAndClose(msg.getInputStream(), new DigestOutputStream(new DevNullOutputStream(), digest));
+      }
       byte[] hash = digest.digest();
       msg.addMetadata(getMetadataKey(), byteTranslator().translate(hash));
     }
@@ -147,4 +167,25 @@ public class PayloadHashingService extends ServiceImp {
   ByteTranslator byteTranslator() {
     return getByteTranslator() != null ? getByteTranslator() : DEFAULT_TRANSLATOR;
   }
+
+  public Boolean getUseMemoryMapping() {
+    return useMemoryMapping;
+  }
+
+  /**
+   * Whether or not to hash file backed messages from a memory mapped file.
+   * <p>
+   * This avoids copying a large payload through the heap, but see {@link MappedPayload} for the caveats.
+   * </p>
+   *
+   * @param b true to memory map the payload; default is false.
+   * @since 3.8.4
+   */
+  public void setUseMemoryMapping(Boolean b) {
+    useMemoryMapping = b;
+  }
+
+  boolean useMemoryMapping() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseMemoryMapping(), false);
+  }
 }
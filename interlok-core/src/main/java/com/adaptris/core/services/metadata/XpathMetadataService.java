@@ -40,7 +40,7 @@ import com.adaptris.core.ServiceImp;
 import com.adaptris.core.services.metadata.xpath.XpathQuery;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
-import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.KeyValuePairSet;
 import com.adaptris.util.text.xml.SimpleNamespaceContext;
 import com.adaptris.util.text.xml.XPath;
@@ -114,7 +114,7 @@ public class XpathMetadataService extends ServiceImp {
         builder.setNamespaceAware(true);
       }
       XPath xpathToUse = XPath.newXPathInstance(builder, namespaceCtx);
-      Document doc = XmlHelper.createDocument(msg, builder);
+      Document doc = ParsedDocumentCache.getDocument(msg, builder);
       for (XpathQuery query : queriesToExecute) {
         metadataElements.add(query.resolveXpath(doc, xpathToUse, query.createXpathQuery(msg)));
       }
@@ -38,7 +38,7 @@ import com.adaptris.core.services.metadata.xpath.XpathObjectQuery;
 import com.adaptris.core.services.metadata.xpath.XpathQuery;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
-import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.KeyValuePairSet;
 import com.adaptris.util.text.xml.SimpleNamespaceContext;
 import com.adaptris.util.text.xml.XPath;
@@ -110,7 +110,7 @@ public class XpathObjectMetadataService extends ServiceImp {
         builder.setNamespaceAware(true);
       }
       XPath xpathToUse = XPath.newXPathInstance(builder, namespaceCtx);
-      Document doc = XmlHelper.createDocument(msg, builder);
+      Document doc = ParsedDocumentCache.getDocument(msg, builder);
       for (XpathObjectQuery query : queriesToExecute) {
         msg.getObjectHeaders().put(query.getMetadataKey(), query.resolveXpath(doc, xpathToUse, query.createXpathQuery(msg)));
         log.trace("Added object against [{}]", query.getMetadataKey());
@@ -53,6 +53,7 @@ import com.adaptris.core.common.Execution;
 import com.adaptris.core.common.StringPayloadDataInputParameter;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.interlok.config.DataInputParameter;
 import com.adaptris.util.KeyValuePairSet;
 import com.adaptris.util.text.xml.SimpleNamespaceContext;
@@ -223,7 +224,7 @@ public class XPathService extends ServiceImp {
     NamespaceContext namespaceContext = SimpleNamespaceContext.create(getNamespaceContext(), msg);
     try {
       DocumentBuilderFactoryBuilder builder = documentFactoryBuilder(namespaceContext);
-      Document document = buildDocument(builder, this.getXmlSource().extract(msg));
+      Document document = buildDocument(builder, msg);
       XPath xPathHandler = XPath.newXPathInstance(builder, namespaceContext);
       for (Execution execution : this.getExecutions()) {
         String result = this.serializeNode(xPathHandler.selectNodeList(document, execution.getSource().extract(msg)));
@@ -234,6 +235,14 @@ public class XPathService extends ServiceImp {
     }
   }
 
+  private Document buildDocument(DocumentBuilderFactoryBuilder builder, AdaptrisMessage msg) throws Exception {
+    // If we're just using the payload, then we can reuse any document that was already parsed from it.
+    if (StringPayloadDataInputParameter.class.equals(getXmlSource().getClass())) {
+      return ParsedDocumentCache.getDocument(msg, builder);
+    }
+    return buildDocument(builder, getXmlSource().extract(msg));
+  }
+
   private Document buildDocument(DocumentBuilderFactoryBuilder builder, String xmlData)
       throws ParserConfigurationException, SAXException, IOException {
     // The user can explicitly configure for XXE mitigation, so we can ignore via lgtm
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.routing;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.adaptris.util.text.AhoCorasick;
+
+/**
+ * Index over a list of {@link RegexpSyntaxIdentifier} instances.
+ * <p>
+ * Every pattern is analysed for the literal strings that any matching input must contain; all of those literals (across every
+ * identifier) are compiled into a single {@link AhoCorasick} automaton. Routing is then a single pass over the input to find out which
+ * literals are present, followed by full regular expression evaluation of only those identifiers whose required literals were
+ * all found. Identifiers are still evaluated in their configured order, so the first match wins exactly as it does with
+ * {@link SyntaxRoutingService}.
+ * </p>
+ * <p>
+ * Literal extraction is deliberately conservative; if a pattern uses alternation, inline flags or anything else that makes it
+ * hard to reason about, then no literals are extracted and that pattern is always evaluated.
+ * </p>
+ */
+final class RegexpRoutingIndex {
+
+  private final List<Route> routes = new ArrayList<>();
+  private final AhoCorasick automaton;
+  private final int literalCount;
+
+  RegexpRoutingIndex(List<RegexpSyntaxIdentifier> identifiers) {
+    Map<String, Integer> literals = new LinkedHashMap<>();
+    for (RegexpSyntaxIdentifier ident : identifiers) {
+      List<Pattern> patterns = new ArrayList<>();
+      BitSet required = new BitSet();
+      for (String regex : ident.getPatterns()) {
+        patterns.add(Pattern.compile(regex, Pattern.DOTALL));
+        for (String literal : requiredLiterals(regex)) {
+          Integer id = literals.get(literal);
+          if (id == null) {
+            id = literals.size();
+            literals.put(literal, id);
+          }
+          required.set(id);
+        }
+      }
+      routes.add(new Route(ident.getDestination(), patterns, required));
+    }
+    literalCount = literals.size();
+    automaton = new AhoCorasick(new ArrayList<>(literals.keySet()));
+  }
+
+  /**
+   * Find the first identifier that matches the input.
+   *
+   * @param input the input.
+   * @return the destination of the first matching identifier or null if there is no match.
+   */
+  String route(String input) {
+    BitSet present = literalsPresent(input);
+    for (Route r : routes) {
+      if (r.candidate(present) && r.matches(input)) {
+        return r.destination;
+      }
+    }
+    return null;
+  }
+
+  int literalCount() {
+    return literalCount;
+  }
+
+  BitSet literalsPresent(String input) {
+    BitSet found = new BitSet(literalCount);
+    if (literalCount == 0) {
+      return found;
+    }
+    AhoCorasick.State state = automaton.start();
+    for (int i = 0; i < input.length(); i++) {
+      state = automaton.next(state, input.charAt(i));
+      for (AhoCorasick.State n = state.firstMatch(); n != null; n = n.nextMatch()) {
+        found.set(n.literal());
+      }
+      if (found.cardinality() == literalCount) {
+        break;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Get the literal strings that must be present in any string that matches the regular expression.
+   *
+   * @param regex the regular expression
+   * @return the literals, empty if none could safely be determined.
+   */
+  static List<String> requiredLiterals(String regex) {
+    // Alternation, inline flags/groups and quoting all make life too complicated.
+    if (regex.indexOf('|') >= 0 || regex.contains("(?") || regex.contains("\\Q")) {
+      return Collections.emptyList();
+    }
+    List<String> result = new ArrayList<>();
+    StringBuilder run = new StringBuilder();
+    int i = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      switch (c) {
+      case '\\':
+        if (i + 1 >= regex.length()) {
+          return Collections.emptyList();
+        }
+        char escaped = regex.charAt(i + 1);
+        if (Character.isLetterOrDigit(escaped)) {
+          // \d, \s, \b etc are all single character constructs; others (\x41, \p{Alpha}, \12) aren't so give up.
+          if ("xu0cpPkN123456789".indexOf(escaped) >= 0) {
+            return Collections.emptyList();
+          }
+          endRun(run, result);
+        }
+        else {
+          run.append(escaped);
+        }
+        i += 2;
+        break;
+      case '(':
+        i = skip(regex, i, '(', ')');
+        if (i < 0) {
+          return Collections.emptyList();
+        }
+        endRun(run, result);
+        break;
+      case '[':
+        i = skipCharacterClass(regex, i);
+        if (i < 0) {
+          return Collections.emptyList();
+        }
+        endRun(run, result);
+        break;
+      case '*':
+      case '?':
+      case '{':
+        // The previous character is optional.
+        if (run.length() > 0) {
+          run.setLength(run.length() - 1);
+        }
+        endRun(run, result);
+        i = c == '{' ? regex.indexOf('}', i) + 1 : i + 1;
+        if (i <= 0) {
+          return Collections.emptyList();
+        }
+        break;
+      case '+':
+      case '.':
+      case '^':
+      case '$':
+        endRun(run, result);
+        i++;
+        break;
+      default:
+        run.append(c);
+        i++;
+      }
+    }
+    endRun(run, result);
+    return result;
+  }
+
+  private static void endRun(StringBuilder run, List<String> result) {
+    if (run.length() > 0) {
+      result.add(run.toString());
+      run.setLength(0);
+    }
+  }
+
+  // returns the index after the matching close, or -1.
+  private static int skip(String regex, int start, char open, char close) {
+    int depth = 0;
+    for (int i = start; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      }
+      else if (c == '[') {
+        i = skipCharacterClass(regex, i);
+        if (i < 0) {
+          return -1;
+        }
+        i--;
+      }
+      else if (c == open) {
+        depth++;
+      }
+      else if (c == close && --depth == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static int skipCharacterClass(String regex, int start) {
+    int depth = 0;
+    for (int i = start; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      }
+      else if (c == '[') {
+        depth++;
+        // A ']' immediately after the opening '[' (or '[^') is a literal.
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+          i++;
+        }
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+          i++;
+        }
+      }
+      else if (c == ']' && --depth == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static class Route {
+    private final String destination;
+    private final List<Pattern> patterns;
+    private final BitSet required;
+
+    Route(String destination, List<Pattern> patterns, BitSet required) {
+      this.destination = destination;
+      this.patterns = patterns;
+      this.required = required;
+    }
+
+    boolean candidate(BitSet present) {
+      BitSet missing = (BitSet) required.clone();
+      missing.andNot(present);
+      return missing.isEmpty();
+    }
+
+    // Implicit AND, the same as RegexpSyntaxIdentifier.
+    boolean matches(String input) {
+      for (Pattern p : patterns) {
+        if (!p.matcher(input).matches()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
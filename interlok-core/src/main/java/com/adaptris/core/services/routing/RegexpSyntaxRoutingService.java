@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.routing;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.lang3.ObjectUtils;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.AutoPopulated;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.ServiceException;
+import com.adaptris.core.ServiceImp;
+import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ExceptionHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamImplicit;
+
+/**
+ * Identify a message using a number of {@link RegexpSyntaxIdentifier} instances, and set a metadata key based on the first one that
+ * matches.
+ * <p>
+ * This is functionally similar to {@link SyntaxRoutingService} configured with only {@link RegexpSyntaxIdentifier} instances;
+ * however all the identifiers are compiled into a single index when the service is initialised. The literal text that each pattern
+ * requires is matched in a single pass over the message, and only those identifiers that could possibly match are then evaluated in
+ * full (in the configured order, first match wins). This means that the cost of routing does not grow in proportion to the number
+ * of identifiers.
+ * </p>
+ * <p>
+ * By default, only the first {@value #DEFAULT_SCAN_WINDOW} characters of the payload are used to identify the message; since most
+ * documents can be identified by their header this avoids reading very large payloads into memory. If your patterns need to
+ * consider the entire payload (e.g. they depend on the end of the document) then set {@link #setScanWindow(Integer)} to -1.
+ * </p>
+ *
+ * @config regexp-syntax-routing-service
+ * @since 3.8.4
+ */
+@XStreamAlias("regexp-syntax-routing-service")
+@AdapterComponent
+@ComponentProfile(summary = "Identify a message using regular expressions, and set a metadata key based on the identifier",
+    tag = "service,routing")
+@DisplayOrder(order = {"routingKey", "syntaxIdentifiers", "scanWindow"})
+public class RegexpSyntaxRoutingService extends ServiceImp {
+
+  /**
+   * The default number of characters considered when identifying the message.
+   *
+   */
+  public static final int DEFAULT_SCAN_WINDOW = 65536;
+
+  private String routingKey = null;
+  @XStreamImplicit
+  @Valid
+  @NotNull
+  @AutoPopulated
+  private List<RegexpSyntaxIdentifier> syntaxIdentifiers = new ArrayList<>();
+  @AdvancedConfig
+  @InputFieldDefault(value = "65536")
+  private Integer scanWindow;
+
+  private transient RegexpRoutingIndex index;
+
+  public RegexpSyntaxRoutingService() {
+
+  }
+
+  @Override
+  public void doService(AdaptrisMessage msg) throws ServiceException {
+    String destination = null;
+    try {
+      destination = index.route(readWindow(msg));
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapServiceException(e);
+    }
+    if (destination == null) {
+      throw new ServiceException("Unable to identify the message syntax for routing");
+    }
+    msg.addMetadata(routingKey, destination);
+  }
+
+  private String readWindow(AdaptrisMessage msg) throws IOException {
+    int window = scanWindow();
+    if (window < 0) {
+      return msg.getContent();
+    }
+    StringBuilder result = new StringBuilder();
+    char[] buf = new char[Math.min(window, 8192)];
+    try (Reader in = msg.getReader()) {
+      int read;
+      while (result.length() < window && (read = in.read(buf, 0, Math.min(buf.length, window - result.length()))) != -1) {
+        result.append(buf, 0, read);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Add a RegexpSyntaxIdentifier to the configured list.
+   *
+   * @param ident the identifier.
+   */
+  public void addSyntaxIdentifier(RegexpSyntaxIdentifier ident) {
+    syntaxIdentifiers.add(Args.notNull(ident, "identifier"));
+  }
+
+  /**
+   * Return the list of configured identifiers.
+   *
+   * @return the list.
+   */
+  public List<RegexpSyntaxIdentifier> getSyntaxIdentifiers() {
+    return syntaxIdentifiers;
+  }
+
+  /**
+   * Sets the list of configured identifiers.
+   * <p>
+   * The order is significant; the first identifier that matches is used.
+   * </p>
+   *
+   * @param l the list.
+   */
+  public void setSyntaxIdentifiers(List<RegexpSyntaxIdentifier> l) {
+    syntaxIdentifiers = Args.notNull(l, "identifiers");
+  }
+
+  /**
+   * Set the metadata key that the value will be stored against.
+   *
+   * @param key the key.
+   */
+  public void setRoutingKey(String key) {
+    routingKey = Args.notBlank(key, "routingKey");
+  }
+
+  /**
+   * Get the metadata key that the value will be stored against.
+   *
+   * @return the key.
+   */
+  public String getRoutingKey() {
+    return routingKey;
+  }
+
+  public Integer getScanWindow() {
+    return scanWindow;
+  }
+
+  /**
+   * Set the number of characters at the start of the payload that are used to identify the message.
+   *
+   * @param i the number of characters; default is {@value #DEFAULT_SCAN_WINDOW} if not specified, a negative number means the
+   *          entire payload.
+   */
+  public void setScanWindow(Integer i) {
+    scanWindow = i;
+  }
+
+  int scanWindow() {
+    return ObjectUtils.defaultIfNull(getScanWindow(), DEFAULT_SCAN_WINDOW);
+  }
+
+  @Override
+  protected void initService() throws CoreException {
+    try {
+      Args.notBlank(getRoutingKey(), "routingKey");
+      Args.notNull(getSyntaxIdentifiers(), "syntaxIdentifiers");
+      index = new RegexpRoutingIndex(getSyntaxIdentifiers());
+    } catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  protected void closeService() {
+
+  }
+
+  @Override
+  public void prepare() throws CoreException {
+  }
+}
@@ -23,7 +23,7 @@ import org.w3c.dom.Document;
 
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
-import com.adaptris.core.util.XmlHelper;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.KeyValuePairSet;
 import com.adaptris.util.text.xml.SimpleNamespaceContext;
 import com.adaptris.util.text.xml.XPath;
@@ -43,7 +43,7 @@ public abstract class XmlSyntaxIdentifierImpl extends SyntaxIdentifierImpl {
   protected Document createDocument(String message) {
     Document result = null;
     try {
-      result = XmlHelper.createDocument(message, documentFactoryBuilder(SimpleNamespaceContext.create(namespaceContext)));
+      result = ParsedDocumentCache.getDocument(message, documentFactoryBuilder(SimpleNamespaceContext.create(namespaceContext)));
     } catch (Exception e) {
       // Can't be an XML Document
       result = null;
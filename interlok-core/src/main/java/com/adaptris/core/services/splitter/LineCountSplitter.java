@@ -28,19 +28,22 @@ import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.lms.MappedPayload;
 import com.adaptris.util.NumberUtils;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
  * <p>
  * Split an AdaptrisMessage object by line. Counts the number of lines, and creates a new message based on some configured number.
- * This Splitter can handle arbitrarily large (File Backed) messages.
+ * This Splitter can handle arbitrarily large (File Backed) messages; these can optionally be read from the memory mapped file (see
+ * {@link #setUseMemoryMapping(Boolean)}).
  * </p>
  * 
  * @config line-count-splitter
  */
 @XStreamAlias("line-count-splitter")
-@DisplayOrder(order = {"splitOnLine",  "keepHeaderLines", "ignoreBlankLines", "copyMetadata", "copyObjectMetadata","bufferSize"})
+@DisplayOrder(order = {"splitOnLine",  "keepHeaderLines", "ignoreBlankLines", "copyMetadata", "copyObjectMetadata","bufferSize",
+    "useMemoryMapping"})
 public class LineCountSplitter extends MessageSplitterImp {
 
   private static final int DEFAULT_BUFFER_SIZE = 8192;
@@ -56,6 +59,9 @@ public class LineCountSplitter extends MessageSplitterImp {
   @AdvancedConfig
   @InputFieldDefault(value = "8192")
   private Integer bufferSize;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useMemoryMapping;
 
   public LineCountSplitter() {
 
@@ -70,7 +76,7 @@ public class LineCountSplitter extends MessageSplitterImp {
     logR.trace("LineCountSplitter splits every {} lines", splitOnLine());
 
     try {
-      BufferedReader buf = new BufferedReader(msg.getReader(), bufferSize());
+      BufferedReader buf = new BufferedReader(useMemoryMapping() ? MappedPayload.openReader(msg) : msg.getReader(), bufferSize());
       return new LineCountSplitGenerator(buf, msg, selectFactory(msg), readHeader(buf));
     } catch (IOException e) {
       throw new CoreException(e);
@@ -168,6 +174,28 @@ public class LineCountSplitter extends MessageSplitterImp {
     return NumberUtils.toIntDefaultIfNull(getKeepHeaderLines(), DEFAULT_KEEPHEADER_LINES);
   }
 
+  public Boolean getUseMemoryMapping() {
+    return useMemoryMapping;
+  }
+
+  /**
+   * Set whether to read file backed messages from a memory mapped file rather than {@link AdaptrisMessage#getReader()}.
+   * <p>
+   * The mapped file is shared with the operating system page cache; however the mapping is only released when it is garbage
+   * collected (see {@link MappedPayload}).
+   * </p>
+   *
+   * @param b true to memory map the payload, default false.
+   * @since 3.8.4
+   */
+  public void setUseMemoryMapping(Boolean b) {
+    useMemoryMapping = b;
+  }
+
+  boolean useMemoryMapping() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseMemoryMapping(), false);
+  }
+
   /**
    * Read the BufferedReader line by line and return each line as an
    * AdaptrisMessage. This implementation is NOT thread safe or reentrant!
@@ -53,7 +53,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @ComponentProfile(summary = "Split a message and execute an arbitary number of services on the split message", tag = "service,splitter", since = "3.7.1")
 @DisplayOrder(order =
 {
-    "splitter", "service", "maxThreads", "warmStart", "ignoreSplitMessageFailures", "sendEvents"
+    "splitter", "service", "maxThreads", "warmStart", "useVirtualThreads", "ignoreSplitMessageFailures", "sendEvents"
 })
 public class PoolingMessageSplitterService extends AdvancedMessageSplitterService {
 
@@ -63,6 +63,9 @@ public class PoolingMessageSplitterService extends AdvancedMessageSplitterServic
   @AdvancedConfig
   @InputFieldDefault(value = "false")
   private Boolean warmStart;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useVirtualThreads;
 
   private transient ExecutorService executor;
   private transient ServiceExceptionHandler exceptionHandler;
@@ -75,7 +78,7 @@ public class PoolingMessageSplitterService extends AdvancedMessageSplitterServic
   }
 
   protected void initService() throws CoreException {
-    workerFactory = new ServiceWorkerPool(getService(), eventHandler, maxThreads());
+    workerFactory = new ServiceWorkerPool(getService(), eventHandler, maxThreads(), useVirtualThreads());
     objectPool = workerFactory.createCommonsObjectPool();
     executor = workerFactory.createExecutor(this.getClass().getSimpleName());
     exceptionHandler = new ServiceExceptionHandler();
@@ -135,6 +138,28 @@ public class PoolingMessageSplitterService extends AdvancedMessageSplitterServic
     setWarmStart(b);
     return this;
   }
+
+  public Boolean getUseVirtualThreads() {
+    return useVirtualThreads;
+  }
+
+  /**
+   * Whether or not to process each split message in its own virtual thread.
+   * <p>
+   * If true, and virtual threads are available (Java 21+), then max-threads only limits the number of service instances in the
+   * object pool, not the number of threads.
+   * </p>
+   *
+   * @param b true to use virtual threads if they are available; default is false.
+   * @since 3.8.4
+   */
+  public void setUseVirtualThreads(Boolean b) {
+    useVirtualThreads = b;
+  }
+
+  boolean useVirtualThreads() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseVirtualThreads(), false);
+  }
   private class ServiceExecutor implements Callable<AdaptrisMessage> {
     private ServiceExceptionHandler handler;
     private AdaptrisMessage msg;
@@ -56,7 +56,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @ComponentProfile(summary = "Split a message and then execute the associated services on the split items, aggregating the split messages afterwards", tag = "service,splitjoin", since = "3.7.1")
 @DisplayOrder(order =
 {
-    "splitter", "service", "aggregator", "maxThreads", "timeout", "warmStart"
+    "splitter", "service", "aggregator", "maxThreads", "timeout", "warmStart", "useVirtualThreads"
 })
 public class PoolingSplitJoinService extends SplitJoinService {
 
@@ -68,6 +68,9 @@ public class PoolingSplitJoinService extends SplitJoinService {
   @AdvancedConfig
   @InputFieldDefault(value = "false")
   private Boolean warmStart;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useVirtualThreads;
 
 
   private transient ServiceWorkerPool workerFactory;
@@ -80,7 +83,7 @@ public class PoolingSplitJoinService extends SplitJoinService {
   @Override
   public void prepare() throws CoreException {
     super.prepare();
-    workerFactory = new ServiceWorkerPool(getService(), null, maxThreads());
+    workerFactory = new ServiceWorkerPool(getService(), null, maxThreads(), useVirtualThreads());
   }
 
   @Override
@@ -166,6 +169,28 @@ public class PoolingSplitJoinService extends SplitJoinService {
     return this;
   }
 
+  public Boolean getUseVirtualThreads() {
+    return useVirtualThreads;
+  }
+
+  /**
+   * Whether or not to process each split message in its own virtual thread.
+   * <p>
+   * If true, and virtual threads are available (Java 21+), then max-threads only limits the number of service instances in the
+   * object pool, not the number of threads.
+   * </p>
+   *
+   * @param b true to use virtual threads if they are available; default is false.
+   * @since 3.8.4
+   */
+  public void setUseVirtualThreads(Boolean b) {
+    useVirtualThreads = b;
+  }
+
+  boolean useVirtualThreads() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseVirtualThreads(), false);
+  }
+
   private class MyServiceExecutor implements Callable<AdaptrisMessage> {
 
     private ServiceExceptionHandler handler;
@@ -50,16 +50,35 @@ public class ServiceWorkerPool {
   private transient Service wrappedService;
   private transient EventHandler eventHandler;
   private transient int maxThreads;
+  private transient boolean virtualThreads;
   private transient Logger log = LoggerFactory.getLogger(this.getClass());
   private static transient boolean warningLogged = false;
   public ServiceWorkerPool(Service s, EventHandler eh, int maxThreads) throws CoreException {
+    this(s, eh, maxThreads, false);
+  }
+
+  /**
+   * Create a pool.
+   *
+   * @param s the service to clone for each worker.
+   * @param eh the event handler.
+   * @param maxThreads the maximum number of workers.
+   * @param virtualThreads whether {@link #createExecutor(String)} should run each task in its own virtual thread, leaving the
+   *          object pool to limit concurrency.
+   * @since 3.8.4
+   */
+  public ServiceWorkerPool(Service s, EventHandler eh, int maxThreads, boolean virtualThreads) throws CoreException {
     try {
       this.wrappedService = Args.notNull(s, "service");
       this.eventHandler = eh;
       this.maxThreads = maxThreads;
+      this.virtualThreads = virtualThreads;
     } catch (IllegalArgumentException e) {
       throw ExceptionHelper.wrapCoreException(e);
     }
+    if (virtualThreads && !ManagedThreadFactory.virtualThreadsAvailable()) {
+      log.warn("Virtual threads are not available in this JVM, using platform threads");
+    }
   }
 
   private Service cloneService(Service original) throws Exception {
@@ -104,6 +123,9 @@ public class ServiceWorkerPool {
   }
   
   public ExecutorService createExecutor(String prefix) {
+    if (virtualThreads && ManagedThreadFactory.virtualThreadsAvailable()) {
+      return ManagedThreadFactory.newVirtualThreadPerTaskExecutor(prefix);
+    }
     return Executors.newFixedThreadPool(maxThreads, new ManagedThreadFactory(prefix));
   }
 
@@ -19,11 +19,14 @@ package com.adaptris.core.services.splitter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import org.apache.commons.lang3.BooleanUtils;
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.lms.MappedPayload;
 import com.adaptris.util.NumberUtils;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
@@ -34,6 +37,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * during the split. Note that while an attempt is made to make sure that each split message is of the same size, this is not
  * guaranteed.
  * </p>
+ * <p>
+ * If {@link #setUseMemoryMapping(Boolean)} is true and the message is a {@link com.adaptris.core.lms.FileBackedMessage} then the
+ * payload is read from the memory mapped file (see {@link MappedPayload}).
+ * </p>
  *
  * @config size-based-splitter
  */
@@ -48,6 +55,9 @@ public class SizeBasedSplitter extends MessageSplitterImp {
 
   @InputFieldDefault(value = "" + DEFAULT_SPLIT_SIZE)
   private Integer splitSizeBytes;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useMemoryMapping;
 
   public SizeBasedSplitter() {}
 
@@ -55,7 +65,7 @@ public class SizeBasedSplitter extends MessageSplitterImp {
     logR.debug("SizeBasedSplitter splits every {} bytes", splitSizeBytes());
     logExpected(msg);
     try {
-      return new SplitGenerator(msg.getInputStream(), msg, selectFactory(msg));
+      return new SplitGenerator(useMemoryMapping() ? MappedPayload.openInputStream(msg) : msg.getInputStream(), msg, selectFactory(msg));
     } catch (IOException e) {
       throw new CoreException(e);
     }
@@ -133,4 +143,23 @@ public class SizeBasedSplitter extends MessageSplitterImp {
     return NumberUtils.toIntDefaultIfNull(getSplitSizeBytes(), DEFAULT_SPLIT_SIZE);
   }
 
+  public Boolean getUseMemoryMapping() {
+    return useMemoryMapping;
+  }
+
+  /**
+   * Whether or not to read file backed messages via a memory mapped file.
+   *
+   * @param b true to memory map the payload (see {@link MappedPayload}); default is false, which uses
+   *          {@link AdaptrisMessage#getInputStream()}.
+   * @since 3.8.4
+   */
+  public void setUseMemoryMapping(Boolean b) {
+    useMemoryMapping = b;
+  }
+
+  boolean useMemoryMapping() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseMemoryMapping(), false);
+  }
+
 }
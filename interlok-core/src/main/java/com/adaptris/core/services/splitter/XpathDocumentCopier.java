@@ -16,7 +16,7 @@
 
 package com.adaptris.core.services.splitter;
 
-import static com.adaptris.core.util.XmlHelper.createDocument;
+import static com.adaptris.core.util.ParsedDocumentCache.getDocument;
 
 import java.io.IOException;
 
@@ -114,7 +114,7 @@ public class XpathDocumentCopier extends MessageCopier {
     if (ctx != null) {
       builder.setNamespaceAware(true);
     }
-    Document d = createDocument(msg, builder);
+    Document d = getDocument(msg, builder);
     XPath xp = XPath.newXPathInstance(builder, ctx);
     return xp.selectSingleTextItem(d, getXpath());
   }
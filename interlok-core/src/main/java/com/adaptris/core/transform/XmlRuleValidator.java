@@ -14,7 +14,7 @@
 
 package com.adaptris.core.transform;
 
-import static com.adaptris.core.util.XmlHelper.createDocument;
+import static com.adaptris.core.util.ParsedDocumentCache.getDocument;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -95,7 +95,7 @@ public class XmlRuleValidator extends MessageValidatorImpl {
     try {
       NamespaceContext namespaceCtx = SimpleNamespaceContext.create(getNamespaceContext(), msg);
       DocumentBuilderFactoryBuilder builder = documentFactoryBuilder(namespaceCtx);
-      Document doc = createDocument(msg, builder);
+      Document doc = getDocument(msg, builder);
       XPath xp = XPath.newXPathInstance(builder, namespaceCtx);
       for (int stageIndex = 0; stageIndex < validationStages.size(); stageIndex++) {
         ValidationStage v = validationStages.get(stageIndex);
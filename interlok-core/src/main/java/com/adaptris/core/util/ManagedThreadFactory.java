@@ -16,11 +16,13 @@
 
 package com.adaptris.core.util;
 
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -47,6 +49,7 @@ public class ManagedThreadFactory implements ThreadFactory {
 
   private static final Logger logger = LoggerFactory.getLogger(ManagedThreadFactory.class);
   private static final ManagedThreadFactory instance = new ManagedThreadFactory();
+  private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
 
   public ManagedThreadFactory() {
     this(ManagedThreadFactory.class.getSimpleName());
@@ -83,6 +86,52 @@ public class ManagedThreadFactory implements ThreadFactory {
     return prefix + threadNumber.getAndIncrement();
   }
 
+  /**
+   * Whether or not virtual threads are available in this JVM.
+   *
+   * @return true if virtual threads are available (Java 21+).
+   * @since 3.8.4
+   */
+  public static boolean virtualThreadsAvailable() {
+    return VIRTUAL_THREADS != null;
+  }
+
+  /**
+   * Create an {@link ExecutorService} that runs each task in a new virtual thread.
+   * <p>
+   * Threads are named in the same way as threads created by a {@code new ManagedThreadFactory(prefix)} and are interrupted by
+   * {@link #interruptManagedThreads()}; the executor can be shutdown with {@link #shutdownQuietly(ExecutorService, long)} as
+   * normal. Because there is no limit on the number of threads, something else (such as an object pool) must limit the amount of
+   * concurrent work. If virtual threads are not available then a cached thread pool of platform threads is returned instead.
+   * </p>
+   *
+   * @param prefix the prefix for thread names.
+   * @return an ExecutorService.
+   * @since 3.8.4
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+    if (virtualThreadsAvailable()) {
+      try {
+        Method m = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        return (ExecutorService) m.invoke(null, new VirtualThreadFactory(prefix));
+      }
+      catch (Exception e) {
+        logger.warn("Failed to create a virtual thread executor, using platform threads", e);
+      }
+    }
+    return Executors.newCachedThreadPool(new ManagedThreadFactory(prefix));
+  }
+
+  private static ThreadFactory virtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
   public static void interruptManagedThreads() {
     logger.trace("Interrupt Request Received");
     for (Thread t : CREATED_THREADS) {
@@ -113,4 +162,19 @@ public class ManagedThreadFactory implements ThreadFactory {
     }
     return result;
   }
+
+  private static class VirtualThreadFactory extends ManagedThreadFactory {
+
+    VirtualThreadFactory(String prefix) {
+      super(prefix);
+    }
+
+    @Override
+    protected Thread createThread(ThreadGroup group, Runnable r) {
+      Thread t = VIRTUAL_THREADS.newThread(r);
+      t.setName(createName());
+      CREATED_THREADS.add(t);
+      return t;
+    }
+  }
 }
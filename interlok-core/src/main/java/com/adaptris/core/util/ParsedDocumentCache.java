@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.util;
+
+import static org.apache.commons.lang.BooleanUtils.toBooleanDefaultIfNull;
+import static org.apache.commons.lang.BooleanUtils.toBooleanObject;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.util.KeyValuePair;
+
+/**
+ * Caches the parsed {@link Document} representation of a message payload against the message itself.
+ * <p>
+ * Multiple XPath based services in the same service list would otherwise each parse the payload into a new DOM; using this class
+ * means that the payload is parsed once (for each distinct {@link DocumentBuilderFactoryBuilder} configuration) and the resulting
+ * document is stored in object metadata. The cached document is discarded by the standard message implementations whenever the
+ * payload is changed (via {@link AdaptrisMessage#setContent(String, String)}, {@link AdaptrisMessage#setPayload(byte[])} or
+ * {@link AdaptrisMessage#getOutputStream()}) and is never copied when a message is cloned.
+ * </p>
+ * <p>
+ * Since the same {@link Document} instance is handed out to multiple callers it must be treated as read-only; services that modify
+ * the document should continue to use {@link XmlHelper#createDocument(AdaptrisMessage, DocumentBuilderFactoryBuilder)}. If the
+ * {@link DocumentBuilderFactoryBuilder} has an {@link org.xml.sax.EntityResolver} configured then the document is never cached. The
+ * system property {@value #SYSPROP_DOCUMENT_CACHE} can be set to {@code false} to disable caching altogether.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public abstract class ParsedDocumentCache {
+
+  /**
+   * System property that controls whether parsed documents are cached against the message (default true).
+   *
+   */
+  public static final String SYSPROP_DOCUMENT_CACHE = "interlok.xml.document.cache";
+
+  /**
+   * The object metadata key used to store the cached documents.
+   *
+   */
+  public static final String OBJ_METADATA_KEY = ParsedDocumentCache.class.getCanonicalName();
+
+  private static final boolean cacheEnabled = toBooleanDefaultIfNull(
+      toBooleanObject(System.getProperty(SYSPROP_DOCUMENT_CACHE, "true")), true);
+
+  private static final ThreadLocal<ParsedString> lastParsed = new ThreadLocal<>();
+
+  /**
+   * Get a document representing the payload of the message, parsing it if required.
+   *
+   * @param msg the message
+   * @param builder configuration for the underlying document builder factory, may be null.
+   * @return the document, which should be treated as read-only.
+   */
+  public static Document getDocument(AdaptrisMessage msg, DocumentBuilderFactoryBuilder builder)
+      throws ParserConfigurationException, IOException, SAXException {
+    DocumentBuilderFactoryBuilder cfg = DocumentBuilderFactoryBuilder.newInstance(builder);
+    if (!cacheEnabled || cfg.getEntityResolver() != null) {
+      return XmlHelper.createDocument(msg, cfg);
+    }
+    String key = signature(cfg);
+    Documents docs = documents(msg);
+    Document result = docs.get(key);
+    if (result == null) {
+      result = XmlHelper.createDocument(msg, cfg);
+      docs.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Get a document representing the string, parsing it if required.
+   * <p>
+   * Only the last string parsed by the current thread is remembered, and strings are compared by identity; this is primarily for
+   * components such as {@link com.adaptris.core.services.routing.SyntaxIdentifier} that are handed the same {@code String}
+   * instance in turn. Documents are only softly referenced.
+   * </p>
+   *
+   * @param xml the string
+   * @param builder configuration for the underlying document builder factory, may be null.
+   * @return the document, which should be treated as read-only.
+   */
+  public static Document getDocument(String xml, DocumentBuilderFactoryBuilder builder)
+      throws ParserConfigurationException, IOException, SAXException {
+    DocumentBuilderFactoryBuilder cfg = DocumentBuilderFactoryBuilder.newInstance(builder);
+    if (!cacheEnabled || cfg.getEntityResolver() != null) {
+      return XmlHelper.createDocument(xml, cfg);
+    }
+    ParsedString parsed = lastParsed.get();
+    if (parsed == null || !parsed.isFor(xml)) {
+      parsed = new ParsedString(xml);
+      lastParsed.set(parsed);
+    }
+    String key = signature(cfg);
+    Document result = parsed.get(key);
+    if (result == null) {
+      result = XmlHelper.createDocument(xml, cfg);
+      parsed.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Discard any cached documents associated with this message.
+   *
+   * @param msg the message.
+   */
+  public static void invalidate(AdaptrisMessage msg) {
+    invalidate(msg.getObjectHeaders());
+  }
+
+  /**
+   * Discard any cached documents from the object metadata map.
+   *
+   * @param objectMetadata the object metadata.
+   */
+  public static void invalidate(Map<Object, Object> objectMetadata) {
+    if (objectMetadata != null) {
+      objectMetadata.remove(OBJ_METADATA_KEY);
+    }
+  }
+
+  private static Documents documents(AdaptrisMessage msg) {
+    Object o = msg.getObjectHeaders().get(OBJ_METADATA_KEY);
+    // Object metadata is often copied wholesale into other messages; only trust documents that were parsed from this message.
+    if (o instanceof Documents && ((Documents) o).ownedBy(msg)) {
+      return (Documents) o;
+    }
+    Documents result = new Documents(msg);
+    msg.addObjectHeader(OBJ_METADATA_KEY, result);
+    return result;
+  }
+
+  private static String signature(DocumentBuilderFactoryBuilder cfg) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(cfg.getValidating()).append(';').append(cfg.getNamespaceAware()).append(';').append(cfg.getIgnoreWhitespace())
+        .append(';').append(cfg.getExpandEntityReferences()).append(';').append(cfg.getIgnoreComments()).append(';')
+        .append(cfg.getCoalescing()).append(';').append(cfg.getXincludeAware());
+    for (KeyValuePair kvp : cfg.getFeatures()) {
+      sb.append(';').append(kvp.getKey()).append('=').append(kvp.getValue());
+    }
+    return sb.toString();
+  }
+
+  // Map of configuration signature to document; never more than a couple of entries.
+  private static class Documents extends HashMap<String, Document> {
+    private static final long serialVersionUID = 2019061101L;
+    private transient WeakReference<AdaptrisMessage> owner;
+
+    Documents(AdaptrisMessage msg) {
+      super(4);
+      owner = new WeakReference<>(msg);
+    }
+
+    boolean ownedBy(AdaptrisMessage msg) {
+      return owner != null && owner.get() == msg;
+    }
+  }
+
+  private static class ParsedString {
+    private final WeakReference<String> source;
+    private final Map<String, SoftReference<Document>> documents = new HashMap<>(4);
+
+    ParsedString(String s) {
+      source = new WeakReference<>(s);
+    }
+
+    boolean isFor(String s) {
+      return source.get() == s;
+    }
+
+    Document get(String key) {
+      SoftReference<Document> ref = documents.get(key);
+      return ref != null ? ref.get() : null;
+    }
+
+    void put(String key, Document doc) {
+      documents.put(key, new SoftReference<>(doc));
+    }
+  }
+}
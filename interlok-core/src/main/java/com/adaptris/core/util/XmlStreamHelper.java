@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.util;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Helper for writing XML with {@link XMLStreamWriter} rather than building a {@link org.w3c.dom.Document}.
+ * <p>
+ * Used by components that need to write large XML documents without holding the entire document in memory.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public final class XmlStreamHelper {
+
+  private static final String CDATA_END = "]]>";
+
+  private XmlStreamHelper() {
+  }
+
+  /**
+   * Create a {@link XMLInputFactory} with DTD and external entity support disabled.
+   *
+   * @return a new {@link XMLInputFactory}
+   */
+  public static XMLInputFactory newInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return factory;
+  }
+
+  /**
+   * Create a {@link XMLStreamWriter} and write the XML declaration.
+   * <p>
+   * Closing the returned writer does not close the underlying stream.
+   * </p>
+   *
+   * @param out the output stream.
+   * @param encoding the encoding.
+   * @return a {@link XMLStreamWriter}
+   */
+  public static XMLStreamWriter startDocument(OutputStream out, String encoding) throws XMLStreamException {
+    XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, encoding);
+    writer.writeStartDocument(encoding, "1.0");
+    return writer;
+  }
+
+  /**
+   * Write the text as one or more CDATA sections.
+   * <p>
+   * Any occurence of {@code ]]>} in the text causes the text to be split across multiple CDATA sections, in the same way as
+   * serializing a {@link org.w3c.dom.CDATASection} would.
+   * </p>
+   *
+   * @param writer the writer.
+   * @param text the text.
+   */
+  public static void writeCData(XMLStreamWriter writer, String text) throws XMLStreamException {
+    String remaining = StringUtils.defaultString(text);
+    int idx = remaining.indexOf(CDATA_END);
+    while (idx >= 0) {
+      writer.writeCData(remaining.substring(0, idx + 2));
+      remaining = remaining.substring(idx + 2);
+      idx = remaining.indexOf(CDATA_END);
+    }
+    writer.writeCData(remaining);
+  }
+
+  /**
+   * Check whether the string is a well-formed XML document.
+   *
+   * @param xml the string.
+   * @return true if the string can be parsed.
+   */
+  public static boolean isWellFormed(String xml) {
+    XMLStreamReader reader = null;
+    try {
+      reader = newInputFactory().createXMLStreamReader(new StringReader(StringUtils.defaultString(xml)));
+      while (reader.hasNext()) {
+        reader.next();
+      }
+      return true;
+    }
+    catch (Exception e) {
+      return false;
+    }
+    finally {
+      closeQuietly(reader);
+    }
+  }
+
+  /**
+   * Check whether the stream is a well-formed XML document.
+   *
+   * @param in the stream, which is not closed.
+   * @return true if the stream can be parsed.
+   */
+  public static boolean isWellFormed(InputStream in) {
+    XMLStreamReader reader = null;
+    try {
+      reader = newInputFactory().createXMLStreamReader(in);
+      while (reader.hasNext()) {
+        reader.next();
+      }
+      return true;
+    }
+    catch (Exception e) {
+      return false;
+    }
+    finally {
+      closeQuietly(reader);
+    }
+  }
+
+  /**
+   * Copy the document element of the string to the writer.
+   *
+   * @param xml the XML document.
+   * @param writer the writer.
+   */
+  public static void copyDocumentElement(String xml, XMLStreamWriter writer) throws XMLStreamException {
+    XMLStreamReader reader = null;
+    try {
+      reader = newInputFactory().createXMLStreamReader(new StringReader(xml));
+      copyElement(reader, writer);
+    }
+    finally {
+      closeQuietly(reader);
+    }
+  }
+
+  /**
+   * Copy the document element of the stream to the writer.
+   *
+   * @param in the XML document, which is not closed.
+   * @param writer the writer.
+   */
+  public static void copyDocumentElement(InputStream in, XMLStreamWriter writer) throws XMLStreamException {
+    XMLStreamReader reader = null;
+    try {
+      reader = newInputFactory().createXMLStreamReader(in);
+      copyElement(reader, writer);
+    }
+    finally {
+      closeQuietly(reader);
+    }
+  }
+
+  /**
+   * Copy the next element (and all its descendants) from the reader to the writer.
+   * <p>
+   * Anything before the next start element is skipped; when this method returns the reader is positioned at the end of the
+   * element.
+   * </p>
+   *
+   * @param reader the reader.
+   * @param writer the writer.
+   */
+  public static void copyElement(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+    if (!skipToStartElement(reader)) {
+      return;
+    }
+    int depth = 0;
+    do {
+      int event = reader.getEventType();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      }
+      else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+      copyEvent(reader, writer);
+      if (depth == 0) {
+        break;
+      }
+      reader.next();
+    }
+    while (true);
+  }
+
+  /**
+   * Advance the reader to the next start element.
+   *
+   * @param reader the reader.
+   * @return true if the reader is positioned at a start element, false if the end of the document was reached.
+   */
+  public static boolean skipToStartElement(XMLStreamReader reader) throws XMLStreamException {
+    while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+      if (!reader.hasNext()) {
+        return false;
+      }
+      reader.next();
+    }
+    return true;
+  }
+
+  /**
+   * Copy the current event from the reader to the writer.
+   * <p>
+   * Document start and end events are ignored.
+   * </p>
+   *
+   * @param reader the reader.
+   * @param writer the writer.
+   */
+  public static void copyEvent(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+    switch (reader.getEventType()) {
+    case XMLStreamConstants.START_ELEMENT:
+      copyStartElement(reader, writer);
+      break;
+    case XMLStreamConstants.END_ELEMENT:
+      writer.writeEndElement();
+      break;
+    case XMLStreamConstants.CHARACTERS:
+    case XMLStreamConstants.SPACE:
+      writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      break;
+    case XMLStreamConstants.CDATA:
+      writeCData(writer, reader.getText());
+      break;
+    case XMLStreamConstants.COMMENT:
+      writer.writeComment(reader.getText());
+      break;
+    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+      writer.writeProcessingInstruction(reader.getPITarget(), StringUtils.defaultString(reader.getPIData()));
+      break;
+    case XMLStreamConstants.ENTITY_REFERENCE:
+      writer.writeEntityRef(reader.getLocalName());
+      break;
+    default:
+      break;
+    }
+  }
+
+  private static void copyStartElement(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+    String prefix = StringUtils.defaultString(reader.getPrefix());
+    String ns = StringUtils.defaultString(reader.getNamespaceURI());
+    writer.writeStartElement(prefix, reader.getLocalName(), ns);
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      String nsPrefix = reader.getNamespacePrefix(i);
+      if (StringUtils.isEmpty(nsPrefix)) {
+        writer.writeDefaultNamespace(StringUtils.defaultString(reader.getNamespaceURI(i)));
+      }
+      else {
+        writer.writeNamespace(nsPrefix, reader.getNamespaceURI(i));
+      }
+    }
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String attrNs = reader.getAttributeNamespace(i);
+      if (StringUtils.isEmpty(attrNs)) {
+        writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+      }
+      else {
+        writer.writeAttribute(StringUtils.defaultString(reader.getAttributePrefix(i)), attrNs, reader.getAttributeLocalName(i),
+            reader.getAttributeValue(i));
+      }
+    }
+  }
+
+  public static void closeQuietly(XMLStreamReader reader) {
+    try {
+      if (reader != null) {
+        reader.close();
+      }
+    }
+    catch (Exception ignored) {
+
+    }
+  }
+
+  public static void closeQuietly(XMLStreamWriter writer) {
+    try {
+      if (writer != null) {
+        writer.close();
+      }
+    }
+    catch (Exception ignored) {
+
+    }
+  }
+}
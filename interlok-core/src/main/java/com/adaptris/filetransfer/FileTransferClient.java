@@ -22,7 +22,9 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Common interface for all FTP client flavours.
@@ -207,6 +209,30 @@ public interface FileTransferClient extends Closeable {
   String[] dir(String directory, FilenameFilter filter)
       throws FileTransferException, IOException;
 
+  /**
+   * List a directory's contents along with the size, last modified time and type of each entry.
+   * <p>
+   * Implementations should obtain all the attributes in a single request to the server, rather than a request per file. The
+   * filter is applied against the {@link RemoteFile}, so any filter that checks the size or last modified time will use the
+   * attributes reported by the server. The default implementation simply wraps {@link #dir(String, FileFilter)}, so no attributes
+   * are available.
+   * </p>
+   *
+   * @param directory the directory to list.
+   * @param filter the filter to apply, may be null.
+   * @return the files; the special files "." and ".." are excluded.
+   * @throws IOException on comms error.
+   * @throws FileTransferException on FTP Specific exception error.
+   * @since 3.8.4
+   */
+  default List<RemoteFile> listFiles(String directory, FileFilter filter) throws FileTransferException, IOException {
+    List<RemoteFile> result = new ArrayList<>();
+    for (String name : dir(directory, filter)) {
+      result.add(new RemoteFile(name));
+    }
+    return result;
+  }
+
   /**
    * Delete the specified remote file
    *
@@ -24,7 +24,9 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -148,6 +150,26 @@ public abstract class FileTransferClientImp implements FileTransferClient {
   }
 
 
+  /**
+   * Apply the filter to the list of remote files.
+   *
+   * @param files the files
+   * @param filter the filter, may be null.
+   * @return the files that were accepted by the filter.
+   */
+  protected List<RemoteFile> filter(List<RemoteFile> files, FileFilter filter) {
+    if (filter == null) {
+      return files;
+    }
+    List<RemoteFile> result = new ArrayList<>(files.size());
+    for (RemoteFile f : files) {
+      if (filter.accept(f)) {
+        result.add(f);
+      }
+    }
+    return result;
+  }
+
   private String[] filter(String[] filelist, FileFilter filter) {
     if (filter == null) return filelist;
     HashSet<String> result = new HashSet<String>();
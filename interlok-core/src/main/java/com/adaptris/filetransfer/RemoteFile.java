@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.filetransfer;
+
+import java.io.File;
+
+/**
+ * A file on a remote server along with the attributes that were returned as part of the directory listing.
+ * <p>
+ * This extends {@link File} so that the existing {@link java.io.FileFilter} and
+ * {@link com.adaptris.core.fs.enhanced.FileSorter} implementations can be used against the attributes reported by the remote
+ * server; {@link #length()}, {@link #lastModified()}, {@link #isDirectory()} and {@link #isFile()} never touch the local
+ * filesystem. Where the server did not report an attribute, then {@link #length()} or {@link #lastModified()} will return
+ * {@code 0}, in line with {@link File}.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public class RemoteFile extends File {
+
+  private static final long serialVersionUID = 2019022801L;
+
+  private final String remoteName;
+  private final long length;
+  private final long lastModified;
+  private final boolean directory;
+
+  /**
+   * Create a remote file where no attributes are known.
+   *
+   * @param name the filename.
+   */
+  public RemoteFile(String name) {
+    this(name, 0, 0, false);
+  }
+
+  /**
+   * Create a remote file.
+   *
+   * @param name the filename.
+   * @param length the size in bytes, or 0 if not known.
+   * @param lastModified the last modified time in milliseconds since the epoch, or 0 if not known.
+   * @param directory whether or not the entry is a directory.
+   */
+  public RemoteFile(String name, long length, long lastModified, boolean directory) {
+    super(name);
+    remoteName = name;
+    this.length = Math.max(0, length);
+    this.lastModified = Math.max(0, lastModified);
+    this.directory = directory;
+  }
+
+  @Override
+  public long length() {
+    return length;
+  }
+
+  @Override
+  public long lastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public boolean isDirectory() {
+    return directory;
+  }
+
+  @Override
+  public boolean isFile() {
+    return !directory;
+  }
+
+  @Override
+  public boolean exists() {
+    return true;
+  }
+
+  /**
+   * Get the name exactly as reported by the remote server.
+   * <p>
+   * {@link File} normalises its path according to the local platform; this is the name prior to any normalisation.
+   * </p>
+   *
+   * @return the name.
+   */
+  public String getRemoteName() {
+    return remoteName;
+  }
+
+  /**
+   * Whether or not the remote server reported the last modified time as part of the listing.
+   *
+   * @return true if {@link #lastModified()} came from the remote server.
+   */
+  public boolean hasLastModified() {
+    return lastModified > 0;
+  }
+}
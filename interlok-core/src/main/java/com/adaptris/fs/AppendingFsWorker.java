@@ -40,4 +40,14 @@ public class AppendingFsWorker extends StandardWorker {
       throw wrapException(e);
     }
   }
+
+  @Override
+  public void put(File source, File file) throws FsException {
+    try {
+      FileCopy.transfer(FsWorker.checkReadable(source), file, true);
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helper methods for copying files without copying the data through user-space buffers.
+ * <p>
+ * Copies use {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} which, on most platforms, is
+ * implemented using {@code sendfile} or equivalent; the transfer is repeated until the whole file is copied, as a single transfer
+ * may copy fewer bytes than requested (e.g. on some NFS mounts).
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public final class FileCopy {
+
+  private static final Logger log = LoggerFactory.getLogger(FileCopy.class);
+
+  private FileCopy() {
+  }
+
+  /**
+   * Copy the contents of one file to another.
+   *
+   * @param src the source file.
+   * @param dest the destination file; created if it does not exist, and truncated unless {@code append} is true.
+   * @param append whether to append to the destination.
+   * @return the number of bytes copied.
+   * @throws IOException on error.
+   */
+  public static long transfer(File src, File dest, boolean append) throws IOException {
+    try (FileChannel in = FileChannel.open(src.toPath(), StandardOpenOption.READ);
+        FileChannel out = FileChannel.open(dest.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+      return transfer(in, out);
+    }
+  }
+
+  /**
+   * Copy the entire contents of one channel to another.
+   *
+   * @param in the source channel, read from position 0.
+   * @param out the destination channel, written from its current position.
+   * @return the number of bytes copied.
+   * @throws IOException on error.
+   */
+  public static long transfer(FileChannel in, FileChannel out) throws IOException {
+    long size = in.size();
+    long position = 0;
+    while (position < size) {
+      long count = in.transferTo(position, size - position, out);
+      if (count <= 0 && in.size() <= position) {
+        // The source was truncated underneath us.
+        break;
+      }
+      position += count;
+    }
+    return position;
+  }
+
+  /**
+   * Create a hard link to a file, falling back to {@link #transfer(File, File, boolean)} if that isn't possible.
+   * <p>
+   * Hard links are only possible if both files are on the same filesystem, and the filesystem supports them. Since both names
+   * refer to the same data, this is only appropriate where neither file is subsequently modified in place. If the destination
+   * already exists it is replaced.
+   * </p>
+   *
+   * @param src the source file.
+   * @param dest the destination file.
+   * @return true if a link was created, false if the contents were copied.
+   * @throws IOException on error.
+   */
+  public static boolean linkOrCopy(File src, File dest) throws IOException {
+    try {
+      Files.deleteIfExists(dest.toPath());
+      Files.createLink(dest.toPath(), src.toPath());
+      return true;
+    }
+    catch (UnsupportedOperationException | IOException e) {
+      log.trace("Could not link [{}] to [{}], copying instead : {}", dest, src, e.getMessage());
+    }
+    transfer(src, dest, false);
+    return false;
+  }
+}
@@ -21,6 +21,8 @@ import static com.adaptris.fs.FsWorker.isDirectory;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
 
 import com.adaptris.core.CoreException;
 import com.adaptris.core.util.Args;
@@ -91,6 +93,30 @@ public interface FsWorker {
    */
   void put(byte[] data, File file) throws FsException;
 
+  /**
+   * <p>
+   * Writes the contents of <code>source</code> to the specified <code>file</code>, with the same semantics as
+   * {@link #put(byte[], File)}.
+   * </p>
+   * <p>
+   * The default implementation reads the source into memory and delegates to {@link #put(byte[], File)}; implementations are
+   * encouraged to override this to avoid the copy.
+   * </p>
+   *
+   * @param source the file containing the data to write
+   * @param file the file to write to
+   * @throws FsException wrapping any underlying Exception that may occur
+   * @since 3.8.4
+   */
+  default void put(File source, File file) throws FsException {
+    try {
+      put(Files.readAllBytes(checkReadable(source).toPath()), file);
+    }
+    catch (IOException e) {
+      throw new FsException(e);
+    }
+  }
+
   /**
    * <p>
    * Renames <code>oldfile</code> to <code>newName</code>. If <code>oldFile</code> does not exist or is a directory, or if
@@ -17,6 +17,7 @@
 package com.adaptris.fs;
 
 import static com.adaptris.fs.FsWorker.checkNonExistent;
+import static com.adaptris.fs.FsWorker.checkReadable;
 import static com.adaptris.fs.FsWorker.checkWriteable;
 
 import java.io.File;
@@ -24,6 +25,7 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
@@ -54,6 +56,27 @@ public class NioWorker extends StandardWorker {
     }
   }
 
+  /**
+   * Writes the contents of the source file using {@link FileCopy#transfer(FileChannel, FileChannel)} while holding a lock on the
+   * destination.
+   */
+  @Override
+  public void put(File source, File file) throws FsException {
+    write(source, checkNonExistent(file));
+  }
+
+  protected void write(File source, File file) throws FsException {
+    try (FileChannel in = FileChannel.open(checkReadable(source).toPath(), StandardOpenOption.READ);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        FileChannel channel = raf.getChannel();
+        FileLock lock = channel.lock()) {
+      FileCopy.transfer(in, channel);
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
+
   @Override
   public byte[] get(File file) throws FsException {
     ByteBuffer buffer = null;
@@ -31,10 +31,19 @@ public class OverwriteIfExistsWorker extends NioWorker {
 
   @Override
   public void put(byte[] data, File file) throws FsException {
+    super.put(data, deleteIfExists(file));
+  }
+
+  @Override
+  public void put(File source, File file) throws FsException {
+    super.put(source, deleteIfExists(file));
+  }
+
+  private static File deleteIfExists(File file) throws FsException {
     Args.notNull(file,  "file");
     if (file.exists() && !file.delete()) {
       throw new FsException("Could not delete [" + file + "]");
     }
-    super.put(data, file);
+    return file;
   }
 }
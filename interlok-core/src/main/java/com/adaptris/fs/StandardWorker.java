@@ -17,6 +17,7 @@
 package com.adaptris.fs;
 
 import static com.adaptris.fs.FsWorker.checkNonExistent;
+import static com.adaptris.fs.FsWorker.checkReadable;
 import static com.adaptris.fs.FsWorker.checkWriteable;
 import static com.adaptris.fs.FsWorker.isDirectory;
 
@@ -58,6 +59,19 @@ public class StandardWorker implements FsWorker {
     }
   }
 
+  /**
+   * Writes the contents of the source file using {@link FileCopy#transfer(File, File, boolean)}.
+   */
+  @Override
+  public void put(File source, File file) throws FsException {
+    try {
+      FileCopy.transfer(checkReadable(source), checkNonExistent(file), false);
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
+
   protected FsException wrapException(Exception e) {
     if (e instanceof FsException) {
       return (FsException) e;
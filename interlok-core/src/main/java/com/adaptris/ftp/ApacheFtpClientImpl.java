@@ -16,7 +16,10 @@
 
 package com.adaptris.ftp;
 
+import static org.apache.commons.lang.StringUtils.substringBefore;
+
 import java.io.ByteArrayOutputStream;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -39,6 +42,7 @@ import com.adaptris.core.util.Args;
 import com.adaptris.filetransfer.FileTransferClient;
 import com.adaptris.filetransfer.FileTransferClientImp;
 import com.adaptris.filetransfer.FileTransferException;
+import com.adaptris.filetransfer.RemoteFile;
 import com.adaptris.util.FifoMutexLock;
 
 /**
@@ -48,6 +52,11 @@ import com.adaptris.util.FifoMutexLock;
  */
 public abstract class ApacheFtpClientImpl<T extends FTPClient> extends FileTransferClientImp implements FtpFileTransferClient {
 
+  private static final String MLST_FEATURE = "MLST";
+  private static final String MLSD_MODIFY_FACT = "modify=";
+  private static final String CURRENT_DIR = ".";
+  private static final String PARENT_DIR = "..";
+
   private transient T ftp;
   private transient TimezoneDateHandler tzHandler;
 
@@ -264,6 +273,59 @@ public abstract class ApacheFtpClientImpl<T extends FTPClient> extends FileTrans
     return listing;
   }
 
+  /**
+   * List files in the directory along with their attributes.
+   * <p>
+   * If the server supports {@code MLSD} then that is used, which gives us the size, type and last modified time in a single
+   * request. Otherwise {@code LIST} is used; the last modified time reported by {@code LIST} is often only accurate to the minute
+   * (or day) and is in an unspecified timezone, so it is not used, and {@link RemoteFile#hasLastModified()} will be false.
+   * </p>
+   */
+  @Override
+  public List<RemoteFile> listFiles(String dirname, FileFilter filter) throws IOException {
+    List<RemoteFile> result = new ArrayList<>();
+    try {
+      acquireLock();
+      boolean mlsd = ftpClient().hasFeature(MLST_FEATURE);
+      FTPFile[] results;
+      if (mlsd) {
+        log("{} {}", FTPCmd.MLSD, dirname);
+        results = ftpClient().mlistDir(dirname);
+      }
+      else {
+        log("{} {}", FTPCmd.LIST, dirname);
+        results = ftpClient().listFiles(dirname);
+      }
+      logReply(ftpClient().getReplyStrings());
+      for (FTPFile file : results) {
+        if (file == null || CURRENT_DIR.equals(file.getName()) || PARENT_DIR.equals(file.getName())) {
+          continue;
+        }
+        result.add(new RemoteFile(file.getName(), file.getSize(), mlsd ? mlsdLastModified(file) : 0, file.isDirectory()));
+      }
+    }
+    finally {
+      releaseLock();
+    }
+    return filter(result, filter);
+  }
+
+  // Use the same timezone handling as MDTM, so that the times are consistent with lastModified()
+  private long mlsdLastModified(FTPFile file) {
+    String raw = file.getRawListing();
+    if (raw != null) {
+      for (String fact : substringBefore(raw, " ").split(";")) {
+        if (fact.toLowerCase().startsWith(MLSD_MODIFY_FACT)) {
+          Date d = tzHandler.asDate(fact.substring(MLSD_MODIFY_FACT.length()));
+          if (d != null) {
+            return d.getTime();
+          }
+        }
+      }
+    }
+    return file.getTimestamp() != null ? file.getTimestamp().getTimeInMillis() : 0;
+  }
+
   /**
    * delete a file on the server
    * 
@@ -17,15 +17,28 @@
 package com.adaptris.jdbc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import com.adaptris.annotation.Removal;
 
+/**
+ * A single row from a {@link JdbcResultSet}.
+ * <p>
+ * Rows created from a {@link java.sql.ResultSet} share a single {@link JdbcResultSchema} and only hold their own values; name
+ * based access is resolved via the shared schema. Rows that are built up using {@link #setFieldValue(String, Object, Integer)}
+ * hold their own field names and types.
+ * </p>
+ */
 public class JdbcResultRow {
   private static final Map<Integer, ParameterValueType> TYPE_MAP;
 
+  // Either schema + values (shared schema), or the 3 lists (built up field by field).
+  private JdbcResultSchema schema;
+  private Object[] values;
+
   private List<String> fieldNames;
   private List<Object> fieldValues;
   private List<ParameterValueType> fieldTypes;
@@ -44,8 +57,32 @@ public class JdbcResultRow {
     setFieldTypes(new ArrayList<ParameterValueType>());
   }
 
+  /**
+   * Create a row that shares its column names and types with other rows.
+   *
+   * @param schema the schema.
+   * @param values the values, one for each column in the schema.
+   * @since 3.8.4
+   */
+  public JdbcResultRow(JdbcResultSchema schema, Object[] values) {
+    if (values.length != schema.getColumnCount()) {
+      throw new IllegalArgumentException("Expected " + schema.getColumnCount() + " values, got " + values.length);
+    }
+    this.schema = schema;
+    this.values = values;
+  }
+
+  static ParameterValueType toParameterValueType(Integer type) {
+    return TYPE_MAP.get(type);
+  }
+
+  /**
+   * Get the field names.
+   *
+   * @return the field names; if this row shares its schema, then the list is unmodifiable.
+   */
   public List<String> getFieldNames() {
-    return fieldNames;
+    return schema != null ? schema.getColumnNames() : fieldNames;
   }
 
   private void setFieldNames(List<String> fieldNames) {
@@ -79,6 +116,7 @@ public class JdbcResultRow {
    * @param type the type if possible.
    */
   public void setFieldValue(String fieldName, Object fieldValue, ParameterValueType type) {
+    unshare();
     getFieldNames().add(fieldName);
     getFieldValues().add(fieldValue);
     getFieldTypes().add(type);
@@ -97,11 +135,11 @@ public class JdbcResultRow {
   }
 
   public int getFieldCount() {
-    return getFieldNames().size();
+    return schema != null ? values.length : getFieldNames().size();
   }
 
   public Object getFieldValue(int order) {
-    return getFieldValues().get(order);
+    return schema != null ? values[order] : getFieldValues().get(order);
   }
 
   public String getFieldName(int order) {
@@ -113,27 +151,41 @@ public class JdbcResultRow {
   }
 
   public ParameterValueType getFieldType(String fieldName) {
-    return getValue(getFieldTypes(), fieldName);
+    int index = indexOf(fieldName);
+    return index >= 0 ? getFieldType(index) : null;
   }
 
   public Object getFieldValue(String fieldName) {
-    return getValue(getFieldValues(), fieldName);
+    int index = indexOf(fieldName);
+    return index >= 0 ? getFieldValue(index) : null;
   }
 
-  private <T> T getValue(List<T> list, String fieldName) {
-    int index = getFieldNames().indexOf(fieldName);
-    if (index >= 0)
-      return list.get(index);
-    else
-      return null;
+  private int indexOf(String fieldName) {
+    return schema != null ? schema.indexOf(fieldName) : getFieldNames().indexOf(fieldName);
   }
 
+  /**
+   * Get the field types.
+   *
+   * @return the field types; if this row shares its schema, then the list is unmodifiable.
+   */
   public List<ParameterValueType> getFieldTypes() {
-    return fieldTypes;
+    return schema != null ? schema.getColumnTypes() : fieldTypes;
   }
 
   private void setFieldTypes(List<ParameterValueType> l) {
     fieldTypes = l;
   }
 
+  // Adding a field to a row that shares its schema; so it needs its own copy.
+  private void unshare() {
+    if (schema != null) {
+      setFieldNames(new ArrayList<>(schema.getColumnNames()));
+      setFieldTypes(new ArrayList<>(schema.getColumnTypes()));
+      setFieldValues(new ArrayList<>(Arrays.asList(values)));
+      schema = null;
+      values = null;
+    }
+  }
+
 }
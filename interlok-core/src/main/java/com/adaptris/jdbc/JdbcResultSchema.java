@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * The column names and types of a result set.
+ * <p>
+ * A single instance is shared by every {@link JdbcResultRow} created from the same {@link java.sql.ResultSet}, so the schema is
+ * only computed and stored once rather than for each row.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public final class JdbcResultSchema {
+
+  private final List<String> columnNames;
+  private final List<ParameterValueType> columnTypes;
+  private final Map<String, Integer> columnIndex;
+
+  /**
+   * Create a schema.
+   *
+   * @param names the column names.
+   * @param types the column types, which may contain nulls if the type isn't known.
+   */
+  public JdbcResultSchema(List<String> names, List<ParameterValueType> types) {
+    if (names.size() != types.size()) {
+      throw new IllegalArgumentException("Mismatched column names and types");
+    }
+    columnNames = Collections.unmodifiableList(new ArrayList<>(names));
+    columnTypes = Collections.unmodifiableList(new ArrayList<>(types));
+    Map<String, Integer> index = new HashMap<>();
+    for (int i = 0; i < columnNames.size(); i++) {
+      // Same as List#indexOf(), the first column of a given name wins.
+      index.putIfAbsent(columnNames.get(i), i);
+    }
+    columnIndex = Collections.unmodifiableMap(index);
+  }
+
+  /**
+   * Create a schema from the result set metadata.
+   * <p>
+   * The column label is used as the name of the column; if that is empty then the column name is used.
+   * </p>
+   *
+   * @param rsmd the metadata.
+   * @return a new schema.
+   */
+  public static JdbcResultSchema create(ResultSetMetaData rsmd) throws SQLException {
+    int columnCount = rsmd.getColumnCount();
+    List<String> names = new ArrayList<>(columnCount);
+    List<ParameterValueType> types = new ArrayList<>(columnCount);
+    for (int counter = 1; counter <= columnCount; counter++) {
+      names.add(StringUtils.defaultIfEmpty(rsmd.getColumnLabel(counter), rsmd.getColumnName(counter)));
+      types.add(JdbcResultRow.toParameterValueType(rsmd.getColumnType(counter)));
+    }
+    return new JdbcResultSchema(names, types);
+  }
+
+  public int getColumnCount() {
+    return columnNames.size();
+  }
+
+  public String getColumnName(int order) {
+    return columnNames.get(order);
+  }
+
+  public ParameterValueType getColumnType(int order) {
+    return columnTypes.get(order);
+  }
+
+  /**
+   * Get the index of the column.
+   *
+   * @param name the column name.
+   * @return the index of the first column with that name, or -1 if there is no such column.
+   */
+  public int indexOf(String name) {
+    Integer i = columnIndex.get(name);
+    return i != null ? i.intValue() : -1;
+  }
+
+  /**
+   * @return an unmodifiable list of the column names.
+   */
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * @return an unmodifiable list of the column types.
+   */
+  public List<ParameterValueType> getColumnTypes() {
+    return columnTypes;
+  }
+}
@@ -17,11 +17,9 @@
 package com.adaptris.jdbc;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import org.apache.commons.lang.StringUtils;
 import com.adaptris.core.util.JdbcUtil;
 
 public class JdbcResultSetImpl implements JdbcResultSet {
@@ -72,6 +70,7 @@ public class JdbcResultSetImpl implements JdbcResultSet {
    */
   private static class ScrollableResultSetIterator implements Iterator<JdbcResultRow> {
     private final ResultSet resultSet;
+    private JdbcResultSchema schema;
 
     private ScrollableResultSetIterator(ResultSet resultSet) {
       this.resultSet = resultSet;
@@ -90,7 +89,8 @@ public class JdbcResultSetImpl implements JdbcResultSet {
     public JdbcResultRow next() {
       try {
         if(resultSet.next()) {
-          return mapRow(resultSet);
+          schema = schema(resultSet, schema);
+          return mapRow(resultSet, schema);
         } else {
           throw new NoSuchElementException();
         }
@@ -109,6 +109,7 @@ public class JdbcResultSetImpl implements JdbcResultSet {
    */
   private static class ForwardOnlyResultSetIterator implements Iterator<JdbcResultRow> {
     private final ResultSet resultSet;
+    private JdbcResultSchema schema;
     private JdbcResultRow nextRow;
 
     private ForwardOnlyResultSetIterator(ResultSet resultSet) {
@@ -135,7 +136,8 @@ public class JdbcResultSetImpl implements JdbcResultSet {
     private JdbcResultRow takeNext() {
       try {
         if(resultSet.next()) {
-          return mapRow(resultSet);
+          schema = schema(resultSet, schema);
+          return mapRow(resultSet, schema);
         } else {
           return null;
         }
@@ -145,15 +147,17 @@ public class JdbcResultSetImpl implements JdbcResultSet {
     }
   }
 
-  private static JdbcResultRow mapRow(ResultSet resultSet) throws SQLException {
-    ResultSetMetaData rsmd = resultSet.getMetaData();
-    int columnCount = rsmd.getColumnCount();
-
-    JdbcResultRow row = new JdbcResultRow();
-    for(int counter = 1; counter <= columnCount; counter ++) {
-      row.setFieldValue(StringUtils.defaultIfEmpty(rsmd.getColumnLabel(counter), rsmd.getColumnName(counter)),
-          resultSet.getObject(counter), rsmd.getColumnType(counter));
+  // The schema is only built once per iterator, every row shares it.
+  private static JdbcResultRow mapRow(ResultSet resultSet, JdbcResultSchema schema) throws SQLException {
+    int columnCount = schema.getColumnCount();
+    Object[] values = new Object[columnCount];
+    for (int counter = 1; counter <= columnCount; counter++) {
+      values[counter - 1] = resultSet.getObject(counter);
     }
-    return row;
+    return new JdbcResultRow(schema, values);
+  }
+
+  private static JdbcResultSchema schema(ResultSet resultSet, JdbcResultSchema existing) throws SQLException {
+    return existing != null ? existing : JdbcResultSchema.create(resultSet.getMetaData());
   }
 }
@@ -16,11 +16,9 @@
 
 package com.adaptris.mail;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -34,7 +32,7 @@ import javax.mail.Session;
 import javax.mail.URLName;
 import javax.mail.internet.MimeMessage;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.commons.net.pop3.POP3Client;
 import org.apache.commons.net.pop3.POP3MessageInfo;
 
@@ -90,15 +88,10 @@ abstract class ApacheMailClient<T extends POP3Client> extends MailClientImp {
   }
 
   private MimeMessage createMimeMessage(Session session, Reader src) throws IOException, MessagingException {
-    MimeMessage result = null;
-    StringWriter writer = new StringWriter();
-    try (BufferedReader bufferedReader = new BufferedReader(src)) {
-      IOUtils.copy(bufferedReader, writer);
+    // Stream straight from the server rather than buffering the whole message as a String first.
+    try (Reader reader = src; InputStream mimeMessageInput = new ReaderInputStream(reader, Charset.defaultCharset())) {
+      return new MimeMessage(session, mimeMessageInput);
     }
-    try (InputStream mimeMessageInput = IOUtils.toInputStream(writer.toString(), Charset.defaultCharset())) {
-      result = new MimeMessage(session, mimeMessageInput);
-    }
-    return result;
   }
 
   @Override
@@ -202,26 +195,42 @@ abstract class ApacheMailClient<T extends POP3Client> extends MailClientImp {
     }
 
     private MimeMessage buildNext() throws MailException {
-      MimeMessage result = null;
-      if (currentMessage >= messages.length) {
-        return null;
-      }
-      POP3MessageInfo msg = messages[currentMessage++];
       try {
-        Reader reader = pop3.retrieveMessage(msg.number);
-        if (reader == null) {
-          throw new MailException("Could not retrieve message header.");
-        }
-        result = createMimeMessage(session, reader);
-        if (!accept(result)) {
-          return buildNext();
+        while (currentMessage < messages.length) {
+          POP3MessageInfo msg = messages[currentMessage++];
+          // If there are filters, check them against the headers (TOP) before downloading the whole message (RETR).
+          if (hasFilters() && !acceptHeaders(msg)) {
+            continue;
+          }
+          MimeMessage result = retrieve(msg);
+          if (!accept(result)) {
+            continue;
+          }
+          log.trace("Accepted message [{}] (msgNum={})", result.getMessageID(), msg.number);
+          collectedMessages.put(result.getMessageID(), msg.number);
+          return result;
         }
-        log.trace("Accepted message [{}] (msgNum={})", result.getMessageID(), msg.number);
-        collectedMessages.put(result.getMessageID(), msg.number);
       } catch (IOException | MessagingException e) {
         throw wrapException(e);
       }
-      return result;
+      return null;
+    }
+
+    private boolean acceptHeaders(POP3MessageInfo msg) throws IOException, MessagingException {
+      Reader reader = pop3.retrieveMessageTop(msg.number, 0);
+      if (reader == null) {
+        // TOP isn't mandatory, so the server may not support it; in which case we filter the whole message.
+        return true;
+      }
+      return accept(createMimeMessage(session, reader));
+    }
+
+    private MimeMessage retrieve(POP3MessageInfo msg) throws IOException, MessagingException, MailException {
+      Reader reader = pop3.retrieveMessage(msg.number);
+      if (reader == null) {
+        throw new MailException("Could not retrieve message header.");
+      }
+      return createMimeMessage(session, reader);
     }
   }
 }
@@ -20,7 +20,9 @@ import javax.mail.URLName;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AutoPopulated;
+import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.util.Args;
 import com.adaptris.util.KeyValuePairSet;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -38,6 +40,9 @@ public class JavamailReceiverFactory implements MailReceiverFactory {
   @AutoPopulated
   @Valid
   private KeyValuePairSet sessionProperties;
+  @AdvancedConfig
+  @InputFieldDefault(value = "50")
+  private Integer fetchPageSize;
 
   public JavamailReceiverFactory() {
     setSessionProperties(new KeyValuePairSet());
@@ -61,8 +66,34 @@ public class JavamailReceiverFactory implements MailReceiverFactory {
     sessionProperties = Args.notNull(kp, "sessionProperties");
   }
 
+  /**
+   * @since 3.8.4
+   */
+  public Integer getFetchPageSize() {
+    return fetchPageSize;
+  }
+
+  /**
+   * Set the number of messages whose headers are fetched from the server in a single request.
+   * <p>
+   * Messages are filtered on their headers, which are fetched a page at a time; the message body is only downloaded for messages
+   * that match the filters, when the message is processed.
+   * </p>
+   *
+   * @param i the page size, defaults to 50 if not specified.
+   * @since 3.8.4
+   */
+  public void setFetchPageSize(Integer i) {
+    fetchPageSize = i;
+  }
+
+  int fetchPageSize() {
+    return getFetchPageSize() != null ? getFetchPageSize().intValue() : MailboxClient.DEFAULT_FETCH_PAGE_SIZE;
+  }
+
   private MailboxClient configure(MailboxClient mbox) {
     mbox.setSessionProperties(KeyValuePairSet.asProperties(getSessionProperties()));
+    mbox.setFetchPageSize(fetchPageSize());
     return mbox;
   }
 }
@@ -216,6 +216,29 @@ public abstract class MailClientImp implements MailReceiver {
     }
   }
 
+  /**
+   * Whether or not any filters have been configured.
+   *
+   * @return true if messages need to be checked against one or more filters.
+   */
+  protected boolean hasFilters() {
+    return StringUtils.isNotBlank(fromFilter) || StringUtils.isNotBlank(subjectFilter)
+        || StringUtils.isNotBlank(recipientFilter) || customFilters.size() > 0;
+  }
+
+  /**
+   * Get the names of any custom headers that are used for filtering.
+   *
+   * @return the header names.
+   */
+  protected List<String> customFilterHeaders() {
+    List<String> result = new ArrayList<>();
+    for (String[] customFilter : customFilters) {
+      result.add(customFilter[0]);
+    }
+    return result;
+  }
+
   protected boolean accept(MimeMessage m) throws MessagingException {
     boolean accept = false;
     if (m.isSet(Flags.Flag.SEEN) || m.isSet(Flags.Flag.DELETED)) {
@@ -78,12 +78,17 @@ public final class MailboxClient extends MailClientImp{
 
   private static final String POP3_PROVIDER = "pop3";
   private static final String POP3_MAILBOX = "INBOX";
+  /**
+   * The default number of messages whose headers are fetched from the server in a single request.
+   */
+  public static final int DEFAULT_FETCH_PAGE_SIZE = 50;
 
   private transient Folder inbox;
   private transient Store store;
 
   private URLName url;
   private Properties sessionProperties;
+  private int fetchPageSize = DEFAULT_FETCH_PAGE_SIZE;
 
   /** Constructor */
   private MailboxClient() {
@@ -149,6 +154,20 @@ public final class MailboxClient extends MailClientImp{
     sessionProperties = Args.notNull(p, "sessionProperties");
   }
 
+  /**
+   * Set the number of messages whose headers are fetched from the server at once.
+   * <p>
+   * Filtering only needs the message headers; fetching them in pages means that a large mailbox doesn't need a round trip to the
+   * server for every message and bodies are only downloaded for messages that match the filters.
+   * </p>
+   *
+   * @param i the page size; values less than 1 are treated as 1.
+   * @since 3.8.4
+   */
+  public void setFetchPageSize(int i) {
+    fetchPageSize = Math.max(1, i);
+  }
+
   @Override
   protected void connectLocal() throws MailException {
     try {
@@ -199,11 +218,16 @@ public final class MailboxClient extends MailClientImp{
     private transient MimeMessage nextMessage;
     private int messageCount;
     private int currentMessage;
+    private transient Message[] page;
+    private int pageIndex;
+    private transient FetchProfile fetchProfile;
 
     private MessageCollector() {
       try {
         messageCount = inbox.getMessageCount();
         currentMessage = 1;
+        page = new Message[0];
+        fetchProfile = createFetchProfile();
       } catch (MessagingException e) {
         throw new IllegalStateException(e);
       }
@@ -230,21 +254,40 @@ public final class MailboxClient extends MailClientImp{
     }
 
     private MimeMessage buildNext() throws MessagingException {
-      if (currentMessage > messageCount) {
-        return null;
+      while (true) {
+        if (pageIndex >= page.length && !nextPage()) {
+          return null;
+        }
+        MimeMessage m = (MimeMessage) page[pageIndex++];
+        if (accept(m)) {
+          log.trace("Accepted message [{}]", m.getMessageID());
+          return m;
+        }
       }
-      MimeMessage m = (MimeMessage) inbox.getMessage(currentMessage++);
-      if (!accept(m)) {
-        return buildNext();
-      } else {
-        FetchProfile fp = new FetchProfile();
-        fp.add(FetchProfile.Item.ENVELOPE);
-        inbox.fetch(new Message[] {m}, fp);
+    }
+
+    // Fetch the headers for the next page of messages in a single request, so filtering doesn't need a round trip per message.
+    private boolean nextPage() throws MessagingException {
+      if (currentMessage > messageCount) {
+        return false;
       }
-      log.trace("Accepted message [{}]", m.getMessageID());
-      return m;
+      int end = Math.min(messageCount, currentMessage + fetchPageSize - 1);
+      page = inbox.getMessages(currentMessage, end);
+      pageIndex = 0;
+      currentMessage = end + 1;
+      inbox.fetch(page, fetchProfile);
+      return true;
     }
 
+    private FetchProfile createFetchProfile() {
+      FetchProfile fp = new FetchProfile();
+      fp.add(FetchProfile.Item.ENVELOPE);
+      fp.add(FetchProfile.Item.FLAGS);
+      for (String header : customFilterHeaders()) {
+        fp.add(header);
+      }
+      return fp;
+    }
   }
 
 }
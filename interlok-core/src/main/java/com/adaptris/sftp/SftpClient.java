@@ -20,6 +20,7 @@ import static org.apache.commons.lang.StringUtils.defaultIfBlank;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -36,6 +37,7 @@ import org.apache.commons.lang.StringUtils;
 import com.adaptris.filetransfer.FileTransferClient;
 import com.adaptris.filetransfer.FileTransferClientImp;
 import com.adaptris.filetransfer.FileTransferException;
+import com.adaptris.filetransfer.RemoteFile;
 import com.adaptris.ftp.FtpException;
 import com.adaptris.util.FifoMutexLock;
 import com.jcraft.jsch.Channel;
@@ -254,6 +256,40 @@ public class SftpClient extends FileTransferClientImp {
     return names.toArray(new String[0]);
   }
 
+  /**
+   * List files using the attributes returned by {@code ls}, so that no additional {@code stat} requests are made.
+   *
+   * @see FileTransferClient#listFiles(String, FileFilter)
+   */
+  @Override
+  public List<RemoteFile> listFiles(String dirname, FileFilter filter) throws IOException, FileTransferException {
+    checkConnected();
+    List<RemoteFile> result = new ArrayList<>();
+    try {
+      acquireLock();
+      String path = defaultIfBlank(dirname, CURRENT_DIR);
+      log("DIR {}", path);
+      Vector v = sftpChannel.ls(path);
+      if (v != null) {
+        for (Iterator i = v.iterator(); i.hasNext();) {
+          ChannelSftp.LsEntry entry = (ChannelSftp.LsEntry) i.next();
+          if (!(entry.getFilename().equals(CURRENT_DIR) || entry.getFilename().equals(PARENT_DIR))) {
+            SftpATTRS attrs = entry.getAttrs();
+            result.add(new RemoteFile(entry.getFilename(), attrs.getSize(), (long) attrs.getMTime() * 1000, attrs.isDir()));
+          }
+        }
+      }
+      Collections.sort(result);
+    }
+    catch (com.jcraft.jsch.SftpException e) {
+      throw new SftpException("Could not list files in " + dirname, e);
+    }
+    finally {
+      releaseLock();
+    }
+    return filter(result, filter);
+  }
+
   /**
    *
    * @see FileTransferClient#disconnect()
@@ -505,6 +541,12 @@ public class SftpClient extends FileTransferClientImp {
     return this;
   }
 
+  // Used by tests to list against a channel that isn't backed by a real session.
+  SftpClient withChannel(ChannelSftp channel) {
+    sftpChannel = channel;
+    return this;
+  }
+
   @Override
   public boolean isConnected() {
     boolean result = false;
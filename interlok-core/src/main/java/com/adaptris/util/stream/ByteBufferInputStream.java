@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.stream;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An InputStream that reads from a sequence of {@link ByteBuffer}s.
+ * <p>
+ * Each buffer is duplicated, so the position and limit of the buffers that are passed in are never modified; multiple streams can
+ * read from the same buffers concurrently.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public class ByteBufferInputStream extends InputStream {
+
+  private final List<ByteBuffer> buffers;
+  private int current = 0;
+
+  public ByteBufferInputStream(List<ByteBuffer> source) {
+    buffers = new ArrayList<>(source.size());
+    for (ByteBuffer b : source) {
+      buffers.add(b.duplicate());
+    }
+  }
+
+  @Override
+  public int read() {
+    ByteBuffer b = next();
+    return b == null ? -1 : b.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] dest, int off, int len) {
+    if (len == 0) {
+      return 0;
+    }
+    ByteBuffer b = next();
+    if (b == null) {
+      return -1;
+    }
+    int count = Math.min(len, b.remaining());
+    b.get(dest, off, count);
+    return count;
+  }
+
+  @Override
+  public long skip(long n) {
+    long skipped = 0;
+    ByteBuffer b;
+    while (skipped < n && (b = next()) != null) {
+      int count = (int) Math.min(n - skipped, b.remaining());
+      b.position(b.position() + count);
+      skipped += count;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    ByteBuffer b = next();
+    return b == null ? 0 : b.remaining();
+  }
+
+  private ByteBuffer next() {
+    while (current < buffers.size()) {
+      ByteBuffer b = buffers.get(current);
+      if (b.hasRemaining()) {
+        return b;
+      }
+      current++;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An OutputStream that compresses fixed size blocks in parallel, writing each block as a separate gzip member.
+ * <p>
+ * The output is a standard multi-member gzip file (RFC 1952) which can be read by {@link java.util.zip.GZIPInputStream} or any
+ * other gunzip implementation. Blocks are compressed using the supplied {@link ExecutorService} and written to the underlying
+ * stream in order; at most {@code maxPending} blocks are held in memory at any one time. Empty input still produces a single
+ * (empty) gzip member.
+ * </p>
+ * <p>
+ * The underlying stream is closed when this stream is closed; the executor is not shutdown.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int blockSize;
+  private final int maxPending;
+  private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+  private byte[] buffer;
+  private int count = 0;
+  private boolean written = false;
+  private boolean closed = false;
+
+  public ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int blockSize, int maxPending) {
+    if (blockSize <= 0 || maxPending <= 0) {
+      throw new IllegalArgumentException("blockSize and maxPending must be > 0");
+    }
+    this.out = out;
+    this.executor = executor;
+    this.blockSize = blockSize;
+    this.maxPending = maxPending;
+    buffer = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    buffer[count++] = (byte) b;
+    if (count == blockSize) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    int remaining = len;
+    int offset = off;
+    while (remaining > 0) {
+      int toCopy = Math.min(remaining, blockSize - count);
+      System.arraycopy(b, offset, buffer, count, toCopy);
+      count += toCopy;
+      offset += toCopy;
+      remaining -= toCopy;
+      if (count == blockSize) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Writes any blocks that have already been compressed; a partial block is not compressed until it is full, or the stream is
+   * closed.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+      writeNext();
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      if (count > 0 || !written) {
+        submitBlock();
+      }
+      while (!pending.isEmpty()) {
+        writeNext();
+      }
+    }
+    finally {
+      closed = true;
+      buffer = null;
+      for (Future<byte[]> f : pending) {
+        f.cancel(true);
+      }
+      out.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final byte[] block = buffer;
+    final int length = count;
+    pending.addLast(executor.submit(() -> compress(block, length)));
+    written = true;
+    buffer = new byte[blockSize];
+    count = 0;
+    while (pending.size() > maxPending) {
+      writeNext();
+    }
+  }
+
+  private void writeNext() throws IOException {
+    try {
+      out.write(pending.removeFirst().get());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+    catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("The stream has been closed.");
+    }
+  }
+
+  private static byte[] compress(byte[] block, int length) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, length / 2));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(result)) {
+      gzip.write(block, 0, length);
+    }
+    return result.toByteArray();
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.util.text;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton for finding any number of literal strings in a single pass.
+ * <p>
+ * Feed each character of the input to {@link #next(State, char)}, starting from {@link #start()}; every literal that ends at that
+ * character is then available from {@link State#firstMatch()} and {@link State#nextMatch()}. The automaton is immutable once built,
+ * so a single instance can be shared between threads.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public final class AhoCorasick {
+
+  private final State root = new State(0);
+
+  /**
+   * Build the automaton.
+   *
+   * @param literals the literals; each is identified by its index in the list. Null or empty literals are ignored, and if the same
+   *          literal appears more than once, the first index wins.
+   */
+  public AhoCorasick(List<String> literals) {
+    for (int i = 0; i < literals.size(); i++) {
+      String literal = literals.get(i);
+      if (literal == null || literal.isEmpty()) {
+        continue;
+      }
+      State s = root;
+      for (int j = 0; j < literal.length(); j++) {
+        s = s.addChild(literal.charAt(j));
+      }
+      if (s.literal < 0) {
+        s.literal = i;
+      }
+    }
+    buildLinks();
+  }
+
+  /**
+   * @return the initial state.
+   */
+  public State start() {
+    return root;
+  }
+
+  /**
+   * Move to the next state.
+   *
+   * @param state the current state.
+   * @param c the next character of the input.
+   * @return the new state.
+   */
+  public State next(State state, char c) {
+    State s = state;
+    while (true) {
+      State child = s.child(c);
+      if (child != null) {
+        return child;
+      }
+      if (s == root) {
+        return root;
+      }
+      s = s.fail;
+    }
+  }
+
+  // Breadth first to build the failure and dictionary-suffix links.
+  private void buildLinks() {
+    Queue<State> queue = new ArrayDeque<>();
+    root.fail = root;
+    for (State child : root.children) {
+      child.fail = root;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      State s = queue.remove();
+      for (int i = 0; i < s.keys.length; i++) {
+        char c = s.keys[i];
+        State child = s.children[i];
+        State f = s.fail;
+        while (f != root && f.child(c) == null) {
+          f = f.fail;
+        }
+        State target = f.child(c);
+        child.fail = target != null && target != child ? target : root;
+        child.output = child.fail.literal >= 0 ? child.fail : child.fail.output;
+        queue.add(child);
+      }
+    }
+  }
+
+  /**
+   * A state in the automaton.
+   */
+  public static final class State {
+    private final int depth;
+    private char[] keys = new char[0];
+    private State[] children = new State[0];
+    private State fail;
+    // The next state along the failure chain that is the end of a literal.
+    private State output;
+    private int literal = -1;
+
+    private State(int depth) {
+      this.depth = depth;
+    }
+
+    /**
+     * @return the number of characters of input that this state represents; the length of {@link #literal()} if there is one.
+     */
+    public int depth() {
+      return depth;
+    }
+
+    /**
+     * @return the index of the literal that ends at this state, or -1.
+     */
+    public int literal() {
+      return literal;
+    }
+
+    /**
+     * @return the longest match at this state (either this state, or one along its failure chain), or null if there is none.
+     */
+    public State firstMatch() {
+      return literal >= 0 ? this : output;
+    }
+
+    /**
+     * @return the next (shorter) match that ends at the same position, or null if there is none.
+     */
+    public State nextMatch() {
+      return output;
+    }
+
+    private State child(char c) {
+      int idx = Arrays.binarySearch(keys, c);
+      return idx >= 0 ? children[idx] : null;
+    }
+
+    private State addChild(char c) {
+      int idx = Arrays.binarySearch(keys, c);
+      if (idx >= 0) {
+        return children[idx];
+      }
+      int insert = -(idx + 1);
+      char[] newKeys = new char[keys.length + 1];
+      State[] newChildren = new State[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, insert);
+      System.arraycopy(children, 0, newChildren, 0, insert);
+      System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+      System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+      State result = new State(depth + 1);
+      newKeys[insert] = c;
+      newChildren[insert] = result;
+      keys = newKeys;
+      children = newChildren;
+      return result;
+    }
+  }
+}
@@ -155,5 +155,22 @@ public abstract class SimpleNamespaceContext {
     private boolean isNull(Object value) {
       return null == value;
     }
+
+    // equals + hashCode so that compiled expressions can be cached against equivalent contexts.
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof NamespaceContextMap)) {
+        return false;
+      }
+      return prefixMap.equals(((NamespaceContextMap) o).prefixMap);
+    }
+
+    @Override
+    public int hashCode() {
+      return prefixMap.hashCode();
+    }
   }
 }
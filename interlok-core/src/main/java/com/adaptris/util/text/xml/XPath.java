@@ -22,6 +22,7 @@ import static org.apache.commons.lang.BooleanUtils.toBooleanObject;
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
@@ -34,6 +35,10 @@ import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 
 /**
  * Wrapper around {@link javax.xml.xpath.XPath}/
+ * <p>
+ * Expressions are compiled once and then reused via {@link XPathCache}; since the compiled expressions are held per thread it is
+ * safe to create a new instance for each document.
+ * </p>
  * 
  * @author Stuart Ellidge
  * 
@@ -70,11 +75,14 @@ public class XPath {
       "net.sf.saxon.xpath.XPathFactoryImpl"
   };
 
+  private static final String DEFAULT_FACTORY_KEY = XPath.class.getName() + ".default";
+
   private transient XPathFactory xpathFactory;
   private transient javax.xml.xpath.XPath xpathToUse;
-  
+  private transient Object factoryKey;
+
   public XPath() {
-    xpathFactory = newXPathFactory();
+    factoryKey = DEFAULT_FACTORY_KEY;
   }
 
   public XPath(NamespaceContext ctx) {
@@ -86,10 +94,16 @@ public class XPath {
     this();
     context = ctx;
     xpathFactory = Args.notNull(factory, "xpathFactory");
+    // Key on the factory itself, it may be configured differently to another instance of the same class.
+    factoryKey = factory;
   }
 
   private javax.xml.xpath.XPath createXpath() {
     if (xpathToUse == null) {
+      // Only create the factory if we actually need to compile something.
+      if (xpathFactory == null) {
+        xpathFactory = newXPathFactory();
+      }
       xpathToUse = xpathFactory.newXPath();
       if (context != null) {
         xpathToUse.setNamespaceContext(context);
@@ -98,6 +112,10 @@ public class XPath {
     return xpathToUse;
   }
 
+  private XPathExpression compile(String xpath) throws XPathExpressionException {
+    return XPathCache.compile(factoryKey, context, xpath, () -> createXpath());
+  }
+
   /**
    * returns the string value contained in an element returned by an XPath
    *
@@ -108,7 +126,7 @@ public class XPath {
    */
   public String selectSingleTextItem(Node context, String xpath)
       throws XPathExpressionException {
-    return (String) createXpath().evaluate(xpath, context, XPathConstants.STRING);
+    return (String) compile(xpath).evaluate(context, XPathConstants.STRING);
   }
 
   /**
@@ -156,7 +174,7 @@ public class XPath {
    */
   public NodeList selectNodeList(Node context, String xpath)
       throws XPathExpressionException {
-    return (NodeList) createXpath().evaluate(xpath, context, XPathConstants.NODESET);
+    return (NodeList) compile(xpath).evaluate(context, XPathConstants.NODESET);
   }
 
   /**
@@ -169,7 +187,7 @@ public class XPath {
    */
   public Node selectSingleNode(Node context, String xpath)
       throws XPathExpressionException {
-    return (Node) createXpath().evaluate(xpath, context, XPathConstants.NODE);
+    return (Node) compile(xpath).evaluate(context, XPathConstants.NODE);
   }
 
   /**
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.text.xml;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * Cache of compiled {@link XPathExpression} instances used by {@link XPath}.
+ * <p>
+ * {@link XPathExpression} is not thread-safe, so compiled expressions are confined to the thread that compiled them; each thread
+ * holds a small LRU cache keyed on the expression, the {@link NamespaceContext} and the XPathFactory instance (since two factories
+ * of the same class may be configured differently, e.g. with different function resolvers). The number of
+ * entries per thread is controlled by the system property {@value #SYSPROP_XPATH_CACHE_SIZE} (defaults to
+ * {@value #DEFAULT_CACHE_SIZE}); setting it to 0 disables caching so that every expression is compiled on demand.
+ * </p>
+ * <p>
+ * Hit, miss and compile time statistics are aggregated across all threads and are available via the static accessor methods.
+ * </p>
+ *
+ * @since 3.8.4
+ */
+public abstract class XPathCache {
+
+  /**
+   * System property that controls the maximum number of compiled expressions held per thread.
+   *
+   */
+  public static final String SYSPROP_XPATH_CACHE_SIZE = "interlok.xpath.cache.size";
+
+  static final int DEFAULT_CACHE_SIZE = 256;
+
+  private static final int maxEntries = Math.max(0,
+      NumberUtils.toInt(System.getProperty(SYSPROP_XPATH_CACHE_SIZE), DEFAULT_CACHE_SIZE));
+
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+  private static final LongAdder compileNanos = new LongAdder();
+
+  private static final ThreadLocal<Map<CacheKey, XPathExpression>> expressions = ThreadLocal
+      .withInitial(() -> new ExpressionCache(maxEntries));
+
+  /**
+   * Get a compiled expression, compiling it if it is not already in the cache for the current thread.
+   *
+   * @param factoryKey identifies the XPathFactory in use; generally the factory instance itself.
+   * @param ctx the namespace context, may be null.
+   * @param expr the expression.
+   * @param xpath supplies the {@link javax.xml.xpath.XPath} used to compile the expression if required.
+   * @return the compiled expression.
+   */
+  static XPathExpression compile(Object factoryKey, NamespaceContext ctx, String expr,
+                                 Supplier<javax.xml.xpath.XPath> xpath)
+      throws XPathExpressionException {
+    if (maxEntries == 0) {
+      return doCompile(xpath.get(), expr);
+    }
+    Map<CacheKey, XPathExpression> cache = expressions.get();
+    CacheKey key = new CacheKey(factoryKey, ctx, expr);
+    XPathExpression result = cache.get(key);
+    if (result == null) {
+      result = doCompile(xpath.get(), expr);
+      cache.put(key, result);
+    } else {
+      hits.increment();
+    }
+    return result;
+  }
+
+  private static XPathExpression doCompile(javax.xml.xpath.XPath xpath, String expr)
+      throws XPathExpressionException {
+    long start = System.nanoTime();
+    try {
+      return xpath.compile(expr);
+    } finally {
+      misses.increment();
+      compileNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return the number of times a compiled expression was found in the cache.
+   */
+  public static long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of times an expression needed to be compiled.
+   */
+  public static long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the total time spent compiling expressions in milliseconds.
+   */
+  public static long compileTimeMs() {
+    return TimeUnit.NANOSECONDS.toMillis(compileNanos.sum());
+  }
+
+  /**
+   * @return the maximum number of compiled expressions held per thread.
+   */
+  public static int maxEntriesPerThread() {
+    return maxEntries;
+  }
+
+  /**
+   * Clear the compiled expressions held for the current thread.
+   */
+  public static void clear() {
+    expressions.remove();
+  }
+
+  /**
+   * Reset the statistics.
+   */
+  public static void resetStatistics() {
+    hits.reset();
+    misses.reset();
+    compileNanos.reset();
+  }
+
+  private static class ExpressionCache extends LinkedHashMap<CacheKey, XPathExpression> {
+    private static final long serialVersionUID = 2019061101L;
+    private final int max;
+
+    ExpressionCache(int max) {
+      super(16, 0.75f, true);
+      this.max = max;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<CacheKey, XPathExpression> eldest) {
+      return size() > max;
+    }
+  }
+
+  private static final class CacheKey {
+    private final Object factory;
+    private final NamespaceContext ctx;
+    private final String expr;
+    private final int hash;
+
+    CacheKey(Object factory, NamespaceContext ctx, String expr) {
+      this.factory = factory;
+      this.ctx = ctx;
+      this.expr = expr;
+      hash = Objects.hash(factory, ctx, expr);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) o;
+      return Objects.equals(expr, other.expr) && Objects.equals(factory, other.factory)
+          && Objects.equals(ctx, other.ctx);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.adaptris.core.event.AdapterCloseEvent;
+
+public class CompactEventMarshallerTest {
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    CompactEventMarshaller marshaller = new CompactEventMarshaller();
+    MessageLifecycleEvent mle = createEvent("quote\"and\\slash\nnewline");
+    String json = marshaller.marshal(mle);
+    assertTrue(json.startsWith("{"));
+    MessageLifecycleEvent result = (MessageLifecycleEvent) marshaller.unmarshal(json);
+    assertEquals(mle.getUniqueId(), result.getUniqueId());
+    assertEquals(mle.getCreationTime(), result.getCreationTime());
+    assertEquals(mle.getSourceId(), result.getSourceId());
+    assertNull(result.getDestinationId());
+    assertEquals(mle.getChannelId(), result.getChannelId());
+    assertEquals(mle.getWorkflowId(), result.getWorkflowId());
+    assertEquals(mle.getMessageUniqueId(), result.getMessageUniqueId());
+    assertEquals(mle.getMleMarkers(), result.getMleMarkers());
+    assertEquals(mle.getMleMarkers().get(1).getConfirmationId(), result.getMleMarkers().get(1).getConfirmationId());
+    assertEquals(mle.getMleMarkers().get(1).getIsConfirmation(), result.getMleMarkers().get(1).getIsConfirmation());
+    assertEquals(mle.getMleMarkers().get(1).getIsTrackingEndpoint(), result.getMleMarkers().get(1).getIsTrackingEndpoint());
+    assertEquals(mle.getNameSpace(), result.getNameSpace());
+  }
+
+  @Test
+  public void testRoundTrip_List() throws Exception {
+    CompactEventMarshaller marshaller = new CompactEventMarshaller();
+    List<Event> events = new ArrayList<>(Arrays.asList(createEvent("channel1"), createEvent("channel2")));
+    String json = marshaller.marshal(events);
+    assertTrue(json.startsWith("["));
+    List<?> result = (List<?>) marshaller.unmarshal(json);
+    assertEquals(2, result.size());
+    assertEquals("channel1", ((MessageLifecycleEvent) result.get(0)).getChannelId());
+    assertEquals("channel2", ((MessageLifecycleEvent) result.get(1)).getChannelId());
+  }
+
+  @Test
+  public void testRoundTrip_Fallback() throws Exception {
+    CompactEventMarshaller marshaller = new CompactEventMarshaller(DefaultMarshaller.getDefaultMarshaller());
+    Event e = EventFactory.create(AdapterCloseEvent.class);
+    String xml = marshaller.marshal(e);
+    assertTrue(xml.contains("<adapter-close-event>"));
+    assertEquals(AdapterCloseEvent.class, marshaller.unmarshal(xml).getClass());
+    // A list that isn't just message lifecycle events.
+    List<Event> events = new ArrayList<>(Arrays.asList(createEvent("channel"), e));
+    assertEquals(2, ((List<?>) marshaller.unmarshal(marshaller.marshal(events))).size());
+  }
+
+  @Test
+  public void testUnmarshal_UnsupportedType() throws Exception {
+    try {
+      new CompactEventMarshaller().unmarshal("{\"type\":\"unknown\"}");
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  private static MessageLifecycleEvent createEvent(String channelId) {
+    MessageLifecycleEvent mle = new MessageLifecycleEvent();
+    mle.setSourceId("source");
+    mle.setChannelId(channelId);
+    mle.setWorkflowId("workflow");
+    mle.setMessageUniqueId("message-id");
+    mle.addMleMarker(new MleMarker("service", true, 0, "0"));
+    MleMarker marker = new MleMarker("producer", false, 1, "1");
+    marker.setQualifier("qualifier");
+    marker.setConfirmationId("confirmation");
+    marker.setIsConfirmation(true);
+    marker.setIsTrackingEndpoint(true);
+    mle.addMleMarker(marker);
+    return mle;
+  }
+}
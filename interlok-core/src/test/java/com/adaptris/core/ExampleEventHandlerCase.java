@@ -16,8 +16,14 @@
 
 package com.adaptris.core;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -25,6 +31,7 @@ import com.adaptris.core.AdapterMarshallerFactory.MarshallingOutput;
 import com.adaptris.core.event.AdapterCloseEvent;
 import com.adaptris.core.lms.FileBackedMessageFactory;
 import com.adaptris.core.stubs.MockMessageProducer;
+import com.adaptris.util.TimeInterval;
 
 /**
  * <p>
@@ -164,6 +171,67 @@ public abstract class ExampleEventHandlerCase<T extends EventHandlerBase> extend
     }
   }
   
+  @Test
+  public void testSendEvent_MarshallingFailure() throws Exception {
+    AdaptrisMarshaller marshaller = mock(AdaptrisMarshaller.class);
+    when(marshaller.marshal(any())).thenThrow(new CoreException("testSendEvent_MarshallingFailure"));
+    T eh = applyConfiguration(newEventHandler(getName()));
+    eh.setMarshaller(marshaller);
+    try {
+      eh.requestStart();
+      eh.send(EventFactory.create(AdapterCloseEvent.class));
+      fail();
+    }
+    catch (CoreException expected) {
+      assertEquals("testSendEvent_MarshallingFailure", expected.getMessage());
+    }
+    finally {
+      eh.requestClose();
+    }
+  }
+
+  @Test
+  public void testSendEvent_ModifiedAfterSend() throws Exception {
+    MessageLifecycleEvent e = new MessageLifecycleEvent();
+    T eh = applyConfiguration(newEventHandler(getName()));
+    try {
+      eh.requestStart();
+      eh.send(e);
+      e.addMleMarker(new MleMarker("testSendEvent_ModifiedAfterSend", true, 0, "id"));
+      MockMessageProducer producer = getProducer(eh);
+      waitForMessages(producer, 1);
+      MessageLifecycleEvent sent = (MessageLifecycleEvent) eh.currentMarshaller()
+          .unmarshal(producer.getMessages().get(0).getContent());
+      assertEquals(0, sent.getMleMarkers().size());
+    }
+    finally {
+      eh.requestClose();
+    }
+  }
+
+  @Test
+  public void testSendEvent_Batched_ModifiedAfterSend() throws Exception {
+    MessageLifecycleEvent e = new MessageLifecycleEvent();
+    T eh = applyConfiguration(newEventHandler(getName()));
+    eh.setBatchSize(2);
+    eh.setBatchWindow(new TimeInterval(5L, TimeUnit.SECONDS));
+    try {
+      eh.requestStart();
+      eh.send(e);
+      e.addMleMarker(new MleMarker("testSendEvent_Batched_ModifiedAfterSend", true, 0, "id"));
+      eh.send(e);
+      MockMessageProducer producer = getProducer(eh);
+      waitForMessages(producer, 1);
+      List<?> events = (List<?>) eh.currentMarshaller().unmarshal(producer.getMessages().get(0).getContent());
+      assertEquals(2, events.size());
+      assertEquals(0, ((MessageLifecycleEvent) events.get(0)).getMleMarkers().size());
+      assertEquals(1, ((MessageLifecycleEvent) events.get(1)).getMleMarkers().size());
+    }
+    finally {
+      eh.requestClose();
+    }
+  }
+
   @SuppressWarnings("deprecation")
   @Test
   public void testSendEventWithDestination() throws Exception {
@@ -227,4 +295,84 @@ public abstract class ExampleEventHandlerCase<T extends EventHandlerBase> extend
     assertEquals(90, eh.shutdownWaitSeconds());
 
   }
+
+  @Test
+  public void testBatching() throws Exception {
+    T eh = newEventHandler(getName());
+    assertNull(eh.getBatchSize());
+    assertEquals(1, eh.batchSize());
+    assertNull(eh.getBatchWindow());
+    assertEquals(100, eh.batchWindowMs());
+    eh.setBatchSize(10);
+    eh.setBatchWindow(new TimeInterval(1L, TimeUnit.SECONDS));
+    assertEquals(Integer.valueOf(10), eh.getBatchSize());
+    assertEquals(10, eh.batchSize());
+    assertEquals(1000, eh.batchWindowMs());
+  }
+
+  @Test
+  public void testMaxQueueSize() throws Exception {
+    T eh = newEventHandler(getName());
+    assertNull(eh.getMaxQueueSize());
+    assertEquals(Integer.MAX_VALUE, eh.maxQueueSize());
+    assertNull(eh.getDiscardWhenFull());
+    assertFalse(eh.discardWhenFull());
+    eh.setMaxQueueSize(10);
+    eh.setDiscardWhenFull(true);
+    assertEquals(Integer.valueOf(10), eh.getMaxQueueSize());
+    assertEquals(10, eh.maxQueueSize());
+    assertTrue(eh.discardWhenFull());
+  }
+
+  @Test
+  public void testSendEvent_Batched() throws Exception {
+    int count = 10;
+    Event e = EventFactory.create(AdapterCloseEvent.class);
+    T eh = applyConfiguration(newEventHandler(getName()));
+    eh.setBatchSize(5);
+    eh.setBatchWindow(new TimeInterval(5L, TimeUnit.SECONDS));
+    try {
+      eh.requestStart();
+      for (int i = 0; i < count; i++) {
+        eh.send(e);
+      }
+      MockMessageProducer producer = getProducer(eh);
+      waitForMessages(producer, 2);
+      assertEquals(2, producer.getMessages().size());
+      for (AdaptrisMessage m : producer.getMessages()) {
+        assertEquals("5", m.getMetadataValue(CoreConstants.EVENT_BATCH_SIZE));
+        assertEquals(e.getClass().getName(), m.getMetadataValue(CoreConstants.EVENT_CLASS));
+        List<?> events = (List<?>) DefaultMarshaller.getDefaultMarshaller().unmarshal(m.getContent());
+        assertEquals(5, events.size());
+        assertEquals(e.getClass(), events.get(0).getClass());
+      }
+      assertEquals(0, eh.eventQueueDepth());
+      assertTrue(eh.maxEventLagMs() >= eh.lastEventLagMs());
+    }
+    finally {
+      eh.requestClose();
+    }
+  }
+
+  @Test
+  public void testSendEvent_DiscardWhenFull() throws Exception {
+    Event e = EventFactory.create(AdapterCloseEvent.class);
+    T eh = applyConfiguration(newEventHandler(getName()));
+    eh.setMaxQueueSize(1);
+    eh.setDiscardWhenFull(true);
+    try {
+      // Not started, so nothing is taking events off the queue.
+      eh.requestInit();
+      eh.send(e);
+      eh.send(e);
+      eh.send(e);
+      assertEquals(1, eh.eventQueueDepth());
+      assertEquals(2, eh.droppedEventCount());
+      eh.requestStart();
+      doAssertions(eh, 1, e.getClass());
+    }
+    finally {
+      eh.requestClose();
+    }
+  }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.io.File;
+import java.util.Map;
+
+import com.adaptris.core.lms.FileBackedMessage;
+import com.adaptris.core.stubs.TempFileUtils;
+
+public class FilesystemRetryMessageStoreTest extends BaseCase {
+
+  private static final String PAYLOAD = "The quick brown fox jumps over the lazy dog";
+
+  public FilesystemRetryMessageStoreTest(String name) {
+    super(name);
+  }
+
+  public void testSetBaseDirectory() throws Exception {
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore();
+    assertNull(store.getBaseDirectory());
+    store.setBaseDirectory("/tmp");
+    assertEquals("/tmp", store.getBaseDirectory());
+    try {
+      store.setBaseDirectory("");
+      fail();
+    }
+    catch (IllegalArgumentException expected) {
+
+    }
+    assertEquals("/tmp", store.getBaseDirectory());
+    assertTrue(store.persistent());
+  }
+
+  public void testWriteRead() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore(dir.getCanonicalPath());
+    AdaptrisMessage msg = createMessage();
+    store.write(msg, 1000L);
+    AdaptrisMessage result = store.read(msg.getUniqueId());
+    assertNotNull(result);
+    assertTrue(result instanceof FileBackedMessage);
+    assertEquals(msg.getUniqueId(), result.getUniqueId());
+    assertEquals(PAYLOAD, result.getContent());
+    assertEquals("UTF-8", result.getContentEncoding());
+    assertEquals("value", result.getMetadataValue("key"));
+    assertEquals("1", result.getObjectHeaders().get(RetryMessageErrorHandlerImp.RETRY_COUNT_KEY));
+    assertFalse(result.getObjectHeaders().containsKey(CoreConstants.OBJ_METADATA_EXCEPTION));
+    assertNull(store.read("does-not-exist"));
+  }
+
+  public void testWrite_ReplacesStoredMessage() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore(dir.getCanonicalPath());
+    AdaptrisMessage msg = createMessage();
+    store.write(msg, 1000L);
+    // Write back a message whose payload is the stored file.
+    AdaptrisMessage stored = store.read(msg.getUniqueId());
+    stored.addObjectHeader(RetryMessageErrorHandlerImp.RETRY_COUNT_KEY, "2");
+    store.write(stored, 2000L);
+    AdaptrisMessage result = store.read(msg.getUniqueId());
+    assertEquals(PAYLOAD, result.getContent());
+    assertEquals("2", result.getObjectHeaders().get(RetryMessageErrorHandlerImp.RETRY_COUNT_KEY));
+    assertEquals(Long.valueOf(2000L), store.pending().get(msg.getUniqueId()));
+  }
+
+  public void testPending() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore(dir.getCanonicalPath());
+    AdaptrisMessage m1 = createMessage();
+    AdaptrisMessage m2 = createMessage();
+    m2.setUniqueId("id/with/separators");
+    store.write(m1, 1000L);
+    store.write(m2, 2000L);
+    new File(dir, "incomplete").mkdirs();
+    // A new instance should see the same messages.
+    Map<String, Long> pending = new FilesystemRetryMessageStore(dir.getCanonicalPath()).pending();
+    assertEquals(2, pending.size());
+    assertEquals(Long.valueOf(1000L), pending.get(m1.getUniqueId()));
+    assertEquals(Long.valueOf(2000L), pending.get(m2.getUniqueId()));
+    assertEquals(PAYLOAD, store.read(m2.getUniqueId()).getContent());
+  }
+
+  public void testDelete() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore(dir.getCanonicalPath());
+    AdaptrisMessage msg = createMessage();
+    store.write(msg, 1000L);
+    store.delete(msg.getUniqueId());
+    assertNull(store.read(msg.getUniqueId()));
+    assertEquals(0, store.pending().size());
+    store.delete(msg.getUniqueId());
+  }
+
+  public void testInMemoryStore() throws Exception {
+    InMemoryRetryMessageStore store = new InMemoryRetryMessageStore();
+    assertFalse(store.persistent());
+    AdaptrisMessage msg = createMessage();
+    store.write(msg, 1000L);
+    assertSame(msg, store.read(msg.getUniqueId()));
+    assertEquals(Long.valueOf(1000L), store.pending().get(msg.getUniqueId()));
+    store.delete(msg.getUniqueId());
+    assertNull(store.read(msg.getUniqueId()));
+  }
+
+  private static AdaptrisMessage createMessage() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(PAYLOAD, "UTF-8");
+    msg.addMetadata("key", "value");
+    msg.addObjectHeader(RetryMessageErrorHandlerImp.RETRY_COUNT_KEY, "1");
+    msg.addObjectHeader(CoreConstants.OBJ_METADATA_EXCEPTION, new Exception());
+    return msg;
+  }
+}
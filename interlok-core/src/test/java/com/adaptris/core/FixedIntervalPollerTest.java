@@ -88,4 +88,45 @@ public class FixedIntervalPollerTest extends BaseCase {
       channel.requestClose();
     }
   }
+
+  public void testUseSharedScheduler() throws Exception {
+    FixedIntervalPoller p = new FixedIntervalPoller();
+    assertNull(p.getUseSharedScheduler());
+    assertFalse(p.useSharedScheduler());
+    p.setUseSharedScheduler(Boolean.TRUE);
+    assertEquals(Boolean.TRUE, p.getUseSharedScheduler());
+    assertTrue(p.useSharedScheduler());
+    p.setUseSharedScheduler(null);
+    assertNull(p.getUseSharedScheduler());
+    assertFalse(p.useSharedScheduler());
+  }
+
+  public void testLifecycle_SharedScheduler() throws Exception {
+    PollingTrigger consumer = new PollingTrigger();
+    FixedIntervalPoller poller = new FixedIntervalPoller(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    poller.setUseSharedScheduler(true);
+    consumer.setPoller(poller);
+    MockMessageProducer producer = new MockMessageProducer();
+
+    MockChannel channel = new MockChannel();
+    StandardWorkflow workflow = new StandardWorkflow();
+    workflow.setConsumer(consumer);
+    workflow.setProducer(producer);
+    channel.getWorkflowList().add(workflow);
+    try {
+      channel.requestClose();
+      channel.requestStart();
+      waitForMessages(producer, 1);
+
+      channel.requestStop();
+      producer.getMessages().clear();
+
+      channel.requestStart();
+      waitForMessages(producer, 1);
+      assertTrue(poller.metrics().getPollCount() > 0);
+    }
+    finally {
+      channel.requestClose();
+    }
+  }
 }
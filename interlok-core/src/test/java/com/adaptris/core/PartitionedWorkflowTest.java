@@ -0,0 +1,335 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.adaptris.core.interceptor.WorkflowInterceptorImpl;
+import com.adaptris.core.services.WaitService;
+import com.adaptris.core.services.exception.ConfiguredException;
+import com.adaptris.core.services.exception.ThrowExceptionService;
+import com.adaptris.core.stubs.FailFirstMockMessageProducer;
+import com.adaptris.core.stubs.MockChannel;
+import com.adaptris.core.stubs.MockMessageConsumer;
+import com.adaptris.core.stubs.MockMessageProducer;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.TimeInterval;
+
+public class PartitionedWorkflowTest extends ExampleWorkflowCase {
+
+  private static final String KEY = "orderId";
+  private static final String COUNT = "Count";
+
+  public PartitionedWorkflowTest(java.lang.String testName) {
+    super(testName);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+  }
+
+  public void testSetPartitions() throws Exception {
+    PartitionedWorkflow wf = new PartitionedWorkflow();
+    assertNull(wf.getPartitions());
+    assertEquals(4, wf.partitions());
+    wf.setPartitions(8);
+    assertEquals(Integer.valueOf(8), wf.getPartitions());
+    assertEquals(8, wf.partitions());
+    wf.setPartitions(0);
+    assertEquals(1, wf.partitions());
+  }
+
+  public void testSetPartitionQueueSize() throws Exception {
+    PartitionedWorkflow wf = new PartitionedWorkflow();
+    assertNull(wf.getPartitionQueueSize());
+    assertEquals(100, wf.partitionQueueSize());
+    wf.setPartitionQueueSize(10);
+    assertEquals(Integer.valueOf(10), wf.getPartitionQueueSize());
+    assertEquals(10, wf.partitionQueueSize());
+  }
+
+  public void testSetShutdownWaitTime() throws Exception {
+    PartitionedWorkflow wf = new PartitionedWorkflow();
+    assertNull(wf.getShutdownWaitTime());
+    assertEquals(60000, wf.shutdownWaitTimeMs());
+    TimeInterval interval = new TimeInterval(10L, TimeUnit.SECONDS);
+    wf.setShutdownWaitTime(interval);
+    assertEquals(interval, wf.getShutdownWaitTime());
+    assertEquals(10000, wf.shutdownWaitTimeMs());
+  }
+
+  public void testPartition() throws Exception {
+    PartitionedWorkflow wf = new PartitionedWorkflow();
+    wf.setPartitionKey(KEY);
+    AdaptrisMessage noKey = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+    assertEquals(0, wf.partition(noKey, 4));
+    for (int i = 0; i < 100; i++) {
+      AdaptrisMessage m1 = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+      m1.addMetadata(KEY, UUID.randomUUID().toString());
+      AdaptrisMessage m2 = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+      m2.addMetadata(KEY, m1.getMetadataValue(KEY));
+      int p = wf.partition(m1, 4);
+      assertTrue(p >= 0 && p < 4);
+      assertEquals(p, wf.partition(m2, 4));
+    }
+  }
+
+  public void testInit_NoPartitionKey() throws Exception {
+    MockChannel channel = createChannel(null);
+    try {
+      channel.requestInit();
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testSingleMessage() throws Exception {
+    MockChannel channel = createChannel(KEY);
+    PartitionedWorkflow wf = (PartitionedWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer prod = (MockMessageProducer) wf.getProducer();
+    try {
+      start(channel);
+      submitMessages(wf, 1, 1);
+      waitForMessages(prod, 1);
+      assertEquals(1, prod.getMessages().size());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testOrderingPerKey() throws Exception {
+    MockChannel channel = createChannel(KEY);
+    PartitionedWorkflow wf = (PartitionedWorkflow) channel.getWorkflowList().get(0);
+    wf.setPartitionQueueSize(2);
+    MockMessageProducer prod = (MockMessageProducer) wf.getProducer();
+    int count = 40;
+    try {
+      start(channel);
+      submitMessages(wf, count, 5);
+      waitForMessages(prod, count);
+      assertEquals(count, prod.getMessages().size());
+      Map<String, Integer> last = new HashMap<>();
+      for (AdaptrisMessage m : prod.getMessages()) {
+        int c = Integer.parseInt(m.getMetadataValue(COUNT));
+        Integer previous = last.put(m.getMetadataValue(KEY), c);
+        if (previous != null) {
+          assertTrue("Out of order for " + m.getMetadataValue(KEY), c > previous);
+        }
+      }
+      assertEquals(5, last.size());
+      assertEquals(0, wf.currentQueueDepth());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testHandleServiceException() throws Exception {
+    MockChannel channel = createChannel(KEY);
+    PartitionedWorkflow wf = (PartitionedWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer meh = new MockMessageProducer();
+    channel.setMessageErrorHandler(new StandardProcessingExceptionHandler(
+        new ServiceList(new ArrayList<Service>(Arrays.asList(new Service[]
+        {
+            new StandaloneProducer(meh)
+        })))));
+    wf.getServiceCollection().add(new ThrowExceptionService(new ConfiguredException("Fail")));
+    try {
+      start(channel);
+      submitMessages(wf, 1, 1);
+      waitForMessages(meh, 1);
+      assertEquals(1, meh.messageCount());
+      AdaptrisMessage m = meh.getMessages().get(0);
+      assertNotNull(m.getObjectHeaders().get(CoreConstants.OBJ_METADATA_EXCEPTION));
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testHandleProduceException() throws Exception {
+    MockChannel channel = createChannel(KEY);
+    PartitionedWorkflow wf = (PartitionedWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer meh = new MockMessageProducer();
+    wf.setProducer(new FailFirstMockMessageProducer(Integer.MAX_VALUE));
+    channel.setMessageErrorHandler(new StandardProcessingExceptionHandler(
+        new ServiceList(new ArrayList<Service>(Arrays.asList(new Service[]
+        {
+            new StandaloneProducer(meh)
+        })))));
+    try {
+      start(channel);
+      submitMessages(wf, 1, 1);
+      waitForMessages(meh, 1);
+      assertEquals(1, meh.messageCount());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testOnMessage_WhenStopped() throws Exception {
+    MockChannel channel = createChannel(KEY);
+    PartitionedWorkflow wf = (PartitionedWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer meh = new MockMessageProducer();
+    channel.setMessageErrorHandler(new StandardProcessingExceptionHandler(
+        new ServiceList(new ArrayList<Service>(Arrays.asList(new Service[]
+        {
+            new StandaloneProducer(meh)
+        })))));
+    try {
+      start(channel);
+      LifecycleHelper.stop(wf);
+      wf.onAdaptrisMessage(AdaptrisMessageFactory.getDefaultInstance().newMessage());
+      waitForMessages(meh, 1);
+      assertEquals(1, meh.messageCount());
+      assertEquals(0, ((MockMessageProducer) wf.getProducer()).messageCount());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testStop_WithQueuedMessages() throws Exception {
+    MockChannel channel = createChannel(KEY);
+    PartitionedWorkflow wf = (PartitionedWorkflow) channel.getWorkflowList().get(0);
+    wf.setPartitions(1);
+    wf.setShutdownWaitTime(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    wf.getServiceCollection().clear();
+    wf.getServiceCollection().add(new WaitService(new TimeInterval(1L, TimeUnit.SECONDS)));
+    CountingInterceptor interceptor = new CountingInterceptor();
+    wf.addInterceptor(interceptor);
+    try {
+      start(channel);
+      submitMessages(wf, 5, 1);
+      LifecycleHelper.stop(wf);
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+      while (interceptor.ended.get() < 5 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10L);
+      }
+      assertEquals(5, interceptor.started.get());
+      assertEquals(5, interceptor.ended.get());
+      assertEquals(0, wf.currentQueueDepth());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  private void submitMessages(PartitionedWorkflow wf, int number, int keys) throws Exception {
+    MockMessageConsumer m = (MockMessageConsumer) wf.getConsumer();
+    for (int i = 0; i < number; i++) {
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(String.valueOf(i));
+      msg.addMetadata(COUNT, String.valueOf(i));
+      msg.addMetadata(KEY, "order-" + (i % keys));
+      m.submitMessage(msg);
+    }
+  }
+
+  private MockChannel createChannel(String key) throws Exception {
+    MockChannel channel = new MockChannel();
+    PartitionedWorkflow wf = new PartitionedWorkflow();
+    wf.setPartitionKey(key);
+    wf.getServiceCollection().add(createService());
+    wf.setConsumer(new MockMessageConsumer());
+    wf.setProducer(new MockMessageProducer());
+    channel.getWorkflowList().add(wf);
+    channel.prepare();
+    return channel;
+  }
+
+  private Service createService() {
+    return new WaitService(new TimeInterval(5L, TimeUnit.MILLISECONDS));
+  }
+
+  @Override
+  protected Object retrieveObjectForSampleConfig() {
+    Channel c = new Channel();
+    try {
+      c.setUniqueId(UUID.randomUUID().toString());
+      PartitionedWorkflow wf = new PartitionedWorkflow();
+      wf.setUniqueId(UUID.randomUUID().toString());
+      wf.setPartitionKey("orderId");
+      wf.setPartitions(4);
+      wf.getServiceCollection().add(createService());
+      wf.setProducer(new NullMessageProducer());
+      wf.setConsumer(new NullMessageConsumer());
+      c.getWorkflowList().add(wf);
+    }
+    catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    return c;
+  }
+
+  @Override
+  protected String createBaseFileName(Object object) {
+    return PartitionedWorkflow.class.getName();
+  }
+
+  @Override
+  protected PartitionedWorkflow createWorkflowForGenericTests() throws CoreException {
+    return new PartitionedWorkflow();
+  }
+
+  private static class CountingInterceptor extends WorkflowInterceptorImpl {
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger ended = new AtomicInteger();
+
+    @Override
+    public void workflowStart(AdaptrisMessage inputMsg) {
+      started.incrementAndGet();
+    }
+
+    @Override
+    public void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
+      ended.incrementAndGet();
+    }
+
+    @Override
+    public void init() throws CoreException {
+    }
+
+    @Override
+    public void start() throws CoreException {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -34,6 +34,7 @@ import java.util.concurrent.TimeUnit;
 import com.adaptris.core.services.WaitService;
 import com.adaptris.core.services.exception.ConfiguredException;
 import com.adaptris.core.services.exception.ThrowExceptionService;
+import com.adaptris.core.stubs.FailFirstMockMessageProducer;
 import com.adaptris.core.stubs.MockChannel;
 import com.adaptris.core.stubs.MockMessageConsumer;
 import com.adaptris.core.stubs.MockMessageProducer;
@@ -128,6 +129,114 @@ public class PoolingWorkflowTest extends ExampleWorkflowCase {
 
   }
 
+  public void testSetPoolProducers() throws Exception {
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    assertNull(workflow.getPoolProducers());
+    assertFalse(workflow.poolProducers());
+    workflow.setPoolProducers(Boolean.TRUE);
+    assertEquals(Boolean.TRUE, workflow.getPoolProducers());
+    assertTrue(workflow.poolProducers());
+    workflow.setPoolProducers(null);
+    assertNull(workflow.getPoolProducers());
+    assertFalse(workflow.poolProducers());
+  }
+
+  public void testSetUseVirtualThreads() throws Exception {
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    assertNull(workflow.getUseVirtualThreads());
+    assertFalse(workflow.useVirtualThreads());
+    workflow.setUseVirtualThreads(Boolean.TRUE);
+    assertEquals(Boolean.TRUE, workflow.getUseVirtualThreads());
+    assertTrue(workflow.useVirtualThreads());
+    workflow.setUseVirtualThreads(null);
+    assertNull(workflow.getUseVirtualThreads());
+    assertFalse(workflow.useVirtualThreads());
+  }
+
+  public void testSetElasticPool() throws Exception {
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    assertNull(workflow.getElasticPool());
+    assertFalse(workflow.elasticPool());
+    workflow.setElasticPool(Boolean.TRUE);
+    assertEquals(Boolean.TRUE, workflow.getElasticPool());
+    assertTrue(workflow.elasticPool());
+    workflow.setElasticPool(null);
+    assertNull(workflow.getElasticPool());
+    assertFalse(workflow.elasticPool());
+  }
+
+  public void testResizePool() throws Exception {
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    assertEquals(0, workflow.currentActiveWorkers());
+    assertEquals(0, workflow.currentIdleWorkers());
+    assertEquals(0, workflow.meanBorrowWaitTimeMs());
+    assertEquals(0, workflow.maxBorrowWaitTimeMs());
+    assertEquals(0.0, workflow.poolUtilisation(), 0.0);
+    workflow.resizePool(20, 2, 5);
+    assertEquals(20, workflow.poolSize());
+    assertEquals(2, workflow.minIdle());
+    assertEquals(5, workflow.maxIdle());
+    try {
+      workflow.resizePool(5, 2, 10);
+      fail();
+    }
+    catch (IllegalArgumentException expected) {
+
+    }
+    try {
+      workflow.resizePool(5, 3, 2);
+      fail();
+    }
+    catch (IllegalArgumentException expected) {
+
+    }
+    assertEquals(20, workflow.poolSize());
+  }
+
+  public void testResizePool_WhileStarted() throws Exception {
+    MockChannel channel = createChannel();
+    PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer prod = (MockMessageProducer) wf.getProducer();
+    try {
+      start(channel);
+      wf.resizePool(5, 5, 5);
+      waitForIdle(wf, 5);
+      assertEquals(5, wf.currentIdleWorkers());
+      int count = 20;
+      submitMessages(wf, count);
+      waitForMessages(prod, count);
+      assertTrue(wf.currentObjectPoolCount() <= 5);
+      assertMessages(prod, count);
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testElasticPool() throws Exception {
+    MockChannel channel = createChannel();
+    PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
+    wf.setElasticPool(true);
+    wf.setMinIdle(1);
+    wf.setMaxIdle(wf.poolSize());
+    wf.setThreadKeepAlive(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    MockMessageProducer prod = (MockMessageProducer) wf.getProducer();
+    int count = wf.poolSize() * 2;
+    try {
+      start(channel);
+      submitMessages(wf, count);
+      waitForMessages(prod, count);
+      assertMessages(prod, count);
+      assertTrue(wf.maxBorrowWaitTimeMs() >= 0);
+      // Idle workers above min-idle are discarded by the evictor.
+      waitForIdle(wf, 1);
+      assertEquals(1, wf.currentObjectPoolCount());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
   public void testSetShutdownWaitTime() throws Exception {
     PoolingWorkflow workflow = new PoolingWorkflow();
     TimeInterval defaultInterval = new TimeInterval(60L, TimeUnit.SECONDS.name());
@@ -403,6 +512,69 @@ public class PoolingWorkflowTest extends ExampleWorkflowCase {
     }
   }
 
+  public void testPoolProducers() throws Exception {
+    MockChannel channel = createChannel();
+    PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
+    StaticMockMessageProducer prod = new StaticMockMessageProducer();
+    prod.getMessages().clear();
+    wf.setProducer(prod);
+    wf.setPoolProducers(true);
+    int count = wf.poolSize() * 2;
+    try {
+      start(channel);
+      submitMessages(wf, count);
+      waitForMessages(prod, count);
+      assertEquals(count, prod.messageCount());
+    }
+    finally {
+      stop(channel);
+      prod.getMessages().clear();
+    }
+  }
+
+  public void testUseVirtualThreads() throws Exception {
+    MockChannel channel = createChannel();
+    PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer prod = (MockMessageProducer) wf.getProducer();
+    wf.setUseVirtualThreads(true);
+    int count = wf.poolSize() * 2;
+    try {
+      start(channel);
+      submitMessages(wf, count);
+      waitForMessages(prod, count);
+      assertEquals(count, prod.messageCount());
+      assertTrue(wf.currentThreadPoolCount() <= wf.poolSize());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testPoolProducers_HandleProduceException() throws Exception {
+    MockChannel channel = createChannel();
+    PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
+    MockMessageProducer meh = new MockMessageProducer();
+    FailFirstMockMessageProducer prod = new FailFirstMockMessageProducer(Integer.MAX_VALUE);
+    wf.setProducer(prod);
+    wf.setPoolProducers(true);
+    channel.setMessageErrorHandler(new StandardProcessingExceptionHandler(
+        new ServiceList(new ArrayList<Service>(Arrays.asList(new Service[]
+        {
+            new StandaloneProducer(meh)
+        })))));
+    try {
+      start(channel);
+      submitMessages(wf, 1);
+      waitForMessages(meh, 1);
+      assertEquals(1, meh.messageCount());
+      // The configured producer is never used.
+      assertEquals(0, prod.messageCount());
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
   public void testRedmine1681() throws Exception {
     MockChannel channel = createChannel();
     PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
@@ -519,6 +691,13 @@ public class PoolingWorkflowTest extends ExampleWorkflowCase {
     }
   }
 
+  private void waitForIdle(PoolingWorkflow wf, int expected) throws Exception {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (wf.currentObjectPoolCount() != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(100);
+    }
+  }
+
   private void assertMessages(MockMessageProducer producer, int count) {
     assertEquals("Make sure all produced", count, producer.getMessages().size());
     List<AdaptrisMessage> list = producer.getMessages();
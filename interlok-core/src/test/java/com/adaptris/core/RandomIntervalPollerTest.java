@@ -69,4 +69,33 @@ public class RandomIntervalPollerTest extends BaseCase {
       channel.requestClose();
     }
   }
+
+  public void testLifecycle_SharedScheduler() throws Exception {
+    PollingTrigger consumer = new PollingTrigger();
+    RandomIntervalPoller poller = new RandomIntervalPoller(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    poller.setUseSharedScheduler(true);
+    consumer.setPoller(poller);
+    MockMessageProducer producer = new MockMessageProducer();
+
+    MockChannel channel = new MockChannel();
+    StandardWorkflow workflow = new StandardWorkflow();
+    workflow.setConsumer(consumer);
+    workflow.setProducer(producer);
+    channel.getWorkflowList().add(workflow);
+    try {
+      channel.requestClose();
+      channel.requestStart();
+      waitForMessages(producer, 1);
+
+      channel.requestStop();
+      producer.getMessages().clear();
+
+      channel.requestStart();
+      waitForMessages(producer, 1);
+      assertTrue(poller.metrics().getPollCount() > 0);
+    }
+    finally {
+      channel.requestClose();
+    }
+  }
 }
@@ -16,6 +16,7 @@
 
 package com.adaptris.core;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -32,6 +33,7 @@ import com.adaptris.core.stubs.MockChannel;
 import com.adaptris.core.stubs.MockConnection;
 import com.adaptris.core.stubs.MockMessageConsumer;
 import com.adaptris.core.stubs.MockMessageProducer;
+import com.adaptris.core.stubs.TempFileUtils;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.ManagedThreadFactory;
 import com.adaptris.util.SimpleIdGenerator;
@@ -241,6 +243,181 @@ public class RetryMessageErrorHandlerTest extends ExampleErrorHandlerCase {
 
   }
 
+  public void testNextRetryDelay() throws Exception {
+    RetryMessageErrorHandler meh = new RetryMessageErrorHandler();
+    meh.setRetryInterval(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    meh.setMaxRetryInterval(new TimeInterval(1L, TimeUnit.SECONDS));
+    assertNull(meh.getExponentialBackoff());
+    assertFalse(meh.exponentialBackoff());
+    assertEquals(100, meh.nextRetryDelay(5));
+    meh.setExponentialBackoff(true);
+    assertEquals(Boolean.TRUE, meh.getExponentialBackoff());
+    for (int i = 0; i < 20; i++) {
+      assertRange(50, 100, meh.nextRetryDelay(0));
+      assertRange(200, 400, meh.nextRetryDelay(2));
+      assertRange(500, 1000, meh.nextRetryDelay(10));
+      assertRange(500, 1000, meh.nextRetryDelay(Integer.MAX_VALUE));
+    }
+    meh.setRetryInterval(new TimeInterval(1000L, TimeUnit.DAYS));
+    meh.setMaxRetryInterval(null);
+    assertRange(meh.maxRetryIntervalMs() / 2, meh.maxRetryIntervalMs(), meh.nextRetryDelay(40));
+  }
+
+  public void testSetRetryThreads() throws Exception {
+    RetryMessageErrorHandler meh = new RetryMessageErrorHandler();
+    assertNull(meh.getRetryThreads());
+    assertEquals(1, meh.retryThreads());
+    meh.setRetryThreads(4);
+    assertEquals(Integer.valueOf(4), meh.getRetryThreads());
+    assertEquals(4, meh.retryThreads());
+    meh.setRetryThreads(-1);
+    assertEquals(1, meh.retryThreads());
+  }
+
+  public void testSetRetryStore() throws Exception {
+    RetryMessageErrorHandler meh = new RetryMessageErrorHandler();
+    assertNull(meh.getRetryStore());
+    assertEquals(InMemoryRetryMessageStore.class, meh.retryStore().getClass());
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore("/tmp");
+    meh.setRetryStore(store);
+    assertEquals(store, meh.getRetryStore());
+    assertEquals(store, meh.retryStore());
+  }
+
+  public void testMaxPendingRetries() throws Exception {
+    MockMessageProducer failProducer = new MockMessageProducer();
+    RetryMessageErrorHandler meh = createMessageErrorHandler(failProducer);
+    meh.setRetryInterval(new TimeInterval(1L, TimeUnit.HOURS));
+    assertNull(meh.getMaxPendingRetries());
+    meh.setMaxPendingRetries(1);
+    assertEquals(Integer.valueOf(1), meh.getMaxPendingRetries());
+    try {
+      LifecycleHelper.initAndStart(meh);
+      AdaptrisMessage m1 = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+      meh.handleProcessingException(m1);
+      meh.handleProcessingException(AdaptrisMessageFactory.getDefaultInstance().newMessage());
+      assertEquals(1, failProducer.messageCount());
+      assertEquals(1, meh.waitingForRetry().size());
+      assertTrue(meh.waitingForRetry().contains(m1.getUniqueId()));
+    }
+    finally {
+      LifecycleHelper.stopAndClose(meh);
+    }
+    assertEquals(2, failProducer.messageCount());
+  }
+
+  public void testFilesystemStore_RetryWithSuccess() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    MockMessageProducer failProducer = new MockMessageProducer();
+    RetryMessageErrorHandler meh = createMessageErrorHandler(failProducer);
+    meh.setRetryInterval(DEFAULT_RETRY_INTERVAL);
+    meh.setRetryLimit(2);
+    meh.setRetryThreads(2);
+    meh.setRetryStore(new FilesystemRetryMessageStore(dir.getCanonicalPath()));
+    FailFirstMockMessageProducer workflowProducer = new FailFirstMockMessageProducer(1);
+    StandardWorkflow workflow = createWorkflow(workflowProducer);
+    workflow.setServiceCollection(new ServiceList());
+    Channel channel = createChannel(workflow, meh);
+    try {
+      start(channel);
+      workflow.onAdaptrisMessage(AdaptrisMessageFactory.getDefaultInstance().newMessage("XXXX"));
+      waitForMessages(workflowProducer, 1);
+      assertEquals(1, workflowProducer.getMessages().size());
+      assertEquals("XXXX", workflowProducer.getMessages().get(0).getContent());
+      assertEquals(0, failProducer.getMessages().size());
+      assertEquals(0, waitForEmpty(meh.retryStore()));
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testFilesystemStore_FailedMessageHasPayload() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    MockMessageProducer failProducer = new MockMessageProducer();
+    RetryMessageErrorHandler meh = createMessageErrorHandler(failProducer);
+    meh.setRetryInterval(DEFAULT_RETRY_INTERVAL);
+    meh.setRetryLimit(1);
+    meh.setRetryStore(new FilesystemRetryMessageStore(dir.getCanonicalPath()));
+    StandardWorkflow workflow = createWorkflow(new MockMessageProducer());
+    Channel channel = createChannel(workflow, meh);
+    try {
+      start(channel);
+      workflow.onAdaptrisMessage(AdaptrisMessageFactory.getDefaultInstance().newMessage("XXXX"));
+      waitForMessages(failProducer, 1);
+      assertEquals(1, failProducer.getMessages().size());
+      assertEquals("XXXX", failProducer.getMessages().get(0).getContent());
+      assertEquals(0, waitForEmpty(meh.retryStore()));
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testFilesystemStore_PoolingWorkflow() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    MockMessageProducer failProducer = new MockMessageProducer();
+    RetryMessageErrorHandler meh = createMessageErrorHandler(failProducer);
+    meh.setRetryInterval(DEFAULT_RETRY_INTERVAL);
+    meh.setRetryLimit(3);
+    meh.setRetryStore(new FilesystemRetryMessageStore(dir.getCanonicalPath()));
+    FailFirstMockMessageProducer workflowProducer = new FailFirstMockMessageProducer(2);
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    workflow.setConsumer(new MockMessageConsumer());
+    workflow.setProducer(workflowProducer);
+    Channel channel = createChannel(workflow, meh);
+    try {
+      start(channel);
+      workflow.onAdaptrisMessage(AdaptrisMessageFactory.getDefaultInstance().newMessage("XXXX"));
+      waitForMessages(workflowProducer, 1);
+      assertEquals(1, workflowProducer.getMessages().size());
+      assertEquals("XXXX", workflowProducer.getMessages().get(0).getContent());
+      assertEquals(0, failProducer.getMessages().size());
+      assertEquals(0, waitForEmpty(meh.retryStore()));
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
+  public void testFilesystemStore_SurvivesRestart() throws Exception {
+    File dir = TempFileUtils.createTrackedDir(this);
+    FilesystemRetryMessageStore store = new FilesystemRetryMessageStore(dir.getCanonicalPath());
+    MockMessageProducer failProducer = new MockMessageProducer();
+    RetryMessageErrorHandler meh = createMessageErrorHandler(failProducer);
+    meh.setRetryInterval(DEFAULT_RETRY_INTERVAL);
+    meh.setRetryStore(store);
+    MockMessageProducer workflowProducer = new MockMessageProducer();
+    StandardWorkflow workflow = createWorkflow(workflowProducer);
+    workflow.setServiceCollection(new ServiceList());
+    Channel channel = createChannel(workflow, meh);
+    try {
+      start(channel);
+      // Stopping the error handler should leave the message in the store, rather than failing it.
+      meh.setRetryInterval(new TimeInterval(1L, TimeUnit.HOURS));
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("XXXX");
+      msg.addMetadata(Workflow.WORKFLOW_ID_KEY, workflow.obtainWorkflowId());
+      meh.handleProcessingException(msg);
+      assertEquals(1, meh.waitingForRetry().size());
+      LifecycleHelper.stop(meh);
+      assertEquals(0, failProducer.messageCount());
+      assertEquals(1, store.pending().size());
+      // ... and starting it again should retry it.
+      meh.setRetryInterval(DEFAULT_RETRY_INTERVAL);
+      store.write(store.read(msg.getUniqueId()), System.currentTimeMillis());
+      LifecycleHelper.start(meh);
+      assertEquals(1, meh.waitingForRetry().size());
+      waitForMessages(workflowProducer, 1);
+      assertEquals(1, workflowProducer.messageCount());
+      assertEquals(msg.getUniqueId(), workflowProducer.getMessages().get(0).getUniqueId());
+      assertEquals(0, failProducer.messageCount());
+      assertEquals(0, waitForEmpty(store));
+    }
+    finally {
+      stop(channel);
+    }
+  }
+
   public void testRetryLimit2() throws Exception {
     String name = renameThread("testRetryLimit2");
     try {
@@ -496,6 +673,18 @@ public class RetryMessageErrorHandlerTest extends ExampleErrorHandlerCase {
     return RetryMessageErrorHandler.class.getCanonicalName();
   }
 
+  private static int waitForEmpty(RetryMessageStore store) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (store.pending().size() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    return store.pending().size();
+  }
+
+  private static void assertRange(long min, long max, long actual) {
+    assertTrue("Expected " + actual + " to be in range " + min + "-" + max, actual >= min && actual <= max);
+  }
+
   private class FailingService extends ServiceImp {
 
     private int callCount;
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedPollingSchedulerTest extends BaseCase {
+
+  public SharedPollingSchedulerTest(String name) {
+    super(name);
+  }
+
+  public void testWorkerThreads() throws Exception {
+    assertTrue(SharedPollingScheduler.getInstance().workerThreads() >= 4);
+    assertEquals(1, new SharedPollingScheduler(-1).workerThreads());
+    assertEquals(2, new SharedPollingScheduler(2).workerThreads());
+  }
+
+  public void testScheduleWithFixedDelay() throws Exception {
+    PollerMetrics metrics = new PollerMetrics();
+    ScheduledExecutorService executor = SharedPollingScheduler.getInstance().newExecutor(metrics);
+    CountDownLatch latch = new CountDownLatch(3);
+    executor.scheduleWithFixedDelay(() -> latch.countDown(), 0, 10, TimeUnit.MILLISECONDS);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(executor.isShutdown());
+    assertTrue(executor.isTerminated());
+  }
+
+  public void testSchedule_Cancel() throws Exception {
+    ScheduledExecutorService executor = SharedPollingScheduler.getInstance().newExecutor(new PollerMetrics());
+    AtomicInteger count = new AtomicInteger();
+    ScheduledFuture<?> future = executor.schedule(() -> count.incrementAndGet(), 100, TimeUnit.MILLISECONDS);
+    assertTrue(future.getDelay(TimeUnit.MILLISECONDS) > 0);
+    future.cancel(true);
+    Thread.sleep(200);
+    assertTrue(future.isCancelled());
+    assertEquals(0, count.get());
+    executor.shutdown();
+    assertTrue(executor.isTerminated());
+  }
+
+  public void testShutdown_WaitsForRunningTask() throws Exception {
+    ScheduledExecutorService executor = SharedPollingScheduler.getInstance().newExecutor(new PollerMetrics());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.schedule(() -> {
+      started.countDown();
+      try {
+        release.await();
+      }
+      catch (InterruptedException e) {
+      }
+    }, 0, TimeUnit.MILLISECONDS);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertFalse(executor.isTerminated());
+    assertFalse(executor.awaitTermination(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  public void testShutdown_Rejects() throws Exception {
+    ScheduledExecutorService executor = SharedPollingScheduler.getInstance().newExecutor(new PollerMetrics());
+    executor.shutdownNow();
+    try {
+      executor.schedule(() -> {
+      }, 0, TimeUnit.MILLISECONDS);
+      fail();
+    }
+    catch (RejectedExecutionException expected) {
+
+    }
+  }
+
+  public void testShutdown_OnlyAffectsView() throws Exception {
+    ScheduledExecutorService e1 = SharedPollingScheduler.getInstance().newExecutor(new PollerMetrics());
+    ScheduledExecutorService e2 = SharedPollingScheduler.getInstance().newExecutor(new PollerMetrics());
+    CountDownLatch latch = new CountDownLatch(3);
+    e2.scheduleWithFixedDelay(() -> latch.countDown(), 0, 10, TimeUnit.MILLISECONDS);
+    e1.shutdownNow();
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertFalse(e2.isShutdown());
+    e2.shutdownNow();
+  }
+
+  public void testQueueDepth() throws Exception {
+    SharedPollingScheduler scheduler = new SharedPollingScheduler(1);
+    ScheduledExecutorService slow = scheduler.newExecutor(new PollerMetrics());
+    PollerMetrics metrics = new PollerMetrics();
+    ScheduledExecutorService fast = scheduler.newExecutor(metrics);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    slow.schedule(() -> {
+      started.countDown();
+      try {
+        release.await();
+      }
+      catch (InterruptedException e) {
+      }
+    }, 0, TimeUnit.MILLISECONDS);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CountDownLatch ran = new CountDownLatch(2);
+    fast.schedule(() -> ran.countDown(), 0, TimeUnit.MILLISECONDS);
+    fast.schedule(() -> ran.countDown(), 0, TimeUnit.MILLISECONDS);
+    long deadline = System.currentTimeMillis() + 5000;
+    while (scheduler.queueDepth() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // The only worker thread is busy, so the fast polls have to wait.
+    assertEquals(2, scheduler.queueDepth());
+    assertEquals(1, metrics.getMaxQueueDepth());
+    release.countDown();
+    assertTrue(ran.await(5, TimeUnit.SECONDS));
+    assertEquals(0, scheduler.queueDepth());
+    slow.shutdown();
+    fast.shutdown();
+  }
+
+  public void testMetrics() throws Exception {
+    PollerMetrics metrics = new PollerMetrics();
+    metrics.recordLag(-1);
+    assertEquals(0, metrics.getLastLag());
+    metrics.recordLag(10);
+    metrics.recordLag(5);
+    assertEquals(5, metrics.getLastLag());
+    assertEquals(10, metrics.getMaxLag());
+    metrics.recordPoll(10);
+    metrics.recordPoll(20);
+    metrics.recordSkipped();
+    metrics.recordQueueDepth(3);
+    metrics.recordQueueDepth(1);
+    assertEquals(1, metrics.getLastQueueDepth());
+    assertEquals(3, metrics.getMaxQueueDepth());
+    assertEquals(2, metrics.getPollCount());
+    assertEquals(1, metrics.getSkippedCount());
+    assertEquals(20, metrics.getLastDuration());
+    assertEquals(20, metrics.getMaxDuration());
+    assertEquals(15, metrics.getAverageDuration());
+    assertNotNull(metrics.toString());
+  }
+}
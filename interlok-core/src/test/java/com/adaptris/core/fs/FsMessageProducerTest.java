@@ -34,6 +34,8 @@ import com.adaptris.core.ProduceDestination;
 import com.adaptris.core.ProduceException;
 import com.adaptris.core.ServiceCase;
 import com.adaptris.core.StandaloneProducer;
+import com.adaptris.core.lms.FileBackedMessage;
+import com.adaptris.core.lms.HybridMessageFactory;
 import com.adaptris.fs.AppendingFsWorker;
 import com.adaptris.fs.FsWorker;
 import com.adaptris.fs.NioWorker;
@@ -260,6 +262,25 @@ public class FsMessageProducerTest extends FsProducerExample {
     }
   }
 
+  public void testProduce_InMemoryHybridMessage() throws Exception {
+    String subdir = new GuidGenerator().safeUUID();
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File dir = new File(parentDir, subdir);
+      StandaloneProducer sp = new StandaloneProducer(createProducer(subdir));
+      FileBackedMessage msg = (FileBackedMessage) new HybridMessageFactory().newMessage(TEXT);
+      assertFalse(msg.isFileResident());
+      ServiceCase.execute(sp, msg);
+      assertEquals(1, dir.listFiles().length);
+      assertEquals(TEXT, FileUtils.readFileToString(dir.listFiles()[0]));
+      // Producing the message shouldn't have written the payload to a temporary file.
+      assertFalse(msg.isFileResident());
+    }
+    finally {
+      FileUtils.deleteQuietly(new File(parentDir, subdir));
+    }
+  }
+
   public void testProduceWithNoCreateDir() throws Exception {
     String subdir = new GuidGenerator().safeUUID();
     FsProducer fs = createProducer(subdir);
@@ -22,12 +22,17 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Matchers.matches;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.FileFilter;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.mockito.Mock;
@@ -40,11 +45,13 @@ import com.adaptris.core.ConfiguredConsumeDestination;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.FixedIntervalPoller;
 import com.adaptris.core.StandaloneConsumer;
+import com.adaptris.core.fs.enhanced.SizeDescending;
 import com.adaptris.core.stubs.MockEncoder;
 import com.adaptris.core.stubs.MockMessageListener;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.filetransfer.FileTransferClient;
 import com.adaptris.filetransfer.FileTransferException;
+import com.adaptris.filetransfer.RemoteFile;
 import com.adaptris.util.TimeInterval;
 
 @SuppressWarnings("deprecation")
@@ -203,6 +210,76 @@ public class RelaxedFtpConsumerTest extends RelaxedFtpConsumerCase {
     assertEquals(0, messageListener.getMessages().size());
   }
   
+  public void testSingleFileConsumeNotOldEnough_FromListing() throws Exception {
+    this.setFilesToConsume(
+        new String[] { "/MySingleFile.txt" }, 
+        new String[] { "My file payload" },
+        new long[] { calendarOneYearAgo.getTimeInMillis() }
+    );
+    when(mockFileTransferClient.listFiles(matches(DIR_ROOT), (FileFilter) anyObject())).thenReturn(Arrays.asList(
+        new RemoteFile("/MySingleFile.txt", 10, calendarNow.getTimeInMillis() + 100000, false)));
+    consumer.setQuietInterval(new TimeInterval(1L, TimeUnit.MILLISECONDS));
+    
+    LifecycleHelper.init(consumer);
+    LifecycleHelper.start(consumer);
+    
+    this.waitForConsumer(1, 1000);
+    
+    assertEquals(0, messageListener.getMessages().size());
+    verify(mockFileTransferClient, never()).lastModified(anyString());
+  }
+
+  public void testMultipleFileConsume_SubclassOverridesAccept() throws Exception {
+    this.setFilesToConsume(
+        new String[] { "/file1", "/file2.tmp" },
+        new String[] { "file1 payload", "file2 payload" },
+        new long[] { calendarOneYearAgo.getTimeInMillis(), calendarOneYearAgo.getTimeInMillis() }
+    );
+    consumer = new RelaxedFtpConsumer() {
+      @Override
+      protected boolean accept(String path) throws Exception {
+        return !path.endsWith(".tmp") && super.accept(path);
+      }
+    };
+    consumer.setDestination(consumeDestination);
+    consumer.registerConnection(mockFtpConnection);
+    consumer.setPoller(new FixedIntervalPoller(new TimeInterval(1L, TimeUnit.SECONDS)));
+    consumer.registerAdaptrisMessageListener(messageListener);
+
+    LifecycleHelper.init(consumer);
+    LifecycleHelper.start(consumer);
+
+    this.waitForConsumer(2, 3000);
+
+    assertEquals(1, messageListener.getMessages().size());
+    assertEquals("file1 payload", messageListener.getMessages().get(0).getContent());
+  }
+
+  public void testMultipleFileConsume_SortedFromListing() throws Exception {
+    this.setFilesToConsume(
+        new String[] { "/file1", "/file2", "/directory" }, 
+        new String[] { "small", "larger payload", "" },
+        new long[] { calendarOneYearAgo.getTimeInMillis(), calendarOneYearAgo.getTimeInMillis(),
+            calendarOneYearAgo.getTimeInMillis() }
+    );
+    when(mockFileTransferClient.listFiles(matches(DIR_ROOT), (FileFilter) anyObject())).thenReturn(Arrays.asList(
+        new RemoteFile("/file1", 5, calendarOneYearAgo.getTimeInMillis(), false),
+        new RemoteFile("/file2", 14, calendarOneYearAgo.getTimeInMillis(), false),
+        new RemoteFile("/directory", 4096, calendarOneYearAgo.getTimeInMillis(), true)));
+    consumer.setFileSorter(new SizeDescending());
+    consumer.setQuietInterval(new TimeInterval(1L, TimeUnit.MILLISECONDS));
+
+    LifecycleHelper.init(consumer);
+    LifecycleHelper.start(consumer);
+
+    this.waitForConsumer(2, 3000);
+
+    assertEquals(2, messageListener.getMessages().size());
+    assertEquals("larger payload", messageListener.getMessages().get(0).getContent());
+    assertEquals("small", messageListener.getMessages().get(1).getContent());
+    verify(mockFileTransferClient, never()).lastModified(anyString());
+  }
+
   public void testSingleFileConsumeDeleteFails() throws Exception {
     this.setFilesToConsume(
         new String[] { "/MySingleFile.txt" }, 
@@ -264,6 +341,8 @@ public class RelaxedFtpConsumerTest extends RelaxedFtpConsumerCase {
     when(mockFileTransferClient.dir(DIR_ROOT)).thenThrow(new FileTransferException("testDirFailsIncorrectPathConsume"));
     when(mockFileTransferClient.dir(eq(DIR_ROOT), isA(FileFilter.class)))
         .thenThrow(new FileTransferException("testDirFailsIncorrectPathConsume"));
+    when(mockFileTransferClient.listFiles(eq(DIR_ROOT), isA(FileFilter.class)))
+        .thenThrow(new FileTransferException("testDirFailsIncorrectPathConsume"));
     
     LifecycleHelper.init(consumer);
     LifecycleHelper.start(consumer);
@@ -316,6 +395,11 @@ public class RelaxedFtpConsumerTest extends RelaxedFtpConsumerCase {
       throws Exception {
     when(mockFileTransferClient.dir(DIR_ROOT)).thenReturn(fileNames);
     when(mockFileTransferClient.dir(matches(DIR_ROOT), (FileFilter) anyObject())).thenReturn(fileNames);
+    List<RemoteFile> remoteFiles = new ArrayList<>();
+    for (String name : fileNames) {
+      remoteFiles.add(new RemoteFile(name));
+    }
+    when(mockFileTransferClient.listFiles(matches(DIR_ROOT), (FileFilter) anyObject())).thenReturn(remoteFiles);
     for (int i = 0; i < fileNames.length; i++) {
       final int count = i;
       when(mockFileTransferClient.get("/" + fileNames[count])).thenReturn(filePayloads[count].getBytes());
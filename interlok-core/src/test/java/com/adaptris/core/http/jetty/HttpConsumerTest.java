@@ -169,6 +169,24 @@ public class HttpConsumerTest extends HttpConsumerExample {
 
   }
 
+  public void testConnection_QueuedThreadPool() throws Exception {
+    HttpConnection connection = createConnection(null);
+    connection.setThreadPool(new QueuedThreadPoolFactory(4, 32, 100));
+    connection.setAcceptors(1);
+    connection.setSelectors(2);
+    connection.setByteBufferPool(new ArrayByteBufferPoolFactory());
+    connection.setIdleTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    assertConsume(connection);
+  }
+
+  public void testConnection_VirtualThreadPool() throws Exception {
+    HttpConnection connection = createConnection(null);
+    connection.setThreadPool(new VirtualThreadPoolFactory(64));
+    connection.setAcceptors(1);
+    connection.setSelectors(1);
+    assertConsume(connection);
+  }
+
   public void testChannelStarted_WorkflowStopped() throws Exception {
     HttpConnection connection = createConnection(null);
     JettyMessageConsumer consumer1 = JettyHelper.createConsumer(URL_TO_POST_TO);
@@ -1122,6 +1140,25 @@ public class HttpConsumerTest extends HttpConsumerExample {
     return http;
   }
 
+  private void assertConsume(HttpConnection connection) throws Exception {
+    MockMessageProducer mockProducer = new MockMessageProducer();
+    Channel channel = JettyHelper.createChannel(connection, JettyHelper.createConsumer(URL_TO_POST_TO), mockProducer);
+    try {
+      channel.requestStart();
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_PAYLOAD);
+      start(httpProducer);
+      AdaptrisMessage reply = httpProducer.request(msg, createProduceDestination(connection.getPort()));
+      assertEquals("Reply Payloads", XML_PAYLOAD, reply.getContent());
+      doAssertions(mockProducer);
+      assertNotNull(connection.serverThreadPool());
+    }
+    finally {
+      stop(httpProducer);
+      channel.requestClose();
+      PortManager.release(connection.getPort());
+    }
+  }
+
   protected ConfiguredProduceDestination createProduceDestination(int port) {
     ConfiguredProduceDestination d = new ConfiguredProduceDestination("http://localhost:" + port + URL_TO_POST_TO);
     return d;
@@ -19,6 +19,7 @@ package com.adaptris.core.http.jetty;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
@@ -96,6 +97,181 @@ public class JettyRoutingServiceTest extends BranchingServiceExample {
     assertFalse(msg.headersContainsKey("recId"));
   }
 
+  public void testMatchedRoute_ParameterSegments() throws Exception {
+    List<JettyRouteSpec> routes = new ArrayList<>();
+    routes.add(new JettyRouteSpec("^/api/users/me$", "GET", new ArrayList<String>(), "handleMe"));
+    routes.add(new JettyRouteSpec("^/api/users/([^/]+)$", "GET", Arrays.asList("userId"), "handleUser"));
+    routes.add(new JettyRouteSpec("^/api/users/([^/]+)/orders/(\\d+)$", "get", Arrays.asList("userId", "orderId"),
+        "handleOrder"));
+    JettyRouteSpec catchAll = new JettyRouteSpec("^/api/(.*)$", null, Arrays.asList("path"), "handleOther");
+    routes.add(catchAll);
+    JettyRoutingService service = new JettyRoutingService("NotHandled", routes);
+    AdaptrisMessage msg = createMessage("GET", "/api/users/me");
+    execute(service, msg);
+    assertEquals("handleMe", msg.getNextServiceId());
+
+    msg = createMessage("GET", "/api/users/zeus");
+    execute(service, msg);
+    assertEquals("handleUser", msg.getNextServiceId());
+    assertEquals("zeus", msg.getMetadataValue("userId"));
+
+    msg = createMessage("GET", "/api/users/zeus/orders/1234");
+    execute(service, msg);
+    assertEquals("handleOrder", msg.getNextServiceId());
+    assertEquals("zeus", msg.getMetadataValue("userId"));
+    assertEquals("1234", msg.getMetadataValue("orderId"));
+
+    msg = createMessage("GET", "/api/users/zeus/orders/apollo");
+    execute(service, msg);
+    assertEquals("handleOther", msg.getNextServiceId());
+    assertEquals("users/zeus/orders/apollo", msg.getMetadataValue("path"));
+
+    msg = createMessage("POST", "/api/users/zeus");
+    execute(service, msg);
+    assertEquals("handleOther", msg.getNextServiceId());
+
+    msg = createMessage("POST", "/records");
+    execute(service, msg);
+    assertEquals("NotHandled", msg.getNextServiceId());
+  }
+
+  public void testMatchedRoute_FirstMatchWins() throws Exception {
+    List<JettyRouteSpec> routes = new ArrayList<>();
+    routes.add(new JettyRouteSpec("^/api/(v1|v2)/users/(.*)$", null, Arrays.asList("version", "userId"), "handleRegex"));
+    routes.add(new JettyRouteSpec("^/api/v1/users/([^/]+)$", null, Arrays.asList("userId"), "handleUser"));
+    JettyRoutingService service = new JettyRoutingService("NotHandled", routes);
+    AdaptrisMessage msg = createMessage("GET", "/api/v1/users/zeus");
+    execute(service, msg);
+    assertEquals("handleRegex", msg.getNextServiceId());
+    assertEquals("v1", msg.getMetadataValue("version"));
+    assertEquals("zeus", msg.getMetadataValue("userId"));
+  }
+
+  public void testSetRoutes_AfterInit() throws Exception {
+    JettyRoutingService service = new JettyRoutingService("NotHandled", createRoutes());
+    try {
+      LifecycleHelper.initAndStart(service);
+      AdaptrisMessage msg = createMessage("GET", "/records");
+      service.doService(msg);
+      assertEquals("NotHandled", msg.getNextServiceId());
+      service.setRoutes(new ArrayList<>(Arrays.asList(new JettyRouteSpec("^/records$", null, new ArrayList<String>(), "listAll"))));
+      msg = createMessage("GET", "/records");
+      service.doService(msg);
+      assertEquals("listAll", msg.getNextServiceId());
+    }
+    finally {
+      LifecycleHelper.stopAndClose(service);
+    }
+  }
+
+  public void testRouteIndex_Parsing() throws Exception {
+    assertEquals(Arrays.asList("", "record", "([^/]+)", "json"), JettyRouteIndex.segments("^/record/([^/]+)/json$"));
+    assertEquals(Arrays.asList("", "record(/.*)?"), JettyRouteIndex.segments("/record(/.*)?"));
+    assertEquals(Arrays.asList("", "[a/b]"), JettyRouteIndex.segments("/[a/b]"));
+    assertNull(JettyRouteIndex.segments("/a|/b"));
+    assertNull(JettyRouteIndex.segments("/(a"));
+    assertEquals("a.b", JettyRouteIndex.literal("a\\.b"));
+    assertEquals("user-id_1", JettyRouteIndex.literal("user-id_1"));
+    assertNull(JettyRouteIndex.literal("a.b"));
+    assertNull(JettyRouteIndex.literal("\\d"));
+    assertNull(JettyRouteIndex.literal("a\\/b"));
+    assertNull(JettyRouteIndex.literal("records?"));
+    assertEquals("[^/]+", JettyRouteIndex.paramRegex("([^/]+)"));
+    assertEquals("[^/]*?", JettyRouteIndex.paramRegex("([^/]*?)"));
+    assertEquals("\\d+", JettyRouteIndex.paramRegex("(\\d+)"));
+    assertEquals("[a-z0-9]+", JettyRouteIndex.paramRegex("([a-z0-9]+)"));
+    assertEquals("[a-z0-]+", JettyRouteIndex.paramRegex("([a-z0-]+)"));
+    assertNull(JettyRouteIndex.paramRegex("([\\W]+)"));
+    assertNull(JettyRouteIndex.paramRegex("([\\S]+)"));
+    assertNull(JettyRouteIndex.paramRegex("([\\D]+)"));
+    assertNull(JettyRouteIndex.paramRegex("([\\w-]+)"));
+    assertNull(JettyRouteIndex.paramRegex("([ -0]+)"));
+    assertNull(JettyRouteIndex.paramRegex("([a!-/]+)"));
+    assertNull(JettyRouteIndex.paramRegex("(.*)"));
+    assertNull(JettyRouteIndex.paramRegex("([^/]{2})"));
+    assertNull(JettyRouteIndex.paramRegex("([^a]+)"));
+    assertNull(JettyRouteIndex.paramRegex("(?:[^/]+)"));
+    assertNull(JettyRouteIndex.paramRegex("[^/]+"));
+  }
+
+  public void testRouteIndex_SameAsRegex() throws Exception {
+    List<JettyRouteSpec> routes = createMixedRoutes();
+    JettyRouteIndex index = new JettyRouteIndex(routes);
+    String[] methods =
+    {
+        null, "GET", "post", "DELETE"
+    };
+    String[] uris =
+    {
+        "/record/1234", "/record/1234/json", "/records", "/api/v1/users/zeus", "/api/v1/users/", "/api/v1/users/me",
+        "/api/v1/users/zeus/orders/1234", "/api/v1/users/zeus/orders/apollo", "/api/v1", "/api/v1/", "/api/v2/a-b_c",
+        "/api/v2/a.b", "/files/a/b/c", "/a.b/abc", "/axb/abc", "/foo/x", "/baz/x", "/api/v3/!/!", "/api/v4/ /", "", "/",
+        "//"
+    };
+    for (String method : methods) {
+      for (String uri : uris) {
+        AdaptrisMessage expected = createMessage(method, uri);
+        AdaptrisMessage actual = createMessage(method, uri);
+        expected.setNextServiceId("NotHandled");
+        actual.setNextServiceId("NotHandled");
+        for (JettyRouteSpec route : routes) {
+          JettyRouteSpec.RouteMatch m = route.build(method, uri);
+          if (m.matches()) {
+            m.apply(expected);
+            break;
+          }
+        }
+        JettyRouteSpec.RouteMatch m = index.match(method, uri);
+        if (m != null) {
+          m.apply(actual);
+        }
+        assertEquals(method + " " + uri, expected.getNextServiceId(), actual.getNextServiceId());
+        assertEquals(method + " " + uri, expected.getMessageHeaders(), actual.getMessageHeaders());
+      }
+    }
+  }
+
+  public void testRoutingBenchmark() throws Exception {
+    List<JettyRouteSpec> routes = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      routes.add(new JettyRouteSpec("^/api/resource" + i + "$", "GET", new ArrayList<String>(), "list" + i));
+      routes.add(new JettyRouteSpec("^/api/resource" + i + "/([^/]+)$", "GET", Arrays.asList("id"), "get" + i));
+      routes.add(new JettyRouteSpec("^/api/resource" + i + "/([^/]+)$", "PUT", Arrays.asList("id"), "update" + i));
+    }
+    routes.add(new JettyRouteSpec("^/static/(.*)$", "GET", Arrays.asList("path"), "static"));
+    JettyRoutingService service = new JettyRoutingService("NotHandled", routes);
+    String[] uris = new String[1000];
+    for (int i = 0; i < uris.length; i++) {
+      uris[i] = i % 10 == 0 ? "/static/css/site" + i + ".css" : "/api/resource" + i % 100 + "/" + i;
+    }
+    JettyRouteIndex index = new JettyRouteIndex(routes);
+    int iterations = 20;
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      for (String uri : uris) {
+        for (JettyRouteSpec route : routes) {
+          if (route.build("GET", uri).matches()) {
+            break;
+          }
+        }
+      }
+    }
+    long linear = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      for (String uri : uris) {
+        assertNotNull(index.match("GET", uri));
+      }
+    }
+    long indexed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    log.info(String.format("%d routes, %d lookups: regex %d ms; trie %d ms", routes.size(), uris.length * iterations, linear,
+        indexed));
+    AdaptrisMessage msg = createMessage("PUT", "/api/resource99/1234");
+    execute(service, msg);
+    assertEquals("update99", msg.getNextServiceId());
+    assertEquals("1234", msg.getMetadataValue("id"));
+  }
+
   @Override
   protected Object retrieveObjectForSampleConfig() {
     BranchingServiceCollection sl = new BranchingServiceCollection();
@@ -117,6 +293,33 @@ public class JettyRoutingServiceTest extends BranchingServiceExample {
     return s.getClass().getCanonicalName();
   }
 
+  private static AdaptrisMessage createMessage(String method, String uri) {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+    msg.addMetadata(JettyConstants.JETTY_URI, uri);
+    if (method != null) {
+      msg.addMetadata(CoreConstants.HTTP_METHOD, method);
+    }
+    return msg;
+  }
+
+  private List<JettyRouteSpec> createMixedRoutes() {
+    List<JettyRouteSpec> result = createRoutes();
+    result.add(new JettyRouteSpec("^/records$", null, new ArrayList<String>(), "listAll"));
+    result.add(new JettyRouteSpec("/api/v1/users/me", "GET", new ArrayList<String>(), "handleMe"));
+    result.add(new JettyRouteSpec("/api/v1/users/([^/]+)", null, Arrays.asList("userId"), "handleUser"));
+    result.add(new JettyRouteSpec("/api/v1/users/([^/]+)/orders/(\\d+)", "GET", Arrays.asList("userId", "orderId"),
+        "handleOrder"));
+    result.add(new JettyRouteSpec("/api/v1(/.*)", null, Arrays.asList("path"), "handleV1"));
+    result.add(new JettyRouteSpec("/api/v2/([\\w-]+)", "POST", Arrays.asList("item"), "handleV2"));
+    result.add(new JettyRouteSpec("/api/v3/([\\W]+)", null, Arrays.asList("item"), "handleV3"));
+    result.add(new JettyRouteSpec("/api/v4/([ -0]+)", null, Arrays.asList("item"), "handleV4"));
+    result.add(new JettyRouteSpec("/files/(.+)", null, Arrays.asList("path"), "handleFiles"));
+    result.add(new JettyRouteSpec("^/a\\.b/([a-z]+)$", null, Arrays.asList("name"), "handleDot"));
+    result.add(new JettyRouteSpec("/(foo|bar)/x", null, Arrays.asList("name"), "handleAlternate"));
+    result.add(new JettyRouteSpec("/(.*)", "DELETE", Arrays.asList("path"), "handleAnyDelete"));
+    return result;
+  }
+
   private List<JettyRouteSpec> createRoutes() {
     List<JettyRouteSpec> result = new ArrayList<>();
     result.add(new JettyRouteSpec("^/record/(.*)$", "POST", Arrays.asList("recId"), "handleInsert"));
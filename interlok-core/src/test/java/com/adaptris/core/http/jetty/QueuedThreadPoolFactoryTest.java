@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.Test;
+
+import com.adaptris.core.http.jetty.QueuedThreadPoolFactory.MeteredQueuedThreadPool;
+import com.adaptris.util.TimeInterval;
+
+public class QueuedThreadPoolFactoryTest {
+
+  @Test
+  public void testCreateThreadPool_Defaults() throws Exception {
+    QueuedThreadPoolFactory factory = new QueuedThreadPoolFactory();
+    assertNull(factory.getMinThreads());
+    assertNull(factory.getMaxThreads());
+    assertNull(factory.getMaxQueueSize());
+    QueuedThreadPool pool = (QueuedThreadPool) factory.createThreadPool("testCreateThreadPool_Defaults");
+    assertEquals(8, pool.getMinThreads());
+    assertEquals(200, pool.getMaxThreads());
+    assertEquals(60000, pool.getIdleTimeout());
+    assertEquals("testCreateThreadPool_Defaults", pool.getName());
+  }
+
+  @Test
+  public void testCreateThreadPool() throws Exception {
+    QueuedThreadPoolFactory factory = new QueuedThreadPoolFactory(2, 10, 100);
+    factory.setThreadIdleTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    factory.setReservedThreads(0);
+    QueuedThreadPool pool = (QueuedThreadPool) factory.createThreadPool("testCreateThreadPool");
+    assertEquals(2, pool.getMinThreads());
+    assertEquals(10, pool.getMaxThreads());
+    assertEquals(10000, pool.getIdleTimeout());
+    assertEquals(0, pool.getReservedThreads());
+  }
+
+  @Test
+  public void testBoundedQueue_Rejects() throws Exception {
+    QueuedThreadPoolFactory factory = new QueuedThreadPoolFactory(1, 1, 1);
+    factory.setReservedThreads(0);
+    MeteredQueuedThreadPool pool = (MeteredQueuedThreadPool) factory.createThreadPool("testBoundedQueue_Rejects");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      pool.start();
+      pool.execute(() -> {
+        started.countDown();
+        await(release);
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      pool.execute(() -> {
+      });
+      assertEquals(1, pool.getQueueSize());
+      try {
+        pool.execute(() -> {
+        });
+        fail();
+      }
+      catch (RejectedExecutionException expected) {
+
+      }
+      assertEquals(1, pool.rejectedExecutions());
+    }
+    finally {
+      release.countDown();
+      pool.stop();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e) {
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.http.jetty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.adaptris.core.http.jetty.VirtualThreadPoolFactory.VirtualThreadPool;
+
+public class VirtualThreadPoolFactoryTest {
+
+  @Test
+  public void testExecute() throws Exception {
+    VirtualThreadPool pool = (VirtualThreadPool) new VirtualThreadPoolFactory().createThreadPool("testExecute");
+    CountDownLatch latch = new CountDownLatch(10);
+    try {
+      pool.start();
+      for (int i = 0; i < 10; i++) {
+        pool.execute(() -> latch.countDown());
+      }
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertFalse(pool.isLowOnThreads());
+      assertEquals(0, pool.getIdleThreads());
+      assertEquals(0, pool.rejectedExecutions());
+    }
+    finally {
+      pool.stop();
+    }
+  }
+
+  @Test
+  public void testExecute_Stopped() throws Exception {
+    VirtualThreadPool pool = (VirtualThreadPool) new VirtualThreadPoolFactory().createThreadPool("testExecute_Stopped");
+    try {
+      pool.execute(() -> {
+      });
+      fail();
+    }
+    catch (RejectedExecutionException expected) {
+
+    }
+    assertEquals(1, pool.rejectedExecutions());
+  }
+
+  @Test
+  public void testMaxConcurrency() throws Exception {
+    VirtualThreadPool pool = (VirtualThreadPool) new VirtualThreadPoolFactory(1).createThreadPool("testMaxConcurrency");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      pool.start();
+      pool.execute(() -> {
+        started.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+        }
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      assertEquals(1, pool.getThreads());
+      assertTrue(pool.isLowOnThreads());
+      try {
+        pool.execute(() -> {
+        });
+        fail();
+      }
+      catch (RejectedExecutionException expected) {
+
+      }
+      assertEquals(1, pool.rejectedExecutions());
+      release.countDown();
+      CountDownLatch next = new CountDownLatch(1);
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+      while (pool.isLowOnThreads() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      pool.execute(() -> next.countDown());
+      assertTrue(next.await(5, TimeUnit.SECONDS));
+    }
+    finally {
+      release.countDown();
+      pool.stop();
+    }
+  }
+}
@@ -111,6 +111,48 @@ public class ThrottlingInterceptorTest extends TestCase {
     assertEquals(10, totalMessageCount);
   }
   
+  public void testThrottle_ByMetadataKey() throws Exception {
+    throttlingInterceptor.setMaximumMessages(1);
+    throttlingInterceptor.setMetadataKey("partner");
+    throttlingInterceptor.setCacheName("ByMetadata");
+    long startTimeLong = System.currentTimeMillis();
+    AdaptrisMessage msg1 = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg1.addMetadata("partner", "partner1");
+    AdaptrisMessage msg2 = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg2.addMetadata("partner", "partner2");
+    throttlingInterceptor.workflowStart(msg1);
+    throttlingInterceptor.workflowStart(msg2);
+    // Different partners, so no delay.
+    assertTrue(startTimeLong + 500 > System.currentTimeMillis());
+    assertEquals(1, throttlingInterceptor.getCacheProvider().get("ByMetadata.partner1").getTotalMessageCount());
+    assertEquals(1, throttlingInterceptor.getCacheProvider().get("ByMetadata.partner2").getTotalMessageCount());
+    throttlingInterceptor.workflowStart(msg1);
+    assertFalse(startTimeLong + 500 > System.currentTimeMillis());
+  }
+
+  public void testThrottle_DelayedThreadDoesNotBlockOthers() throws Exception {
+    throttlingInterceptor.setMaximumMessages(1);
+    throttlingInterceptor.setMetadataKey("partner");
+    throttlingInterceptor.setCacheName("DoesNotBlock");
+    final AdaptrisMessage msg1 = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg1.addMetadata("partner", "partner1");
+    throttlingInterceptor.workflowStart(msg1);
+    Thread delayed = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        throttlingInterceptor.workflowStart(msg1);
+      }
+    });
+    delayed.start();
+    Thread.sleep(50);
+    long startTimeLong = System.currentTimeMillis();
+    AdaptrisMessage msg2 = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg2.addMetadata("partner", "partner2");
+    throttlingInterceptor.workflowStart(msg2);
+    assertTrue(startTimeLong + 250 > System.currentTimeMillis());
+    delayed.join();
+  }
+
   /**
    * Test class that simply whacks messages into the interceptor
    * @author Aaron
@@ -90,4 +90,13 @@ public class TimeSlicePersistenceTest extends TestCase {
 		instance.updateCurrentTimeSlice("default2", timeSlice2);
 		assertEquals(109, instance.getCurrentTimeSlice("default2").getTotalMessageCount());
 	}
+
+	public void testEvictExpiredTimeSlices() {
+		long now = System.currentTimeMillis();
+		instance.updateCurrentTimeSlice("expired", new TimeSlice(now - 1, 0));
+		instance.updateCurrentTimeSlice("current", new TimeSlice(now + 5000, 0));
+		instance.evictExpiredTimeSlices(now);
+		assertFalse(instance.getCacheNames().contains("expired"));
+		assertTrue(instance.getCacheNames().contains("current"));
+	}
 }
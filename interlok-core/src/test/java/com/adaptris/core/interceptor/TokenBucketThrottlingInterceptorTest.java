@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.DefaultMessageFactory;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.TimeInterval;
+
+public class TokenBucketThrottlingInterceptorTest extends TestCase {
+
+  private TokenBucketCache buckets;
+
+  @Override
+  public void setUp() throws Exception {
+    buckets = new TokenBucketCache();
+  }
+
+  public void testInit_NoCacheName() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor();
+    try {
+      LifecycleHelper.init(interceptor);
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  public void testInit_InvalidMaximum() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor(getName(), 0,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    try {
+      LifecycleHelper.init(interceptor);
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  public void testDefaults() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor();
+    assertEquals(Integer.MAX_VALUE, interceptor.maximumMessages());
+    assertEquals(1, interceptor.burst());
+    assertEquals(TimeUnit.SECONDS.toMillis(1), interceptor.interval());
+  }
+
+  public void testThrottle_Burst() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor(getName(), 2,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    interceptor.setBurst(2);
+    LifecycleHelper.initAndStart(interceptor);
+    AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+    long start = System.currentTimeMillis();
+    interceptor.workflowStart(msg);
+    interceptor.workflowStart(msg);
+    // Within the burst, so no delay.
+    assertTrue(System.currentTimeMillis() - start < 400);
+    interceptor.workflowStart(msg);
+    // 2 messages / second, so the third message has to wait for ~500ms.
+    assertTrue(System.currentTimeMillis() - start >= 400);
+    LifecycleHelper.stopAndClose(interceptor);
+  }
+
+  public void testThrottle_Smooth() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor(getName(), 10,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    LifecycleHelper.initAndStart(interceptor);
+    AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < 6; i++) {
+      interceptor.workflowStart(msg);
+    }
+    // 10 messages / second, evenly spaced; 6 messages = at least 5 intervals of 100ms
+    assertTrue(System.currentTimeMillis() - start >= 450);
+    LifecycleHelper.stopAndClose(interceptor);
+  }
+
+  public void testThrottle_ByMetadataKey() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor(getName(), 1,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    interceptor.setMetadataKey("partner");
+    LifecycleHelper.initAndStart(interceptor);
+    AdaptrisMessage msg1 = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg1.addMetadata("partner", "partner1");
+    AdaptrisMessage msg2 = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg2.addMetadata("partner", "partner2");
+    long start = System.currentTimeMillis();
+    interceptor.workflowStart(msg1);
+    interceptor.workflowStart(msg2);
+    assertTrue(System.currentTimeMillis() - start < 500);
+    LifecycleHelper.stopAndClose(interceptor);
+  }
+
+  public void testThrottle_SameName_DifferentRate() throws Exception {
+    TokenBucketThrottlingInterceptor slow = new TokenBucketThrottlingInterceptor(getName(), 1,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    TokenBucketThrottlingInterceptor fast = new TokenBucketThrottlingInterceptor(getName(), 100,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    fast.setBurst(10);
+    LifecycleHelper.initAndStart(slow);
+    LifecycleHelper.initAndStart(fast);
+    AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+    long start = System.currentTimeMillis();
+    slow.workflowStart(msg);
+    for (int i = 0; i < 5; i++) {
+      fast.workflowStart(msg);
+    }
+    // fast doesn't use the bucket that slow created.
+    assertTrue(System.currentTimeMillis() - start < 500);
+    assertEquals(2, buckets.size());
+    LifecycleHelper.stopAndClose(slow);
+    LifecycleHelper.stopAndClose(fast);
+  }
+
+  public void testEvictFullBuckets() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor(getName(), 1,
+        new TimeInterval(1L, TimeUnit.SECONDS)).withBucketCache(buckets);
+    interceptor.setMetadataKey("partner");
+    LifecycleHelper.initAndStart(interceptor);
+    for (int i = 0; i < 3; i++) {
+      AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+      msg.addMetadata("partner", "partner" + i);
+      interceptor.workflowStart(msg);
+    }
+    assertEquals(3, buckets.size());
+    // Still waiting to refill.
+    buckets.evictFullBuckets(System.nanoTime());
+    assertEquals(3, buckets.size());
+    buckets.evictFullBuckets(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+    assertEquals(0, buckets.size());
+    AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+    msg.addMetadata("partner", "partner0");
+    interceptor.workflowStart(msg);
+    assertEquals(1, buckets.size());
+    LifecycleHelper.stopAndClose(interceptor);
+  }
+
+  public void testTokenBucket_Retire() throws Exception {
+    TokenBucket bucket = new TokenBucket(10, TimeUnit.SECONDS.toNanos(1), 1);
+    long now = System.nanoTime();
+    assertTrue(bucket.reserve(now) <= 0);
+    assertFalse(bucket.retireIfFull(now));
+    assertFalse(bucket.retired());
+    assertTrue(bucket.retireIfFull(now + bucket.emissionIntervalNanos()));
+    assertTrue(bucket.retired());
+    assertEquals(TokenBucket.RETIRED, bucket.reserve(now));
+    assertFalse(bucket.retireIfFull(now));
+  }
+
+  public void testTokenBucket_Reserve() throws Exception {
+    TokenBucket bucket = new TokenBucket(10, TimeUnit.SECONDS.toNanos(1), 3);
+    long now = System.nanoTime();
+    assertTrue(bucket.reserve(now) <= 0);
+    assertTrue(bucket.reserve(now) <= 0);
+    assertTrue(bucket.reserve(now) <= 0);
+    long wait = bucket.reserve(now);
+    assertTrue(wait > 0);
+    assertTrue(wait <= bucket.emissionIntervalNanos());
+    assertEquals(wait + bucket.emissionIntervalNanos(), bucket.reserve(now));
+  }
+}
@@ -17,6 +17,7 @@
 package com.adaptris.core.lms;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -149,6 +150,18 @@ public class FileBackedMessageTest extends AdaptrisMessageCase {
     assertEquals(event1.getMleMarkers().size(), event2.getMleMarkers().size());
   }
 
+  @Test
+  public void testClone_UseHardLinks() throws Exception {
+    getMessageFactory().setUseHardLinks(true);
+    FileBackedMessage msg1 = (FileBackedMessage) getMessageFactory().newMessage(PAYLOAD);
+    FileBackedMessage msg2 = (FileBackedMessage) msg1.clone();
+    assertNotEquals(msg1.currentSource(), msg2.currentSource());
+    assertEquals(msg1.getContent(), msg2.getContent());
+    msg2.setContent("changed", null);
+    assertEquals(PAYLOAD, msg1.getContent());
+    assertEquals("changed", msg2.getContent());
+  }
+
   @Test
   public void testBug1478() throws Exception {
     FileBackedMessage fileMsg = (FileBackedMessage) getMessageFactory().newMessage();
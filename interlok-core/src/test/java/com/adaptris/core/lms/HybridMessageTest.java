@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.lms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adaptris.core.AdaptrisMessage;
+
+public class HybridMessageTest extends FileBackedMessageTest {
+
+  private static final long THRESHOLD = 16L;
+
+  private HybridMessageFactory mf;
+
+  @Before
+  @Override
+  public void setup() {
+    mf = new HybridMessageFactory();
+  }
+
+  @Override
+  protected HybridMessageFactory getMessageFactory() {
+    return mf;
+  }
+
+  @Test
+  public void testSetInMemoryThresholdBytes() throws Exception {
+    HybridMessageFactory factory = new HybridMessageFactory();
+    assertEquals(null, factory.getInMemoryThresholdBytes());
+    assertEquals(1024 * 1024, factory.inMemoryThresholdBytes());
+    factory.setInMemoryThresholdBytes(THRESHOLD);
+    assertEquals(Long.valueOf(THRESHOLD), factory.getInMemoryThresholdBytes());
+    assertEquals(THRESHOLD, factory.inMemoryThresholdBytes());
+  }
+
+  @Test
+  public void testSmallPayload_InMemory() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    HybridMessageImpl msg = (HybridMessageImpl) getMessageFactory().newMessage("small");
+    assertTrue(msg.isInMemory());
+    assertEquals(5, msg.getSize());
+    assertEquals("small", msg.getContent());
+    assertTrue(msg.getPayloadForLogging().startsWith("in-memory-size:"));
+  }
+
+  @Test
+  public void testLargePayload_SpillsToFile() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    HybridMessageImpl msg = (HybridMessageImpl) getMessageFactory().newMessage();
+    byte[] payload = createPayload(64);
+    try (OutputStream out = msg.getOutputStream()) {
+      out.write(payload, 0, 8);
+      out.write(payload, 8, payload.length - 8);
+    }
+    assertFalse(msg.isInMemory());
+    assertEquals(payload.length, msg.getSize());
+    assertArrayEquals(payload, msg.getPayload());
+    assertTrue(msg.getPayloadForLogging().startsWith("file-location:"));
+  }
+
+  @Test
+  public void testSetPayload_LargePayload() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    HybridMessageImpl msg = (HybridMessageImpl) getMessageFactory().newMessage(createPayload(64));
+    assertFalse(msg.isInMemory());
+    msg.setPayload(createPayload(8));
+    assertTrue(msg.isInMemory());
+    assertArrayEquals(createPayload(8), msg.getPayload());
+  }
+
+  @Test
+  public void testCurrentSource_SpillsToFile() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    HybridMessageImpl msg = (HybridMessageImpl) getMessageFactory().newMessage("small");
+    File f = msg.currentSource();
+    assertNotNull(f);
+    assertFalse(msg.isInMemory());
+    assertEquals("small", FileUtils.readFileToString(f));
+    assertEquals("small", msg.getContent());
+  }
+
+  @Test
+  public void testIsFileResident() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    HybridMessageImpl msg = (HybridMessageImpl) getMessageFactory().newMessage("small");
+    assertFalse(msg.isFileResident());
+    msg.setPayload(createPayload(64));
+    assertTrue(msg.isFileResident());
+  }
+
+  @Test
+  public void testClone_InMemory() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    AdaptrisMessage msg1 = getMessageFactory().newMessage("small");
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    assertNotSame(msg1.getPayload(), msg2.getPayload());
+    msg2.setContent("changed", null);
+    assertEquals("small", msg1.getContent());
+    assertEquals("changed", msg2.getContent());
+  }
+
+  @Test
+  public void testClone_Spilled() throws Exception {
+    getMessageFactory().setInMemoryThresholdBytes(THRESHOLD);
+    HybridMessageImpl msg1 = (HybridMessageImpl) getMessageFactory().newMessage(createPayload(64));
+    HybridMessageImpl msg2 = (HybridMessageImpl) msg1.clone();
+    assertFalse(msg2.isInMemory());
+    assertNotSame(msg1.currentSource(), msg2.currentSource());
+    assertArrayEquals(msg1.getPayload(), msg2.getPayload());
+  }
+
+  private static byte[] createPayload(int size) {
+    byte[] result = new byte[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = (byte) ('a' + i % 26);
+    }
+    return result;
+  }
+}
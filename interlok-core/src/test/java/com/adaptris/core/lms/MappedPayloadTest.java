@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.lms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+
+public class MappedPayloadTest {
+
+  private static final String PAYLOAD = "Glib jocks quiz nymph to vex dwarf";
+
+  @Test
+  public void testMap_Chunked() throws Exception {
+    File f = File.createTempFile("MappedPayloadTest", ".tmp");
+    try {
+      FileUtils.writeStringToFile(f, PAYLOAD, StandardCharsets.UTF_8);
+      List<ByteBuffer> buffers = MappedPayload.map(f, 10);
+      assertEquals(4, buffers.size());
+      assertEquals(10, buffers.get(0).remaining());
+      assertEquals(PAYLOAD.length() - 30, buffers.get(3).remaining());
+      assertTrue(buffers.get(0).isReadOnly());
+      assertEquals(PAYLOAD, toString(buffers));
+      assertEquals(1, MappedPayload.map(f).size());
+    }
+    finally {
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
+  @Test
+  public void testMap_EmptyFile() throws Exception {
+    File f = File.createTempFile("MappedPayloadTest", ".tmp");
+    try {
+      assertEquals(0, MappedPayload.map(f).size());
+    }
+    finally {
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
+  @Test
+  public void testFileBackedMessage() throws Exception {
+    AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(PAYLOAD);
+    assertEquals(PAYLOAD, toString(MappedPayload.buffers(msg)));
+    try (InputStream in = MappedPayload.openInputStream(msg)) {
+      assertEquals(PAYLOAD, IOUtils.toString(in, StandardCharsets.UTF_8));
+    }
+    msg.setContentEncoding("UTF-8");
+    try (Reader in = MappedPayload.openReader(msg)) {
+      assertEquals(PAYLOAD, IOUtils.toString(in));
+    }
+  }
+
+  @Test
+  public void testHybridMessage_InMemory() throws Exception {
+    AdaptrisMessage msg = new HybridMessageFactory().newMessage(PAYLOAD);
+    assertEquals(PAYLOAD, toString(MappedPayload.buffers(msg)));
+    assertTrue(((HybridMessageImpl) msg).isInMemory());
+  }
+
+  @Test
+  public void testZipFileBackedMessage() throws Exception {
+    AdaptrisMessage msg = new ZipFileBackedMessageFactory().newMessage(PAYLOAD);
+    assertNull(MappedPayload.buffers(msg));
+  }
+
+  @Test
+  public void testDefaultMessage() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(PAYLOAD);
+    assertNull(MappedPayload.buffers(msg));
+    try (InputStream in = MappedPayload.openInputStream(msg)) {
+      assertEquals(PAYLOAD, IOUtils.toString(in, StandardCharsets.UTF_8));
+    }
+    try (Reader in = MappedPayload.openReader(msg)) {
+      assertEquals(PAYLOAD, IOUtils.toString(in));
+    }
+  }
+
+  private static String toString(List<ByteBuffer> buffers) {
+    StringBuilder sb = new StringBuilder();
+    for (ByteBuffer b : buffers) {
+      sb.append(StandardCharsets.UTF_8.decode(b.duplicate()));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.core.runtime;
+
+import static com.adaptris.core.runtime.AdapterComponentMBean.ID_PREFIX;
+import static com.adaptris.core.runtime.AdapterComponentMBean.JMX_JETTY_THREAD_POOL_TYPE;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+
+import com.adaptris.core.Adapter;
+import com.adaptris.core.Channel;
+import com.adaptris.core.ConfiguredConsumeDestination;
+import com.adaptris.core.PortManager;
+import com.adaptris.core.StandardWorkflow;
+import com.adaptris.core.http.jetty.HttpConnection;
+import com.adaptris.core.http.jetty.JettyMessageConsumer;
+import com.adaptris.core.http.jetty.JettyThreadPoolMonitorMBean;
+import com.adaptris.core.http.jetty.QueuedThreadPoolFactory;
+import com.adaptris.core.stubs.MockMessageProducer;
+
+public class JettyThreadPoolMonitorTest extends ComponentManagerCase {
+
+  public JettyThreadPoolMonitorTest(String name) {
+    super(name);
+  }
+
+  public void testMBean_Metrics() throws Exception {
+    String adapterName = this.getClass().getSimpleName() + "." + getName();
+    Adapter adapter = createAdapter(adapterName);
+    AdapterManager adapterManager = new AdapterManager(adapter);
+    Channel channel = createChannel("c1");
+    HttpConnection connection = new HttpConnection();
+    connection.setPort(PortManager.nextUnusedPort(18080));
+    connection.setThreadPool(new QueuedThreadPoolFactory(4, 32, 100));
+    channel.setConsumeConnection(connection);
+    ChannelManager channelManager = new ChannelManager(channel, adapterManager);
+    StandardWorkflow workflow = new StandardWorkflow();
+    workflow.setUniqueId(getName());
+    JettyMessageConsumer consumer = new JettyMessageConsumer();
+    consumer.setUniqueId(getName());
+    consumer.setDestination(new ConfiguredConsumeDestination("/*"));
+    workflow.setConsumer(consumer);
+    workflow.setProducer(new MockMessageProducer());
+    WorkflowManager workflowManager = new WorkflowManager(workflow, channelManager);
+    adapterManager.createObjectName();
+    ObjectName workflowObj = workflowManager.createObjectName();
+    try {
+      adapterManager.registerMBean();
+      ObjectName poolObjectName = ObjectName
+          .getInstance(JMX_JETTY_THREAD_POOL_TYPE + workflowManager.createObjectHierarchyString() + ID_PREFIX + getName());
+      WorkflowManagerMBean workflowManagerProxy = JMX.newMBeanProxy(mBeanServer, workflowObj, WorkflowManagerMBean.class);
+      assertTrue(workflowManagerProxy.getChildRuntimeInfoComponents().contains(poolObjectName));
+      JettyThreadPoolMonitorMBean mbean = JMX.newMBeanProxy(mBeanServer, poolObjectName, JettyThreadPoolMonitorMBean.class);
+      assertEquals(0, mbean.getThreads());
+      assertEquals(0, mbean.getMaxThreads());
+      adapterManager.requestStart();
+      assertEquals(32, mbean.getMaxThreads());
+      assertTrue(mbean.getThreads() >= 4);
+      assertTrue(mbean.getBusyThreads() >= 0);
+      assertTrue(mbean.getIdleThreads() >= 0);
+      assertTrue(mbean.getQueueSize() >= 0);
+      assertEquals(0, mbean.getRejectedRequests());
+      assertFalse(mbean.isLowOnThreads());
+    }
+    finally {
+      adapterManager.requestClose();
+      adapterManager.unregisterMBean();
+      PortManager.release(connection.getPort());
+    }
+  }
+}
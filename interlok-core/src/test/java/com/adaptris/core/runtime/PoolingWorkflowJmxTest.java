@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.runtime;
+
+import static com.adaptris.core.runtime.AdapterComponentMBean.ID_PREFIX;
+import static com.adaptris.core.runtime.AdapterComponentMBean.JMX_POOLING_WORKFLOW_TYPE;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+
+import com.adaptris.core.Adapter;
+import com.adaptris.core.Channel;
+import com.adaptris.core.PoolingWorkflow;
+import com.adaptris.core.PoolingWorkflowJmxMBean;
+
+public class PoolingWorkflowJmxTest extends ComponentManagerCase {
+
+  public PoolingWorkflowJmxTest(String name) {
+    super(name);
+  }
+
+  public void testMBean_Metrics() throws Exception {
+    String adapterName = this.getClass().getSimpleName() + "." + getName();
+    Adapter adapter = createAdapter(adapterName);
+    AdapterManager adapterManager = new AdapterManager(adapter);
+    Channel channel = createChannel("c1");
+    ChannelManager channelManager = new ChannelManager(channel, adapterManager);
+    PoolingWorkflow workflow = new PoolingWorkflow(getName());
+    WorkflowManager workflowManager = new WorkflowManager(workflow, channelManager);
+    adapterManager.createObjectName();
+    ObjectName workflowObj = workflowManager.createObjectName();
+    try {
+      adapterManager.registerMBean();
+      adapterManager.requestStart();
+      ObjectName poolObjectName = ObjectName
+          .getInstance(JMX_POOLING_WORKFLOW_TYPE + workflowManager.createObjectHierarchyString() + ID_PREFIX + getName());
+      WorkflowManagerMBean workflowManagerProxy = JMX.newMBeanProxy(mBeanServer, workflowObj, WorkflowManagerMBean.class);
+      assertTrue(workflowManagerProxy.getChildRuntimeInfoComponents().contains(poolObjectName));
+      PoolingWorkflowJmxMBean mbean = JMX.newMBeanProxy(mBeanServer, poolObjectName, PoolingWorkflowJmxMBean.class);
+      assertEquals(workflow.poolSize(), mbean.getPoolSize());
+      assertEquals(workflow.minIdle(), mbean.getMinIdle());
+      assertEquals(workflow.maxIdle(), mbean.getMaxIdle());
+      assertEquals(0, mbean.getActiveWorkers());
+      assertTrue(mbean.getIdleWorkers() >= 0);
+      assertTrue(mbean.getMeanBorrowWaitMillis() >= 0);
+      assertTrue(mbean.getMaxBorrowWaitMillis() >= 0);
+      assertEquals(0.0, mbean.getUtilisation(), 0.0);
+    }
+    finally {
+      adapterManager.requestClose();
+      adapterManager.unregisterMBean();
+    }
+  }
+
+  public void testMBean_ResizePool() throws Exception {
+    String adapterName = this.getClass().getSimpleName() + "." + getName();
+    Adapter adapter = createAdapter(adapterName);
+    AdapterManager adapterManager = new AdapterManager(adapter);
+    Channel channel = createChannel("c1");
+    ChannelManager channelManager = new ChannelManager(channel, adapterManager);
+    PoolingWorkflow workflow = new PoolingWorkflow(getName());
+    WorkflowManager workflowManager = new WorkflowManager(workflow, channelManager);
+    adapterManager.createObjectName();
+    try {
+      adapterManager.registerMBean();
+      adapterManager.requestStart();
+      ObjectName poolObjectName = ObjectName
+          .getInstance(JMX_POOLING_WORKFLOW_TYPE + workflowManager.createObjectHierarchyString() + ID_PREFIX + getName());
+      PoolingWorkflowJmxMBean mbean = JMX.newMBeanProxy(mBeanServer, poolObjectName, PoolingWorkflowJmxMBean.class);
+      mbean.resizePool(4, 2, 3);
+      assertEquals(4, mbean.getPoolSize());
+      assertEquals(2, mbean.getMinIdle());
+      assertEquals(3, mbean.getMaxIdle());
+      assertEquals(Integer.valueOf(4), workflow.getPoolSize());
+      assertTrue(mbean.getIdleWorkers() >= 2);
+      try {
+        mbean.resizePool(1, 2, 3);
+        fail();
+      }
+      catch (IllegalArgumentException expected) {
+
+      }
+      assertEquals(4, mbean.getPoolSize());
+    }
+    finally {
+      adapterManager.requestClose();
+      adapterManager.unregisterMBean();
+    }
+  }
+}
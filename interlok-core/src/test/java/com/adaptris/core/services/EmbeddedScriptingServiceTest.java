@@ -17,10 +17,15 @@
 package com.adaptris.core.services;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.BranchingServiceCollection;
@@ -140,6 +145,40 @@ public class EmbeddedScriptingServiceTest extends GeneralServiceExample {
     }
   }
 
+  public void testService_CompiledScriptReused() throws Exception {
+    EmbeddedScriptingService service = createService(getName());
+    try {
+      LifecycleHelper.initAndStart(service);
+      for (int i = 0; i < 5; i++) {
+        AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+        msg.addMetadata(MY_METADATA_KEY, MY_METADATA_VALUE + i);
+        service.doService(msg);
+        assertEquals(new StringBuffer(MY_METADATA_VALUE + i).reverse().toString(), msg.getMetadataValue(MY_METADATA_KEY));
+      }
+      assertEquals(5, service.evalMetrics().getEvalCount());
+      assertTrue(service.evalMetrics().getMaxDuration() >= service.evalMetrics().getAverageDuration());
+      assertNotNull(service.evalMetrics().toString());
+    }
+    finally {
+      LifecycleHelper.stopAndClose(service);
+    }
+  }
+
+  public void testIsThreadSafe() throws Exception {
+    assertFalse(ScriptingServiceImp.isThreadSafe(mockEngine(null)));
+    assertTrue(ScriptingServiceImp.isThreadSafe(mockEngine("MULTITHREADED")));
+    assertTrue(ScriptingServiceImp.isThreadSafe(mockEngine("THREAD-ISOLATED")));
+    assertTrue(ScriptingServiceImp.isThreadSafe(mockEngine("STATELESS")));
+  }
+
+  private static ScriptEngine mockEngine(String threading) {
+    ScriptEngineFactory factory = mock(ScriptEngineFactory.class);
+    when(factory.getParameter("THREADING")).thenReturn(threading);
+    ScriptEngine engine = mock(ScriptEngine.class);
+    when(engine.getFactory()).thenReturn(factory);
+    return engine;
+  }
+
   @Override
   protected Object retrieveObjectForSampleConfig() {
     return createService(null);
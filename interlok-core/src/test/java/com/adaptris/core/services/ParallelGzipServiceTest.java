@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services;
+
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.GeneralServiceExample;
+import com.adaptris.core.Service;
+import com.adaptris.core.ServiceException;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+import com.adaptris.core.stubs.DefectiveMessageFactory;
+
+public class ParallelGzipServiceTest extends GeneralServiceExample {
+
+  public ParallelGzipServiceTest(java.lang.String testName) {
+    super(testName);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+  }
+
+  public void testBlockSize() throws Exception {
+    ParallelGzipService service = new ParallelGzipService();
+    assertNull(service.getBlockSize());
+    assertEquals(1024 * 1024, service.blockSize());
+    service.setBlockSize(1024);
+    assertEquals(Integer.valueOf(1024), service.getBlockSize());
+    assertEquals(1024, service.blockSize());
+  }
+
+  public void testParallelism() throws Exception {
+    ParallelGzipService service = new ParallelGzipService();
+    assertNull(service.getParallelism());
+    assertEquals(Runtime.getRuntime().availableProcessors(), service.parallelism());
+    service.setParallelism(2);
+    assertEquals(Integer.valueOf(2), service.getParallelism());
+    assertEquals(2, service.parallelism());
+    service.setParallelism(0);
+    assertEquals(1, service.parallelism());
+  }
+
+  public void testZipService() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(GzipServiceTest.LINE, "UTF-8");
+    execute(new ParallelGzipService(), msg);
+    assertFalse(MessageDigest.isEqual(GzipServiceTest.LINE.getBytes("UTF-8"), msg.getPayload()));
+    execute(new GunzipService(), msg);
+    assertEquals("zip then unzip gives same result", GzipServiceTest.LINE, msg.getContent());
+  }
+
+  public void testZipService_MultipleBlocks() throws Exception {
+    byte[] data = createData(100 * 1024);
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(data);
+    ParallelGzipService service = new ParallelGzipService();
+    service.setBlockSize(4096);
+    service.setParallelism(4);
+    execute(service, msg);
+    execute(new GunzipService(), msg);
+    assertTrue(MessageDigest.isEqual(data, msg.getPayload()));
+  }
+
+  public void testZipServiceFailure() throws Exception {
+    AdaptrisMessage msg = new DefectiveMessageFactory().newMessage(GzipServiceTest.LINE, "UTF-8");
+    try {
+      execute(new ParallelGzipService(), msg);
+      fail();
+    }
+    catch (ServiceException expected) {
+      ;
+    }
+  }
+
+  /**
+   * Not really a test; compares throughput against {@link GzipService} for a file backed message.
+   */
+  public void testCompareWithGzipService() throws Exception {
+    FileBackedMessageFactory factory = new FileBackedMessageFactory();
+    int size = 16 * 1024 * 1024;
+    long serial = timeCompression(new GzipService(), factory, size);
+    ParallelGzipService parallel = new ParallelGzipService();
+    parallel.setBlockSize(256 * 1024);
+    long concurrent = timeCompression(parallel, factory, size);
+    log.info(String.format("gzip-service: %d ms (%.1f MB/s); parallel-gzip-service: %d ms (%.1f MB/s) with %d threads", serial,
+        throughput(size, serial), concurrent, throughput(size, concurrent), parallel.parallelism()));
+  }
+
+  private long timeCompression(Service service, AdaptrisMessageFactory factory, int size) throws Exception {
+    AdaptrisMessage msg = factory.newMessage();
+    byte[] chunk = createData(64 * 1024);
+    try (OutputStream out = msg.getOutputStream()) {
+      for (int i = 0; i < size / chunk.length; i++) {
+        out.write(chunk);
+      }
+    }
+    long start = System.currentTimeMillis();
+    execute(service, msg);
+    long elapsed = System.currentTimeMillis() - start;
+    execute(new GunzipService(), msg);
+    assertEquals(size, msg.getSize());
+    return elapsed;
+  }
+
+  private static double throughput(int size, long ms) {
+    return ms == 0 ? 0 : (size / (1024.0 * 1024.0)) / (ms / 1000.0);
+  }
+
+  private static byte[] createData(int size) {
+    byte[] result = new byte[size];
+    new Random(size).nextBytes(result);
+    for (int i = 0; i < size; i += 2) {
+      result[i] = 'a';
+    }
+    return result;
+  }
+
+  @Override
+  protected Object retrieveObjectForSampleConfig() {
+    ParallelGzipService service = new ParallelGzipService();
+    service.setBlockSize(1024 * 1024);
+    service.setParallelism(4);
+    return service;
+  }
+
+}
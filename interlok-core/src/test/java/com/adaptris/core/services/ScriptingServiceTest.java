@@ -79,6 +79,32 @@ public class ScriptingServiceTest extends GeneralServiceExample {
     delete(script);
   }
 
+  public void testService_ReloadsChangedScript() throws Exception {
+    ScriptingService service = createService();
+    File script = writeScript(true);
+    service.setScriptFilename(script.getCanonicalPath());
+    try {
+      LifecycleHelper.initAndStart(service);
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+      msg.addMetadata(MY_METADATA_KEY, MY_METADATA_VALUE);
+      service.doService(msg);
+      assertEquals(new StringBuffer(MY_METADATA_VALUE).reverse().toString(), msg.getMetadataValue(MY_METADATA_KEY));
+      long lastModified = script.lastModified();
+      try (FileWriter fw = new FileWriter(script)) {
+        fw.write("\nmessage.addMetadata('MyMetadataKey', 'Changed');");
+      }
+      script.setLastModified(lastModified + 10000);
+      msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+      service.doService(msg);
+      assertEquals("Changed", msg.getMetadataValue(MY_METADATA_KEY));
+      assertEquals(2, service.evalMetrics().getEvalCount());
+    }
+    finally {
+      LifecycleHelper.stopAndClose(service);
+      delete(script);
+    }
+  }
+
   public void testInit() throws Exception {
     ScriptingService service = new ScriptingService();
     try {
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.aggregator;
+
+import static com.adaptris.core.services.splitter.XpathSplitterTest.ENCODING_UTF8;
+import static com.adaptris.core.services.splitter.XpathSplitterTest.ENVELOPE_DOCUMENT;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.NullService;
+import com.adaptris.core.Service;
+import com.adaptris.core.services.splitter.SplitJoinService;
+import com.adaptris.core.services.splitter.SplitterCase;
+import com.adaptris.core.services.splitter.XpathMessageSplitter;
+import com.adaptris.core.stubs.DefectiveMessageFactory;
+import com.adaptris.core.util.XmlHelper;
+import com.adaptris.util.TimeInterval;
+import com.adaptris.util.text.xml.XPath;
+
+public class StreamingXmlAggregatorTest extends AggregatorCase {
+
+  public StreamingXmlAggregatorTest(String name) {
+    super(name);
+  }
+
+  public void testSetDocumentEncoding() throws Exception {
+    StreamingXmlDocumentAggregator aggr = createAggregatorForTests();
+    assertNull(aggr.getDocumentEncoding());
+    aggr.setDocumentEncoding("ISO-8859-1");
+    assertEquals("ISO-8859-1", aggr.getDocumentEncoding());
+  }
+
+  public void testSetDocumentRoot() throws Exception {
+    StreamingXmlDocumentAggregator aggr = createAggregatorForTests();
+    assertNull(aggr.getDocumentRoot());
+    aggr.setDocumentRoot("new");
+    assertEquals("new", aggr.getDocumentRoot());
+  }
+
+  public void testSplitJoinService_WithExplicitDocumentEnoding() throws Exception {
+    // This is a XML doc with 3 iterable elements...
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(SplitterCase.XML_MESSAGE);
+    SplitJoinService service = new SplitJoinService();
+    // The service doesn't actually matter right now.
+    service.setService(asCollection(new NullService()));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(new XpathMessageSplitter(ENVELOPE_DOCUMENT, ENCODING_UTF8));
+    StreamingXmlDocumentAggregator aggr = new StreamingXmlDocumentAggregator();
+    aggr.setDocumentEncoding("UTF-8");
+    service.setAggregator(aggr);
+    execute(service, msg);
+
+    // Should now be 6 document nodes
+    XPath xpath = new XPath();
+    assertEquals(6, xpath.selectNodeList(XmlHelper.createDocument(msg, true), ENVELOPE_DOCUMENT).getLength());
+    assertEquals("UTF-8", msg.getContentEncoding());
+  }
+
+  public void testSplitJoinService_WithImplicitDocumentEnoding() throws Exception {
+    // This is a XML doc with 3 iterable elements...
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(SplitterCase.XML_MESSAGE, "ISO-8859-1");
+    SplitJoinService service = new SplitJoinService();
+    // The service doesn't actually matter right now.
+    service.setService(asCollection(new NullService()));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(new XpathMessageSplitter(ENVELOPE_DOCUMENT, ENCODING_UTF8));
+    service.setAggregator(new StreamingXmlDocumentAggregator());
+    execute(service, msg);
+    // Should now be 6 document nodes
+    XPath xpath = new XPath();
+    assertEquals(6, xpath.selectNodeList(XmlHelper.createDocument(msg, true), ENVELOPE_DOCUMENT).getLength());
+    assertEquals("ISO-8859-1", msg.getContentEncoding());
+  }
+
+  public void testJoinMessage_IgnoreOriginal() throws Exception {
+    StreamingXmlDocumentAggregator aggr = new StreamingXmlDocumentAggregator("new");
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("<envelope><document>0</document></envelope>");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage(
+        "<?xml version=\"1.0\"?><!-- comment --><document attr=\"1\">hello</document>");
+    AdaptrisMessage splitMsg2 = AdaptrisMessageFactory.getDefaultInstance().newMessage(
+        "<x:document xmlns:x=\"urn:x\"><x:child>world</x:child></x:document>");
+    aggr.joinMessage(original, Arrays.asList(new AdaptrisMessage[]
+    {
+        splitMsg1, splitMsg2
+    }));
+    XPath xpath = new XPath();
+    assertEquals(2, xpath.selectNodeList(XmlHelper.createDocument(original, true), "/new/*").getLength());
+    assertEquals("hello", xpath.selectSingleTextItem(XmlHelper.createDocument(original, true), "/new/document"));
+    assertEquals("1", xpath.selectSingleTextItem(XmlHelper.createDocument(original, true), "/new/document/@attr"));
+  }
+
+  public void testJoinMessage_NoOverwriteMetadata() throws Exception {
+    StreamingXmlDocumentAggregator aggr = createAggregatorForTests();
+    aggr.setOverwriteMetadata(false);
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("<envelope/>");
+    original.addMetadata("originalKey", "originalValue");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage("<document>hello</document>");
+    AdaptrisMessage splitMsg2 = AdaptrisMessageFactory.getDefaultInstance().newMessage("<document>world</document>");
+    splitMsg2.addMetadata("originalKey", "newValue");
+    aggr.joinMessage(original, Arrays.asList(new AdaptrisMessage[]
+    {
+        splitMsg1, splitMsg2
+    }));
+    assertEquals("originalValue", original.getMetadataValue("originalKey"));
+    XPath xpath = new XPath();
+    assertEquals(2, xpath.selectNodeList(XmlHelper.createDocument(original, true), "/envelope/document").getLength());
+  }
+
+  public void testJoinMessage_OverwriteMetadata() throws Exception {
+    StreamingXmlDocumentAggregator aggr = createAggregatorForTests();
+    aggr.setOverwriteMetadata(true);
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("<envelope/>");
+    original.addMetadata("originalKey", "originalValue");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage("<document>hello</document>");
+    AdaptrisMessage splitMsg2 = AdaptrisMessageFactory.getDefaultInstance().newMessage("<document>world</document>");
+    splitMsg2.addMetadata("originalKey", "newValue");
+    aggr.joinMessage(original, Arrays.asList(new AdaptrisMessage[]
+    {
+        splitMsg1, splitMsg2
+    }));
+    assertEquals("newValue", original.getMetadataValue("originalKey"));
+  }
+
+  public void testJoinMessage_Fails() throws Exception {
+    StreamingXmlDocumentAggregator aggr = createAggregatorForTests();
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("<envelope/>");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage("<document>hello</document>");
+    AdaptrisMessage splitMsg2 = new DefectiveMessageFactory().newMessage("<document>world</document>");
+    try {
+      aggr.joinMessage(original, Arrays.asList(new AdaptrisMessage[]
+      {
+          splitMsg1, splitMsg2
+      }));
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  public void testJoinMessage_OriginalNotXml() throws Exception {
+    StreamingXmlDocumentAggregator aggr = createAggregatorForTests();
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("hello world");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage("<document>hello</document>");
+    try {
+      aggr.joinMessage(original, Arrays.asList(new AdaptrisMessage[]
+      {
+          splitMsg1
+      }));
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  @Override
+  protected String getExampleCommentHeader(Object o) {
+    return super.getExampleCommentHeader(o) + "\n<!-- \n The example document for this split/join process is\n"
+        + SplitterCase.XML_MESSAGE + "\n which would create 3 new messages.\n"
+        + "With the services that are executed; you would actually end up with 6 document elements as \n"
+        + "each of the split messages would be appended to the root element of the original document\n-->\n";
+  }
+
+  @Override
+  protected List<Service> retrieveObjectsForSampleConfig() {
+    return createExamples(new XpathMessageSplitter(ENVELOPE_DOCUMENT, ENCODING_UTF8), new StreamingXmlDocumentAggregator());
+  }
+
+  @Override
+  protected String createBaseFileName(Object object) {
+    return super.createBaseFileName(object) + "-StreamingXmlDocumentAggregator";
+  }
+
+  @Override
+  protected StreamingXmlDocumentAggregator createAggregatorForTests() {
+    return new StreamingXmlDocumentAggregator();
+  }
+}
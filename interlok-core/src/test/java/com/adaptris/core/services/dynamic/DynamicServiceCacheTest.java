@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.dynamic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.adaptris.core.BaseCase;
+import com.adaptris.core.ClosedState;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.NullService;
+import com.adaptris.core.Service;
+import com.adaptris.core.StartedState;
+import com.adaptris.core.util.LifecycleHelper;
+
+public class DynamicServiceCacheTest extends BaseCase {
+
+  public DynamicServiceCacheTest(String s) {
+    super(s);
+  }
+
+  public void testMaxEntries() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    assertNull(cache.getMaxEntries());
+    assertEquals(16, cache.maxEntries());
+    cache.setMaxEntries(1);
+    assertEquals(Integer.valueOf(1), cache.getMaxEntries());
+    assertEquals(1, cache.maxEntries());
+  }
+
+  public void testMaxIdleInstances() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    assertNull(cache.getMaxIdleInstances());
+    assertEquals(4, cache.maxIdleInstances());
+    cache.setMaxIdleInstances(1);
+    assertEquals(Integer.valueOf(1), cache.getMaxIdleInstances());
+    assertEquals(1, cache.maxIdleInstances());
+  }
+
+  public void testObtain_Reuses() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    CountingCreator creator = new CountingCreator();
+    Service first = null;
+    try (DynamicServiceCache.Lease lease = cache.obtain("key", "1", creator)) {
+      first = lease.getService();
+      assertEquals(StartedState.getInstance(), first.retrieveComponentState());
+    }
+    try (DynamicServiceCache.Lease lease = cache.obtain("key", "1", creator)) {
+      assertSame(first, lease.getService());
+    }
+    assertEquals(1, creator.count.get());
+    assertEquals(StartedState.getInstance(), first.retrieveComponentState());
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(ClosedState.getInstance(), first.retrieveComponentState());
+  }
+
+  public void testObtain_Concurrent() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    cache.setMaxIdleInstances(1);
+    CountingCreator creator = new CountingCreator();
+    DynamicServiceCache.Lease l1 = cache.obtain("key", "1", creator);
+    DynamicServiceCache.Lease l2 = cache.obtain("key", "1", creator);
+    assertNotSame(l1.getService(), l2.getService());
+    assertEquals(2, creator.count.get());
+    l1.close();
+    l2.close();
+    // Only one is retained.
+    assertEquals(StartedState.getInstance(), l1.getService().retrieveComponentState());
+    assertEquals(ClosedState.getInstance(), l2.getService().retrieveComponentState());
+    cache.clear();
+  }
+
+  public void testObtain_VersionChanged() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    CountingCreator creator = new CountingCreator();
+    Service first = null;
+    try (DynamicServiceCache.Lease lease = cache.obtain("key", "1", creator)) {
+      first = lease.getService();
+    }
+    try (DynamicServiceCache.Lease lease = cache.obtain("key", "2", creator)) {
+      assertNotSame(first, lease.getService());
+    }
+    assertEquals(2, creator.count.get());
+    assertEquals(1, cache.size());
+    assertEquals(ClosedState.getInstance(), first.retrieveComponentState());
+    cache.clear();
+  }
+
+  public void testObtain_VersionChangedWhileInUse() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    CountingCreator creator = new CountingCreator();
+    DynamicServiceCache.Lease inUse = cache.obtain("key", "1", creator);
+    try (DynamicServiceCache.Lease lease = cache.obtain("key", "2", creator)) {
+    }
+    assertEquals(StartedState.getInstance(), inUse.getService().retrieveComponentState());
+    inUse.close();
+    assertEquals(ClosedState.getInstance(), inUse.getService().retrieveComponentState());
+    cache.clear();
+  }
+
+  public void testObtain_Eviction() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache(2);
+    CountingCreator creator = new CountingCreator();
+    Service first = null;
+    try (DynamicServiceCache.Lease lease = cache.obtain("key1", "1", creator)) {
+      first = lease.getService();
+    }
+    try (DynamicServiceCache.Lease lease = cache.obtain("key2", "1", creator)) {
+    }
+    try (DynamicServiceCache.Lease lease = cache.obtain("key3", "1", creator)) {
+    }
+    assertEquals(2, cache.size());
+    assertEquals(ClosedState.getInstance(), first.retrieveComponentState());
+    cache.clear();
+  }
+
+  public void testObtain_CreateFails() throws Exception {
+    DynamicServiceCache cache = new DynamicServiceCache();
+    try {
+      cache.obtain("key", "1", () -> {
+        throw new CoreException("expected");
+      });
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+    CountingCreator creator = new CountingCreator();
+    try (DynamicServiceCache.Lease lease = cache.obtain("key", "1", creator)) {
+      assertNotNull(lease.getService());
+    }
+    assertEquals(1, creator.count.get());
+    cache.clear();
+  }
+
+  private static class CountingCreator implements DynamicServiceCache.ServiceCreator {
+    private AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Service create() throws CoreException {
+      count.incrementAndGet();
+      return LifecycleHelper.initAndStart(new NullService());
+    }
+  }
+}
@@ -189,6 +189,34 @@ public class DynamicServiceExecutorTest extends DynamicServiceExample {
     assertEquals(getName(), msg.getMetadataValue(getName()));
   }
 
+  public void testDoService_WithCache() throws Exception {
+    AddMetadataService metadataService = new AddMetadataService();
+    metadataService.addMetadataElement(new MetadataElement(getName(), getName()));
+    DynamicServiceExecutor dynamicService = createService();
+    dynamicService.setServiceCache(new DynamicServiceCache());
+    AdaptrisMessage msg1 = createMessage(metadataService);
+    AdaptrisMessage msg2 = createMessage(metadataService);
+    AdaptrisMessage msg3 = createMessage(new ServiceList(new Service[]
+    {
+      metadataService
+    }));
+    start(dynamicService);
+    try {
+      dynamicService.doService(msg1);
+      dynamicService.doService(msg2);
+      assertEquals(1, dynamicService.getServiceCache().size());
+      dynamicService.doService(msg3);
+      assertEquals(2, dynamicService.getServiceCache().size());
+    }
+    finally {
+      stop(dynamicService);
+    }
+    assertEquals(0, dynamicService.getServiceCache().size());
+    assertEquals(getName(), msg1.getMetadataValue(getName()));
+    assertEquals(getName(), msg2.getMetadataValue(getName()));
+    assertEquals(getName(), msg3.getMetadataValue(getName()));
+  }
+
   public void testDoService_DefaultServiceExtractor_NotService() throws Exception {
     DynamicServiceExecutor dynamicService = createService();
     AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(getName());
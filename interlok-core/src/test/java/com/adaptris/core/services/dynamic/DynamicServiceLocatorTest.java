@@ -356,6 +356,40 @@ public class DynamicServiceLocatorTest extends DynamicServiceExample {
     assertEquals(DynamicService.State.CLOSE, DynamicService.currentState(DynamicService.class));
   }
 
+  public void testDoSuccessfulService_WithCache() throws Exception {
+    writeServiceList(new DynamicService(), new TradingRelationship(DEFAULT_SRC, DEFAULT_DEST, DEFAULT_TYPE), tempDir);
+
+    DynamicServiceLocator service = createLocator();
+    service.setTreatNotFoundAsError(true);
+    service.setServiceNameProvider(new DefaultServiceNameProvider());
+    service.setServiceCache(new DynamicServiceCache());
+    start(service);
+    try {
+      service.doService(AdaptrisMessageFactory.getDefaultInstance().newMessage());
+      assertEquals(DynamicService.State.STARTED, DynamicService.currentState(DynamicService.class));
+      service.doService(AdaptrisMessageFactory.getDefaultInstance().newMessage());
+      assertEquals(DynamicService.State.STARTED, DynamicService.currentState(DynamicService.class));
+      assertEquals(1, service.getServiceCache().size());
+    }
+    finally {
+      stop(service);
+    }
+    assertEquals(DynamicService.State.CLOSE, DynamicService.currentState(DynamicService.class));
+  }
+
+  public void testServiceNotFound_WithCache() throws Exception {
+    DynamicServiceLocator service = createLocator();
+    service.setTreatNotFoundAsError(true);
+    service.setServiceCache(new DynamicServiceCache());
+    try {
+      execute(service, AdaptrisMessageFactory.getDefaultInstance().newMessage());
+      fail();
+    }
+    catch (ServiceException expected) {
+
+    }
+  }
+
   public void testBug887WithFailingService() throws Exception {
     writeServiceList(new DynamicFailingService(), new TradingRelationship(DEFAULT_SRC, DEFAULT_DEST, DEFAULT_TYPE), tempDir);
     DynamicServiceLocator service = createLocator();
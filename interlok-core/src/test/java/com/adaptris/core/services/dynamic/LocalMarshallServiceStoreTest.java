@@ -105,6 +105,28 @@ public class LocalMarshallServiceStoreTest extends MarshallServiceStoreCase {
     assertEquals(service, null);
   }
 
+  public void testVersion() throws Exception {
+    File tmpDir = writeOutTheService("service");
+    LocalMarshallServiceStore store = createServiceStore();
+    store.setBaseDirUrl("file:///" + tmpDir.getAbsolutePath());
+    String version = store.version("service");
+    assertNotNull(version);
+    assertEquals(version, store.version("service"));
+    assertNull(store.version("not-there"));
+    File f = new File(tmpDir, "service");
+    f.setLastModified(f.lastModified() - 60000L);
+    assertFalse(version.equals(store.version("service")));
+  }
+
+  public void testVersion_DefaultService() throws Exception {
+    File tmpDir = writeOutTheService("service");
+    LocalMarshallServiceStore store = createServiceStore();
+    store.setBaseDirUrl("file:///" + tmpDir.getAbsolutePath());
+    store.setDefaultFileName("service");
+    assertNotNull(store.version("not-there"));
+    assertFalse(store.version("not-there").equals(store.version("service")));
+  }
+
   public void testDefaultService() throws Exception {
     File tmpDir = writeOutTheService("service");
     LocalMarshallServiceStore store = createServiceStore();
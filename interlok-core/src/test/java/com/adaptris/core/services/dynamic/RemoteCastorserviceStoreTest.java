@@ -82,6 +82,15 @@ public class RemoteCastorserviceStoreTest extends MarshallServiceStoreCase {
     assertTrue(service.getServices().size() == 1);
   }
 
+  public void testVersion() throws Exception {
+    File tmpDir = writeOutTheService("service");
+    RemoteMarshallServiceStore store = createServiceStore();
+    store.setBaseUrl("file:///" + tmpDir.getAbsolutePath());
+    assertNotNull(store.version("service"));
+    assertEquals(store.version("service"), store.version("service"));
+    assertNull(store.version("not-there"));
+  }
+
   public void testSuccessfulObtainPrefixSuffix() throws Exception {
     File tmpDir = writeOutTheService("prefix-service.suffix");
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.findreplace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.GeneralServiceExample;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+
+public class StreamingFindAndReplaceServiceTest extends GeneralServiceExample {
+
+  private static final String STANDARD_PAYLOAD = "This is a test! A test!";
+
+  public StreamingFindAndReplaceServiceTest(String arg0) {
+    super(arg0);
+  }
+
+  @Override
+  protected void setUp() {
+  }
+
+  public void testReplaceAll() throws Exception {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(
+        new ArrayList<>(Arrays.asList(unit("test", "joke"), unit("!", "."))));
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    execute(service, msg);
+    assertEquals("This is a joke. A joke.", msg.getContent());
+  }
+
+  public void testReplaceFirstOnly() throws Exception {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(
+        new ArrayList<>(Arrays.asList(unit("test", "joke"), unit("!", "."))));
+    service.setReplaceFirstOnly(true);
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    execute(service, msg);
+    assertEquals("This is a joke. A test!", msg.getContent());
+  }
+
+  public void testReplaceFirstOnly_DuplicateFinds() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    AdaptrisMessage expected = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(
+        new ArrayList<>(Arrays.asList(unit("test", "joke"), unit("test", "riddle"), unit("test", "pun"))));
+    service.setReplaceFirstOnly(true);
+    FindAndReplaceService sequential = new FindAndReplaceService();
+    sequential.setFindAndReplaceUnits(
+        new ArrayList<>(Arrays.asList(unit("test", "joke"), unit("test", "riddle"), unit("test", "pun"))));
+    sequential.setReplaceFirstOnly(true);
+    execute(service, msg);
+    execute(sequential, expected);
+    assertEquals("This is a joke! A riddle!", msg.getContent());
+    assertEquals(expected.getContent(), msg.getContent());
+  }
+
+  public void testReplaceAll_DuplicateFinds() throws Exception {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(
+        new ArrayList<>(Arrays.asList(unit("test", "joke"), unit("test", "riddle"))));
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    execute(service, msg);
+    assertEquals("This is a joke! A joke!", msg.getContent());
+  }
+
+  public void testReplace_IsLiteral() throws Exception {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(
+        new ArrayList<>(Arrays.asList(unit("a.b", "$1"))));
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("axb a.b");
+    execute(service, msg);
+    assertEquals("axb $1", msg.getContent());
+  }
+
+  public void testReplace_LeftmostLongest_NoCascade() throws Exception {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(new ArrayList<>(
+        Arrays.asList(unit("bc", "1"), unit("abcd", "2"), unit("ab", "3"), unit("2", "cascade"))));
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("abcd abce xbcx");
+    execute(service, msg);
+    assertEquals("2 3ce x1x", msg.getContent());
+  }
+
+  public void testReplace_Metadata() throws Exception {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(new ArrayList<>(
+        Arrays.asList(new FindAndReplaceUnit(new MetadataReplacementSource("find"), new MetadataReplacementSource("replace")))));
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    msg.addMetadata("find", "test");
+    msg.addMetadata("replace", "joke");
+    AdaptrisMessage msg2 = AdaptrisMessageFactory.getDefaultInstance().newMessage(STANDARD_PAYLOAD);
+    msg2.addMetadata("find", "is");
+    msg2.addMetadata("replace", "IS");
+    execute(service, msg);
+    execute(service, msg2);
+    assertEquals("This is a joke! A joke!", msg.getContent());
+    assertEquals("ThIS IS a test! A test!", msg2.getContent());
+  }
+
+  public void testReplace_FileBackedMessage() throws Exception {
+    StringBuilder payload = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      payload.append(STANDARD_PAYLOAD);
+      expected.append("This is a joke. A joke.");
+    }
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService(
+        new ArrayList<>(Arrays.asList(unit("test", "joke"), unit("!", "."))));
+    AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(payload.toString());
+    execute(service, msg);
+    assertEquals(expected.toString(), msg.getContent());
+  }
+
+  private static FindAndReplaceUnit unit(String find, String replace) {
+    return new FindAndReplaceUnit(new ConfiguredReplacementSource(find), new ConfiguredReplacementSource(replace));
+  }
+
+  @Override
+  protected StreamingFindAndReplaceService retrieveObjectForSampleConfig() {
+    StreamingFindAndReplaceService service = new StreamingFindAndReplaceService();
+    service.getFindAndReplaceUnits().add(unit("literal-string-to-find", "replacement"));
+    service.getFindAndReplaceUnits()
+        .add(new FindAndReplaceUnit(new MetadataReplacementSource("metadata-key-with-find-value"),
+            new MetadataReplacementSource("metadata-key-with-replacement-value")));
+    service.getFindAndReplaceUnits().add(new FindAndReplaceUnit(new HexSequenceConfiguredReplacementSource("21", "UTF-8"),
+        new HexSequenceConfiguredReplacementSource("2E", "UTF-8")));
+    return service;
+  }
+
+  @Override
+  protected String getExampleCommentHeader(Object object) {
+    return super.getExampleCommentHeader(object)
+        + "<!--\n All the find values are treated as literal strings (not regular expressions) and are applied"
+        + "\nto the payload in a single pass; the output of one replacement is never matched by another."
+        + "\n-->\n";
+  }
+}
@@ -94,6 +94,30 @@ public class AllRowsMetadataTranslatorTest extends JdbcQueryServiceCase {
     assertEquals("10", msg.getMetadataValue("TotalRows"));
   }
 
+  public void testJdbcDataQueryService_FetchSize() throws Exception {
+    createDatabase();
+    List<AdapterTypeVersion> dbItems = generate(10);
+    AdapterTypeVersion entry = dbItems.get(0);
+
+    populateDatabase(dbItems, false);
+    JdbcDataQueryService s = createMetadataService();
+    assertNull(s.getFetchSize());
+    s.setFetchSize(2);
+    assertEquals(Integer.valueOf(2), s.getFetchSize());
+    s.setStatementCreator(new ConfiguredSQLStatement(ALL_ROWS_QUERY));
+    s.getStatementParameters().clear();
+    AllRowsMetadataTranslator t = new AllRowsMetadataTranslator();
+    t.setResultCountMetadataItem("resultCount");
+    s.setResultSetTranslator(t);
+    AdaptrisMessage msg = createMessage(entry);
+    execute(s, msg);
+    assertEquals("10", msg.getMetadataValue("resultCount"));
+    String metadataKeyColumnVersion = t.getMetadataKeyPrefix() + t.getSeparator() + COLUMN_VERSION + t.getSeparator();
+    for (int i = 0; i < 10; i++) {
+      assertTrue(metadataKeyColumnVersion + i, msg.headersContainsKey(metadataKeyColumnVersion + i));
+    }
+  }
+
   public void testJdbcDataQueryServiceWithResultCount() throws Exception {
     createDatabase();
     List<AdapterTypeVersion> dbItems = generate(10);
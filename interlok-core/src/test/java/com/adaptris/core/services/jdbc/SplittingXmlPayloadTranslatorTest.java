@@ -186,6 +186,32 @@ public class SplittingXmlPayloadTranslatorTest extends JdbcQueryServiceCaseXmlRe
     }
   }
 
+  public void testMultipleResultMessages_StreamOutput() throws Exception {
+    createDatabase();
+    List<AdapterTypeVersion> dbItems = generate(11);
+    AdapterTypeVersion entry = dbItems.get(0);
+
+    populateDatabase(dbItems, false);
+    JdbcDataQueryService s = createMultiService();
+    SplittingXmlPayloadTranslator translator = createPayloadTranslator();
+    translator.setMaxRowsPerMessage(2);
+    translator.setStreamOutput(true);
+    translator.setOutputMessageEncoding("ISO-8859-1");
+    s.setResultSetTranslator(translator);
+    AdaptrisMessage msg = createMessage(entry);
+    execute(s, msg);
+
+    List<AdaptrisMessage> outputMessages = producer.getMessages();
+    assertEquals(6, outputMessages.size());
+    int count = 0;
+    for (AdaptrisMessage outputMessage : outputMessages) {
+      assertEquals("ISO-8859-1", outputMessage.getContentEncoding());
+      XmlUtils xu = XmlHelper.createXmlUtils(outputMessage);
+      assertEquals("/Results/Row", count < 5 ? 2 : 1, xu.getNodeList("/Results/Row").getLength());
+      count++;
+    }
+  }
+
   @Override
   protected SplittingXmlPayloadTranslator createTranslatorForConfig() {
     SplittingXmlPayloadTranslator t = new SplittingXmlPayloadTranslator();
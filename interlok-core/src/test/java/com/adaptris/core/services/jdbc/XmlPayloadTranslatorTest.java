@@ -181,6 +181,71 @@ public class XmlPayloadTranslatorTest extends JdbcQueryServiceCaseXmlResults {
     assertEquals("1", msg.getMetadataValue(getName()));
   }
 
+  public void testXpathStatementParam_StreamOutput() throws Exception {
+    createDatabase();
+    List<AdapterTypeVersion> dbItems = generate(10);
+    AdapterTypeVersion entry = dbItems.get(0);
+
+    populateDatabase(dbItems, false);
+    JdbcDataQueryService s = createXmlService();
+    XmlPayloadTranslator t = new XmlPayloadTranslator();
+    t.setStreamOutput(true);
+    t.setResultCountMetadataItem(getName());
+    s.setResultSetTranslator(t);
+    AdaptrisMessage msg = createMessage(entry);
+    execute(s, msg);
+    XPath xp = new XPath();
+    Document xmlDoc = XmlHelper.createDocument(msg, DocumentBuilderFactoryBuilder.newInstance());
+    assertNull(xp.selectSingleNode(xmlDoc, "/Results/OriginalMessage"));
+    assertEquals(1, xp.selectNodeList(xmlDoc, "/Results/Row").getLength());
+    assertEquals(entry.getVersion(), xp.selectSingleTextItem(xmlDoc, "/Results/Row/ADAPTER_VERSION"));
+    assertEquals(String.valueOf(entry.getCounter()), xp.selectSingleTextItem(xmlDoc, "/Results/Row/COUNTER"));
+    assertEquals(entry.getTranslatorType(), xp.selectSingleTextItem(xmlDoc, "/Results/Row/MESSAGE_TRANSLATOR_TYPE"));
+    assertEquals("1", msg.getMetadataValue(getName()));
+    assertEquals("UTF-8", msg.getContentEncoding());
+  }
+
+  public void testPreserveOriginal_StreamOutput() throws Exception {
+    createDatabase();
+    List<AdapterTypeVersion> dbItems = generate(10);
+    AdapterTypeVersion entry = dbItems.get(0);
+
+    populateDatabase(dbItems, false);
+    JdbcDataQueryService s = createMetadataService();
+    XmlPayloadTranslator t = new XmlPayloadTranslator();
+    t.setPreserveOriginalMessage(true);
+    t.setStreamOutput(true);
+    s.setResultSetTranslator(t);
+    AdaptrisMessage msg = createMessage(entry);
+    String original = msg.getContent();
+    execute(s, msg);
+    XmlUtils xu = XmlHelper.createXmlUtils(msg);
+    assertNotNull("Xpath /Results/OriginalMessage", xu.getSingleNode("/Results/OriginalMessage"));
+    assertNotNull("Xpath /Results/OriginalMessage/*", xu.getSingleNode("/Results/OriginalMessage/*"));
+    assertNotNull("/Results/Row", xu.getSingleNode("/Results/Row"));
+    assertFalse(original.equals(msg.getContent()));
+  }
+
+  public void testXmlColumn_StreamOutput() throws Exception {
+    createDatabase();
+    List<AdapterTypeVersion> dbItems = generateWithXmlColumn(10);
+    AdapterTypeVersion entry = dbItems.get(0);
+    populateDatabase(dbItems, false);
+    JdbcDataQueryService s = createXmlService();
+    XmlPayloadTranslator t = new XmlPayloadTranslator();
+    t.setStreamOutput(true);
+    t.setXmlColumnRegexp("ADAPTER.*");
+    t.setCdataColumnRegexp("MESSAGE.*");
+    s.setResultSetTranslator(t);
+    AdaptrisMessage msg = createMessage(entry);
+    execute(s, msg);
+    XPath xp = new XPath();
+    Document xmlDoc = XmlHelper.createDocument(msg, DocumentBuilderFactoryBuilder.newInstance());
+    assertNotNull(xp.selectSingleNode(xmlDoc, "/Results/Row/ADAPTER_VERSION/xml-tag"));
+    assertEquals(entry.getTranslatorType(), xp.selectSingleTextItem(xmlDoc, "/Results/Row/MESSAGE_TRANSLATOR_TYPE"));
+    assertTrue(msg.getContent().contains("<![CDATA[" + entry.getTranslatorType() + "]]>"));
+  }
+
   @Override
   protected XmlPayloadTranslator createTranslatorForConfig() {
     XmlPayloadTranslator t = new XmlPayloadTranslator();
@@ -22,6 +22,7 @@ import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.ServiceException;
+import com.adaptris.core.lms.FileBackedMessageFactory;
 import com.adaptris.core.stubs.DefectiveMessageFactory;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.util.text.Base64ByteTranslator;
@@ -66,6 +67,25 @@ public class PayloadHashingServiceTest extends MetadataServiceExample {
     assertEquals(createHash(new Base64ByteTranslator()), msg.getMetadataValue(METADATA_KEY));
   }
 
+  public void testService_FileBackedMessage() throws Exception {
+    PayloadHashingService service = new PayloadHashingService(SHA256, METADATA_KEY);
+    AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(PAYLOAD);
+    execute(service, msg);
+    assertEquals(PAYLOAD, msg.getContent());
+    assertEquals(createHash(new Base64ByteTranslator()), msg.getMetadataValue(METADATA_KEY));
+  }
+
+  public void testService_FileBackedMessage_MemoryMapped() throws Exception {
+    PayloadHashingService service = new PayloadHashingService(SHA256, METADATA_KEY);
+    assertFalse(service.useMemoryMapping());
+    service.setUseMemoryMapping(true);
+    assertTrue(service.useMemoryMapping());
+    AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(PAYLOAD);
+    execute(service, msg);
+    assertEquals(PAYLOAD, msg.getContent());
+    assertEquals(createHash(new Base64ByteTranslator()), msg.getMetadataValue(METADATA_KEY));
+  }
+
   public void testServiceException() throws Exception {
     PayloadHashingService service = new PayloadHashingService(SHA256, METADATA_KEY);
     AdaptrisMessage msg = new DefectiveMessageFactory().newMessage(PAYLOAD);
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.ServiceException;
+import com.adaptris.core.services.SyntaxRoutingServiceExample;
+import com.adaptris.core.util.LifecycleHelper;
+
+public class RegexpSyntaxRoutingServiceTest extends SyntaxRoutingServiceExample {
+
+  private static final String ROUTING_KEY = "routingKey";
+  private static final String POSTCODE_REGEXP_2 = "[A-Z]{1,2}[0-9R][0-9A-Z]? [0-9][A-Z-[CIKMOV]]{2}";
+  private static final String POSTCODE_REGEXP_1 = "[A-Z]{1,2}[0-9R][0-9A-Z]? [0-9][A-Z]{2}";
+
+  public RegexpSyntaxRoutingServiceTest(String arg0) {
+    super(arg0);
+  }
+
+  public void testSetRoutingKey() throws Exception {
+    RegexpSyntaxRoutingService service = new RegexpSyntaxRoutingService();
+    try {
+      LifecycleHelper.init(service);
+      fail("Should not init if routingKey == null");
+    }
+    catch (CoreException e) {
+
+    }
+    service.setRoutingKey(ROUTING_KEY);
+    assertEquals(ROUTING_KEY, service.getRoutingKey());
+    try {
+      service.setRoutingKey("");
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+
+    }
+    assertEquals(ROUTING_KEY, service.getRoutingKey());
+    LifecycleHelper.init(service);
+    LifecycleHelper.close(service);
+  }
+
+  public void testSetSyntaxIdentifiers() throws Exception {
+    RegexpSyntaxRoutingService service = new RegexpSyntaxRoutingService();
+    service.addSyntaxIdentifier(new RegexpSyntaxIdentifier(Arrays.asList(POSTCODE_REGEXP_1, POSTCODE_REGEXP_2), "isPostcode"));
+    assertEquals(1, service.getSyntaxIdentifiers().size());
+    try {
+      service.addSyntaxIdentifier(null);
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+
+    }
+    try {
+      service.setSyntaxIdentifiers(null);
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+
+    }
+    assertEquals(1, service.getSyntaxIdentifiers().size());
+  }
+
+  public void testSetScanWindow() throws Exception {
+    RegexpSyntaxRoutingService service = new RegexpSyntaxRoutingService();
+    assertNull(service.getScanWindow());
+    assertEquals(RegexpSyntaxRoutingService.DEFAULT_SCAN_WINDOW, service.scanWindow());
+    service.setScanWindow(10);
+    assertEquals(Integer.valueOf(10), service.getScanWindow());
+    assertEquals(10, service.scanWindow());
+  }
+
+  public void testDoServiceFirstMatch() throws Exception {
+    RegexpSyntaxRoutingService service = createService();
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("GU34 1ET");
+    execute(service, msg);
+    assertEquals("isPostcode", msg.getMetadataValue(ROUTING_KEY));
+  }
+
+  public void testDoServiceSecondMatch() throws Exception {
+    RegexpSyntaxRoutingService service = createService();
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance()
+        .newMessage("UNA:+.? 'UNB+UNOA:1+SENDER+RECEIVER+190101:1200+1'UNH+1+ORDERS:D:96A:UN'");
+    execute(service, msg);
+    assertEquals("isOrder", msg.getMetadataValue(ROUTING_KEY));
+  }
+
+  public void testDoServiceOrderIsSignificant() throws Exception {
+    RegexpSyntaxRoutingService service = createService();
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(
+        "<?xml version=\"1.0\"?><document>UNB+UNH+1+ORDERS</document>");
+    execute(service, msg);
+    assertEquals("isOrder", msg.getMetadataValue(ROUTING_KEY));
+  }
+
+  public void testDoServiceNoMatch() throws Exception {
+    RegexpSyntaxRoutingService service = createService();
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("The quick brown fox");
+    try {
+      execute(service, msg);
+      fail();
+    }
+    catch (ServiceException e) {
+      assertEquals("Unable to identify the message syntax for routing", e.getMessage());
+    }
+  }
+
+  public void testDoServiceScanWindow() throws Exception {
+    RegexpSyntaxRoutingService service = createService();
+    service.setScanWindow(20);
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(
+        "<?xml version=\"1.0\"?><document>Some data that is beyond the scan window</document>");
+    execute(service, msg);
+    assertEquals("isXml", msg.getMetadataValue(ROUTING_KEY));
+    service.setScanWindow(-1);
+    msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(
+        "<?xml version=\"1.0\"?><document>Some data that is beyond the scan window</document>");
+    execute(service, msg);
+    assertEquals("isXml", msg.getMetadataValue(ROUTING_KEY));
+  }
+
+  public void testRequiredLiterals() throws Exception {
+    assertEquals(Arrays.asList(" "), RegexpRoutingIndex.requiredLiterals(POSTCODE_REGEXP_2));
+    assertEquals(Arrays.asList("<?xml", "<order>"), RegexpRoutingIndex.requiredLiterals("^<\\?xml.*<order>.*"));
+    assertEquals(Arrays.asList("abc", "ef"), RegexpRoutingIndex.requiredLiterals("abc+d?ef"));
+    assertEquals(Arrays.asList("bar[x]"), RegexpRoutingIndex.requiredLiterals("(foo)?bar\\[x\\]"));
+    assertEquals(Arrays.asList("yy"), RegexpRoutingIndex.requiredLiterals("x{2,3}yy"));
+    assertEquals(0, RegexpRoutingIndex.requiredLiterals("ORDERS|INVOIC").size());
+    assertEquals(0, RegexpRoutingIndex.requiredLiterals("(?i)orders").size());
+    assertEquals(0, RegexpRoutingIndex.requiredLiterals("\\x41BC").size());
+  }
+
+  public void testIndex_LiteralsPresent() throws Exception {
+    RegexpRoutingIndex index = new RegexpRoutingIndex(createIdentifiers());
+    assertTrue(index.literalCount() > 0);
+    assertEquals(0, index.literalsPresent("TheQuickBrownFox").cardinality());
+    assertNull(index.route("The quick brown fox"));
+    assertEquals("isPostcode", index.route("GU34 1ET"));
+  }
+
+  private RegexpSyntaxRoutingService createService() {
+    RegexpSyntaxRoutingService service = new RegexpSyntaxRoutingService();
+    service.setRoutingKey(ROUTING_KEY);
+    service.setSyntaxIdentifiers(createIdentifiers());
+    return service;
+  }
+
+  private List<RegexpSyntaxIdentifier> createIdentifiers() {
+    List<RegexpSyntaxIdentifier> result = new ArrayList<RegexpSyntaxIdentifier>();
+    result.add(new RegexpSyntaxIdentifier(new ArrayList<String>(Arrays.asList(POSTCODE_REGEXP_1, POSTCODE_REGEXP_2)),
+        "isPostcode"));
+    result.add(new RegexpSyntaxIdentifier(new ArrayList<String>(Arrays.asList(".*UNB\\+.*", ".*UNH\\+.*ORDERS.*")), "isOrder"));
+    result.add(new RegexpSyntaxIdentifier(new ArrayList<String>(Arrays.asList("^<\\?xml.*")), "isXml"));
+    return result;
+  }
+
+  @Override
+  protected Object retrieveObjectForSampleConfig() {
+    RegexpSyntaxRoutingService service = createService();
+    service.setScanWindow(1024);
+    return service;
+  }
+}
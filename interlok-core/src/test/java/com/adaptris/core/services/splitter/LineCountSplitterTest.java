@@ -26,6 +26,7 @@ import org.apache.commons.logging.LogFactory;
 
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.DefaultMessageFactory;
+import com.adaptris.core.lms.FileBackedMessageFactory;
 import com.adaptris.core.stubs.MockMessageProducer;
 import com.adaptris.core.stubs.StubMessageFactory;
 
@@ -114,6 +115,23 @@ public class LineCountSplitterTest extends SplitterCase {
     assertEquals("10 split messages", 10, msgs.size());
   }
 
+  public void testDefaultSplit_FileBackedMessage() throws Exception {
+    LineCountSplitter s = new LineCountSplitter();
+    AdaptrisMessage fileBacked = new FileBackedMessageFactory().newMessage(msg.getPayload());
+    List<AdaptrisMessage> msgs = toList(s.splitMessage(fileBacked));
+    assertEquals("10 split messages", 10, msgs.size());
+  }
+
+  public void testDefaultSplit_FileBackedMessage_MemoryMapped() throws Exception {
+    LineCountSplitter s = new LineCountSplitter();
+    assertFalse(s.useMemoryMapping());
+    s.setUseMemoryMapping(true);
+    assertTrue(s.useMemoryMapping());
+    AdaptrisMessage fileBacked = new FileBackedMessageFactory().newMessage(msg.getPayload());
+    List<AdaptrisMessage> msgs = toList(s.splitMessage(fileBacked));
+    assertEquals("10 split messages", 10, msgs.size());
+  }
+
   public void testSingleLineSplit() throws Exception {
     LineCountSplitter s = new LineCountSplitter();
     s.setSplitOnLine(1);
@@ -69,6 +69,18 @@ public class ServiceWorkerPoolTest extends ServiceWorkerPool {
     ManagedThreadFactory.shutdownQuietly(exec, new TimeInterval());
   }
 
+  @Test
+  public void testCreateExecutor_VirtualThreads() throws Exception {
+    ServiceWorkerPool pool = new ServiceWorkerPool(new NullService(), null, 10, true);
+    ExecutorService exec = pool.createExecutor("testCreateExecutor_VirtualThreads");
+    try {
+      assertNotNull(exec.submit(() -> Thread.currentThread().getName()).get());
+    }
+    finally {
+      ManagedThreadFactory.shutdownQuietly(exec, new TimeInterval());
+    }
+  }
+
   @Test
   public void testCloseQuietly() {
     closeQuietly((GenericObjectPool) null);
@@ -20,6 +20,7 @@ import java.util.List;
 
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.lms.FileBackedMessageFactory;
 
 public class SizeBasedSplitterTest extends SplitterCase {
 
@@ -70,6 +71,35 @@ public class SizeBasedSplitterTest extends SplitterCase {
     assertEquals(LINE, resultString);
   }
 
+  public void testSplitMessage_FileBackedMessage() throws Exception {
+    SizeBasedSplitter splitter = new SizeBasedSplitter();
+    splitter.setSplitSizeBytes(5);
+    AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(LINE);
+    List<AdaptrisMessage> result = toList(splitter.splitMessage(msg));
+    assertEquals((LINE.length() + 4) / 5, result.size());
+    String resultString = "";
+    for (AdaptrisMessage m : result) {
+      resultString += m.getContent();
+    }
+    assertEquals(LINE, resultString);
+  }
+
+  public void testSplitMessage_FileBackedMessage_MemoryMapped() throws Exception {
+    SizeBasedSplitter splitter = new SizeBasedSplitter();
+    assertFalse(splitter.useMemoryMapping());
+    splitter.setUseMemoryMapping(true);
+    assertTrue(splitter.useMemoryMapping());
+    splitter.setSplitSizeBytes(5);
+    AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(LINE);
+    List<AdaptrisMessage> result = toList(splitter.splitMessage(msg));
+    assertEquals((LINE.length() + 4) / 5, result.size());
+    String resultString = "";
+    for (AdaptrisMessage m : result) {
+      resultString += m.getContent();
+    }
+    assertEquals(LINE, resultString);
+  }
+
   public void testSplitMessageWithObjectMetadata() throws Exception {
     SizeBasedSplitter splitter = new SizeBasedSplitter();
     splitter.setSplitSizeBytes(1);
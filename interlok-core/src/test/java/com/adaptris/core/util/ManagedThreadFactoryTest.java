@@ -15,10 +15,15 @@
 */
 package com.adaptris.core.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -92,6 +97,44 @@ public class ManagedThreadFactoryTest {
     });
   }
 
+  @Test
+  public void testVirtualThreadsAvailable() throws Exception {
+    boolean expected = true;
+    try {
+      Thread.class.getMethod("ofVirtual");
+    }
+    catch (NoSuchMethodException e) {
+      expected = false;
+    }
+    assertEquals(expected, ManagedThreadFactory.virtualThreadsAvailable());
+  }
+
+  @Test
+  public void testNewVirtualThreadPerTaskExecutor() throws Exception {
+    ExecutorService executor = ManagedThreadFactory.newVirtualThreadPerTaskExecutor("testVirtual");
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      results.add(executor.submit(() -> {
+        TimeUnit.MILLISECONDS.sleep(10);
+        return Thread.currentThread().getName();
+      }));
+    }
+    for (Future<String> f : results) {
+      assertTrue(f.get().startsWith("testVirtual-"));
+    }
+    ManagedThreadFactory.shutdownQuietly(executor, new TimeInterval(1L, TimeUnit.SECONDS));
+    assertTrue(executor.isShutdown());
+  }
+
+  @Test
+  public void testNewVirtualThreadPerTaskExecutor_Interrupted() throws Exception {
+    ExecutorService executor = ManagedThreadFactory.newVirtualThreadPerTaskExecutor("testVirtual");
+    Future<?> f = executor.submit(new StayingAlive());
+    ManagedThreadFactory.shutdownQuietly(executor, new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    f.get(5, TimeUnit.SECONDS);
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
   private class StayingAlive implements Runnable {
 
     @Override
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.PrintStream;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.DefaultMessageFactory;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+
+public class ParsedDocumentCacheTest {
+
+  private static final String XML = "<document><content>text body</content></document>";
+  private static final String XML_2 = "<document><content>another body</content></document>";
+
+  @Test
+  public void testGetDocument_Cached() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML);
+    Document d1 = ParsedDocumentCache.getDocument(msg, DocumentBuilderFactoryBuilder.newInstance());
+    Document d2 = ParsedDocumentCache.getDocument(msg, DocumentBuilderFactoryBuilder.newInstance());
+    assertSame(d1, d2);
+    Document d3 = ParsedDocumentCache.getDocument(msg, DocumentBuilderFactoryBuilder.newInstance().withNamespaceAware(false));
+    assertNotSame(d1, d3);
+    assertSame(d3, ParsedDocumentCache.getDocument(msg, new DocumentBuilderFactoryBuilder().withNamespaceAware(false)));
+  }
+
+  @Test
+  public void testGetDocument_InvalidatedBySetContent() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML);
+    Document d1 = ParsedDocumentCache.getDocument(msg, null);
+    msg.setContent(XML_2, msg.getContentEncoding());
+    Document d2 = ParsedDocumentCache.getDocument(msg, null);
+    assertNotSame(d1, d2);
+    assertEquals("another body", d2.getDocumentElement().getTextContent());
+  }
+
+  @Test
+  public void testGetDocument_InvalidatedByOutputStream() throws Exception {
+    assertInvalidatedByOutputStream(new DefaultMessageFactory());
+    assertInvalidatedByOutputStream(new FileBackedMessageFactory());
+  }
+
+  @Test
+  public void testGetDocument_NotSharedWithClone() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML);
+    ParsedDocumentCache.getDocument(msg, null);
+    AdaptrisMessage clone = (AdaptrisMessage) msg.clone();
+    assertFalse(clone.getObjectHeaders().containsKey(ParsedDocumentCache.OBJ_METADATA_KEY));
+  }
+
+  @Test
+  public void testGetDocument_ObjectMetadataCopied() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML);
+    Document d1 = ParsedDocumentCache.getDocument(msg, null);
+    AdaptrisMessage other = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_2);
+    other.getObjectHeaders().putAll(msg.getObjectHeaders());
+    Document d2 = ParsedDocumentCache.getDocument(other, null);
+    assertNotSame(d1, d2);
+    assertEquals("another body", d2.getDocumentElement().getTextContent());
+  }
+
+  @Test
+  public void testGetDocument_String() throws Exception {
+    String xml = new String(XML);
+    Document d1 = ParsedDocumentCache.getDocument(xml, null);
+    assertSame(d1, ParsedDocumentCache.getDocument(xml, null));
+    assertNotSame(d1, ParsedDocumentCache.getDocument(new String(XML), null));
+  }
+
+  private void assertInvalidatedByOutputStream(AdaptrisMessageFactory fac) throws Exception {
+    AdaptrisMessage msg = fac.newMessage(XML);
+    Document d1 = ParsedDocumentCache.getDocument(msg, null);
+    try (PrintStream out = new PrintStream(msg.getOutputStream())) {
+      out.print(XML_2);
+    }
+    Document d2 = ParsedDocumentCache.getDocument(msg, null);
+    assertNotSame(d1, d2);
+    assertEquals("another body", d2.getDocumentElement().getTextContent());
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.Test;
+
+public class XmlStreamHelperTest {
+
+  private static final String XML = "<?xml version=\"1.0\"?><!-- comment -->"
+      + "<a:root xmlns:a=\"urn:a\" xmlns=\"urn:default\" a:attr=\"1\" b=\"2\"><child>text &amp; more</child><!--c--><?pi data?></a:root>";
+
+  @Test
+  public void testIsWellFormed() throws Exception {
+    assertTrue(XmlStreamHelper.isWellFormed(XML));
+    assertTrue(XmlStreamHelper.isWellFormed(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8))));
+    assertFalse(XmlStreamHelper.isWellFormed("<root>"));
+    assertFalse(XmlStreamHelper.isWellFormed("hello world"));
+    assertFalse(XmlStreamHelper.isWellFormed((String) null));
+    assertFalse(XmlStreamHelper.isWellFormed(new ByteArrayInputStream("<root>".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  public void testCopyDocumentElement() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    XMLStreamWriter writer = XmlStreamHelper.startDocument(out, "UTF-8");
+    writer.writeStartElement("wrapper");
+    XmlStreamHelper.copyDocumentElement(XML, writer);
+    XmlStreamHelper.copyDocumentElement(new ByteArrayInputStream("<second/>".getBytes(StandardCharsets.UTF_8)), writer);
+    writer.writeEndElement();
+    writer.writeEndDocument();
+    XmlStreamHelper.closeQuietly(writer);
+    String result = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertTrue(result.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"));
+    assertFalse(result.contains("comment"));
+    assertTrue(result.contains("<a:root xmlns:a=\"urn:a\" xmlns=\"urn:default\" a:attr=\"1\" b=\"2\">"));
+    assertTrue(result.contains("<child>text &amp; more</child><!--c--><?pi data?></a:root>"));
+    assertTrue(result.endsWith("<second></second></wrapper>") || result.endsWith("<second/></wrapper>"));
+    assertTrue(XmlStreamHelper.isWellFormed(result));
+  }
+
+  @Test
+  public void testWriteCData() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    XMLStreamWriter writer = XmlStreamHelper.startDocument(out, "UTF-8");
+    writer.writeStartElement("root");
+    XmlStreamHelper.writeCData(writer, "a]]>b");
+    writer.writeEndElement();
+    writer.writeEndDocument();
+    XmlStreamHelper.closeQuietly(writer);
+    String result = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertTrue(result.endsWith("<root><![CDATA[a]]]]><![CDATA[>b]]></root>"));
+    assertTrue(XmlStreamHelper.isWellFormed(result));
+    assertEquals("a]]>b", XmlHelper.createDocument(result).getDocumentElement().getTextContent());
+  }
+}
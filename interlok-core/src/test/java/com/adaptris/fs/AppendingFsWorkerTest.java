@@ -44,4 +44,14 @@ public class AppendingFsWorkerTest extends StandardWorkerTest {
 
     assertEquals(DATA + DATA, new String(readBytes));
   }
+
+  @Override
+  @Test
+  public void testPutFromFileExists() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    worker.put(new File(baseDir, testFiles[0]), new File(baseDir, testFiles[1]));
+    byte[] readBytes = worker.get(new File(baseDir, testFiles[1]));
+    assertEquals(DATA + DATA, new String(readBytes));
+  }
 }
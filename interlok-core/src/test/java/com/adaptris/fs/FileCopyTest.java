@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.fs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileCopyTest {
+
+  private static final String DATA = "The quick brown fox jumps over the lazy dog";
+
+  private File src;
+  private File dest;
+
+  @Before
+  public void setUp() throws Exception {
+    src = File.createTempFile("FileCopyTest", ".src");
+    dest = File.createTempFile("FileCopyTest", ".dest");
+    FileUtils.writeStringToFile(src, DATA, StandardCharsets.UTF_8);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteQuietly(src);
+    FileUtils.deleteQuietly(dest);
+  }
+
+  @Test
+  public void testTransfer() throws Exception {
+    FileUtils.writeStringToFile(dest, "previous contents that are longer than the data", StandardCharsets.UTF_8);
+    assertEquals(DATA.length(), FileCopy.transfer(src, dest, false));
+    assertEquals(DATA, FileUtils.readFileToString(dest, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testTransfer_Append() throws Exception {
+    FileCopy.transfer(src, dest, false);
+    FileCopy.transfer(src, dest, true);
+    assertEquals(DATA + DATA, FileUtils.readFileToString(dest, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testLinkOrCopy() throws Exception {
+    FileCopy.linkOrCopy(src, dest);
+    assertEquals(DATA, FileUtils.readFileToString(dest, StandardCharsets.UTF_8));
+    // Deleting the source shouldn't affect the destination, whether it was linked or copied.
+    src.delete();
+    assertEquals(DATA, FileUtils.readFileToString(dest, StandardCharsets.UTF_8));
+  }
+}
@@ -71,6 +71,36 @@ public class NioWorkerTest extends StandardWorkerTest {
     }
   }
 
+  @Test
+  public void testLockWhileWriting_FromFile() throws Exception {
+    NioWorker worker = createWorker();
+    File src = File.createTempFile(this.getClass().getSimpleName(), "");
+    File f = File.createTempFile(this.getClass().getSimpleName(), "");
+    f.delete();
+    try {
+      FileUtils.writeByteArrayToFile(src, BYTES);
+      RandomAccessFile raf = new RandomAccessFile(f, "rwd");
+      FileLock lock = raf.getChannel().lock();
+      try {
+        // Use the write method, because this "bypasses" the file.exists() check
+        worker.write(src, f);
+        fail();
+      }
+      catch (FsException expected) {
+        assertEquals(OverlappingFileLockException.class, expected.getCause().getClass());
+      }
+      lock.release();
+      raf.close();
+      f.delete();
+      worker.put(src, f);
+      assertEquals(BYTES.length, f.length());
+    }
+    finally {
+      FileUtils.deleteQuietly(src);
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
   @Test
   public void testLockWhileReading() throws Exception {
     FsWorker worker = createWorker();
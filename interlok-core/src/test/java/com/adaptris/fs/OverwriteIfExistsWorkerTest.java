@@ -45,6 +45,16 @@ public class OverwriteIfExistsWorkerTest extends StandardWorkerTest {
     assertEquals(DATA, new String(readBytes));
   }
 
+  @Override
+  @Test
+  public void testPutFromFileExists() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    worker.put(new File(baseDir, testFiles[0]), new File(baseDir, testFiles[1]));
+    byte[] readBytes = worker.get(new File(baseDir, testFiles[1]));
+    assertEquals(DATA, new String(readBytes));
+  }
+
   @Test
   public void testPutFile_Does_Not_Exist() throws Exception {
     OverwriteIfExistsWorker worker = createWorker();
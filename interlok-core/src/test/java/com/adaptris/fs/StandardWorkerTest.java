@@ -197,6 +197,36 @@ public class StandardWorkerTest extends FsCase {
     }
   }
 
+  @Test
+  public void testPutFromFile() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    String newFilename = new GuidGenerator().safeUUID();
+    worker.put(new File(baseDir, testFiles[0]), new File(baseDir, newFilename));
+    byte[] result = worker.get(new File(baseDir, newFilename));
+    assertEquals(DATA, new String(result));
+    try {
+      worker.put(new File(baseDir, new GuidGenerator().safeUUID()), new File(baseDir, new GuidGenerator().safeUUID()));
+      fail();
+    }
+    catch (FsException expected) {
+
+    }
+  }
+
+  @Test
+  public void testPutFromFileExists() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    try {
+      worker.put(new File(baseDir, testFiles[0]), new File(baseDir, testFiles[1]));
+      fail();
+    }
+    catch (FsException e) {
+
+    }
+  }
+
   @Test
   public void testRenameFile() throws Exception {
     FsWorker worker = createWorker();
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.ftp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.net.ftp.parser.MLSxEntryParser;
+import org.apache.commons.net.ftp.parser.UnixFTPEntryParser;
+import org.junit.Test;
+
+import com.adaptris.filetransfer.RemoteFile;
+
+public class CommonsNetFtpClientListFilesTest {
+
+  @Test
+  public void testListFiles_Mlsd() throws Exception {
+    FTPClient ftp = connectedClient();
+    when(ftp.hasFeature("MLST")).thenReturn(true);
+    when(ftp.mlistDir("/remote")).thenReturn(new FTPFile[]
+    {
+        MLSxEntryParser.parseEntry("type=cdir;modify=20190101100000; ."),
+        MLSxEntryParser.parseEntry("type=pdir;modify=20190101100000; .."),
+        MLSxEntryParser.parseEntry("type=file;size=10;modify=20190101110000; file1"),
+        MLSxEntryParser.parseEntry("type=dir;modify=20190101120000; dir")
+    });
+    List<RemoteFile> files = new MockFtpClient(ftp).listFiles("/remote", null);
+    verify(ftp, never()).listFiles(anyString());
+    assertEquals(2, files.size());
+    assertFile(files.get(0), "file1", 10, false);
+    assertEquals(mdtm("20190101110000"), files.get(0).lastModified());
+    assertTrue(files.get(0).hasLastModified());
+    assertFile(files.get(1), "dir", 0, true);
+    assertEquals(mdtm("20190101120000"), files.get(1).lastModified());
+  }
+
+  @Test
+  public void testListFiles_List() throws Exception {
+    FTPClient ftp = connectedClient();
+    when(ftp.hasFeature("MLST")).thenReturn(false);
+    UnixFTPEntryParser parser = new UnixFTPEntryParser();
+    when(ftp.listFiles("/remote")).thenReturn(new FTPFile[]
+    {
+        parser.parseFTPEntry("drwxr-xr-x   2 user group  4096 Jan  1 10:00 ."),
+        parser.parseFTPEntry("drwxr-xr-x   2 user group  4096 Jan  1 10:00 .."),
+        parser.parseFTPEntry("-rw-r--r--   1 user group    14 Jan  1 11:00 file2"),
+        parser.parseFTPEntry("drwxr-xr-x   2 user group  4096 Jan  1 12:00 dir")
+    });
+    List<RemoteFile> files = new MockFtpClient(ftp).listFiles("/remote", null);
+    verify(ftp, never()).mlistDir(anyString());
+    assertEquals(2, files.size());
+    assertFile(files.get(0), "file2", 14, false);
+    assertFile(files.get(1), "dir", 4096, true);
+    // Only MLSD reports a last modified time that can be relied on.
+    assertFalse(files.get(0).hasLastModified());
+    assertFalse(files.get(1).hasLastModified());
+  }
+
+  @Test
+  public void testListFiles_WithFilter() throws Exception {
+    FTPClient ftp = connectedClient();
+    when(ftp.hasFeature("MLST")).thenReturn(true);
+    when(ftp.mlistDir("/remote")).thenReturn(new FTPFile[]
+    {
+        MLSxEntryParser.parseEntry("type=file;size=10;modify=20190101110000; file1"),
+        MLSxEntryParser.parseEntry("type=file;size=20;modify=20190101120000; file2.xml")
+    });
+    List<RemoteFile> files = new MockFtpClient(ftp).listFiles("/remote", f -> f.getName().endsWith(".xml"));
+    assertEquals(1, files.size());
+    assertFile(files.get(0), "file2.xml", 20, false);
+  }
+
+  private static void assertFile(RemoteFile file, String name, long size, boolean dir) {
+    assertEquals(name, file.getRemoteName());
+    assertEquals(size, file.length());
+    assertEquals(dir, file.isDirectory());
+  }
+
+  private static long mdtm(String s) throws Exception {
+    return new SimpleDateFormat("yyyyMMddHHmmss").parse(s).getTime();
+  }
+
+  private static FTPClient connectedClient() {
+    FTPClient ftp = mock(FTPClient.class);
+    when(ftp.getReplyCode()).thenReturn(FTPReply.COMMAND_OK);
+    when(ftp.getReplyStrings()).thenReturn(new String[0]);
+    return ftp;
+  }
+
+  private static class MockFtpClient extends CommonsNetFtpClient {
+    private final FTPClient client;
+
+    MockFtpClient(FTPClient c) throws Exception {
+      super("localhost");
+      client = c;
+    }
+
+    @Override
+    protected FTPClient createFTPClient() {
+      return client;
+    }
+  }
+}
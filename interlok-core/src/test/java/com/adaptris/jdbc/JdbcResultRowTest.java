@@ -2,7 +2,9 @@ package com.adaptris.jdbc;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import java.sql.Types;
+import java.util.Arrays;
 import org.junit.Test;
 
 public class JdbcResultRowTest {
@@ -76,4 +78,50 @@ public class JdbcResultRowTest {
     assertNull(row.getFieldType("testField2"));
   }
 
+
+  @Test
+  public void testSharedSchema() {
+    JdbcResultSchema schema = createSchema();
+    JdbcResultRow row1 = new JdbcResultRow(schema, new Object[] {Integer.valueOf(1), "hello"});
+    JdbcResultRow row2 = new JdbcResultRow(schema, new Object[] {Integer.valueOf(2), "world"});
+    assertEquals(2, row1.getFieldCount());
+    assertSame(row1.getFieldNames(), row2.getFieldNames());
+    assertEquals("id", row1.getFieldName(0));
+    assertEquals(Integer.valueOf(2), row2.getFieldValue("id"));
+    assertEquals("world", row2.getFieldValue(1));
+    assertEquals(ParameterValueType.VARCHAR, row1.getFieldType("name"));
+    assertEquals(ParameterValueType.INTEGER, row1.getFieldType(0));
+    assertNull(row1.getFieldValue("blah"));
+    assertNull(row1.getFieldType("blah"));
+    assertEquals(-1, schema.indexOf("blah"));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSharedSchema_GetFieldValue_Index() {
+    JdbcResultRow row = new JdbcResultRow(createSchema(), new Object[] {Integer.valueOf(1), "hello"});
+    row.getFieldValue(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSharedSchema_MismatchedValues() {
+    new JdbcResultRow(createSchema(), new Object[] {Integer.valueOf(1)});
+  }
+
+  @Test
+  public void testSharedSchema_SetFieldValue() {
+    JdbcResultSchema schema = createSchema();
+    JdbcResultRow row1 = new JdbcResultRow(schema, new Object[] {Integer.valueOf(1), "hello"});
+    JdbcResultRow row2 = new JdbcResultRow(schema, new Object[] {Integer.valueOf(2), "world"});
+    row1.setFieldValue("extra", "value", Types.VARCHAR);
+    assertEquals(3, row1.getFieldCount());
+    assertEquals("value", row1.getFieldValue("extra"));
+    assertEquals("hello", row1.getFieldValue("name"));
+    assertEquals(2, row2.getFieldCount());
+    assertEquals(2, schema.getColumnCount());
+  }
+
+  private static JdbcResultSchema createSchema() {
+    return new JdbcResultSchema(Arrays.asList("id", "name"),
+        Arrays.asList(ParameterValueType.INTEGER, ParameterValueType.VARCHAR));
+  }
 }
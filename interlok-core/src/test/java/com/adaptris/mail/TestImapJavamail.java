@@ -16,8 +16,18 @@
 
 package com.adaptris.mail;
 
+import static com.adaptris.mail.JunitMailHelper.DEFAULT_RECEIVER;
+import static com.adaptris.mail.JunitMailHelper.DEFAULT_SENDER;
+import static com.adaptris.mail.JunitMailHelper.assertFrom;
+import static com.adaptris.mail.JunitMailHelper.startServer;
+import static com.adaptris.mail.JunitMailHelper.stopServer;
+import static com.adaptris.mail.JunitMailHelper.testsEnabled;
+
+import javax.mail.internet.MimeMessage;
+
 import com.icegreen.greenmail.imap.ImapServer;
 import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
 
 public class TestImapJavamail extends MailReceiverCase {
 
@@ -32,5 +42,31 @@ public class TestImapJavamail extends MailReceiverCase {
     return client;
   }
 
-
+  public void testFetchPageSize() throws Exception {
+    if (!testsEnabled()) return;
+    GreenMail gm = startServer(DEFAULT_RECEIVER, DEFAULT_POP3_USER, DEFAULT_POP3_PASSWORD);
+    ServerSetup smtpServerSetup = new ServerSetup(gm.getSmtp().getPort(), null, ServerSetup.PROTOCOL_SMTP);
+    sendMessage(DEFAULT_SENDER, DEFAULT_RECEIVER, smtpServerSetup);
+    sendMessage("anotherAddress@anotherDomain.com", DEFAULT_RECEIVER, smtpServerSetup);
+    sendMessage(DEFAULT_SENDER, DEFAULT_RECEIVER, smtpServerSetup);
+    sendMessage("anotherAddress@anotherDomain.com", DEFAULT_RECEIVER, smtpServerSetup);
+    sendMessage(DEFAULT_SENDER, DEFAULT_RECEIVER, smtpServerSetup);
+    MailboxClient mbox = (MailboxClient) createClient(gm);
+    mbox.setFetchPageSize(2);
+    mbox.setRegularExpressionCompiler(GLOB);
+    mbox.setFromFilter(DEFAULT_SENDER);
+    try {
+      mbox.connect();
+      int count = 0;
+      for (MimeMessage msg : mbox) {
+        assertFrom(msg, DEFAULT_SENDER);
+        count++;
+      }
+      assertEquals(3, count);
+    }
+    finally {
+      mbox.disconnect();
+      stopServer(gm);
+    }
+  }
 }
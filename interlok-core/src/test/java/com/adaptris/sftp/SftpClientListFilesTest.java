@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.sftp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Vector;
+
+import org.junit.Test;
+
+import com.adaptris.filetransfer.RemoteFile;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+
+public class SftpClientListFilesTest {
+
+  @Test
+  public void testListFiles() throws Exception {
+    Vector<ChannelSftp.LsEntry> entries = new Vector<>();
+    entries.add(entry(".", 0, 0, true));
+    entries.add(entry("..", 0, 0, true));
+    entries.add(entry("file2", 20, 1546344000, false));
+    entries.add(entry("dir", 4096, 1546347600, true));
+    entries.add(entry("file1", 10, 1546340400, false));
+    ChannelSftp channel = mock(ChannelSftp.class);
+    when(channel.isConnected()).thenReturn(true);
+    when(channel.ls("/remote")).thenReturn(entries);
+
+    SftpClient client = new SftpClient("localhost").withChannel(channel);
+    List<RemoteFile> files = client.listFiles("/remote", null);
+    assertEquals(3, files.size());
+    assertFile(files.get(0), "dir", 4096, 1546347600000L, true);
+    assertFile(files.get(1), "file1", 10, 1546340400000L, false);
+    assertFile(files.get(2), "file2", 20, 1546344000000L, false);
+  }
+
+  @Test
+  public void testListFiles_WithFilter() throws Exception {
+    Vector<ChannelSftp.LsEntry> entries = new Vector<>();
+    entries.add(entry("file1", 10, 1546340400, false));
+    entries.add(entry("file2.xml", 20, 1546344000, false));
+    ChannelSftp channel = mock(ChannelSftp.class);
+    when(channel.isConnected()).thenReturn(true);
+    when(channel.ls("/remote")).thenReturn(entries);
+
+    SftpClient client = new SftpClient("localhost").withChannel(channel);
+    List<RemoteFile> files = client.listFiles("/remote", f -> f.getName().endsWith(".xml"));
+    assertEquals(1, files.size());
+    assertFile(files.get(0), "file2.xml", 20, 1546344000000L, false);
+  }
+
+  @Test(expected = SftpException.class)
+  public void testListFiles_NotConnected() throws Exception {
+    new SftpClient("localhost").listFiles("/remote", null);
+  }
+
+  private static void assertFile(RemoteFile file, String name, long size, long lastModified, boolean dir) {
+    assertEquals(name, file.getRemoteName());
+    assertEquals(size, file.length());
+    assertEquals(lastModified, file.lastModified());
+    assertTrue(file.hasLastModified());
+    assertEquals(dir, file.isDirectory());
+  }
+
+  private static ChannelSftp.LsEntry entry(String name, long size, int mtime, boolean dir) {
+    SftpATTRS attrs = mock(SftpATTRS.class);
+    when(attrs.getSize()).thenReturn(size);
+    when(attrs.getMTime()).thenReturn(mtime);
+    when(attrs.isDir()).thenReturn(dir);
+    ChannelSftp.LsEntry entry = mock(ChannelSftp.LsEntry.class);
+    when(entry.getFilename()).thenReturn(name);
+    when(entry.getAttrs()).thenReturn(attrs);
+    return entry;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelGzipOutputStreamTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testMultipleBlocks() throws Exception {
+    byte[] data = createData(10000);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, executor, 1024, 2)) {
+      out.write(data, 0, 100);
+      out.write(data[100]);
+      out.write(data, 101, data.length - 101);
+    }
+    assertArrayEquals(data, gunzip(compressed.toByteArray()));
+  }
+
+  @Test
+  public void testExactBlockSize() throws Exception {
+    byte[] data = createData(2048);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, executor, 1024, 1)) {
+      out.write(data);
+      out.flush();
+    }
+    assertArrayEquals(data, gunzip(compressed.toByteArray()));
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    new ParallelGzipOutputStream(compressed, executor, 1024, 2).close();
+    assertEquals(0, gunzip(compressed.toByteArray()).length);
+  }
+
+  @Test
+  public void testWriteAfterClose() throws Exception {
+    ParallelGzipOutputStream out = new ParallelGzipOutputStream(new ByteArrayOutputStream(), executor, 1024, 2);
+    out.close();
+    out.close();
+    try {
+      out.write(1);
+      fail();
+    }
+    catch (IOException expected) {
+
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBlockSize() throws Exception {
+    new ParallelGzipOutputStream(new ByteArrayOutputStream(), executor, 0, 2);
+  }
+
+  private static byte[] createData(int size) {
+    byte[] result = new byte[size];
+    new Random(size).nextBytes(result);
+    // make it a bit more compressible.
+    for (int i = 0; i < size; i += 2) {
+      result[i] = 'a';
+    }
+    return result;
+  }
+
+  private static byte[] gunzip(byte[] compressed) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return IOUtils.toByteArray(in);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class AhoCorasickTest {
+
+  @Test
+  public void testMatches() {
+    AhoCorasick automaton = new AhoCorasick(Arrays.asList("he", "she", "his", "hers"));
+    assertEquals(Arrays.asList("1@4", "0@4", "3@6"), matches(automaton, "ushers"));
+    assertEquals(Arrays.asList("2@4"), matches(automaton, "this"));
+    assertEquals(new ArrayList<String>(), matches(automaton, "xyz"));
+  }
+
+  @Test
+  public void testOverlapping() {
+    AhoCorasick automaton = new AhoCorasick(Arrays.asList("aa", "a"));
+    assertEquals(Arrays.asList("1@1", "0@2", "1@2"), matches(automaton, "aa"));
+  }
+
+  @Test
+  public void testDuplicatesAndEmpty() {
+    AhoCorasick automaton = new AhoCorasick(Arrays.asList("", null, "abc", "abc"));
+    assertEquals(Arrays.asList("2@3"), matches(automaton, "abc"));
+  }
+
+  @Test
+  public void testNoLiterals() {
+    AhoCorasick automaton = new AhoCorasick(new ArrayList<String>());
+    AhoCorasick.State state = automaton.next(automaton.start(), 'a');
+    assertSame(automaton.start(), state);
+    assertEquals(0, state.depth());
+    assertEquals(-1, state.literal());
+    assertNull(state.firstMatch());
+  }
+
+  // Each match is "literal@end", where end is exclusive.
+  private static List<String> matches(AhoCorasick automaton, String input) {
+    List<String> result = new ArrayList<>();
+    AhoCorasick.State state = automaton.start();
+    for (int i = 0; i < input.length(); i++) {
+      state = automaton.next(state, input.charAt(i));
+      for (AhoCorasick.State s = state.firstMatch(); s != null; s = s.nextMatch()) {
+        result.add(s.literal() + "@" + (i + 1));
+      }
+    }
+    return result;
+  }
+}
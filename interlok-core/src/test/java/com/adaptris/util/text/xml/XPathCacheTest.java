@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.adaptris.util.text.xml;
+
+import static com.adaptris.util.text.xml.SimpleNamespaceContextTest.createNamespaceEntries;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
+import com.adaptris.core.util.XmlHelper;
+
+public class XPathCacheTest {
+  private final static String XML = "<root><test att='1'>one</test><test att='2'>two</test></root>";
+
+  @Before
+  public void setUp() throws Exception {
+    XPathCache.clear();
+    XPathCache.resetStatistics();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    XPathCache.clear();
+  }
+
+  @Test
+  public void testCompile_IsCached() throws Exception {
+    XPathExpression e1 = XPathCache.compile("key", null, "/root/test", () -> XPathFactory.newInstance().newXPath());
+    XPathExpression e2 = XPathCache.compile("key", null, "/root/test", () -> XPathFactory.newInstance().newXPath());
+    assertSame(e1, e2);
+    assertEquals(1, XPathCache.misses());
+    assertEquals(1, XPathCache.hits());
+    XPathExpression e3 = XPathCache.compile("anotherKey", null, "/root/test", () -> XPathFactory.newInstance().newXPath());
+    assertNotSame(e1, e3);
+    assertEquals(2, XPathCache.misses());
+  }
+
+  @Test
+  public void testCompile_EquivalentNamespaceContext() throws Exception {
+    NamespaceContext ctx1 = SimpleNamespaceContext.create(createNamespaceEntries());
+    NamespaceContext ctx2 = SimpleNamespaceContext.create(createNamespaceEntries());
+    assertNotSame(ctx1, ctx2);
+    assertEquals(ctx1, ctx2);
+    XPathExpression e1 = XPathCache.compile("key", ctx1, "/root/test", () -> XPathFactory.newInstance().newXPath());
+    XPathExpression e2 = XPathCache.compile("key", ctx2, "/root/test", () -> XPathFactory.newInstance().newXPath());
+    assertSame(e1, e2);
+  }
+
+  @Test
+  public void testXPath_KeyedByFactoryInstance() throws Exception {
+    Document d = XmlHelper.createDocument(XML, DocumentBuilderFactoryBuilder.newInstance());
+    XPathFactory f1 = XPathFactory.newInstance();
+    XPathFactory f2 = XPathFactory.newInstance();
+    assertEquals(f1.getClass(), f2.getClass());
+    assertEquals("one", new XPath(null, f1).selectSingleTextItem(d, "/root/test"));
+    assertEquals("one", new XPath(null, f1).selectSingleTextItem(d, "/root/test"));
+    assertEquals(1, XPathCache.misses());
+    assertEquals(1, XPathCache.hits());
+    // Same class, but a different factory, so it is compiled again.
+    assertEquals("one", new XPath(null, f2).selectSingleTextItem(d, "/root/test"));
+    assertEquals(2, XPathCache.misses());
+  }
+
+  @Test
+  public void testCompile_ThreadConfined() throws Exception {
+    final XPathExpression e1 = XPathCache.compile("key", null, "/root/test",
+        () -> XPathFactory.newInstance().newXPath());
+    final AtomicReference<XPathExpression> other = new AtomicReference<>();
+    Thread t = new Thread(() -> {
+      try {
+        other.set(XPathCache.compile("key", null, "/root/test", () -> XPathFactory.newInstance().newXPath()));
+      } catch (Exception e) {
+      }
+    });
+    t.start();
+    t.join();
+    assertNotSame(e1, other.get());
+  }
+
+  @Test
+  public void testXPath_UsesCache() throws Exception {
+    Document d = XmlHelper.createDocument(XML, DocumentBuilderFactoryBuilder.newInstance());
+    for (int i = 0; i < 10; i++) {
+      XPath xpath = new XPath();
+      assertEquals("one", xpath.selectSingleTextItem(d, "/root/test"));
+      assertEquals(2, xpath.selectNodeList(d, "/root/test").getLength());
+    }
+    assertEquals(2, XPathCache.misses());
+    assertEquals(18, XPathCache.hits());
+    assertTrue(XPathCache.compileTimeMs() >= 0);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.logging.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed size array backed storage which overwrites the oldest element when full.
+ * <p>
+ * Not thread-safe, external synchronization is required.
+ * </p>
+ */
+final class CircularBuffer<K> {
+
+  private final Object[] elements;
+  private int start = 0;
+  private int size = 0;
+
+  CircularBuffer(int capacity) {
+    elements = new Object[Math.max(1, capacity)];
+  }
+
+  void add(K k) {
+    if (size < elements.length) {
+      elements[physical(size++)] = k;
+    }
+    else {
+      elements[start] = k;
+      start = (start + 1) % elements.length;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  K get(int index) {
+    return (K) elements[physical(index)];
+  }
+
+  K remove(int index) {
+    K result = get(index);
+    for (int i = index; i < size - 1; i++) {
+      elements[physical(i)] = elements[physical(i + 1)];
+    }
+    elements[physical(--size)] = null;
+    return result;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      elements[physical(i)] = null;
+    }
+    start = 0;
+    size = 0;
+  }
+
+  /**
+   * @return a copy of the contents, oldest first.
+   */
+  List<K> toList() {
+    List<K> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(get(i));
+    }
+    return result;
+  }
+
+  private int physical(int index) {
+    return (start + index) % elements.length;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.logging.jmx;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer.
+ * <p>
+ * Each slot has a sequence number which tells producers and consumers whether it is free to write to, or ready to be read from, so
+ * neither {@link #offer(Object)} nor {@link #poll()} ever block or allocate; if the buffer is full then {@link #offer(Object)} simply
+ * returns false.
+ * </p>
+ */
+final class EventRingBuffer<E> {
+
+  private final int mask;
+  private final AtomicReferenceArray<E> buffer;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Create a new ring buffer.
+   *
+   * @param size the requested size which will be rounded up to the next power of 2.
+   */
+  EventRingBuffer(int size) {
+    int capacity = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+    mask = capacity - 1;
+    buffer = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Add an element.
+   *
+   * @param e the element
+   * @return true if it was added, false if the buffer is full.
+   */
+  boolean offer(E e) {
+    long pos = tail.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long available = sequences.get(index) - pos;
+      if (available == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          buffer.lazySet(index, e);
+          // volatile write publishes the element to the consumer.
+          sequences.set(index, pos + 1);
+          return true;
+        }
+      }
+      else if (available < 0) {
+        return false;
+      }
+      pos = tail.get();
+    }
+  }
+
+  /**
+   * Remove an element.
+   *
+   * @return the element or null if the buffer is empty.
+   */
+  E poll() {
+    long pos = head.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long available = sequences.get(index) - (pos + 1);
+      if (available == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          E result = buffer.get(index);
+          buffer.lazySet(index, null);
+          // Free up the slot for the next time round.
+          sequences.set(index, pos + mask + 1);
+          return result;
+        }
+      }
+      else if (available < 0) {
+        return null;
+      }
+      pos = head.get();
+    }
+  }
+
+  /**
+   * Remove up to {@code batch.length} elements into the batch.
+   *
+   * @param batch the array to hold the elements
+   * @return the number of elements removed.
+   */
+  int drainTo(E[] batch) {
+    int count = 0;
+    E e = null;
+    while (count < batch.length && (e = poll()) != null) {
+      batch[count++] = e;
+    }
+    return count;
+  }
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
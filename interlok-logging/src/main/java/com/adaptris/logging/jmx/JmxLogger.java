@@ -16,9 +16,9 @@
 
 package com.adaptris.logging.jmx;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
@@ -26,13 +26,58 @@ import javax.management.MBeanRegistrationException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 
-
+/**
+ * Publishes {@link JmxLoggingEvent} instances to JMX.
+ * <p>
+ * Events are added to a bounded lock-free ring buffer on the logging thread, and a single consumer thread publishes them in batches.
+ * If the ring buffer is full (i.e. the consumer cannot keep up) then the configured {@link OverflowPolicy} decides whether events
+ * are discarded or the logging thread waits; the number of discarded events is available via
+ * {@link JmxLoggingNotificationMBean#droppedEventCount()}. When stopped, any events still in the ring buffer are published before
+ * the consumer thread exits (waiting up to {@value #SHUTDOWN_TIMEOUT_MS} milliseconds).
+ * </p>
+ */
 public class JmxLogger {
 
+  /**
+   * The default size of the ring buffer.
+   *
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+  private static final int BATCH_SIZE = 256;
+  private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final int DISCARD_OLDEST_ATTEMPTS = 3;
+  private static final long BLOCK_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  static final long SHUTDOWN_TIMEOUT_MS = 10000L;
+
+  /**
+   * What to do when the ring buffer is full.
+   *
+   */
+  public enum OverflowPolicy {
+    /**
+     * Discard the event being logged.
+     *
+     */
+    DISCARD_NEWEST,
+    /**
+     * Discard the oldest event that has not yet been published to make room for the event being logged.
+     *
+     */
+    DISCARD_OLDEST,
+    /**
+     * Wait for the consumer to make room; the event is only discarded if the logger is stopped while waiting.
+     *
+     */
+    BLOCK;
+  }
+
   private JmxLoggingNotification notifier;
-  private PriorityBlockingQueue<JmxLoggingEvent> queue = new PriorityBlockingQueue<JmxLoggingEvent>(128);
-  private ExecutorService queueConsumer;
-  private ExecutorService queueProducer;
+  private final int bufferSize;
+  private final OverflowPolicy overflowPolicy;
+  private EventRingBuffer<JmxLoggingEvent> queue;
+  private volatile Thread queueConsumer;
+  private volatile boolean consumerWaiting;
   private ObjectName loggerObjectName;
   private volatile boolean started;
 
@@ -41,22 +86,33 @@ public class JmxLogger {
   }
 
   public JmxLogger(ObjectName objName, int lines, int errors) {
+    this(objName, lines, errors, DEFAULT_BUFFER_SIZE, OverflowPolicy.DISCARD_NEWEST);
+  }
+
+  public JmxLogger(ObjectName objName, int lines, int errors, int bufferSize, OverflowPolicy policy) {
     loggerObjectName = objName;
     notifier = new JmxLoggingNotification(lines, errors);
+    this.bufferSize = bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE;
+    overflowPolicy = policy != null ? policy : OverflowPolicy.DISCARD_NEWEST;
   }
 
   public synchronized void start() throws InstanceAlreadyExistsException, MBeanRegistrationException, NotCompliantMBeanException, InstanceNotFoundException {
-    queueProducer = Executors.newCachedThreadPool();
-    setupQueueConsumer();
-    JmxLoggerRegistry.registerJmxLogger(loggerObjectName, this, notifier);
+    queue = new EventRingBuffer<>(bufferSize);
     started = true;
+    setupQueueConsumer();
+    try {
+      JmxLoggerRegistry.registerJmxLogger(loggerObjectName, this, notifier);
+    }
+    catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException
+        | InstanceNotFoundException e) {
+      stopConsumer();
+      throw e;
+    }
   }
 
   public synchronized void stop() throws MBeanRegistrationException, InstanceNotFoundException {
-    queueProducer.shutdownNow();
-    queueConsumer.shutdownNow();
+    stopConsumer();
     JmxLoggerRegistry.unregisterJmxLogger(loggerObjectName, this);
-    started = false;
   }
 
   public boolean isStarted() {
@@ -67,29 +123,102 @@ public class JmxLogger {
     if (!isStarted()) {
       return;
     }
-    queueProducer.execute(new Runnable() {
-      @Override
-      public void run() {
-        queue.put(event);
+    if (enqueue(event)) {
+      if (consumerWaiting) {
+        LockSupport.unpark(queueConsumer);
+      }
+    }
+    else {
+      notifier.eventDropped();
+    }
+  }
+
+  private boolean enqueue(JmxLoggingEvent event) {
+    if (queue.offer(event)) {
+      return true;
+    }
+    if (overflowPolicy == OverflowPolicy.BLOCK) {
+      while (isStarted()) {
+        LockSupport.unpark(queueConsumer);
+        LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+        if (queue.offer(event)) {
+          return true;
+        }
       }
-    });
+    }
+    else if (overflowPolicy == OverflowPolicy.DISCARD_OLDEST) {
+      for (int i = 0; i < DISCARD_OLDEST_ATTEMPTS; i++) {
+        if (queue.poll() != null) {
+          notifier.eventDropped();
+        }
+        if (queue.offer(event)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   private void setupQueueConsumer() {
-    queueConsumer = Executors.newSingleThreadExecutor();
-    queueConsumer.execute(new Runnable() {
+    queueConsumer = new Thread(new Runnable() {
       @Override
       public void run() {
-        try {
-          while (true) {
-            JmxLoggingEvent event = queue.take();
-            notifier.handle(event);
+        JmxLoggingEvent[] batch = new JmxLoggingEvent[BATCH_SIZE];
+        // Keep going until stopped and everything already queued has been published.
+        while (true) {
+          boolean running = started;
+          int count = queue.drainTo(batch);
+          if (count > 0) {
+            publish(batch, count);
+          }
+          else if (running) {
+            waitForEvents();
+          }
+          else {
+            break;
           }
-        } catch (InterruptedException ex) {
-          Thread.currentThread().interrupt();
         }
       }
-    });
+    }, "JmxLogger-" + loggerObjectName);
+    queueConsumer.setDaemon(true);
+    queueConsumer.start();
+  }
+
+  private void publish(JmxLoggingEvent[] batch, int count) {
+    try {
+      notifier.handle(batch, count);
+    } catch (RuntimeException e) {
+      // Nothing sensible we can do (logging it would be circular), but don't let it kill the consumer.
+    } finally {
+      Arrays.fill(batch, 0, count, null);
+    }
   }
-}
 
+  private void waitForEvents() {
+    consumerWaiting = true;
+    // Re-check after flagging, so that we don't miss the unpark from a producer.
+    if (queue.isEmpty()) {
+      LockSupport.parkNanos(this, MAX_IDLE_NANOS);
+    }
+    consumerWaiting = false;
+  }
+
+  private void stopConsumer() {
+    started = false;
+    Thread consumer = queueConsumer;
+    queueConsumer = null;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+      try {
+        consumer.join(SHUTDOWN_TIMEOUT_MS);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  JmxLoggingNotification notifier() {
+    return notifier;
+  }
+}
@@ -18,23 +18,21 @@ package com.adaptris.logging.jmx;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.management.NotificationBroadcasterSupport;
 
 class JmxLoggingNotification extends NotificationBroadcasterSupport implements JmxLoggingNotificationMBean {
 
-  private List<List<String>> errorLogs;
-  private FixedSizeList<String> currentLog;
-  private int linesOfContext;
-  private int errors;
+  private CircularBuffer<List<String>> errorLogs;
+  private CircularBuffer<String> currentLog;
+  private final LongAdder processed = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
 
   JmxLoggingNotification(int lines, int errors) {
-    this.errors = errors;
-    linesOfContext = lines;
-    errorLogs = Collections.synchronizedList(new FixedSizeList<List<String>>(errors));
-    currentLog = new FixedSizeList<>(linesOfContext);
+    errorLogs = new CircularBuffer<>(errors);
+    currentLog = new CircularBuffer<>(lines);
   }
 
   private void sendNotification(JmxLoggingEvent event) {
@@ -43,52 +41,78 @@ class JmxLoggingNotification extends NotificationBroadcasterSupport implements J
 
   public void handle(JmxLoggingEvent event) {
     sendNotification(event);
+    synchronized (errorLogs) {
+      store(event);
+    }
+    processed.increment();
+  }
+
+  /**
+   * Handle a batch of events.
+   *
+   * @param events the events
+   * @param count the number of events in the array.
+   */
+  void handle(JmxLoggingEvent[] events, int count) {
+    for (int i = 0; i < count; i++) {
+      sendNotification(events[i]);
+    }
+    synchronized (errorLogs) {
+      for (int i = 0; i < count; i++) {
+        store(events[i]);
+      }
+    }
+    processed.add(count);
+  }
+
+  void eventDropped() {
+    dropped.increment();
+  }
+
+  private void store(JmxLoggingEvent event) {
     currentLog.add(event.getMessage());
     LoggingLevel level = LoggingLevel.getLevel(event.getLevel());
-    if (level.compareTo(LoggingLevel.ERROR) >=0) {
+    if (level.compareTo(LoggingLevel.ERROR) >= 0) {
       // It's an error, let's store the current logging into the error logs buffer.
-      // and swap things up.
-      errorLogs.add(currentLog);
-      currentLog = new FixedSizeList<>(linesOfContext);
+      errorLogs.add(currentLog.toList());
+      currentLog.clear();
     }
   }
 
   @Override
   public List<String> getErrorLog(int index) {
-    if (index >= errorLogs.size() || errorLogs.isEmpty()) {
-      return Collections.emptyList();
+    synchronized (errorLogs) {
+      if (index < 0 || index >= errorLogs.size()) {
+        return Collections.emptyList();
+      }
+      return new ArrayList<>(errorLogs.get(index));
     }
-    return new ArrayList<>(errorLogs.get(index));
   }
 
   @Override
   public int errorCount() {
-    return errorLogs.size();
+    synchronized (errorLogs) {
+      return errorLogs.size();
+    }
   }
 
   @Override
   public List<String> remove(int index) {
-    if (index >= errorLogs.size() || errorLogs.isEmpty()) {
-      return Collections.emptyList();
+    synchronized (errorLogs) {
+      if (index < 0 || index >= errorLogs.size()) {
+        return Collections.emptyList();
+      }
+      return errorLogs.remove(index);
     }
-    return new ArrayList<>(errorLogs.remove(index));
   }
 
-  private class FixedSizeList<K> extends LinkedList<K> {
-    private int maxSize;
-
-    public FixedSizeList(int size) {
-      this.maxSize = size;
-    }
+  @Override
+  public long processedEventCount() {
+    return processed.sum();
+  }
 
-    @Override
-    public boolean add(K k) {
-      boolean added = super.add(k);
-      while (size() > maxSize) {
-        super.remove();
-      }
-      return added;
-    }
+  @Override
+  public long droppedEventCount() {
+    return dropped.sum();
   }
 }
-
@@ -53,4 +53,20 @@ public interface JmxLoggingNotificationMBean {
    * @return the list of strings that was removed or {@link Collections#EMPTY_LIST} if the index was not valid
    */
   List<String> remove(int index);
+
+  /**
+   * Return the number of logging events that have been published.
+   *
+   * @return the number of events.
+   * @since 3.8.4
+   */
+  long processedEventCount();
+
+  /**
+   * Return the number of logging events that have been discarded because the internal buffer was full.
+   *
+   * @return the number of events.
+   * @since 3.8.4
+   */
+  long droppedEventCount();
 }
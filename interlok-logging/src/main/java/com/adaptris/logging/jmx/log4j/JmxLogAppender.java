@@ -15,10 +15,6 @@
  */
 package com.adaptris.logging.jmx.log4j;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 
@@ -34,43 +30,53 @@ import org.apache.logging.log4j.core.layout.AbstractStringLayout;
 import org.apache.logging.log4j.core.layout.PatternLayout;
 
 import com.adaptris.logging.jmx.JmxLogger;
+import com.adaptris.logging.jmx.JmxLogger.OverflowPolicy;
 import com.adaptris.logging.jmx.JmxLoggingEvent;
 import com.adaptris.logging.jmx.JmxLoggingNotificationMBean;
 
 @Plugin(name = "JmxLogAppender", category = "Core", elementType = "appender", printObject = true)
 public final class JmxLogAppender extends AbstractAppender {
 
-  private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
-  private final Lock readLock = rwLock.readLock();
   private ObjectName objectName;
-  private JmxLogger logger;
+  private volatile JmxLogger logger;
   private int linesOfContext = JmxLoggingNotificationMBean.DEFAULT_LOGMSG_COUNT;
   private int errors = JmxLoggingNotificationMBean.DEFAULT_MAX_ERRORS_COUNT;
+  private int bufferSize = JmxLogger.DEFAULT_BUFFER_SIZE;
+  private OverflowPolicy overflowPolicy = OverflowPolicy.DISCARD_NEWEST;
 
   protected JmxLogAppender(String name, Filter filter, AbstractStringLayout layout, final boolean ignoreExceptions, int lines,
       int errs) {
+    this(name, filter, layout, ignoreExceptions, lines, errs, 0, null);
+  }
+
+  protected JmxLogAppender(String name, Filter filter, AbstractStringLayout layout, final boolean ignoreExceptions, int lines,
+      int errs, int bufferSize, OverflowPolicy policy) {
     super(name, filter, layout, ignoreExceptions);
     this.linesOfContext = lines != 0 ? lines : JmxLoggingNotificationMBean.DEFAULT_LOGMSG_COUNT;
     this.errors = errs != 0 ? errs : JmxLoggingNotificationMBean.DEFAULT_MAX_ERRORS_COUNT;
+    this.bufferSize = bufferSize > 0 ? bufferSize : JmxLogger.DEFAULT_BUFFER_SIZE;
+    this.overflowPolicy = policy != null ? policy : OverflowPolicy.DISCARD_NEWEST;
   }
 
   @Override
   public void append(LogEvent event) {
-    readLock.lock();
+    JmxLogger current = logger;
+    if (current == null || !current.isStarted()) {
+      return;
+    }
     try {
-      logger.log(wrap(event));
+      current.log(wrap(event));
     } catch (Exception ex) {
       if (!ignoreExceptions()) {
         throw new AppenderLoggingException(ex);
       }
-    } finally {
-      readLock.unlock();
     }
   }
 
   @PluginFactory
   public static JmxLogAppender createAppender(@PluginAttribute("name") String name, @PluginAttribute("lines") int lines,
-      @PluginAttribute("errors") int errors, @PluginElement("Layout") AbstractStringLayout layout,
+      @PluginAttribute("errors") int errors, @PluginAttribute("bufferSize") int bufferSize,
+      @PluginAttribute("overflowPolicy") String overflowPolicy, @PluginElement("Layout") AbstractStringLayout layout,
       @PluginElement("Filter") final Filter filter) {
     if (name == null) {
       LOGGER.error("No name provided for JmxLogAppender");
@@ -79,7 +85,19 @@ public final class JmxLogAppender extends AbstractAppender {
     if (layout == null) {
       layout = PatternLayout.createDefaultLayout();
     }
-    return new JmxLogAppender(name, filter, layout, true, lines, errors);
+    return new JmxLogAppender(name, filter, layout, true, lines, errors, bufferSize, overflowPolicy(overflowPolicy));
+  }
+
+  private static OverflowPolicy overflowPolicy(String s) {
+    if (s == null || s.trim().isEmpty()) {
+      return OverflowPolicy.DISCARD_NEWEST;
+    }
+    try {
+      return OverflowPolicy.valueOf(s.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Unknown overflowPolicy [{}] for JmxLogAppender, using {}", s, OverflowPolicy.DISCARD_NEWEST);
+      return OverflowPolicy.DISCARD_NEWEST;
+    }
   }
 
   private ObjectName buildObjectName() throws MalformedObjectNameException {
@@ -102,10 +120,9 @@ public final class JmxLogAppender extends AbstractAppender {
   public void start() {
     try {
       objectName = buildObjectName();
-      logger = new JmxLogger(objectName, linesOfContext, errors);
-      if (!logger.isStarted()) {
-        logger.start();
-      }
+      JmxLogger jmxLogger = new JmxLogger(objectName, linesOfContext, errors, bufferSize, overflowPolicy);
+      jmxLogger.start();
+      logger = jmxLogger;
     } catch (Exception ignore) {
       //
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.logging.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CircularBufferTest {
+
+  @Test
+  public void testAdd() {
+    CircularBuffer<String> buffer = new CircularBuffer<>(3);
+    assertTrue(buffer.isEmpty());
+    buffer.add("a");
+    buffer.add("b");
+    assertEquals(Arrays.asList("a", "b"), buffer.toList());
+    buffer.add("c");
+    buffer.add("d");
+    buffer.add("e");
+    assertEquals(3, buffer.size());
+    assertEquals(Arrays.asList("c", "d", "e"), buffer.toList());
+    assertEquals("c", buffer.get(0));
+    assertEquals("e", buffer.get(2));
+  }
+
+  @Test
+  public void testZeroCapacity() {
+    CircularBuffer<String> buffer = new CircularBuffer<>(0);
+    buffer.add("a");
+    buffer.add("b");
+    assertEquals(Arrays.asList("b"), buffer.toList());
+  }
+
+  @Test
+  public void testRemove() {
+    CircularBuffer<String> buffer = new CircularBuffer<>(4);
+    for (String s : new String[] {"a", "b", "c", "d", "e", "f"}) {
+      buffer.add(s);
+    }
+    // Wrapped, so the oldest element isn't at physical index 0.
+    assertEquals(Arrays.asList("c", "d", "e", "f"), buffer.toList());
+    assertEquals("d", buffer.remove(1));
+    assertEquals(Arrays.asList("c", "e", "f"), buffer.toList());
+    assertEquals("f", buffer.remove(2));
+    assertEquals("c", buffer.remove(0));
+    assertEquals(Arrays.asList("e"), buffer.toList());
+    buffer.add("g");
+    buffer.add("h");
+    buffer.add("i");
+    buffer.add("j");
+    assertEquals(Arrays.asList("g", "h", "i", "j"), buffer.toList());
+    assertEquals("g", buffer.remove(0));
+    assertEquals(Arrays.asList("h", "i", "j"), buffer.toList());
+  }
+
+  @Test
+  public void testClear() {
+    CircularBuffer<String> buffer = new CircularBuffer<>(2);
+    buffer.add("a");
+    buffer.add("b");
+    buffer.add("c");
+    buffer.clear();
+    assertTrue(buffer.isEmpty());
+    assertEquals(0, buffer.toList().size());
+    buffer.add("d");
+    assertEquals(Arrays.asList("d"), buffer.toList());
+  }
+}
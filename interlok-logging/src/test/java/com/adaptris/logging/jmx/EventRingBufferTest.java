@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.logging.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class EventRingBufferTest {
+
+  @Test
+  public void testCapacity() {
+    assertEquals(2, new EventRingBuffer<String>(0).capacity());
+    assertEquals(2, new EventRingBuffer<String>(2).capacity());
+    assertEquals(8, new EventRingBuffer<String>(5).capacity());
+    assertEquals(4096, new EventRingBuffer<String>(4096).capacity());
+  }
+
+  @Test
+  public void testOfferPoll() {
+    EventRingBuffer<String> buffer = new EventRingBuffer<>(4);
+    assertTrue(buffer.isEmpty());
+    assertNull(buffer.poll());
+    for (int i = 0; i < 4; i++) {
+      assertTrue(buffer.offer("" + i));
+    }
+    assertFalse(buffer.offer("4"));
+    assertEquals(4, buffer.size());
+    assertEquals("0", buffer.poll());
+    assertTrue(buffer.offer("4"));
+    for (int i = 1; i <= 4; i++) {
+      assertEquals("" + i, buffer.poll());
+    }
+    assertNull(buffer.poll());
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void testDrainTo() {
+    EventRingBuffer<String> buffer = new EventRingBuffer<>(8);
+    for (int i = 0; i < 5; i++) {
+      buffer.offer("" + i);
+    }
+    String[] batch = new String[3];
+    assertEquals(3, buffer.drainTo(batch));
+    assertEquals("0", batch[0]);
+    assertEquals("2", batch[2]);
+    assertEquals(2, buffer.drainTo(batch));
+    assertEquals("3", batch[0]);
+    assertEquals("4", batch[1]);
+    assertEquals(0, buffer.drainTo(batch));
+  }
+
+  @Test
+  public void testConcurrentOfferPoll() throws Exception {
+    final int producers = 4;
+    final int consumers = 3;
+    final int perProducer = 10000;
+    final EventRingBuffer<Integer> buffer = new EventRingBuffer<>(64);
+    final AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+    final AtomicInteger consumed = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+    try {
+      for (int p = 0; p < producers; p++) {
+        final int base = p * perProducer;
+        executor.execute(() -> {
+          await(start);
+          for (int i = 0; i < perProducer; i++) {
+            while (!buffer.offer(base + i)) {
+              Thread.yield();
+            }
+          }
+        });
+      }
+      for (int c = 0; c < consumers; c++) {
+        executor.execute(() -> {
+          await(start);
+          Integer[] batch = new Integer[16];
+          while (consumed.get() < producers * perProducer) {
+            int count = buffer.drainTo(batch);
+            for (int i = 0; i < count; i++) {
+              seen.incrementAndGet(batch[i]);
+            }
+            if (consumed.addAndGet(count) == 0) {
+              Thread.yield();
+            }
+          }
+        });
+      }
+      start.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    assertEquals(producers * perProducer, consumed.get());
+    for (int i = 0; i < seen.length(); i++) {
+      assertEquals("event " + i, 1, seen.get(i));
+    }
+    assertTrue(buffer.isEmpty());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+
+package com.adaptris.logging.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import com.adaptris.logging.jmx.JmxLogger.OverflowPolicy;
+
+public class JmxLoggerTest {
+
+  @Rule
+  public TestName testName = new TestName();
+
+  @Test
+  public void testOverflow_DiscardNewest() throws Exception {
+    JmxLogger logger = createLogger(2, OverflowPolicy.DISCARD_NEWEST);
+    BlockingListener listener = new BlockingListener(logger);
+    try {
+      fillBuffer(logger, listener);
+      logger.log(event("3", "INFO"));
+      assertEquals(1, logger.notifier().droppedEventCount());
+      listener.release();
+      waitFor(() -> logger.notifier().processedEventCount() == 3);
+      assertEquals(Arrays.asList("0", "1", "2"), listener.messages());
+    }
+    finally {
+      listener.release();
+      logger.stop();
+    }
+  }
+
+  @Test
+  public void testOverflow_DiscardOldest() throws Exception {
+    JmxLogger logger = createLogger(2, OverflowPolicy.DISCARD_OLDEST);
+    BlockingListener listener = new BlockingListener(logger);
+    try {
+      fillBuffer(logger, listener);
+      logger.log(event("3", "INFO"));
+      assertEquals(1, logger.notifier().droppedEventCount());
+      listener.release();
+      waitFor(() -> logger.notifier().processedEventCount() == 3);
+      assertEquals(Arrays.asList("0", "2", "3"), listener.messages());
+    }
+    finally {
+      listener.release();
+      logger.stop();
+    }
+  }
+
+  @Test
+  public void testOverflow_Block() throws Exception {
+    JmxLogger logger = createLogger(2, OverflowPolicy.BLOCK);
+    BlockingListener listener = new BlockingListener(logger);
+    try {
+      fillBuffer(logger, listener);
+      Thread blocked = new Thread(() -> logger.log(event("3", "INFO")));
+      blocked.start();
+      blocked.join(200);
+      assertTrue(blocked.isAlive());
+      listener.release();
+      blocked.join(10000);
+      assertFalse(blocked.isAlive());
+      waitFor(() -> logger.notifier().processedEventCount() == 4);
+      assertEquals(0, logger.notifier().droppedEventCount());
+      assertEquals(Arrays.asList("0", "1", "2", "3"), listener.messages());
+    }
+    finally {
+      listener.release();
+      logger.stop();
+    }
+  }
+
+  @Test
+  public void testOverflow_Block_Stopped() throws Exception {
+    JmxLogger logger = createLogger(2, OverflowPolicy.BLOCK);
+    BlockingListener listener = new BlockingListener(logger);
+    try {
+      fillBuffer(logger, listener);
+      Thread blocked = new Thread(() -> logger.log(event("3", "INFO")));
+      blocked.start();
+      blocked.join(200);
+      assertTrue(blocked.isAlive());
+      Thread stopper = new Thread(() -> {
+        try {
+          logger.stop();
+        }
+        catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      stopper.start();
+      // Stopping releases the blocked thread, which discards the event.
+      blocked.join(10000);
+      assertFalse(blocked.isAlive());
+      assertEquals(1, logger.notifier().droppedEventCount());
+      listener.release();
+      stopper.join(10000);
+      assertEquals(3, logger.notifier().processedEventCount());
+    }
+    finally {
+      listener.release();
+    }
+  }
+
+  @Test
+  public void testStop_PublishesQueuedEvents() throws Exception {
+    JmxLogger logger = createLogger(1024, OverflowPolicy.DISCARD_NEWEST);
+    BlockingListener listener = new BlockingListener(logger);
+    logger.log(event("0", "INFO"));
+    listener.awaitEntered();
+    for (int i = 1; i <= 100; i++) {
+      logger.log(event("" + i, "INFO"));
+    }
+    Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(200);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      listener.release();
+    });
+    releaser.start();
+    logger.stop();
+    assertFalse(logger.isStarted());
+    assertEquals(101, logger.notifier().processedEventCount());
+    assertEquals(101, listener.messages().size());
+    // Events logged after stopping are ignored.
+    logger.log(event("101", "INFO"));
+    assertEquals(101, logger.notifier().processedEventCount());
+  }
+
+  @Test
+  public void testBatches() throws Exception {
+    JmxLogger logger = createLogger(4096, OverflowPolicy.DISCARD_NEWEST);
+    BlockingListener listener = new BlockingListener(logger);
+    try {
+      logger.log(event("0", "INFO"));
+      listener.awaitEntered();
+      // More than a single batch's worth.
+      for (int i = 1; i < 1000; i++) {
+        logger.log(event("" + i, "INFO"));
+      }
+      logger.log(event("1000", "ERROR"));
+      listener.release();
+      waitFor(() -> logger.notifier().processedEventCount() == 1001);
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i <= 1000; i++) {
+        expected.add("" + i);
+      }
+      assertEquals(expected, listener.messages());
+      assertEquals(0, logger.notifier().droppedEventCount());
+      assertEquals(1, logger.notifier().errorCount());
+      assertEquals(Arrays.asList("996", "997", "998", "999", "1000"), logger.notifier().getErrorLog(0));
+      assertEquals(Arrays.asList("996", "997", "998", "999", "1000"), logger.notifier().remove(0));
+      assertEquals(0, logger.notifier().errorCount());
+    }
+    finally {
+      listener.release();
+      logger.stop();
+    }
+  }
+
+  private JmxLogger createLogger(int bufferSize, OverflowPolicy policy) throws Exception {
+    ObjectName name = new ObjectName(String.format(JmxLoggingEvent.OBJECT_NAME_STR, testName.getMethodName()));
+    JmxLogger logger = new JmxLogger(name, 5, 5, bufferSize, policy);
+    logger.start();
+    return logger;
+  }
+
+  // The consumer is stuck publishing "0", so the ring buffer (capacity 2) is then filled by "1" and "2".
+  private static void fillBuffer(JmxLogger logger, BlockingListener listener) throws Exception {
+    logger.log(event("0", "INFO"));
+    listener.awaitEntered();
+    logger.log(event("1", "INFO"));
+    logger.log(event("2", "INFO"));
+    assertEquals(0, logger.notifier().droppedEventCount());
+  }
+
+  private static JmxLoggingEvent event(String message, String level) {
+    JmxLoggingEvent event = new JmxLoggingEvent();
+    event.setMessage(message);
+    event.setLevel(level);
+    event.setEventType(level);
+    event.setSource(JmxLoggerTest.class.getSimpleName());
+    event.setTimestamp(System.currentTimeMillis());
+    return event;
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+
+  // Blocks the consumer thread on the first notification until released.
+  private static class BlockingListener implements NotificationListener {
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<String> messages = new ArrayList<>();
+
+    BlockingListener(JmxLogger logger) {
+      logger.notifier().addNotificationListener(this, null, null);
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+      synchronized (messages) {
+        messages.add(notification.getMessage());
+      }
+      entered.countDown();
+      try {
+        released.await();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    void awaitEntered() throws InterruptedException {
+      assertTrue(entered.await(10, TimeUnit.SECONDS));
+    }
+
+    void release() {
+      released.countDown();
+    }
+
+    List<String> messages() {
+      synchronized (messages) {
+        return new ArrayList<>(messages);
+      }
+    }
+  }
+}